@@ -0,0 +1,160 @@
+package com.maroctelecom.benchmarks;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Génération multi-thread de fichiers de contrats synthétiques de taille arbitraire
+ * Le fichier est découpé en blocs de BLOCK_ROWS lignes générés en parallèle, chacun avec sa propre graine
+ * dérivée de seed, puis écrits dans l'ordre: le contenu ne dépend que de seed, pas du nombre de threads.
+ * Au plus deux blocs par thread sont en mémoire
+ *
+ * Usage: --output=FICHIER --rows=N [--threads=0] [--seed=42] [--error-rate=0.05]
+ *        [--corruptions=PHONE,REGION,NEGATIVE_AMOUNT,DATE_ORDER,UNPARSABLE_AMOUNT,UNPARSABLE_DATE]
+ */
+@Slf4j
+public class ContractFileGenerator {
+    
+    static final int BLOCK_ROWS = 50_000;
+    
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+    
+    private final long rows;
+    private final int threads;
+    private final long seed;
+    private final double errorRate;
+    private final Set<SyntheticContracts.Corruption> corruptions;
+    
+    public ContractFileGenerator(long rows, int threads, long seed, double errorRate,
+                                 Set<SyntheticContracts.Corruption> corruptions) {
+        this.rows = rows;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.seed = seed;
+        this.errorRate = errorRate;
+        this.corruptions = corruptions;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String output = options.get("output");
+        if (output == null || !options.containsKey("rows")) {
+            throw new IllegalArgumentException("Usage: --output=FICHIER --rows=N [--threads=0] [--seed=42] "
+                    + "[--error-rate=0.05] [--corruptions=" + SyntheticContracts.Corruption.ALL + "]");
+        }
+        
+        new ContractFileGenerator(
+            Long.parseLong(options.get("rows")),
+            Integer.parseInt(options.getOrDefault("threads", "0")),
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            Double.parseDouble(options.getOrDefault("error-rate", "0.05")),
+            parseCorruptions(options.get("corruptions"))
+        ).generate(Paths.get(output));
+    }
+    
+    /**
+     * Écrit le fichier (en-tête compris) et retourne sa taille en octets
+     */
+    public long generate(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        
+        long startNanos = System.nanoTime();
+        long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "contract-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        try (OutputStream out = Files.newOutputStream(output)) {
+            String header = String.join(",", new SyntheticContracts(seed, 0).headers()) + "\n";
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            
+            // Fenêtre glissante: les blocs sont soumis en avance et écrits dans l'ordre
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            long nextBlock = 0;
+            long written = 0;
+            while (written < blocks) {
+                while (nextBlock < blocks && pending.size() < threads * 2) {
+                    long block = nextBlock++;
+                    pending.add(executor.submit(() -> generateBlock(block)));
+                }
+                out.write(pending.poll().get());
+                written++;
+                
+                if (written % 20 == 0) {
+                    log.info("Généré {} contrats...", Math.min(written * BLOCK_ROWS, rows));
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Échec de la génération de " + output, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        long size = Files.size(output);
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.info("Génération terminée: {} contrats dans {} ({} Mo) en {}ms avec {} threads ({} lignes/sec)",
+                rows, output, size / (1024 * 1024), elapsedMs, threads, rows * 1000 / elapsedMs);
+        return size;
+    }
+    
+    private byte[] generateBlock(long block) {
+        long firstId = block * BLOCK_ROWS + 1;
+        long count = Math.min(BLOCK_ROWS, rows - block * BLOCK_ROWS);
+        SyntheticContracts generator = new SyntheticContracts(seed + block * SEED_STRIDE, errorRate, corruptions)
+            .startingAt(firstId);
+        return generator.appendRows(new StringBuilder((int) count * 192), count)
+            .toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Options --clé=valeur de la ligne de commande; une option sans valeur (--option) vaut true
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                throw new IllegalArgumentException("Option invalide: " + arg + " (attendu --clé=valeur ou --option)");
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+    
+    static Set<SyntheticContracts.Corruption> parseCorruptions(String value) {
+        if (value == null || value.isBlank()) {
+            return SyntheticContracts.Corruption.ALL;
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .map(name -> SyntheticContracts.Corruption.valueOf(name.toUpperCase()))
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(SyntheticContracts.Corruption.class)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,609 @@
+package com.maroctelecom.benchmarks;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.transport.PartitionTaskTransport;
+import com.maroctelecom.taskmaster.application.TaskMasterApplication;
+import com.maroctelecom.taskmaster.listener.ResultListener;
+import com.maroctelecom.taskmaster.listener.StripedResultCounters;
+import com.maroctelecom.taskmaster.partitioner.FilePartitioner;
+import com.maroctelecom.taskmaster.service.DatasetManifestWriter;
+import com.maroctelecom.taskmaster.service.PartitionRescheduler;
+import com.maroctelecom.worker.application.WorkerNodeApplication;
+import com.maroctelecom.worker.listener.PartitionTaskListener;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Harnais de débit de bout en bout: broker Kafka embarqué, un task master et N workers dans la JVM courante
+ * Le fichier d'entrée est généré (ou fourni), partitionné et envoyé comme par le lanceur local, mais les
+ * tâches et résultats passent par Kafka. Chaque exécution rapporte la durée du job, le débit en lignes/sec,
+ * le déséquilibre entre partitions et entre workers, et la latence de chaque partition (envoi de la tâche
+ * jusqu'à la réception de son résultat). Les workers partagent les cœurs de la machine: les chiffres
+ * comparent des versions ou des réglages entre eux, pas un cluster réel
+ * Les options de comparaison exécutent plusieurs séries sur le même broker et le même fichier, task master
+ * et workers étant redémarrés entre deux séries; un tableau final compare débits et latences médians
+ *
+ * Usage: [--input=FICHIER | --rows=1000000 --error-rate=0.05 --seed=42] [--workers=2] [--worker-threads=0]
+ *        [--grid-size=16] [--warmup-runs=1] [--runs=3] [--wire-format=json] [--timeout-seconds=600]
+ *        [--transactional] [--producer-profile=control,bulk] [--replay-results]
+ *
+ * --transactional: une série sans puis une série avec publication transactionnelle des résultats
+ * --producer-profile: une série par profil listé; control ou bulk applique ce profil à tout le trafic,
+ *                     split garde les deux profils configurés. Combinée à --transactional, chaque couple est mesuré
+ * --replay-results: après chaque exécution mesurée, les résultats du job sont republiés sur le topic des
+ *                   résultats; l'exécution échoue si le task master ne les écarte pas tous ou si ses totaux changent
+ */
+@Slf4j
+public class EndToEndHarness {
+    
+    private static final int FIRST_WORKER_PORT = 18081;
+    
+    private final Map<String, String> options;
+    private final int workerCount;
+    private final int gridSize;
+    private final long timeoutSeconds;
+    
+    private EmbeddedKafkaBroker broker;
+    private ConfigurableApplicationContext master;
+    private final List<ConfigurableApplicationContext> workers = new ArrayList<>();
+    private ResultObserver observer;
+    private ResultReplayer replayer;
+    
+    public EndToEndHarness(Map<String, String> options) {
+        this.options = options;
+        this.workerCount = Integer.parseInt(options.getOrDefault("workers", "2"));
+        this.gridSize = Integer.parseInt(options.getOrDefault("grid-size", "16"));
+        this.timeoutSeconds = Long.parseLong(options.getOrDefault("timeout-seconds", "600"));
+    }
+    
+    public static void main(String[] args) throws Exception {
+        EndToEndHarness harness = new EndToEndHarness(ContractFileGenerator.parseOptions(args));
+        try {
+            harness.run();
+        } finally {
+            harness.stop();
+        }
+        System.exit(0);
+    }
+    
+    public void run() throws Exception {
+        Path input = prepareInput();
+        startBroker();
+        
+        int warmupRuns = Integer.parseInt(options.getOrDefault("warmup-runs", "1"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        Map<Series, List<RunReport>> reportsBySeries = new LinkedHashMap<>();
+        for (Series series : series()) {
+            log.info("Série {}", series.name());
+            startApplications(series);
+            
+            List<RunReport> reports = new ArrayList<>();
+            for (int run = 1; run <= warmupRuns + runs; run++) {
+                boolean warmup = run <= warmupRuns;
+                RunReport report = runJob(input);
+                log.info("{} {}: {}", warmup ? "Préchauffage" : "Exécution", warmup ? run : run - warmupRuns, report);
+                if (!warmup) {
+                    report.logDetails();
+                    reports.add(report);
+                    if (Boolean.parseBoolean(options.getOrDefault("replay-results", "false"))) {
+                        verifyReplay(report.jobExecutionId);
+                    }
+                }
+            }
+            reportsBySeries.put(series, reports);
+            stopApplications();
+        }
+        
+        if (reportsBySeries.size() > 1) {
+            log.info("Comparaison des séries (médianes sur {} exécutions):", runs);
+            reportsBySeries.forEach((series, reports) -> log.info("  {}", RunReport.summary(series.name(), reports)));
+        }
+    }
+    
+    public void stop() throws Exception {
+        if (observer != null) {
+            observer.close();
+        }
+        stopApplications();
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+    
+    private void stopApplications() {
+        for (ConfigurableApplicationContext worker : workers) {
+            worker.close();
+        }
+        workers.clear();
+        if (master != null) {
+            master.close();
+            master = null;
+        }
+    }
+    
+    /**
+     * Un jeu de réglages mesuré: arguments ajoutés au task master et aux workers
+     */
+    record Series(String name, List<String> arguments) {
+    }
+    
+    /**
+     * Séries demandées par les options de comparaison, une seule série par défaut
+     */
+    private List<Series> series() {
+        List<Series> series = List.of(new Series("standard", List.of()));
+        if (Boolean.parseBoolean(options.getOrDefault("transactional", "false"))) {
+            series = combine(series, List.of(
+                new Series("sans transactions", List.of("--app.kafka.producer.transactional=false")),
+                new Series("transactionnel", List.of("--app.kafka.producer.transactional=true"))));
+        }
+        if (options.containsKey("producer-profile")) {
+            series = combine(series, Arrays.stream(options.get("producer-profile").split(","))
+                .map(String::trim)
+                .map(EndToEndHarness::producerProfileSeries)
+                .toList());
+        }
+        return series;
+    }
+    
+    private static List<Series> combine(List<Series> base, List<Series> variants) {
+        List<Series> combined = new ArrayList<>();
+        for (Series first : base) {
+            for (Series variant : variants) {
+                List<String> arguments = new ArrayList<>(first.arguments());
+                arguments.addAll(variant.arguments());
+                String name = first.arguments().isEmpty() ? variant.name() : first.name() + ", " + variant.name();
+                combined.add(new Series(name, arguments));
+            }
+        }
+        return combined;
+    }
+    
+    /**
+     * Tout le trafic sur un seul profil de producer: le profil choisi, tel que configuré dans harness.yml,
+     * est recopié sur l'autre classe de trafic
+     */
+    private static Series producerProfileSeries(String profile) {
+        KafkaConfig.Producer producer = harnessKafkaConfig().getProducer();
+        return switch (profile) {
+            case "split" -> new Series("profils séparés", List.of());
+            case "control" -> new Series("profil control", profileArguments("bulk", producer.getControl(), producer));
+            case "bulk" -> new Series("profil bulk", profileArguments("control", producer.getBulk(), producer));
+            default -> throw new IllegalArgumentException(
+                    "Profil de producer inconnu: " + profile + " (attendu control, bulk ou split)");
+        };
+    }
+    
+    private static List<String> profileArguments(String target, KafkaConfig.ProducerProfile profile,
+                                                 KafkaConfig.Producer defaults) {
+        String prefix = "--app.kafka.producer." + target + ".";
+        return List.of(
+            prefix + "compression-type=" + orDefault(profile.getCompressionType(), defaults.getCompressionType()),
+            prefix + "batch-size=" + orDefault(profile.getBatchSize(), defaults.getBatchSize()),
+            prefix + "linger-ms=" + orDefault(profile.getLingerMs(), defaults.getLingerMs()),
+            prefix + "max-in-flight-requests-per-connection="
+                + orDefault(profile.getMaxInFlightRequestsPerConnection(), defaults.getMaxInFlightRequestsPerConnection()),
+            prefix + "buffer-memory=" + orDefault(profile.getBufferMemory(), defaults.getBufferMemory()),
+            prefix + "acks=" + orDefault(profile.getAcks(), defaults.getAcks()));
+    }
+    
+    private static Object orDefault(Object value, Object defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Configuration Kafka commune de harness.yml (premier document, sans profil Spring)
+     */
+    private static KafkaConfig harnessKafkaConfig() {
+        try {
+            List<PropertySource<?>> documents = new YamlPropertySourceLoader()
+                .load("harness", new ClassPathResource("harness.yml"));
+            return new Binder(ConfigurationPropertySources.from(documents.get(0)))
+                .bind("app.kafka", KafkaConfig.class)
+                .orElseGet(KafkaConfig::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de harness.yml impossible", e);
+        }
+    }
+    
+    /**
+     * Fichier fourni, ou généré dans un répertoire temporaire
+     */
+    private Path prepareInput() throws Exception {
+        if (options.containsKey("input")) {
+            return Paths.get(options.get("input"));
+        }
+        Path input = Files.createTempDirectory("e2e-harness").resolve("contracts.csv");
+        input.toFile().deleteOnExit();
+        new ContractFileGenerator(
+            Long.parseLong(options.getOrDefault("rows", "1000000")),
+            0,
+            Long.parseLong(options.getOrDefault("seed", "42")),
+            Double.parseDouble(options.getOrDefault("error-rate", "0.05")),
+            ContractFileGenerator.parseCorruptions(options.get("corruptions"))
+        ).generate(input);
+        return input;
+    }
+    
+    /**
+     * Broker unique; les topics sont créés avec le nombre de partitions de la configuration, réplication 1
+     */
+    private void startBroker() {
+        broker = new EmbeddedKafkaBroker(1, false);
+        // Journal des transactions sur le broker unique (mode transactionnel des workers)
+        broker.brokerProperty("transaction.state.log.replication.factor", "1");
+        broker.brokerProperty("transaction.state.log.min.isr", "1");
+        broker.afterPropertiesSet();
+        
+        KafkaConfig.Topics topics = new KafkaConfig().getTopics();
+        NewTopic[] newTopics = {
+            newTopic(topics.getContractPartitions(), topics.getContractPartitionsConfig()),
+            newTopic(topics.getContractPartitionsUrgent(), topics.getContractPartitionsUrgentConfig()),
+            newTopic(topics.getContractPartitionsBulk(), topics.getContractPartitionsBulkConfig()),
+            newTopic(topics.getContractResults(), topics.getContractResultsConfig()),
+            newTopic(topics.getDeadLetter(), topics.getDeadLetterConfig()),
+            newTopic(topics.getMonitoring(), topics.getMonitoringConfig()),
+            newTopic(topics.getCheckpoints(), topics.getCheckpointsConfig()),
+            newTopic(topics.getWorkerAdvertisements(), topics.getWorkerAdvertisementsConfig())
+        };
+        broker.addTopics(newTopics);
+        awaitLeaders(newTopics);
+        log.info("Broker embarqué démarré sur {}", broker.getBrokersAsString());
+    }
+    
+    /**
+     * La création des topics est asynchrone: les listeners à assignation manuelle (checkpoints)
+     * exigent que toutes les partitions aient un leader au démarrage des workers
+     */
+    private void awaitLeaders(NewTopic... newTopics) {
+        Map<String, Object> props = Map.of(
+            ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+            ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class,
+            ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            for (NewTopic topic : newTopics) {
+                while (!hasLeaders(consumer.partitionsFor(topic.name()), topic.numPartitions())) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("Topic " + topic.name() + " indisponible après 30s");
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                }
+            }
+        }
+    }
+    
+    private static boolean hasLeaders(List<PartitionInfo> partitions, int expected) {
+        return partitions != null && partitions.size() == expected
+            && partitions.stream().allMatch(partition -> partition.leader() != null && !partition.leader().isEmpty());
+    }
+    
+    private static NewTopic newTopic(String name, KafkaConfig.Topics.TopicConfig config) {
+        NewTopic topic = new NewTopic(name, config.getPartitions(), (short) 1);
+        return config.getConfigs() != null ? topic.configs(config.getConfigs()) : topic;
+    }
+    
+    private void startApplications(Series series) throws InterruptedException {
+        int workerThreads = Integer.parseInt(options.getOrDefault("worker-threads", "0"));
+        if (workerThreads <= 0) {
+            workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / workerCount);
+        }
+        
+        master = new SpringApplicationBuilder(TaskMasterApplication.class)
+            .main(TaskMasterApplication.class)
+            .profiles("master")
+            .run(commonArguments(series, "--batch.job.contract-processing.grid-size=" + gridSize));
+        
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new SpringApplicationBuilder(WorkerNodeApplication.class)
+                .main(WorkerNodeApplication.class)
+                .profiles("worker")
+                .run(commonArguments(series,
+                    "--server.port=" + (FIRST_WORKER_PORT + i),
+                    "--processing.lanes.worker-threads=" + workerThreads,
+                    "--files.temp-directory=" + System.getProperty("java.io.tmpdir") + "/e2e-harness-worker-" + i)));
+        }
+        log.info("Task master et {} workers démarrés ({} threads de traitement par worker)", workerCount, workerThreads);
+        
+        awaitAssignments();
+        
+        // L'observateur, hors groupe, survit aux redémarrages entre séries
+        if (observer == null) {
+            observer = new ResultObserver(master.getBean("kafkaConfig", KafkaConfig.class));
+        }
+        replayer = new ResultReplayer(master.getBean("kafkaConfig", KafkaConfig.class));
+    }
+    
+    private String[] commonArguments(Series series, String... arguments) {
+        String wireFormat = options.getOrDefault("wire-format", "json");
+        List<String> all = new ArrayList<>(List.of(
+            "--spring.config.name=harness",
+            "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+            "--app.kafka.broker.servers=" + broker.getBrokersAsString(),
+            "--app.kafka.producer.partitions-wire-format=" + wireFormat,
+            "--app.kafka.producer.results-wire-format=" + wireFormat));
+        all.addAll(series.arguments());
+        all.addAll(Arrays.asList(arguments));
+        return all.toArray(new String[0]);
+    }
+    
+    /**
+     * Attend que toutes les partitions des topics de tâches soient réparties entre les workers
+     * et que le task master écoute les résultats: aucun rééquilibrage pendant les mesures
+     */
+    private void awaitAssignments() throws InterruptedException {
+        KafkaConfig kafkaConfig = master.getBean("kafkaConfig", KafkaConfig.class);
+        KafkaConfig.Topics topics = kafkaConfig.getTopics();
+        int expectedTaskPartitions = kafkaConfig.getLanes().isEnabled()
+            ? topics.getContractPartitionsConfig().getPartitions() + topics.getContractPartitionsUrgentConfig().getPartitions()
+                + topics.getContractPartitionsBulkConfig().getPartitions()
+            : topics.getContractPartitionsConfig().getPartitions();
+        int expectedResultPartitions = topics.getContractResultsConfig().getPartitions();
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (true) {
+            int[] perWorker = workers.stream()
+                .mapToInt(worker -> assignedPartitions(worker, PartitionTaskListener.LISTENER_ID))
+                .toArray();
+            int taskPartitions = Arrays.stream(perWorker).sum();
+            int resultPartitions = assignedPartitions(master, "result-listener");
+            // Chaque worker doit avoir rejoint le groupe: sinon un rééquilibrage reste à venir
+            boolean balanced = Arrays.stream(perWorker).allMatch(count -> count > 0);
+            if (balanced && taskPartitions == expectedTaskPartitions && resultPartitions == expectedResultPartitions) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Partitions non assignées après 60s: tâches " + taskPartitions + "/"
+                        + expectedTaskPartitions + ", résultats " + resultPartitions + "/" + expectedResultPartitions);
+            }
+            Thread.sleep(200);
+        }
+    }
+    
+    private static int assignedPartitions(ConfigurableApplicationContext context, String listenerId) {
+        MessageListenerContainer container = context.getBean(KafkaListenerEndpointRegistry.class)
+            .getListenerContainer(listenerId);
+        Collection<?> assigned = container != null ? container.getAssignedPartitions() : null;
+        return assigned != null ? assigned.size() : 0;
+    }
+    
+    /**
+     * Une exécution du job, de la lecture du fichier par le partitionneur à l'agrégation de la dernière partition
+     */
+    private RunReport runJob(Path input) throws Exception {
+        FilePartitioner filePartitioner = master.getBean(FilePartitioner.class);
+        PartitionTaskTransport partitionTransport = master.getBean(PartitionTaskTransport.class);
+        ResultListener resultListener = master.getBean(ResultListener.class);
+        PartitionRescheduler partitionRescheduler = master.getBean(PartitionRescheduler.class);
+        DatasetManifestWriter manifestWriter = master.getBean(DatasetManifestWriter.class);
+        JobRepository jobRepository = master.getBean(JobRepository.class);
+        
+        // Le partitionneur lit le fichier depuis les propriétés système, comme pour le lanceur local
+        System.setProperty("batch.input.file", input.toString());
+        
+        long startNanos = System.nanoTime();
+        // Exécution enregistrée dans le JobRepository du task master: son ID corrèle les résultats
+        JobExecution jobExecution = jobRepository.createJobExecution("contract-processing-job", new JobParametersBuilder()
+            .addString("input.file", input.toString())
+            .addString("run.id", UUID.randomUUID().toString())
+            .toJobParameters());
+        jobExecution.setStatus(BatchStatus.STARTED);
+        jobExecution.setStartTime(LocalDateTime.now());
+        jobRepository.update(jobExecution);
+        StepExecution stepExecution = jobExecution.createStepExecution("contract-processing-step");
+        stepExecution.setStartTime(jobExecution.getStartTime());
+        jobRepository.add(stepExecution);
+        
+        Long jobExecutionId = jobExecution.getId();
+        Map<String, ExecutionContext> partitions = filePartitioner.partition(stepExecution, gridSize);
+        CompletableFuture<ResultListener.JobExecutionResults> completion =
+            resultListener.registerJob(jobExecutionId, partitions.size());
+        Map<Integer, ResultObserver.Observation> observations = observer.observations(jobExecutionId);
+        
+        Map<Integer, Long> dispatchNanos = new ConcurrentHashMap<>();
+        for (ExecutionContext context : partitions.values()) {
+            PartitionTaskDTO task = (PartitionTaskDTO) context.get("partitionTask");
+            task.setTotalPartitions(partitions.size());
+            partitionRescheduler.track(task);
+            dispatchNanos.put(task.getPartitionId(), System.nanoTime());
+            partitionTransport.sendPartitionTask(task);
+        }
+        
+        ResultListener.JobExecutionResults jobResult = completion.get(timeoutSeconds, TimeUnit.SECONDS);
+        manifestWriter.write(jobResult);
+        
+        LocalDateTime endTime = LocalDateTime.now();
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        stepExecution.setExitStatus(ExitStatus.COMPLETED);
+        stepExecution.setEndTime(endTime);
+        jobRepository.update(stepExecution);
+        jobExecution.setStatus(BatchStatus.COMPLETED);
+        jobExecution.setExitStatus(ExitStatus.COMPLETED);
+        jobExecution.setEndTime(endTime);
+        jobRepository.update(jobExecution);
+        StripedResultCounters.Snapshot totals = jobResult.snapshot();
+        long wallNanos = System.nanoTime() - startNanos;
+        
+        // L'observateur lit le même topic à son rythme: il peut avoir un poll de retard sur le task master
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (observations.size() < partitions.size() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        partitionRescheduler.forget(jobExecutionId);
+        
+        return new RunReport(jobExecutionId, partitions.size(), wallNanos, totals,
+                List.copyOf(observations.values()), dispatchNanos);
+    }
+    
+    /**
+     * Rejoue les résultats d'un job terminé: le task master doit tous les compter comme doublons,
+     * sans modifier les totaux du job
+     */
+    private void verifyReplay(Long jobExecutionId) throws InterruptedException {
+        ResultListener.JobExecutionResults jobResult = master.getBean(ResultListener.class).getJobResults(jobExecutionId);
+        StripedResultCounters.Snapshot before = jobResult.snapshot();
+        long duplicatesBefore = jobResult.getDuplicateResults();
+        
+        int replayed = replayer.replay(jobExecutionId);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (jobResult.getDuplicateResults() - duplicatesBefore < replayed && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        // Un rejeu accepté à tort modifierait les totaux après le dernier doublon compté
+        Thread.sleep(500);
+        
+        long dropped = jobResult.getDuplicateResults() - duplicatesBefore;
+        StripedResultCounters.Snapshot after = jobResult.snapshot();
+        if (dropped != replayed || !after.equals(before)) {
+            throw new IllegalStateException(String.format(
+                    "Rejeu du job %d: %d résultats republiés, %d écartés comme doublons, totaux %s devenus %s",
+                    jobExecutionId, replayed, dropped, before, after));
+        }
+        log.info("  Rejeu: {} résultats republiés, tous écartés comme doublons, totaux inchangés", replayed);
+    }
+    
+    /**
+     * Mesures d'une exécution
+     */
+    static final class RunReport {
+        
+        private final Long jobExecutionId;
+        private final int partitions;
+        private final long wallMs;
+        private final long rows;
+        private final double rowsPerSecond;
+        private final List<ResultObserver.Observation> observations;
+        private final long[] processingMs;
+        private final long[] latencyMs;
+        private final long[] partitionRows;
+        
+        RunReport(Long jobExecutionId, int partitions, long wallNanos, StripedResultCounters.Snapshot totals,
+                  List<ResultObserver.Observation> observations, Map<Integer, Long> dispatchNanos) {
+            this.jobExecutionId = jobExecutionId;
+            this.partitions = partitions;
+            this.wallMs = TimeUnit.NANOSECONDS.toMillis(wallNanos);
+            this.rows = totals.successfulContracts() + totals.failedContracts() + totals.skippedContracts();
+            this.rowsPerSecond = wallNanos > 0 ? rows * 1e9 / wallNanos : 0.0;
+            this.observations = observations;
+            this.processingMs = observations.stream()
+                .mapToLong(observation -> value(observation.result().getProcessingTimeMs()))
+                .sorted().toArray();
+            this.partitionRows = observations.stream()
+                .mapToLong(observation -> value(observation.result().getTotalLinesProcessed()))
+                .sorted().toArray();
+            this.latencyMs = observations.stream()
+                .mapToLong(observation -> TimeUnit.NANOSECONDS.toMillis(observation.receivedNanos()
+                    - dispatchNanos.getOrDefault(observation.result().getPartitionId(), observation.receivedNanos())))
+                .sorted().toArray();
+        }
+        
+        /**
+         * Détail par partition et par worker
+         */
+        void logDetails() {
+            if (observations.size() < partitions) {
+                log.warn("Job {}: {} résultats observés sur {} partitions, statistiques partielles",
+                        jobExecutionId, observations.size(), partitions);
+            }
+            log.info("  Traitement par partition (ms): min={} p50={} p95={} p99={} max={}, déséquilibre max/p50={}",
+                    percentile(processingMs, 0), percentile(processingMs, 50), percentile(processingMs, 95),
+                    percentile(processingMs, 99), percentile(processingMs, 100), skew(processingMs));
+            log.info("  Lignes par partition: min={} p50={} max={}, déséquilibre max/p50={}",
+                    percentile(partitionRows, 0), percentile(partitionRows, 50), percentile(partitionRows, 100),
+                    skew(partitionRows));
+            log.info("  Latence envoi → résultat (ms): p50={} p95={} p99={} max={}",
+                    percentile(latencyMs, 50), percentile(latencyMs, 95), percentile(latencyMs, 99),
+                    percentile(latencyMs, 100));
+            
+            Map<String, List<TaskResultDTO>> byWorker = observations.stream()
+                .map(ResultObserver.Observation::result)
+                .collect(Collectors.groupingBy(TaskResultDTO::getWorkerId, TreeMap::new, Collectors.toList()));
+            byWorker.forEach((workerId, results) -> log.info("  Worker {}: {} partitions, {} lignes, {}ms de traitement",
+                    workerId, results.size(),
+                    results.stream().mapToLong(result -> value(result.getTotalLinesProcessed())).sum(),
+                    results.stream().mapToLong(result -> value(result.getProcessingTimeMs())).sum()));
+        }
+        
+        /**
+         * Débit et latences médians des exécutions d'une série
+         */
+        static String summary(String name, List<RunReport> reports) {
+            double[] throughputs = reports.stream().mapToDouble(report -> report.rowsPerSecond).sorted().toArray();
+            long[] p50 = reports.stream().mapToLong(report -> percentile(report.latencyMs, 50)).sorted().toArray();
+            long[] p95 = reports.stream().mapToLong(report -> percentile(report.latencyMs, 95)).sorted().toArray();
+            double medianThroughput = throughputs.length > 0 ? throughputs[(throughputs.length - 1) / 2] : 0.0;
+            return String.format("%-20s %.1f lignes/sec, latence envoi → résultat p50=%dms p95=%dms",
+                    name, medianThroughput, percentile(p50, 50), percentile(p95, 50));
+        }
+        
+        private static long value(Long value) {
+            return value != null ? value : 0L;
+        }
+        
+        /**
+         * Percentile au rang le plus proche d'un tableau trié
+         */
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+        }
+        
+        private static String skew(long[] sorted) {
+            long median = percentile(sorted, 50);
+            return median > 0 ? String.format("%.2f", (double) percentile(sorted, 100) / median) : "n/a";
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("job %d, %d partitions, %d lignes en %dms, %.1f lignes/sec",
+                    jobExecutionId, partitions, rows, wallMs, rowsPerSecond);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.maroctelecom.benchmarks;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lecteur indépendant du topic des résultats, hors de tout groupe de consommateurs
+ * Horodate la réception de chaque résultat final pour mesurer la latence de bout en bout des partitions
+ * sans instrumenter le task master
+ */
+@Slf4j
+class ResultObserver implements AutoCloseable {
+    
+    /**
+     * Résultat final d'une partition et instant de sa réception (System.nanoTime)
+     */
+    record Observation(TaskResultDTO result, long receivedNanos) {
+    }
+    
+    private final KafkaConsumer<String, Object> consumer;
+    private final Map<Long, Map<Integer, Observation>> observationsByJob = new ConcurrentHashMap<>();
+    private final Thread pollThread;
+    private volatile boolean running = true;
+    
+    ResultObserver(KafkaConfig kafkaConfig) {
+        Map<String, Object> props = kafkaConfig.buildConsumerProperties();
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "harness-result-observer");
+        this.consumer = new KafkaConsumer<>(props);
+        
+        // Lecture à partir de la fin: seuls les résultats des exécutions à venir sont observés
+        String topic = kafkaConfig.getTopics().getContractResults();
+        List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+            .map(info -> new TopicPartition(topic, info.partition()))
+            .collect(Collectors.toList());
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        partitions.forEach(consumer::position);
+        
+        this.pollThread = new Thread(this::pollLoop, "harness-result-observer");
+        this.pollThread.setDaemon(true);
+        this.pollThread.start();
+    }
+    
+    /**
+     * Résultats finaux reçus pour un job, par partition
+     */
+    Map<Integer, Observation> observations(Long jobExecutionId) {
+        return observationsByJob.computeIfAbsent(jobExecutionId, id -> new ConcurrentHashMap<>());
+    }
+    
+    private void pollLoop() {
+        try {
+            while (running) {
+                for (ConsumerRecord<String, Object> record : consumer.poll(Duration.ofMillis(50))) {
+                    long receivedNanos = System.nanoTime();
+                    if (record.value() instanceof TaskResultDTO result && isFinal(result)) {
+                        observations(result.getJobExecutionId()).put(result.getPartitionId(),
+                                new Observation(result, receivedNanos));
+                    }
+                }
+            }
+        } catch (WakeupException e) {
+            // Arrêt demandé
+        } catch (Exception e) {
+            log.error("Lecture des résultats interrompue: {}", e.getMessage(), e);
+        } finally {
+            consumer.close();
+        }
+    }
+    
+    /**
+     * Les résultats partiels (timeout) sont suivis d'une tâche de reprise: seul le dernier compte
+     */
+    private static boolean isFinal(TaskResultDTO result) {
+        return result.getStatus() == TaskResultDTO.ProcessingStatus.COMPLETED
+            || result.getStatus() == TaskResultDTO.ProcessingStatus.FAILED;
+    }
+    
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        consumer.wakeup();
+        pollThread.join(5000);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.maroctelecom.benchmarks;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.serde.WireFormatDeserializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rejeu du topic des résultats: les résultats d'un job déjà agrégé sont relus depuis le début du topic
+ * et republiés tels quels (clé, valeur, en-têtes) sur leur partition d'origine, comme après un retour en
+ * arrière des offsets du task master. Celui-ci doit tous les écarter comme doublons
+ */
+class ResultReplayer {
+    
+    private final KafkaConfig kafkaConfig;
+    
+    ResultReplayer(KafkaConfig kafkaConfig) {
+        this.kafkaConfig = kafkaConfig;
+    }
+    
+    /**
+     * Republie les résultats du job présents dans le topic, partiels compris
+     *
+     * @return Le nombre de résultats republiés
+     */
+    int replay(Long jobExecutionId) {
+        String topic = kafkaConfig.getTopics().getContractResults();
+        Map<String, Object> consumerProps = kafkaConfig.buildConsumerProperties();
+        consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerProps.put(ConsumerConfig.CLIENT_ID_CONFIG, "harness-result-replayer");
+        
+        try (KafkaConsumer<byte[], byte[]> consumer =
+                 new KafkaConsumer<>(consumerProps, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+             KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(kafkaConfig.buildProducerProperties(),
+                 new ByteArraySerializer(), new ByteArraySerializer());
+             WireFormatDeserializer deserializer = new WireFormatDeserializer()) {
+            deserializer.configure(kafkaConfig.buildValueDeserializerProperties(), false);
+            
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .collect(Collectors.toList());
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            
+            List<ProducerRecord<byte[], byte[]>> copies = new ArrayList<>();
+            while (partitions.stream().anyMatch(partition -> consumer.position(partition) < endOffsets.get(partition))) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(100))) {
+                    Object value = deserializer.deserialize(topic, record.headers(), record.value());
+                    if (value instanceof TaskResultDTO result && jobExecutionId.equals(result.getJobExecutionId())) {
+                        copies.add(new ProducerRecord<>(topic, record.partition(), record.key(), record.value(),
+                                record.headers()));
+                    }
+                }
+            }
+            
+            copies.forEach(producer::send);
+            producer.flush();
+            return copies.size();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.maroctelecom.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Générateur de contrats synthétiques pour les benchmarks
+ * Chaque ligne reprend un contrat tiré de test-data/sample-contracts.csv (type, statut, région, montant,
+ * durée, canal...) avec des identifiants uniques, un téléphone et des dates cohérents: elle passe la validation.
+ * Une ligne sur errorRate en moyenne reçoit une anomalie tirée parmi les corruptions retenues.
+ * Le tirage est déterministe pour une graine donnée
+ */
+public class SyntheticContracts {
+    
+    public static final String SAMPLE_RESOURCE = "/sample-contracts.csv";
+    
+    /**
+     * Anomalies injectées; les premières sont rejetées par la validation, les deux dernières dès le parsing
+     */
+    public enum Corruption {
+        PHONE, REGION, NEGATIVE_AMOUNT, DATE_ORDER, UNPARSABLE_AMOUNT, UNPARSABLE_DATE;
+        
+        /**
+         * Anomalies produisant un contrat parsé mais invalide
+         */
+        public static final Set<Corruption> VALIDATION = EnumSet.of(PHONE, REGION, NEGATIVE_AMOUNT, DATE_ORDER);
+        
+        public static final Set<Corruption> ALL = EnumSet.allOf(Corruption.class);
+    }
+    
+    private static final int CONTRACT_ID = 0;
+    private static final int CLIENT_ID = 1;
+    private static final int AMOUNT = 4;
+    private static final int CREATION_DATE = 5;
+    private static final int ACTIVATION_DATE = 6;
+    private static final int EXPIRATION_DATE = 7;
+    private static final int STATUS = 8;
+    private static final int REGION = 9;
+    private static final int PHONE = 12;
+    private static final int DURATION_MONTHS = 14;
+    
+    // Échantillon chargé une fois: en-tête puis lignes
+    private static volatile List<String[]> sample;
+    
+    private final String[] headers;
+    private final List<String[]> samples;
+    private final Random random;
+    private final double errorRate;
+    private final Corruption[] corruptions;
+    private final LocalDate today = LocalDate.now();
+    private long sequence;
+    
+    public SyntheticContracts(long seed, double errorRate) {
+        this(seed, errorRate, Corruption.ALL);
+    }
+    
+    public SyntheticContracts(long seed, double errorRate, Set<Corruption> corruptions) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Taux d'erreur hors de [0, 1]: " + errorRate);
+        }
+        List<String[]> rows = sample();
+        this.headers = rows.get(0);
+        this.samples = rows.subList(1, rows.size());
+        this.random = new Random(seed);
+        this.errorRate = errorRate;
+        this.corruptions = corruptions.toArray(new Corruption[0]);
+    }
+    
+    public String[] headers() {
+        return headers.clone();
+    }
+    
+    /**
+     * Numérote les lignes suivantes à partir de firstId (générateurs travaillant sur des blocs disjoints)
+     */
+    public SyntheticContracts startingAt(long firstId) {
+        this.sequence = firstId - 1;
+        return this;
+    }
+    
+    /**
+     * Ligne suivante, découpée en colonnes
+     */
+    public String[] nextRow() {
+        String[] row = samples.get(random.nextInt(samples.size())).clone();
+        long id = ++sequence;
+        
+        row[CONTRACT_ID] = padded("CT", id, 10);
+        row[CLIENT_ID] = padded("CL", random.nextInt(1_000_000), 6);
+        row[PHONE] = padded("06", random.nextInt(100_000_000), 8);
+        
+        // Création dans le passé, activation peu après, expiration au terme de la durée
+        LocalDate creation = today.minusDays(30 + random.nextInt(2000));
+        LocalDate activation = creation.plusDays(random.nextInt(30));
+        LocalDate expiration = activation.plusMonths(Integer.parseInt(row[DURATION_MONTHS]));
+        if ("ACTIVE".equals(row[STATUS]) && expiration.isBefore(today)) {
+            expiration = today.plusDays(1 + random.nextInt(365));
+        }
+        row[CREATION_DATE] = creation.toString();
+        row[ACTIVATION_DATE] = activation.toString();
+        row[EXPIRATION_DATE] = expiration.toString();
+        
+        if (corruptions.length > 0 && random.nextDouble() < errorRate) {
+            corrupt(row, corruptions[random.nextInt(corruptions.length)]);
+        }
+        return row;
+    }
+    
+    public List<String[]> rows(int count) {
+        List<String[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(nextRow());
+        }
+        return rows;
+    }
+    
+    /**
+     * Contenu CSV complet (en-tête compris) de count lignes
+     */
+    public String csv(int count) {
+        StringBuilder csv = new StringBuilder(count * 192);
+        csv.append(String.join(",", headers)).append('\n');
+        return appendRows(csv, count).toString();
+    }
+    
+    /**
+     * Ajoute count lignes CSV, sans en-tête
+     */
+    public StringBuilder appendRows(StringBuilder csv, long count) {
+        for (long i = 0; i < count; i++) {
+            String[] row = nextRow();
+            for (int column = 0; column < row.length; column++) {
+                if (column > 0) {
+                    csv.append(',');
+                }
+                csv.append(row[column]);
+            }
+            csv.append('\n');
+        }
+        return csv;
+    }
+    
+    /**
+     * Écrit un fichier CSV de count lignes, sans tout garder en mémoire
+     */
+    public Path writeCsv(Path file, long count) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", headers));
+            writer.write('\n');
+            for (long i = 0; i < count; i++) {
+                writer.write(String.join(",", nextRow()));
+                writer.write('\n');
+            }
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Écriture du fichier synthétique impossible: " + file, e);
+        }
+    }
+    
+    private void corrupt(String[] row, Corruption corruption) {
+        switch (corruption) {
+            case PHONE -> row[PHONE] = "00" + row[PHONE];
+            case REGION -> row[REGION] = "ATLANTIDE";
+            case NEGATIVE_AMOUNT -> row[AMOUNT] = "-" + row[AMOUNT];
+            case DATE_ORDER -> row[ACTIVATION_DATE] = LocalDate.parse(row[CREATION_DATE]).minusDays(1).toString();
+            case UNPARSABLE_AMOUNT -> row[AMOUNT] = row[AMOUNT] + "DH";
+            case UNPARSABLE_DATE -> row[CREATION_DATE] = row[CREATION_DATE].replace('-', '/');
+        }
+    }
+    
+    private static String padded(String prefix, long value, int width) {
+        String digits = Long.toString(value);
+        StringBuilder padded = new StringBuilder(prefix.length() + Math.max(width, digits.length())).append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+    
+    private static List<String[]> sample() {
+        if (sample == null) {
+            synchronized (SyntheticContracts.class) {
+                if (sample == null) {
+                    sample = List.copyOf(loadSample());
+                }
+            }
+        }
+        return sample;
+    }
+    
+    private static List<String[]> loadSample() {
+        InputStream input = SyntheticContracts.class.getResourceAsStream(SAMPLE_RESOURCE);
+        if (input == null) {
+            throw new IllegalStateException("Échantillon introuvable dans le classpath: " + SAMPLE_RESOURCE);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String[]> rows = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(line.split(",", -1));
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new RuntimeException("Lecture de l'échantillon impossible", e);
+        }
+    }
+}
\ No newline at end of file
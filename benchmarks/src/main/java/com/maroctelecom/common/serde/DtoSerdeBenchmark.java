@@ -0,0 +1,179 @@
+package com.maroctelecom.common.serde;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation des messages Kafka du batch: tâche de partition et résultat de tâche
+ * Sérialiseur et désérialiseur configurés comme en production (table de types, topics binaires) pour
+ * chaque format; le résultat porte errors erreurs de validation échantillonnées
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerdeBenchmark {
+    
+    @Param({"JSON", "BINARY"})
+    private KafkaConfig.WireFormat wireFormat;
+    
+    @Param({"0", "100"})
+    private int errors;
+    
+    private WireFormatSerializer serializer;
+    private WireFormatDeserializer deserializer;
+    private String partitionsTopic;
+    private String resultsTopic;
+    
+    private PartitionTaskDTO partitionTask;
+    private TaskResultDTO taskResult;
+    private byte[] partitionTaskBytes;
+    private RecordHeaders partitionTaskHeaders;
+    private byte[] taskResultBytes;
+    private RecordHeaders taskResultHeaders;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        kafkaConfig.getProducer().setPartitionsWireFormat(wireFormat);
+        kafkaConfig.getProducer().setResultsWireFormat(wireFormat);
+        partitionsTopic = kafkaConfig.getTopics().getContractPartitions();
+        resultsTopic = kafkaConfig.getTopics().getContractResults();
+        
+        serializer = new WireFormatSerializer();
+        serializer.configure(kafkaConfig.buildProducerProperties(), false);
+        deserializer = new WireFormatDeserializer();
+        deserializer.configure(kafkaConfig.buildValueDeserializerProperties(), false);
+        
+        partitionTask = partitionTask();
+        taskResult = taskResult(partitionTask, errors);
+        
+        partitionTaskHeaders = new RecordHeaders();
+        partitionTaskBytes = serializer.serialize(partitionsTopic, partitionTaskHeaders, partitionTask);
+        taskResultHeaders = new RecordHeaders();
+        taskResultBytes = serializer.serialize(resultsTopic, taskResultHeaders, taskResult);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+    
+    @Benchmark
+    public byte[] serializePartitionTask() {
+        return serializer.serialize(partitionsTopic, new RecordHeaders(), partitionTask);
+    }
+    
+    @Benchmark
+    public Object deserializePartitionTask() {
+        return deserializer.deserialize(partitionsTopic, partitionTaskHeaders, partitionTaskBytes);
+    }
+    
+    @Benchmark
+    public byte[] serializeTaskResult() {
+        return serializer.serialize(resultsTopic, new RecordHeaders(), taskResult);
+    }
+    
+    @Benchmark
+    public Object deserializeTaskResult() {
+        return deserializer.deserialize(resultsTopic, taskResultHeaders, taskResultBytes);
+    }
+    
+    private static PartitionTaskDTO partitionTask() {
+        return PartitionTaskDTO.builder()
+            .taskId(UUID.randomUUID().toString())
+            .fileName("contracts-2024.csv")
+            .filePath("/data/input/contracts-2024.csv")
+            .startLine(40_001L)
+            .endLine(50_000L)
+            .partitionId(4)
+            .jobId("contractProcessingJob")
+            .jobExecutionId(1_792_361_871_781L)
+            .totalPartitions(50)
+            .createdAt(LocalDateTime.now())
+            .estimatedLineCount(10_000L)
+            .priority(5)
+            .timeoutSeconds(300)
+            .attempt(1)
+            .build();
+    }
+    
+    private static TaskResultDTO taskResult(PartitionTaskDTO task, int errorCount) {
+        List<ErrorInfo> errors = new ArrayList<>(errorCount);
+        for (int i = 0; i < errorCount; i++) {
+            errors.add(ErrorInfo.validationError("phoneNumber", "0061001157" + i % 10,
+                "Format de téléphone marocain invalide (+212xxxxxxxxx ou 0xxxxxxxxx)", task.getStartLine() + i * 7L));
+        }
+        
+        Map<String, TaskResultDTO.ContractTypeStats> typeStats = new LinkedHashMap<>();
+        for (String type : List.of("MOBILE", "FIXE", "INTERNET", "ADSL", "FIBRE", "SATELLITE")) {
+            typeStats.put(type, TaskResultDTO.ContractTypeStats.builder()
+                .contractType(type)
+                .count(1_600L)
+                .totalAmount(392_000.0)
+                .averageAmount(245.0)
+                .uniqueClients(1_540L)
+                .build());
+        }
+        
+        Map<String, Object> customMetrics = new LinkedHashMap<>();
+        customMetrics.put("wallTimeMs", 412L);
+        customMetrics.put("cpuTimeMs", 388L);
+        customMetrics.put("cpuMicrosPerRow", 38.8);
+        customMetrics.put("allocatedBytes", 71_204_512L);
+        customMetrics.put("allocatedBytesPerRow", 7_120L);
+        
+        return TaskResultDTO.builder()
+            .taskId(task.getTaskId())
+            .jobExecutionId(task.getJobExecutionId())
+            .totalPartitions(task.getTotalPartitions())
+            .partitionId(task.getPartitionId())
+            .workerId("worker-node-10.0.0.12-8081")
+            .status(TaskResultDTO.ProcessingStatus.COMPLETED)
+            .startTime(LocalDateTime.now().minusSeconds(1))
+            .endTime(LocalDateTime.now())
+            .processingTimeMs(412L)
+            .totalLinesProcessed(10_000L)
+            .successfulContracts(9_600L - errorCount)
+            .failedContracts(0L)
+            .skippedContracts(400L + errorCount)
+            .totalAmount(2_352_000.0)
+            .uniqueClientsCount(9_240L)
+            .errors(errors)
+            .errorCountsByType(Map.of("VALIDATION_ERROR", 400L + errorCount))
+            .customMetrics(customMetrics)
+            .maxMemoryUsageMB(212L)
+            .avgCpuUsage(94.17)
+            .summary("Traitement terminé: 10000 lignes (96.00% succès, 0 échecs, 400 ignorés)")
+            .contractTypeStats(typeStats)
+            .lastProcessedLine(task.getEndLine())
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.maroctelecom.taskmaster.listener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégation concurrente des résultats d'un job: ajouts de 1 à 32 threads sur les mêmes compteurs,
+ * puis ajouts pendant qu'un thread prend des instantanés (détection de fin de job)
+ * Au-delà du nombre de cœurs, le score mesure aussi l'ordonnancement des threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StripedResultCountersBenchmark {
+    
+    private final StripedResultCounters counters = new StripedResultCounters();
+    
+    @Benchmark
+    @Threads(1)
+    public void add01() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Threads(2)
+    public void add02() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public void add04() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void add08() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public void add16() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public void add32() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Group("addWhileSnapshotting")
+    @GroupThreads(7)
+    public void writer() {
+        counters.add(980, 15, 5, 120);
+    }
+    
+    @Benchmark
+    @Group("addWhileSnapshotting")
+    @GroupThreads(1)
+    public StripedResultCounters.Snapshot reader() {
+        return counters.snapshot();
+    }
+}
\ No newline at end of file
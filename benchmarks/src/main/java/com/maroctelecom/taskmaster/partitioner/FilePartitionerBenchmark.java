@@ -0,0 +1,56 @@
+package com.maroctelecom.taskmaster.partitioner;
+
+import com.maroctelecom.benchmarks.SyntheticContracts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comptage des lignes du fichier d'entrée, première étape du partitionnement
+ * Le fichier est lu depuis le cache de pages après le préchauffage: le score mesure le parcours, pas le disque
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilePartitionerBenchmark {
+    
+    @Param({"100000", "1000000"})
+    private long rows;
+    
+    private FilePartitioner partitioner;
+    private Path file;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        partitioner = new FilePartitioner(null);
+        file = new SyntheticContracts(42, 0.05).writeCsv(Files.createTempFile("bench-contracts", ".csv"), rows);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    @Benchmark
+    public long countLines() throws IOException {
+        return partitioner.countLines(file.toString());
+    }
+}
\ No newline at end of file
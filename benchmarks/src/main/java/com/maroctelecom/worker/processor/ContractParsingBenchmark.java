@@ -0,0 +1,143 @@
+package com.maroctelecom.worker.processor;
+
+import com.maroctelecom.benchmarks.SyntheticContracts;
+import com.maroctelecom.common.model.Contract;
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemin critique du worker hors validation: lecture CSV, parsing en Contract, agrégation
+ * Chaque invocation traite une partition de ROWS lignes en mémoire; les scores sont par ligne
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ContractParsingBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractParsingBenchmark {
+    
+    static final int ROWS = 10_000;
+    
+    @Param({"0.0", "0.05", "0.2"})
+    private double errorRate;
+    
+    private ContractProcessor processor;
+    private String csv;
+    private String[] headers;
+    private List<String[]> lines;
+    private List<Contract> contracts;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Seuls parseContract et processContract sont appelés: aucun collaborateur n'est nécessaire
+        processor = new ContractProcessor(null, null, null, null, null, null, null, null, null);
+        
+        SyntheticContracts generator = new SyntheticContracts(42, errorRate);
+        headers = generator.headers();
+        csv = generator.csv(ROWS);
+        lines = readAll();
+        
+        contracts = new ArrayList<>(ROWS);
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                contracts.add(processor.parseContract(lines.get(i), headers, i + 1));
+            } catch (RuntimeException e) {
+                // Ligne non parsable: hors de l'agrégation
+            }
+        }
+    }
+    
+    /**
+     * Découpage CSV seul (opencsv)
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            reader.readNext();
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                blackhole.consume(line);
+            }
+        }
+    }
+    
+    /**
+     * Découpage CSV et parsing, échecs de parsing compris
+     */
+    @Benchmark
+    public void readAndParse(Blackhole blackhole) throws Exception {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            String[] csvHeaders = reader.readNext();
+            String[] line;
+            long lineNumber = 0;
+            while ((line = reader.readNext()) != null) {
+                try {
+                    blackhole.consume(processor.parseContract(line, csvHeaders, ++lineNumber));
+                } catch (RuntimeException e) {
+                    blackhole.consume(e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parsing de lignes déjà découpées
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                blackhole.consume(processor.parseContract(lines.get(i), headers, i + 1));
+            } catch (RuntimeException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+    
+    /**
+     * Agrégation des contrats parsés dans une partition neuve
+     */
+    @Benchmark
+    public PartitionAggregates aggregate() {
+        PartitionAggregates aggregates = new PartitionAggregates(error -> { });
+        for (Contract contract : contracts) {
+            aggregates.lineRead();
+            processor.processContract(contract, aggregates);
+        }
+        return aggregates;
+    }
+    
+    private List<String[]> readAll() {
+        try (CSVReader reader = new CSVReader(new StringReader(csv))) {
+            reader.readNext();
+            List<String[]> all = new ArrayList<>(ROWS);
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                all.add(line);
+            }
+            return all;
+        } catch (Exception e) {
+            throw new RuntimeException("Lecture du CSV synthétique impossible", e);
+        }
+    }
+}
\ No newline at end of file
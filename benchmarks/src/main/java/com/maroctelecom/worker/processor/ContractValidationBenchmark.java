@@ -0,0 +1,78 @@
+package com.maroctelecom.worker.processor;
+
+import com.maroctelecom.benchmarks.SyntheticContracts;
+import com.maroctelecom.common.model.Contract;
+import com.maroctelecom.worker.validator.ContractValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation métier de contrats parsés, tous valides ou tous invalides
+ * Les contrats invalides portent une seule anomalie de validation (téléphone, région, montant négatif
+ * ou dates incohérentes); le score est par contrat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ContractValidationBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContractValidationBenchmark {
+    
+    static final int ROWS = 10_000;
+    
+    @Param({"valid", "invalid"})
+    private String validity;
+    
+    private ContractValidator validator;
+    private Contract[] contracts;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        validator = new ContractValidator();
+        ContractProcessor processor = new ContractProcessor(null, null, null, null, null, null, null, null, null);
+        
+        SyntheticContracts generator = new SyntheticContracts(42, "valid".equals(validity) ? 0.0 : 1.0,
+                SyntheticContracts.Corruption.VALIDATION);
+        String[] headers = generator.headers();
+        List<String[]> lines = generator.rows(ROWS);
+        
+        contracts = new Contract[ROWS];
+        long invalid = 0;
+        for (int i = 0; i < ROWS; i++) {
+            contracts[i] = processor.parseContract(lines.get(i), headers, i + 1);
+            if (!validator.validate(contracts[i], (long) i + 1).isEmpty()) {
+                invalid++;
+            }
+        }
+        
+        long expected = "valid".equals(validity) ? 0 : ROWS;
+        if (invalid != expected) {
+            throw new IllegalStateException("Jeu de données incohérent: " + invalid + " contrats invalides, "
+                    + expected + " attendus");
+        }
+    }
+    
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (int i = 0; i < contracts.length; i++) {
+            blackhole.consume(validator.validate(contracts[i], (long) i + 1));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.maroctelecom.launcher;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.transport.PartitionTaskTransport;
+import com.maroctelecom.taskmaster.listener.ResultListener;
+import com.maroctelecom.taskmaster.listener.ResultListener.JobExecutionResults;
+import com.maroctelecom.taskmaster.listener.StripedResultCounters;
+import com.maroctelecom.taskmaster.partitioner.FilePartitioner;
+import com.maroctelecom.taskmaster.service.DatasetManifestWriter;
+import com.maroctelecom.taskmaster.service.PartitionRescheduler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exécution d'un fichier de bout en bout dans la JVM courante
+ * Le partitionneur alimente directement le pool de workers embarqués, puis le lanceur attend
+ * l'agrégation de la dernière partition et affiche le débit obtenu. L'exécution est enregistrée
+ * dans le JobRepository: son ID corrèle les résultats, comme pour un job lancé par Spring Batch
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalJobRunner implements ApplicationRunner, ExitCodeGenerator {
+    
+    private static final String JOB_NAME = "contract-processing-job";
+    private static final String STEP_NAME = "contract-processing-step";
+    
+    private final FilePartitioner filePartitioner;
+    private final PartitionTaskTransport partitionTransport;
+    private final ResultListener resultListener;
+    private final PartitionRescheduler partitionRescheduler;
+    private final DatasetManifestWriter manifestWriter;
+    private final JobRepository jobRepository;
+    
+    @Value("${batch.input.file:/tmp/contracts.csv}")
+    private String inputFile;
+    
+    @Value("${batch.job.contract-processing.grid-size:8}")
+    private int gridSize;
+    
+    @Value("${batch.job.contract-processing.completion-timeout-seconds:3600}")
+    private long completionTimeoutSeconds;
+    
+    private int exitCode;
+    
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        // Le partitionneur lit encore le fichier depuis la propriété système
+        System.setProperty("batch.input.file", inputFile);
+        
+        long startNanos = System.nanoTime();
+        JobExecution jobExecution = jobRepository.createJobExecution(JOB_NAME, new JobParametersBuilder()
+            .addString("input.file", inputFile)
+            .addString("run.id", UUID.randomUUID().toString())
+            .toJobParameters());
+        jobExecution.setStatus(BatchStatus.STARTED);
+        jobExecution.setStartTime(LocalDateTime.now());
+        jobRepository.update(jobExecution);
+        StepExecution stepExecution = jobExecution.createStepExecution(STEP_NAME);
+        stepExecution.setStartTime(jobExecution.getStartTime());
+        jobRepository.add(stepExecution);
+        
+        Long jobExecutionId = jobExecution.getId();
+        Map<String, ExecutionContext> partitions = filePartitioner.partition(stepExecution, gridSize);
+        
+        // Enregistrement du job avant tout envoi pour ne manquer aucun résultat
+        CompletableFuture<JobExecutionResults> completion =
+            resultListener.registerJob(jobExecutionId, partitions.size());
+        
+        for (ExecutionContext context : partitions.values()) {
+            PartitionTaskDTO task = (PartitionTaskDTO) context.get("partitionTask");
+            task.setTotalPartitions(partitions.size());
+            partitionRescheduler.track(task);
+            partitionTransport.sendPartitionTaskSync(task);
+        }
+        
+        log.info("{} partitions du fichier {} confiées aux workers embarqués (job {})",
+                partitions.size(), inputFile, jobExecutionId);
+        
+        JobExecutionResults jobResult;
+        try {
+            jobResult = completion.get(completionTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            exitCode = 2;
+            finish(jobExecution, stepExecution, BatchStatus.FAILED);
+            throw new RuntimeException("Délai d'attente des partitions dépassé pour le job " + jobExecutionId, e);
+        }
+        
+        manifestWriter.write(jobResult);
+        
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        StripedResultCounters.Snapshot totals = jobResult.snapshot();
+        long contracts = totals.successfulContracts() + totals.failedContracts() + totals.skippedContracts();
+        
+        log.info("Job {} terminé en {}ms: {} partitions, {} contrats ({} succès, {} échecs, {} ignorés), {} contrats/sec",
+                jobExecutionId, elapsedMs, totals.completedTasks(), contracts,
+                totals.successfulContracts(), totals.failedContracts(), totals.skippedContracts(),
+                String.format("%.1f", elapsedMs > 0 ? contracts * 1000.0 / elapsedMs : 0.0));
+        
+        boolean failed = partitions.values().stream()
+            .anyMatch(context -> jobResult.isPartitionFailed(context.getInt("partitionId")));
+        exitCode = failed ? 1 : 0;
+        finish(jobExecution, stepExecution, failed ? BatchStatus.FAILED : BatchStatus.COMPLETED);
+    }
+    
+    /**
+     * Clôt l'exécution enregistrée au lancement
+     */
+    private void finish(JobExecution jobExecution, StepExecution stepExecution, BatchStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        ExitStatus exitStatus = status == BatchStatus.COMPLETED ? ExitStatus.COMPLETED : ExitStatus.FAILED;
+        stepExecution.setStatus(status);
+        stepExecution.setExitStatus(exitStatus);
+        stepExecution.setEndTime(now);
+        jobRepository.update(stepExecution);
+        jobExecution.setStatus(status);
+        jobExecution.setExitStatus(exitStatus);
+        jobExecution.setEndTime(now);
+        jobRepository.update(jobExecution);
+    }
+    
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
\ No newline at end of file
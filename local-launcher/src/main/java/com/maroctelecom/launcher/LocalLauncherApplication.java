@@ -0,0 +1,44 @@
+package com.maroctelecom.launcher;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.taskmaster.application.TaskMasterApplication;
+import com.maroctelecom.worker.application.WorkerNodeApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Lanceur mono-JVM: task master et pool de workers embarqués dans le même processus
+ * Les tâches et les résultats transitent par le transport en mémoire, sans broker Kafka
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(
+    basePackages = {
+        "com.maroctelecom.launcher",
+        "com.maroctelecom.taskmaster",
+        "com.maroctelecom.worker",
+        "com.maroctelecom.common"
+    },
+    // Les applications d'origine ne doivent pas être reprises comme configurations
+    excludeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE,
+        classes = {TaskMasterApplication.class, WorkerNodeApplication.class}
+    )
+)
+@EnableKafka
+@EnableAsync
+@EnableScheduling
+@EnableConfigurationProperties(KafkaConfig.class)
+public class LocalLauncherApplication {
+    
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(SpringApplication.run(LocalLauncherApplication.class, args)));
+    }
+}
\ No newline at end of file
@@ -11,6 +11,17 @@ echo "Génération de $NUM_CONTRACTS contrats dans $OUTPUT_FILE..."
 # Créer le répertoire si nécessaire
 mkdir -p "$(dirname "$OUTPUT_FILE")"
 
+# Générateur Java multi-thread (module benchmarks) s'il est construit: contrats valides, 5% d'anomalies
+# Variables optionnelles: SEED, ERROR_RATE, GENERATOR_THREADS
+BENCHMARKS_JAR="$(dirname "$0")/../benchmarks/target/benchmarks.jar"
+if [ -f "$BENCHMARKS_JAR" ] && command -v java > /dev/null; then
+    java -cp "$BENCHMARKS_JAR" com.maroctelecom.benchmarks.ContractFileGenerator \
+        --output="$OUTPUT_FILE" --rows="$NUM_CONTRACTS" \
+        --seed="${SEED:-42}" --error-rate="${ERROR_RATE:-0.05}" --threads="${GENERATOR_THREADS:-0}" || exit 1
+    echo "Taille du fichier: $(du -h "$OUTPUT_FILE" | cut -f1)"
+    exit 0
+fi
+
 # En-têtes CSV
 echo "contractId,clientId,clientName,contractType,amount,creationDate,activationDate,expirationDate,status,region,city,postalCode,phoneNumber,email,durationMonths,salesChannel,salesAgentId" > "$OUTPUT_FILE"
 
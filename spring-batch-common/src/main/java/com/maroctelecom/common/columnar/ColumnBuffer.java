@@ -0,0 +1,70 @@
+package com.maroctelecom.common.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tampon extensible d'une colonne, réutilisé d'un groupe de lignes à l'autre
+ */
+final class ColumnBuffer {
+    
+    private byte[] bytes;
+    private int size;
+    
+    ColumnBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+    
+    void varLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+    
+    /**
+     * Entier signé nullable: 0 pour null, sinon zigzag + 1
+     */
+    void nullableLong(Long value) {
+        varLong(value == null ? 0 : zigzag(value) + 1);
+    }
+    
+    /**
+     * Chaîne nullable: 0 pour null, sinon longueur + 1 puis octets UTF-8
+     */
+    void string(String value) {
+        if (value == null) {
+            varLong(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        varLong(utf8.length + 1L);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, bytes, size, utf8.length);
+        size += utf8.length;
+    }
+    
+    byte[] array() {
+        return bytes;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void reset() {
+        size = 0;
+    }
+    
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private void ensure(int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
\ No newline at end of file
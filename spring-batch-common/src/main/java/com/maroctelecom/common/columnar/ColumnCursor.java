@@ -0,0 +1,50 @@
+package com.maroctelecom.common.columnar;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lecture symétrique de {@link ColumnBuffer}
+ */
+final class ColumnCursor {
+    
+    private final byte[] bytes;
+    private int position;
+    
+    ColumnCursor(byte[] bytes) {
+        this.bytes = bytes;
+    }
+    
+    long varLong() {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift > 63) {
+                throw new IllegalStateException("Varint trop long");
+            }
+            current = bytes[position++];
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+    
+    Long nullableLong() {
+        long value = varLong();
+        return value == 0 ? null : unzigzag(value - 1);
+    }
+    
+    String string() {
+        int length = (int) varLong() - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+    
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
\ No newline at end of file
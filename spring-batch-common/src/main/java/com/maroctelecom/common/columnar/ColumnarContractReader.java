@@ -0,0 +1,189 @@
+package com.maroctelecom.common.columnar;
+
+import com.maroctelecom.common.model.Contract;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.maroctelecom.common.columnar.ContractColumn.*;
+
+/**
+ * Lecture d'un fichier colonne de contrats
+ * Le pied est lu à l'ouverture; les lignes sont relues groupe par groupe, un seul groupe en mémoire
+ */
+public class ColumnarContractReader implements Closeable {
+    
+    private static final ContractColumn[] COLUMNS = ContractColumn.values();
+    
+    private final FileChannel channel;
+    private final ColumnarFile.Footer footer;
+    
+    public ColumnarContractReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.footer = readFooter(path);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public ColumnarFile.Footer footer() {
+        return footer;
+    }
+    
+    /**
+     * Relit toutes les lignes dans l'ordre du fichier, avec leur numéro de ligne
+     */
+    public void forEach(ObjLongConsumer<Contract> consumer) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            for (ColumnarFile.RowGroup rowGroup : footer.rowGroups()) {
+                readRowGroup(rowGroup, inflater, consumer);
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private ColumnarFile.Footer readFooter(Path path) throws IOException {
+        long size = channel.size();
+        if (size < ColumnarFile.HEADER_LENGTH + ColumnarFile.TRAILER_LENGTH) {
+            throw new IOException("Fichier colonne tronqué: " + path);
+        }
+        
+        ByteBuffer header = read(0, ColumnarFile.HEADER_LENGTH);
+        ByteBuffer trailer = read(size - ColumnarFile.TRAILER_LENGTH, ColumnarFile.TRAILER_LENGTH);
+        int footerLength = trailer.getInt();
+        if (!hasMagic(header) || !hasMagic(trailer)) {
+            throw new IOException("Fichier colonne invalide: " + path);
+        }
+        if (header.get() != ColumnarFile.VERSION) {
+            throw new IOException("Version de fichier colonne non supportée: " + path);
+        }
+        
+        long footerStart = size - ColumnarFile.TRAILER_LENGTH - footerLength;
+        return ColumnarFile.readFooter(new ColumnCursor(read(footerStart, footerLength).array()));
+    }
+    
+    private void readRowGroup(ColumnarFile.RowGroup rowGroup, Inflater inflater,
+                              ObjLongConsumer<Contract> consumer) throws IOException {
+        ColumnCursor[] columns = new ColumnCursor[COLUMNS.length];
+        String[][] dictionaries = new String[COLUMNS.length][];
+        for (ContractColumn column : COLUMNS) {
+            int index = column.ordinal();
+            columns[index] = new ColumnCursor(inflate(rowGroup, index, inflater));
+            if (column.getEncoding() == ContractColumn.Encoding.DICTIONARY) {
+                String[] values = new String[(int) columns[index].varLong()];
+                for (int code = 0; code < values.length; code++) {
+                    values[code] = columns[index].string();
+                }
+                dictionaries[index] = values;
+            }
+        }
+        
+        Contract.ContractType[] contractTypes = enums(dictionaries[CONTRACT_TYPE.ordinal()], Contract.ContractType.class);
+        Contract.ContractStatus[] statuses = enums(dictionaries[STATUS.ordinal()], Contract.ContractStatus.class);
+        Contract.SalesChannel[] salesChannels = enums(dictionaries[SALES_CHANNEL.ordinal()], Contract.SalesChannel.class);
+        
+        long lineNumber = rowGroup.firstLine();
+        for (int row = 0; row < rowGroup.rows(); row++) {
+            lineNumber += ColumnCursor.unzigzag(columns[LINE_NUMBER.ordinal()].varLong());
+            Long cents = columns[AMOUNT.ordinal()].nullableLong();
+            Long durationMonths = columns[DURATION_MONTHS.ordinal()].nullableLong();
+            
+            Contract contract = Contract.builder()
+                .contractId(columns[CONTRACT_ID.ordinal()].string())
+                .clientId(columns[CLIENT_ID.ordinal()].string())
+                .clientName(columns[CLIENT_NAME.ordinal()].string())
+                .contractType(code(columns, CONTRACT_TYPE, contractTypes))
+                .amount(cents != null ? BigDecimal.valueOf(cents, 2) : null)
+                .creationDate(date(columns, CREATION_DATE))
+                .activationDate(date(columns, ACTIVATION_DATE))
+                .expirationDate(date(columns, EXPIRATION_DATE))
+                .status(code(columns, STATUS, statuses))
+                .region(code(columns, REGION, dictionaries[REGION.ordinal()]))
+                .city(code(columns, CITY, dictionaries[CITY.ordinal()]))
+                .postalCode(columns[POSTAL_CODE.ordinal()].string())
+                .phoneNumber(columns[PHONE_NUMBER.ordinal()].string())
+                .email(columns[EMAIL.ordinal()].string())
+                .durationMonths(durationMonths != null ? durationMonths.intValue() : null)
+                .salesChannel(code(columns, SALES_CHANNEL, salesChannels))
+                .salesAgentId(columns[SALES_AGENT_ID.ordinal()].string())
+                .build();
+            consumer.accept(contract, lineNumber);
+        }
+    }
+    
+    private byte[] inflate(ColumnarFile.RowGroup rowGroup, int column, Inflater inflater) throws IOException {
+        byte[] compressed = read(rowGroup.offsets()[column], rowGroup.compressedLengths()[column]).array();
+        byte[] raw = new byte[rowGroup.rawLengths()[column]];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+                if (inflater.needsInput() && length < raw.length) {
+                    throw new EOFException("Bloc compressé tronqué");
+                }
+            }
+            if (length != raw.length) {
+                throw new IOException("Bloc de colonne incomplet: " + length + "/" + raw.length + " octets");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Bloc de colonne corrompu", e);
+        }
+        return raw;
+    }
+    
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Fin de fichier colonne inattendue");
+            }
+        }
+        return buffer.flip();
+    }
+    
+    private static boolean hasMagic(ByteBuffer buffer) {
+        byte[] magic = new byte[ColumnarFile.MAGIC.length];
+        buffer.get(magic);
+        return Arrays.equals(magic, ColumnarFile.MAGIC);
+    }
+    
+    private static <T> T code(ColumnCursor[] columns, ContractColumn column, T[] values) {
+        int code = (int) columns[column.ordinal()].varLong();
+        return code == 0 ? null : values[code - 1];
+    }
+    
+    private static LocalDate date(ColumnCursor[] columns, ContractColumn column) {
+        Long epochDay = columns[column.ordinal()].nullableLong();
+        return epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+    
+    private static <E extends Enum<E>> E[] enums(String[] names, Class<E> type) {
+        E[] values = Arrays.copyOf(type.getEnumConstants(), names.length);
+        for (int code = 0; code < names.length; code++) {
+            values[code] = Enum.valueOf(type, names[code]);
+        }
+        return values;
+    }
+}
\ No newline at end of file
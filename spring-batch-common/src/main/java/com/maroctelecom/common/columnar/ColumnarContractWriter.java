@@ -0,0 +1,214 @@
+package com.maroctelecom.common.columnar;
+
+import com.maroctelecom.common.model.Contract;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.maroctelecom.common.columnar.ContractColumn.*;
+
+/**
+ * Écriture en flux d'un fichier colonne de contrats
+ * Seul le groupe de lignes courant est gardé en mémoire: ses colonnes sont compressées et écrites
+ * dès qu'il atteint rowGroupRows lignes. Un seul thread écrit dans un writer
+ */
+public class ColumnarContractWriter implements Closeable {
+    
+    private static final ContractColumn[] COLUMNS = ContractColumn.values();
+    
+    private final OutputStream out;
+    private final int rowGroupRows;
+    private final Deflater deflater;
+    private final ColumnBuffer[] values = new ColumnBuffer[COLUMNS.length];
+    private final Map<ContractColumn, Map<String, Integer>> dictionaries = new HashMap<>();
+    private final ColumnBuffer dictionary = new ColumnBuffer(1024);
+    private final byte[] compressed = new byte[64 * 1024];
+    private final List<ColumnarFile.RowGroup> rowGroups = new ArrayList<>();
+    
+    private long position;
+    private int rows;
+    private long firstLine;
+    private long previousLine;
+    private long rowCount;
+    
+    /**
+     * @param out Flux de destination, idéalement bufferisé; fermé par {@link #close()}
+     * @param rowGroupRows Nombre de lignes par groupe
+     * @param compressionLevel Niveau Deflate (0 à 9)
+     */
+    public ColumnarContractWriter(OutputStream out, int rowGroupRows, int compressionLevel) throws IOException {
+        this.out = out;
+        this.rowGroupRows = Math.max(1, rowGroupRows);
+        this.deflater = new Deflater(compressionLevel);
+        
+        int bytesPerValue = 16;
+        for (ContractColumn column : COLUMNS) {
+            values[column.ordinal()] = new ColumnBuffer(Math.min(this.rowGroupRows, 4096) * bytesPerValue);
+            if (column.getEncoding() == ContractColumn.Encoding.DICTIONARY) {
+                dictionaries.put(column, new LinkedHashMap<>());
+            }
+        }
+        
+        out.write(ColumnarFile.MAGIC);
+        out.write(ColumnarFile.VERSION);
+        position = ColumnarFile.HEADER_LENGTH;
+    }
+    
+    /**
+     * Ajoute un contrat; les numéros de ligne sont croissants
+     */
+    public void write(Contract contract, long lineNumber) throws IOException {
+        if (rows == 0) {
+            firstLine = lineNumber;
+            previousLine = lineNumber;
+        }
+        values[LINE_NUMBER.ordinal()].varLong(ColumnBuffer.zigzag(lineNumber - previousLine));
+        previousLine = lineNumber;
+        
+        values[CONTRACT_ID.ordinal()].string(contract.getContractId());
+        values[CLIENT_ID.ordinal()].string(contract.getClientId());
+        values[CLIENT_NAME.ordinal()].string(contract.getClientName());
+        dictionary(CONTRACT_TYPE, name(contract.getContractType()));
+        values[AMOUNT.ordinal()].nullableLong(cents(contract.getAmount()));
+        values[CREATION_DATE.ordinal()].nullableLong(epochDay(contract.getCreationDate()));
+        values[ACTIVATION_DATE.ordinal()].nullableLong(epochDay(contract.getActivationDate()));
+        values[EXPIRATION_DATE.ordinal()].nullableLong(epochDay(contract.getExpirationDate()));
+        dictionary(STATUS, name(contract.getStatus()));
+        dictionary(REGION, contract.getRegion());
+        dictionary(CITY, contract.getCity());
+        values[POSTAL_CODE.ordinal()].string(contract.getPostalCode());
+        values[PHONE_NUMBER.ordinal()].string(contract.getPhoneNumber());
+        values[EMAIL.ordinal()].string(contract.getEmail());
+        Integer durationMonths = contract.getDurationMonths();
+        values[DURATION_MONTHS.ordinal()].nullableLong(durationMonths != null ? durationMonths.longValue() : null);
+        dictionary(SALES_CHANNEL, name(contract.getSalesChannel()));
+        values[SALES_AGENT_ID.ordinal()].string(contract.getSalesAgentId());
+        
+        rowCount++;
+        if (++rows >= rowGroupRows) {
+            flushRowGroup();
+        }
+    }
+    
+    /**
+     * Écrit le dernier groupe et le pied de fichier, puis vide le flux
+     *
+     * @return La taille du fichier en octets
+     */
+    public long finish() throws IOException {
+        if (rows > 0) {
+            flushRowGroup();
+        }
+        
+        ColumnBuffer footer = new ColumnBuffer(64 + rowGroups.size() * COLUMNS.length * 8);
+        ColumnarFile.writeFooter(footer, rowGroups);
+        out.write(footer.array(), 0, footer.size());
+        out.write(ByteBuffer.allocate(Integer.BYTES).putInt(footer.size()).array());
+        out.write(ColumnarFile.MAGIC);
+        out.flush();
+        
+        position += footer.size() + ColumnarFile.TRAILER_LENGTH;
+        return position;
+    }
+    
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        out.close();
+    }
+    
+    private void dictionary(ContractColumn column, String value) {
+        ColumnBuffer buffer = values[column.ordinal()];
+        if (value == null) {
+            buffer.varLong(0);
+            return;
+        }
+        Map<String, Integer> codes = dictionaries.get(column);
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            codes.put(value, code);
+        }
+        buffer.varLong(code + 1L);
+    }
+    
+    /**
+     * Compresse et écrit chaque colonne du groupe courant
+     */
+    private void flushRowGroup() throws IOException {
+        long[] offsets = new long[COLUMNS.length];
+        int[] compressedLengths = new int[COLUMNS.length];
+        int[] rawLengths = new int[COLUMNS.length];
+        
+        for (ContractColumn column : COLUMNS) {
+            int index = column.ordinal();
+            ColumnBuffer buffer = values[index];
+            offsets[index] = position;
+            deflater.reset();
+            
+            int written = 0;
+            int rawLength = buffer.size();
+            Map<String, Integer> codes = dictionaries.get(column);
+            if (codes != null) {
+                dictionary.reset();
+                dictionary.varLong(codes.size());
+                for (String value : codes.keySet()) {
+                    dictionary.string(value);
+                }
+                written += deflate(dictionary.array(), dictionary.size(), false);
+                rawLength += dictionary.size();
+                codes.clear();
+            }
+            written += deflate(buffer.array(), buffer.size(), true);
+            
+            compressedLengths[index] = written;
+            rawLengths[index] = rawLength;
+            position += written;
+            buffer.reset();
+        }
+        
+        rowGroups.add(new ColumnarFile.RowGroup(rows, firstLine, offsets, compressedLengths, rawLengths));
+        rows = 0;
+    }
+    
+    private int deflate(byte[] input, int length, boolean last) throws IOException {
+        deflater.setInput(input, 0, length);
+        if (last) {
+            deflater.finish();
+        }
+        int written = 0;
+        while (last ? !deflater.finished() : !deflater.needsInput()) {
+            int count = deflater.deflate(compressed);
+            out.write(compressed, 0, count);
+            written += count;
+        }
+        return written;
+    }
+    
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+    
+    private static Long cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : null;
+    }
+    
+    private static Long epochDay(LocalDate date) {
+        return date != null ? date.toEpochDay() : null;
+    }
+}
\ No newline at end of file
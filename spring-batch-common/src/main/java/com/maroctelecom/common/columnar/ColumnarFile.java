@@ -0,0 +1,106 @@
+package com.maroctelecom.common.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format colonne compressé des contrats acceptés
+ * En-tête: "MTCF" et la version. Suivent les groupes de lignes, chacun formé d'un bloc Deflate par colonne,
+ * puis le pied de fichier (schéma, position et taille de chaque bloc), sa longueur sur 4 octets et "MTCF".
+ * Les dictionnaires sont propres à chaque groupe de lignes: un groupe se décode sans le reste du fichier
+ */
+public final class ColumnarFile {
+    
+    /**
+     * Identifiant du format reporté dans les résultats et le manifeste
+     */
+    public static final String FORMAT = "mtcol/1";
+    public static final String EXTENSION = ".mtcol";
+    
+    static final byte[] MAGIC = "MTCF".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+    
+    /**
+     * En-tête (magique et version) puis, en fin de fichier, longueur du pied et magique
+     */
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+    static final int TRAILER_LENGTH = Integer.BYTES + MAGIC.length;
+    
+    private ColumnarFile() {
+    }
+    
+    /**
+     * Pied de fichier: schéma et index des groupes de lignes
+     */
+    public record Footer(List<String> columns, List<RowGroup> rowGroups) {
+        
+        public long rowCount() {
+            return rowGroups.stream().mapToLong(RowGroup::rows).sum();
+        }
+    }
+    
+    /**
+     * Groupe de lignes: position, taille compressée et taille brute du bloc de chaque colonne
+     */
+    public record RowGroup(int rows, long firstLine, long[] offsets, int[] compressedLengths, int[] rawLengths) {
+    }
+    
+    static void writeFooter(ColumnBuffer out, List<RowGroup> rowGroups) {
+        ContractColumn[] columns = ContractColumn.values();
+        out.varLong(columns.length);
+        for (ContractColumn column : columns) {
+            out.string(column.getColumnName());
+            out.varLong(column.getEncoding().ordinal());
+        }
+        
+        out.varLong(rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            out.varLong(rowGroup.rows());
+            out.varLong(rowGroup.firstLine());
+            for (int column = 0; column < columns.length; column++) {
+                out.varLong(rowGroup.offsets()[column]);
+                out.varLong(rowGroup.compressedLengths()[column]);
+                out.varLong(rowGroup.rawLengths()[column]);
+            }
+        }
+    }
+    
+    /**
+     * Relit le pied et vérifie que le schéma est celui de {@link ContractColumn}
+     */
+    static Footer readFooter(ColumnCursor in) {
+        ContractColumn[] expected = ContractColumn.values();
+        int columnCount = (int) in.varLong();
+        if (columnCount != expected.length) {
+            throw new IllegalStateException("Schéma colonne inattendu: " + columnCount + " colonnes");
+        }
+        
+        List<String> columns = new ArrayList<>(columnCount);
+        for (ContractColumn column : expected) {
+            String name = in.string();
+            int encoding = (int) in.varLong();
+            if (!column.getColumnName().equals(name) || column.getEncoding().ordinal() != encoding) {
+                throw new IllegalStateException("Colonne inattendue à la position " + column.ordinal() + ": " + name);
+            }
+            columns.add(name);
+        }
+        
+        int rowGroupCount = (int) in.varLong();
+        List<RowGroup> rowGroups = new ArrayList<>(rowGroupCount);
+        for (int group = 0; group < rowGroupCount; group++) {
+            int rows = (int) in.varLong();
+            long firstLine = in.varLong();
+            long[] offsets = new long[columnCount];
+            int[] compressedLengths = new int[columnCount];
+            int[] rawLengths = new int[columnCount];
+            for (int column = 0; column < columnCount; column++) {
+                offsets[column] = in.varLong();
+                compressedLengths[column] = (int) in.varLong();
+                rawLengths[column] = (int) in.varLong();
+            }
+            rowGroups.add(new RowGroup(rows, firstLine, offsets, compressedLengths, rawLengths));
+        }
+        return new Footer(columns, rowGroups);
+    }
+}
\ No newline at end of file
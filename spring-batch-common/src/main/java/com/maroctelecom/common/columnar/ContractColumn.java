@@ -0,0 +1,73 @@
+package com.maroctelecom.common.columnar;
+
+/**
+ * Colonnes des fichiers colonnes de contrats, dans l'ordre du fichier
+ * L'ordre des constantes et leur encodage font partie du format
+ */
+public enum ContractColumn {
+    LINE_NUMBER("line_number", Encoding.DELTA),
+    CONTRACT_ID("contract_id", Encoding.STRING),
+    CLIENT_ID("client_id", Encoding.STRING),
+    CLIENT_NAME("client_name", Encoding.STRING),
+    CONTRACT_TYPE("contract_type", Encoding.DICTIONARY),
+    AMOUNT("amount", Encoding.DECIMAL),
+    CREATION_DATE("creation_date", Encoding.DATE),
+    ACTIVATION_DATE("activation_date", Encoding.DATE),
+    EXPIRATION_DATE("expiration_date", Encoding.DATE),
+    STATUS("status", Encoding.DICTIONARY),
+    REGION("region", Encoding.DICTIONARY),
+    CITY("city", Encoding.DICTIONARY),
+    POSTAL_CODE("postal_code", Encoding.STRING),
+    PHONE_NUMBER("phone_number", Encoding.STRING),
+    EMAIL("email", Encoding.STRING),
+    DURATION_MONTHS("duration_months", Encoding.LONG),
+    SALES_CHANNEL("sales_channel", Encoding.DICTIONARY),
+    SALES_AGENT_ID("sales_agent_id", Encoding.STRING);
+    
+    private final String columnName;
+    private final Encoding encoding;
+    
+    ContractColumn(String columnName, Encoding encoding) {
+        this.columnName = columnName;
+        this.encoding = encoding;
+    }
+    
+    public String getColumnName() {
+        return columnName;
+    }
+    
+    public Encoding getEncoding() {
+        return encoding;
+    }
+    
+    /**
+     * Encodage des valeurs d'une colonne dans un groupe de lignes, avant compression
+     * Les valeurs nulles sont codées 0, les autres décalées de 1
+     */
+    public enum Encoding {
+        /**
+         * Écart avec la valeur précédente du groupe (varint zigzag), jamais nul
+         */
+        DELTA,
+        /**
+         * Entier (varint zigzag)
+         */
+        LONG,
+        /**
+         * Montant en centimes (varint zigzag)
+         */
+        DECIMAL,
+        /**
+         * Nombre de jours depuis le 1970-01-01 (varint zigzag)
+         */
+        DATE,
+        /**
+         * Longueur puis octets UTF-8
+         */
+        STRING,
+        /**
+         * Dictionnaire du groupe en tête de colonne, puis le code de chaque valeur
+         */
+        DICTIONARY
+    }
+}
\ No newline at end of file
@@ -1,9 +1,18 @@
 package com.maroctelecom.common.config;
 
+import com.maroctelecom.common.serde.WireFormatSerializer;
+import com.maroctelecom.common.transport.PriorityLane;
 import lombok.Data;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -45,6 +54,16 @@ public class KafkaConfig {
      */
     private Retry retry = new Retry();
     
+    /**
+     * Configuration de la surveillance du lag et du débit
+     */
+    private Monitoring monitoring = new Monitoring();
+    
+    /**
+     * Configuration des voies de priorité des tâches
+     */
+    private Lanes lanes = new Lanes();
+    
     @Data
     public static class Broker {
         private String servers = "localhost:9092";
@@ -66,14 +85,24 @@ public class KafkaConfig {
     @Data
     public static class Topics {
         private String contractPartitions = "contract-partitions";
+        private String contractPartitionsUrgent = "contract-partitions-urgent";
+        private String contractPartitionsBulk = "contract-partitions-bulk";
         private String contractResults = "contract-results";
         private String deadLetter = "contract-dead-letter";
         private String monitoring = "contract-monitoring";
+        private String checkpoints = "contract-checkpoints";
+        private String workerAdvertisements = "worker-advertisements";
         
         private TopicConfig contractPartitionsConfig = new TopicConfig(8, 3, 604800000L); // 8 partitions, 3 replicas, 7 days retention
+        private TopicConfig contractPartitionsUrgentConfig = new TopicConfig(4, 3, 604800000L); // 4 partitions, 3 replicas, 7 days retention
+        private TopicConfig contractPartitionsBulkConfig = new TopicConfig(8, 3, 604800000L); // 8 partitions, 3 replicas, 7 days retention
         private TopicConfig contractResultsConfig = new TopicConfig(4, 3, 604800000L);   // 4 partitions, 3 replicas, 7 days retention
         private TopicConfig deadLetterConfig = new TopicConfig(1, 3, 2592000000L);        // 1 partition, 3 replicas, 30 days retention
         private TopicConfig monitoringConfig = new TopicConfig(1, 2, 86400000L);          // 1 partition, 2 replicas, 1 day retention
+        private TopicConfig checkpointsConfig = new TopicConfig(8, 3, 604800000L,         // 8 partitions, 3 replicas, compacté
+                Map.of("cleanup.policy", "compact"));
+        private TopicConfig workerAdvertisementsConfig = new TopicConfig(1, 3, 86400000L, // 1 partition, 3 replicas, compacté
+                Map.of("cleanup.policy", "compact"));
         
         @Data
         public static class TopicConfig {
@@ -89,6 +118,11 @@ public class KafkaConfig {
                 this.replicationFactor = replicationFactor;
                 this.retentionMs = retentionMs;
             }
+            
+            public TopicConfig(int partitions, int replicationFactor, long retentionMs, Map<String, String> configs) {
+                this(partitions, replicationFactor, retentionMs);
+                this.configs = configs;
+            }
         }
     }
     
@@ -103,7 +137,7 @@ public class KafkaConfig {
     @Data
     public static class Producer {
         private String keySerializer = "org.apache.kafka.common.serialization.StringSerializer";
-        private String valueSerializer = "org.springframework.kafka.support.serializer.JsonSerializer";
+        private String valueSerializer = "com.maroctelecom.common.serde.WireFormatSerializer";
         private String acks = "all";
         private int retries = 3;
         private int batchSize = 16384;
@@ -115,12 +149,63 @@ public class KafkaConfig {
         private int requestTimeoutMs = 30000;
         private int deliveryTimeoutMs = 120000;
         private Map<String, Object> additionalProperties;
+        
+        // Mode transactionnel: publication du résultat et commit de l'offset dans une même transaction
+        private boolean transactional = false;
+        private String transactionalIdPrefix = "tx-";
+        
+        // Format de sérialisation par topic (JSON par défaut, BINARY pour le format compact versionné)
+        private WireFormat partitionsWireFormat = WireFormat.JSON;
+        private WireFormat resultsWireFormat = WireFormat.JSON;
+        
+        // Profils par classe de trafic: contrôle (tâches, progression) et volumineux (résultats, erreurs)
+        private ProducerProfile control = new ProducerProfile("none", 16384, 0, 5);
+        private ProducerProfile bulk = new ProducerProfile("zstd", 262144, 20, 5);
+    }
+    
+    /**
+     * Surcharges d'un profil de producer; les valeurs nulles reprennent celles de {@link Producer}
+     */
+    @Data
+    public static class ProducerProfile {
+        private String compressionType;
+        private Integer batchSize;
+        private Integer lingerMs;
+        private Integer maxInFlightRequestsPerConnection;
+        private Long bufferMemory;
+        private String acks;
+        
+        public ProducerProfile() {}
+        
+        public ProducerProfile(String compressionType, Integer batchSize, Integer lingerMs,
+                               Integer maxInFlightRequestsPerConnection) {
+            this.compressionType = compressionType;
+            this.batchSize = batchSize;
+            this.lingerMs = lingerMs;
+            this.maxInFlightRequestsPerConnection = maxInFlightRequestsPerConnection;
+        }
+    }
+    
+    /**
+     * Classes de trafic des producers
+     */
+    public enum TrafficClass {
+        CONTROL,
+        BULK
+    }
+    
+    /**
+     * Formats de sérialisation des messages
+     */
+    public enum WireFormat {
+        JSON,
+        BINARY
     }
     
     @Data
     public static class Consumer {
         private String keyDeserializer = "org.apache.kafka.common.serialization.StringDeserializer";
-        private String valueDeserializer = "org.springframework.kafka.support.serializer.JsonDeserializer";
+        private String valueDeserializer = "com.maroctelecom.common.serde.WireFormatDeserializer";
         private String autoOffsetReset = "earliest";
         private boolean enableAutoCommit = false;
         private int sessionTimeoutMs = 30000;
@@ -140,7 +225,11 @@ public class KafkaConfig {
         public static class JsonDeserializer {
             private boolean trustedPackages = true;
             private String typeMapping = "partitionTask:com.maroctelecom.common.dto.PartitionTaskDTO," +
-                                        "taskResult:com.maroctelecom.common.dto.TaskResultDTO";
+                                        "taskResult:com.maroctelecom.common.dto.TaskResultDTO," +
+                                        "taskProgress:com.maroctelecom.common.dto.TaskProgressDTO," +
+                                        "partitionCheckpoint:com.maroctelecom.common.dto.PartitionCheckpointDTO," +
+                                        "workerAdvertisement:com.maroctelecom.common.dto.WorkerAdvertisementDTO," +
+                                        "clusterLoad:com.maroctelecom.common.dto.ClusterLoadDTO";
             private boolean addTypeHeaders = true;
             private boolean removeTypeHeaders = false;
             private boolean useTypeMapperForKey = false;
@@ -184,6 +273,21 @@ public class KafkaConfig {
         private double alertThresholdThroughput = 100.0;
     }
     
+    /**
+     * Voies de priorité: un topic de tâches par bande de priorité (1 = haute priorité)
+     * Les workers servent les bandes par tirage pondéré équitable: une bande chargée ne bloque jamais
+     * les autres, et la bande de masse reçoit toujours sa part des créneaux disputés
+     */
+    @Data
+    public static class Lanes {
+        private boolean enabled = true;
+        private int urgentMaxPriority = 2;
+        private int bulkMinPriority = 8;
+        private int urgentWeight = 8;
+        private int normalWeight = 3;
+        private int bulkWeight = 1;
+    }
+    
     /**
      * Configuration pour la santé des connexions
      */
@@ -195,6 +299,166 @@ public class KafkaConfig {
         private long retryDelayMs = 1000L;
     }
     
+    /**
+     * Construit les propriétés d'un producer Kafka à partir de la configuration
+     */
+    public Map<String, Object> buildProducerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.servers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, producer.keySerializer);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, producer.valueSerializer);
+        props.put(ProducerConfig.ACKS_CONFIG, producer.acks);
+        props.put(ProducerConfig.RETRIES_CONFIG, producer.retries);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producer.batchSize);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producer.lingerMs);
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, producer.bufferMemory);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.compressionType);
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, producer.maxInFlightRequestsPerConnection);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producer.enableIdempotence);
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, producer.requestTimeoutMs);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producer.deliveryTimeoutMs);
+        props.put(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, broker.security.protocol);
+        
+        // Même table de types que les consumers pour les en-têtes JSON
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, consumer.jsonDeserializer.addTypeHeaders);
+        props.put(JsonSerializer.TYPE_MAPPINGS, consumer.jsonDeserializer.typeMapping);
+        props.put(WireFormatSerializer.BINARY_TOPICS, getBinaryTopics());
+        
+        if (producer.additionalProperties != null) {
+            props.putAll(producer.additionalProperties);
+        }
+        return props;
+    }
+    
+    /**
+     * Construit les propriétés d'un producer pour une classe de trafic
+     */
+    public Map<String, Object> buildProducerProperties(TrafficClass trafficClass) {
+        Map<String, Object> props = buildProducerProperties();
+        ProducerProfile profile = trafficClass == TrafficClass.CONTROL ? producer.control : producer.bulk;
+        
+        putIfSet(props, ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.compressionType);
+        putIfSet(props, ProducerConfig.BATCH_SIZE_CONFIG, profile.batchSize);
+        putIfSet(props, ProducerConfig.LINGER_MS_CONFIG, profile.lingerMs);
+        putIfSet(props, ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, profile.maxInFlightRequestsPerConnection);
+        putIfSet(props, ProducerConfig.BUFFER_MEMORY_CONFIG, profile.bufferMemory);
+        putIfSet(props, ProducerConfig.ACKS_CONFIG, profile.acks);
+        return props;
+    }
+    
+    private static void putIfSet(Map<String, Object> props, String key, Object value) {
+        if (value != null) {
+            props.put(key, value);
+        }
+    }
+    
+    /**
+     * Construit les propriétés d'un consumer Kafka à partir de la configuration
+     */
+    public Map<String, Object> buildConsumerProperties() {
+        Map<String, Object> props = new HashMap<>(buildValueDeserializerProperties());
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.servers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, consumer.keyDeserializer);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, consumer.valueDeserializer);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, consumer.autoOffsetReset);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, consumer.enableAutoCommit);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, consumer.maxPollRecords);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, consumer.isolationLevel);
+        props.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, consumer.allowAutoCreateTopics);
+        props.put(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, broker.security.protocol);
+        
+        if (consumer.additionalProperties != null) {
+            props.putAll(consumer.additionalProperties);
+        }
+        return props;
+    }
+    
+    /**
+     * Construit les propriétés du désérialiseur de valeurs (repli JSON compris)
+     */
+    public Map<String, Object> buildValueDeserializerProperties() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(org.springframework.kafka.support.serializer.JsonDeserializer.TRUSTED_PACKAGES,
+                consumer.jsonDeserializer.trustedPackages ? "*" : "com.maroctelecom.common.dto");
+        props.put(org.springframework.kafka.support.serializer.JsonDeserializer.TYPE_MAPPINGS,
+                consumer.jsonDeserializer.typeMapping);
+        props.put(org.springframework.kafka.support.serializer.JsonDeserializer.REMOVE_TYPE_INFO_HEADERS,
+                consumer.jsonDeserializer.removeTypeHeaders);
+        return props;
+    }
+    
+    /**
+     * Voie d'une tâche selon sa priorité; toutes les tâches passent par la voie normale si les voies sont désactivées
+     */
+    public PriorityLane laneOf(Integer priority) {
+        if (!lanes.enabled || priority == null) {
+            return PriorityLane.NORMAL;
+        }
+        if (priority <= lanes.urgentMaxPriority) {
+            return PriorityLane.URGENT;
+        }
+        return priority >= lanes.bulkMinPriority ? PriorityLane.BULK : PriorityLane.NORMAL;
+    }
+    
+    /**
+     * Topic des tâches d'une voie; la voie normale garde le topic historique
+     */
+    public String partitionsTopicFor(PriorityLane lane) {
+        return switch (lane) {
+            case URGENT -> topics.contractPartitionsUrgent;
+            case BULK -> topics.contractPartitionsBulk;
+            default -> topics.contractPartitions;
+        };
+    }
+    
+    /**
+     * Topic par lequel le worker a reçu une tâche, ramené à sa voie
+     */
+    public PriorityLane laneOfTopic(String topic) {
+        if (lanes.enabled && topic.equals(topics.contractPartitionsUrgent)) {
+            return PriorityLane.URGENT;
+        }
+        if (lanes.enabled && topic.equals(topics.contractPartitionsBulk)) {
+            return PriorityLane.BULK;
+        }
+        return PriorityLane.NORMAL;
+    }
+    
+    /**
+     * Poids de sélection d'une voie côté worker
+     */
+    public int laneWeight(PriorityLane lane) {
+        return switch (lane) {
+            case URGENT -> lanes.urgentWeight;
+            case BULK -> lanes.bulkWeight;
+            default -> lanes.normalWeight;
+        };
+    }
+    
+    /**
+     * Topics de tâches écoutés par les workers
+     */
+    public List<String> getPartitionsTopics() {
+        if (!lanes.enabled) {
+            return List.of(topics.contractPartitions);
+        }
+        return List.of(topics.contractPartitionsUrgent, topics.contractPartitions, topics.contractPartitionsBulk);
+    }
+    
+    /**
+     * Topics publiés au format binaire, séparés par des virgules
+     */
+    public String getBinaryTopics() {
+        List<String> binaryTopics = new ArrayList<>();
+        if (producer.partitionsWireFormat == WireFormat.BINARY) {
+            binaryTopics.addAll(getPartitionsTopics());
+        }
+        if (producer.resultsWireFormat == WireFormat.BINARY) {
+            binaryTopics.add(topics.contractResults);
+        }
+        return String.join(",", binaryTopics);
+    }
+    
     /**
      * Validation de la configuration
      */
@@ -211,6 +475,10 @@ public class KafkaConfig {
             throw new IllegalArgumentException("Le nom du topic contract-results ne peut pas être vide");
         }
         
+        if (lanes.enabled && (lanes.urgentWeight < 1 || lanes.normalWeight < 1 || lanes.bulkWeight < 1)) {
+            throw new IllegalArgumentException("Les poids des voies de priorité doivent être au moins égaux à 1");
+        }
+        
         if (consumerGroups.taskMaster == null || consumerGroups.taskMaster.trim().isEmpty()) {
             throw new IllegalArgumentException("Le groupe de consommateurs task-master ne peut pas être vide");
         }
@@ -0,0 +1,61 @@
+package com.maroctelecom.common.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+
+/**
+ * Producers Kafka séparés par classe de trafic
+ * Les messages de contrôle (tâches, progression, checkpoints) partent sans attente de lot ni compression,
+ * les messages volumineux (résultats) sont regroupés et compressés
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class ProducerProfilesConfiguration {
+    
+    public static final String CONTROL_TEMPLATE = "controlKafkaTemplate";
+    public static final String BULK_TEMPLATE = "bulkKafkaTemplate";
+    
+    private final KafkaConfig kafkaConfig;
+    
+    @Bean
+    public ProducerFactory<String, Object> controlProducerFactory() {
+        return createProducerFactory(KafkaConfig.TrafficClass.CONTROL);
+    }
+    
+    @Bean
+    public ProducerFactory<String, Object> bulkProducerFactory() {
+        return createProducerFactory(KafkaConfig.TrafficClass.BULK);
+    }
+    
+    @Bean(CONTROL_TEMPLATE)
+    public KafkaTemplate<?, ?> controlKafkaTemplate() {
+        return new KafkaTemplate<>(controlProducerFactory());
+    }
+    
+    @Bean(BULK_TEMPLATE)
+    public KafkaTemplate<?, ?> bulkKafkaTemplate() {
+        return new KafkaTemplate<>(bulkProducerFactory());
+    }
+    
+    private ProducerFactory<String, Object> createProducerFactory(KafkaConfig.TrafficClass trafficClass) {
+        Map<String, Object> props = kafkaConfig.buildProducerProperties(trafficClass);
+        
+        log.info("Profil producer {}: compression={}, batch-size={}, linger-ms={}, max-in-flight={}",
+                trafficClass,
+                props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG),
+                props.get(ProducerConfig.BATCH_SIZE_CONFIG),
+                props.get(ProducerConfig.LINGER_MS_CONFIG),
+                props.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+        
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.maroctelecom.common.config;
+
+import com.maroctelecom.common.serde.WireFormatDeserializer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+/**
+ * Branche le désérialiseur multi-format sur la fabrique de consumers de Spring Boot
+ * Les producers sont construits par {@link ProducerProfilesConfiguration} avec le sérialiseur par topic
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WireFormatConfiguration {
+    
+    private final KafkaConfig kafkaConfig;
+    
+    @Bean
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DefaultKafkaConsumerFactoryCustomizer wireFormatConsumerCustomizer() {
+        return consumerFactory -> ((DefaultKafkaConsumerFactory) consumerFactory).setValueDeserializerSupplier(() -> {
+            WireFormatDeserializer deserializer = new WireFormatDeserializer();
+            deserializer.configure(kafkaConfig.buildValueDeserializerProperties(), false);
+            return deserializer;
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.maroctelecom.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO représentant un échantillon de charge du cluster: lag des consumers et débit de traitement
+ * Publié périodiquement par le task master sur le topic de monitoring, signal de base de l'autoscaling des workers
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterLoadDTO {
+    
+    /**
+     * Date de l'échantillon
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime sampledAt;
+    
+    /**
+     * Tâches en attente des workers (lag du groupe worker sur le topic des partitions)
+     */
+    private Long partitionsLag;
+    
+    /**
+     * Résultats en attente du task master (lag du groupe task master sur le topic des résultats)
+     */
+    private Long resultsLag;
+    
+    /**
+     * Tâches terminées par seconde sur la fenêtre d'échantillonnage
+     */
+    private Double tasksPerSecond;
+    
+    /**
+     * Contrats traités par seconde sur la fenêtre d'échantillonnage
+     */
+    private Double contractsPerSecond;
+    
+    /**
+     * Alertes actives au moment de l'échantillon
+     */
+    @Builder.Default
+    private List<String> alerts = new ArrayList<>();
+}
\ No newline at end of file
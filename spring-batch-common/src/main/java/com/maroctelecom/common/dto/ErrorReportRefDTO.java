@@ -0,0 +1,52 @@
+package com.maroctelecom.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Référence vers le rapport d'erreurs détaillé d'une tâche, publié par lots compressés sur le topic dead-letter
+ * Permet au task master de relire les lots à la demande sans les transporter dans le résultat
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorReportRefDTO {
+    
+    /**
+     * Identifiant de la tâche (clé des lots)
+     */
+    private String taskId;
+    
+    /**
+     * Tentative ayant produit le rapport
+     */
+    private Integer attempt;
+    
+    /**
+     * Topic contenant les lots d'erreurs
+     */
+    private String topic;
+    
+    /**
+     * Partition Kafka des lots (tous les lots d'une tâche partagent la même clé)
+     */
+    private Integer partition;
+    
+    /**
+     * Offset du premier lot de la tâche
+     */
+    private Long firstOffset;
+    
+    /**
+     * Nombre de lots publiés
+     */
+    private Integer batchCount;
+    
+    /**
+     * Nombre total d'erreurs détaillées publiées
+     */
+    private Long errorCount;
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.maroctelecom.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Référence vers le fichier de sortie écrit par un worker pour une partition
+ * Le task master l'inscrit dans le manifeste du jeu de données à la fin du job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutputFileRefDTO {
+    
+    /**
+     * Chemin du fichier, tel que vu par le worker
+     */
+    private String path;
+    
+    /**
+     * Format du fichier (ex: mtcol/1)
+     */
+    private String format;
+    
+    /**
+     * Première ligne couverte par le fichier (reprise d'une partition interrompue comprise)
+     */
+    private Long firstLine;
+    
+    /**
+     * Nombre de contrats écrits
+     */
+    private Long rowCount;
+    
+    /**
+     * Taille du fichier en octets
+     */
+    private Long sizeBytes;
+}
\ No newline at end of file
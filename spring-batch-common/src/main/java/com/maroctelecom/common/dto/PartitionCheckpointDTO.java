@@ -0,0 +1,103 @@
+package com.maroctelecom.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO représentant un point de reprise d'une partition en cours de traitement
+ * Permet à un worker de reprendre une tâche relivrée depuis la dernière ligne validée
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionCheckpointDTO {
+    
+    /**
+     * Identifiant de la tâche
+     */
+    @NotBlank(message = "L'ID de la tâche ne peut pas être vide")
+    private String taskId;
+    
+    /**
+     * Identifiant de l'exécution du job
+     */
+    private Long jobExecutionId;
+    
+    /**
+     * Identifiant de la partition
+     */
+    private Integer partitionId;
+    
+    /**
+     * Identifiant du worker ayant écrit le checkpoint
+     */
+    private String workerId;
+    
+    /**
+     * Dernière ligne entièrement traitée (1-based, inclusive)
+     */
+    @NotNull(message = "La dernière ligne traitée est requise")
+    private Long lastProcessedLine;
+    
+    /**
+     * Nombre de lignes traitées jusqu'au checkpoint
+     */
+    @Builder.Default
+    private Long totalLinesProcessed = 0L;
+    
+    /**
+     * Nombre de contrats traités avec succès jusqu'au checkpoint
+     */
+    @Builder.Default
+    private Long successfulContracts = 0L;
+    
+    /**
+     * Nombre de contrats échoués jusqu'au checkpoint
+     */
+    @Builder.Default
+    private Long failedContracts = 0L;
+    
+    /**
+     * Nombre de contrats ignorés jusqu'au checkpoint
+     */
+    @Builder.Default
+    private Long skippedContracts = 0L;
+    
+    /**
+     * Montant cumulé des contrats traités (en DH), conservé exactement pour la reprise
+     */
+    @Builder.Default
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    /**
+     * Nombre de clients uniques vus jusqu'au checkpoint
+     */
+    @Builder.Default
+    private Long uniqueClientsCount = 0L;
+    
+    /**
+     * Statistiques cumulées par type de contrat
+     */
+    private Map<String, TaskResultDTO.ContractTypeStats> contractTypeStats;
+    
+    /**
+     * Nombre d'erreurs par type jusqu'au checkpoint
+     */
+    private Map<String, Long> errorCountsByType;
+    
+    /**
+     * Timestamp d'écriture du checkpoint
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime checkpointedAt;
+}
\ No newline at end of file
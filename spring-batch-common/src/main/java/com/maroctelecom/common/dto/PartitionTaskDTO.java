@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
  * Contient les informations nécessaires pour qu'un worker traite une portion de fichier
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PartitionTaskDTO {
@@ -72,6 +72,12 @@ public class PartitionTaskDTO {
     @NotNull(message = "L'ID d'exécution du job est requis")
     private Long jobExecutionId;
     
+    /**
+     * Nombre total de partitions du job (pour la détection de fin de job)
+     */
+    @Min(value = 1, message = "Le nombre de partitions doit être supérieur à 0")
+    private Integer totalPartitions;
+    
     /**
      * Timestamp de création de la tâche
      */
@@ -100,6 +106,46 @@ public class PartitionTaskDTO {
     @Builder.Default
     private Integer timeoutSeconds = 300;
     
+    /**
+     * Numéro de tentative de la tâche (1 pour le premier envoi, incrémenté à chaque ré-émission)
+     */
+    @Builder.Default
+    private Integer attempt = 1;
+    
+    /**
+     * URL du fichier sur le serveur de plages du task master (mode data-shipping)
+     * Null lorsque le worker lit le fichier sur le stockage partagé
+     */
+    private String dataUrl;
+    
+    /**
+     * Taille en octets de la ligne d'en-têtes, servie avant la plage de la partition
+     */
+    private Long headerByteLength;
+    
+    /**
+     * Premier octet de la partition dans le fichier (inclus)
+     */
+    private Long byteRangeStart;
+    
+    /**
+     * Fin de la partition dans le fichier (exclue)
+     */
+    private Long byteRangeEnd;
+    
+    /**
+     * Ligne de reprise pour le reste d'une partition interrompue par son timeout
+     * Null pour traiter la partition depuis startLine; les bornes et la plage d'octets restent celles de la partition
+     */
+    private Long resumeLine;
+    
+    /**
+     * Indique si la partition est servie par le task master plutôt que lue sur le stockage partagé
+     */
+    public boolean isDataShipped() {
+        return dataUrl != null && byteRangeStart != null && byteRangeEnd != null;
+    }
+    
     /**
      * Retourne la taille de la partition en nombre de lignes
      */
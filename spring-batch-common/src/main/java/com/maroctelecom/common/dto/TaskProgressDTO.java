@@ -0,0 +1,138 @@
+package com.maroctelecom.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO représentant la progression intermédiaire d'une partition en cours de traitement
+ * Publié périodiquement par les workers sur le topic de monitoring
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskProgressDTO {
+    
+    /**
+     * Identifiant de la tâche en cours
+     */
+    @NotBlank(message = "L'ID de la tâche ne peut pas être vide")
+    private String taskId;
+    
+    /**
+     * Identifiant de l'exécution du job
+     */
+    @NotNull(message = "L'ID d'exécution du job est requis")
+    private Long jobExecutionId;
+    
+    /**
+     * Identifiant de la partition
+     */
+    private Integer partitionId;
+    
+    /**
+     * Identifiant du worker qui traite la tâche
+     */
+    private String workerId;
+    
+    /**
+     * Numéro de séquence du rapport (croissant pour une même tâche)
+     */
+    private Long sequence;
+    
+    /**
+     * Nombre de lignes attendues pour la partition
+     */
+    private Long expectedLines;
+    
+    /**
+     * Dernière ligne traitée (1-based)
+     */
+    private Long lastProcessedLine;
+    
+    /**
+     * Nombre de lignes traitées jusqu'ici
+     */
+    @Builder.Default
+    private Long linesProcessed = 0L;
+    
+    /**
+     * Nombre de contrats traités avec succès jusqu'ici
+     */
+    @Builder.Default
+    private Long successfulContracts = 0L;
+    
+    /**
+     * Nombre de contrats échoués jusqu'ici
+     */
+    @Builder.Default
+    private Long failedContracts = 0L;
+    
+    /**
+     * Nombre de contrats ignorés jusqu'ici
+     */
+    @Builder.Default
+    private Long skippedContracts = 0L;
+    
+    /**
+     * Montant partiel des contrats traités (en DH)
+     */
+    @Builder.Default
+    private Double totalAmount = 0.0;
+    
+    /**
+     * Nombre partiel de clients uniques
+     */
+    @Builder.Default
+    private Long uniqueClientsCount = 0L;
+    
+    /**
+     * Statistiques partielles par type de contrat
+     */
+    private Map<String, TaskResultDTO.ContractTypeStats> contractTypeStats;
+    
+    /**
+     * Timestamp de début du traitement de la partition
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    
+    /**
+     * Timestamp d'émission du rapport
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime reportedAt;
+    
+    /**
+     * Temps écoulé depuis le début du traitement (en millisecondes)
+     */
+    private Long elapsedMs;
+    
+    /**
+     * Calcule le pourcentage d'avancement de la partition
+     */
+    public Double getCompletionPercentage() {
+        if (expectedLines == null || expectedLines == 0 || linesProcessed == null) {
+            return 0.0;
+        }
+        return Math.min(100.0, (linesProcessed.doubleValue() / expectedLines.doubleValue()) * 100);
+    }
+    
+    /**
+     * Calcule le débit courant de la partition (lignes par seconde)
+     */
+    public Double getThroughput() {
+        if (elapsedMs == null || elapsedMs == 0 || linesProcessed == null) {
+            return 0.0;
+        }
+        return (linesProcessed.doubleValue() / elapsedMs.doubleValue()) * 1000;
+    }
+}
\ No newline at end of file
@@ -29,12 +29,28 @@ public class TaskResultDTO {
     @NotBlank(message = "L'ID de la tâche ne peut pas être vide")
     private String taskId;
     
+    /**
+     * Identifiant de l'exécution du job auquel appartient la tâche
+     */
+    private Long jobExecutionId;
+    
+    /**
+     * Nombre total de partitions du job auquel appartient la tâche
+     */
+    private Integer totalPartitions;
+    
     /**
      * Identifiant de la partition
      */
     @NotNull(message = "L'ID de partition est requis")
     private Integer partitionId;
     
+    /**
+     * Numéro de tentative de la tâche ayant produit ce résultat
+     */
+    @Builder.Default
+    private Integer attempt = 1;
+    
     /**
      * Identifiant du worker qui a traité la tâche
      */
@@ -102,10 +118,20 @@ public class TaskResultDTO {
     private Long uniqueClientsCount = 0L;
     
     /**
-     * Liste des erreurs rencontrées
+     * Liste des erreurs rencontrées (vide lorsque le détail est déporté sur le topic dead-letter)
      */
     private List<ErrorInfo> errors;
     
+    /**
+     * Nombre d'erreurs par type
+     */
+    private Map<String, Long> errorCountsByType;
+    
+    /**
+     * Référence du rapport d'erreurs détaillé publié sur le topic dead-letter
+     */
+    private ErrorReportRefDTO errorReport;
+    
     /**
      * Métriques additionnelles personnalisées
      */
@@ -131,6 +157,16 @@ public class TaskResultDTO {
      */
     private Map<String, ContractTypeStats> contractTypeStats;
     
+    /**
+     * Dernière ligne traitée d'une partition interrompue: le task master replanifie la suite
+     */
+    private Long lastProcessedLine;
+    
+    /**
+     * Fichier de sortie colonne écrit pour la partition, inscrit dans le manifeste du job
+     */
+    private OutputFileRefDTO outputFile;
+    
     /**
      * Calcule le taux de succès en pourcentage
      */
@@ -165,6 +201,14 @@ public class TaskResultDTO {
         return ProcessingStatus.FAILED.equals(status);
     }
     
+    /**
+     * Indique si le traitement a été interrompu (timeout ou annulation) avant la fin de la partition
+     * Les compteurs portent alors sur les lignes jusqu'à lastProcessedLine
+     */
+    public boolean isPartial() {
+        return ProcessingStatus.TIMEOUT.equals(status) || ProcessingStatus.CANCELLED.equals(status);
+    }
+    
     /**
      * Énumération des statuts de traitement
      */
@@ -0,0 +1,47 @@
+package com.maroctelecom.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO d'annonce d'un worker: données disponibles localement et partitions du topic des tâches qu'il consomme
+ * Publié périodiquement sur un topic compacté (clé = ID du worker) pour le routage par affinité de fichier
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkerAdvertisementDTO {
+    
+    /**
+     * Identifiant du worker
+     */
+    @NotBlank(message = "L'ID du worker ne peut pas être vide")
+    private String workerId;
+    
+    /**
+     * Partitions du topic des tâches actuellement assignées au worker
+     */
+    @Builder.Default
+    private List<Integer> taskPartitions = new ArrayList<>();
+    
+    /**
+     * Fichiers ou répertoires détenus localement (chemins absolus normalisés)
+     */
+    @Builder.Default
+    private List<String> localPaths = new ArrayList<>();
+    
+    /**
+     * Date de l'annonce, au-delà d'un délai sans renouvellement l'annonce est ignorée
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime advertisedAt;
+}
\ No newline at end of file
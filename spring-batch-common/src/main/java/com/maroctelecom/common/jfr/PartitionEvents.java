@@ -0,0 +1,175 @@
+package com.maroctelecom.common.jfr;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événements JDK Flight Recorder du cycle de vie des partitions, du master aux workers
+ * Tous portent l'identifiant de la tâche pour corréler les enregistrements des différentes JVM.
+ * Coût quasi nul hors enregistrement; configuration prête à l'emploi: scripts/jfr/batch-partitions.jfc
+ */
+public final class PartitionEvents {
+    
+    public static final String PREFIX = "com.maroctelecom.batch.";
+    
+    private PartitionEvents() {
+    }
+    
+    /**
+     * Champs communs: identification de la tâche et de sa partition
+     */
+    @Category({"Maroc Telecom", "Batch"})
+    @StackTrace(false)
+    public abstract static class TaskEvent extends Event {
+        
+        @Label("Task Id")
+        public String taskId;
+        
+        @Label("Job Execution Id")
+        public long jobExecutionId;
+        
+        @Label("Partition Id")
+        public int partitionId;
+        
+        @Label("Attempt")
+        public int attempt;
+        
+        /**
+         * Renseigne les champs communs depuis une tâche
+         */
+        public void task(PartitionTaskDTO partitionTask) {
+            taskId = partitionTask.getTaskId();
+            jobExecutionId = partitionTask.getJobExecutionId() != null ? partitionTask.getJobExecutionId() : -1L;
+            partitionId = partitionTask.getPartitionId() != null ? partitionTask.getPartitionId() : -1;
+            attempt = partitionTask.getAttempt() != null ? partitionTask.getAttempt() : 1;
+        }
+        
+        /**
+         * Renseigne les champs communs depuis un résultat
+         */
+        public void task(TaskResultDTO taskResult) {
+            taskId = taskResult.getTaskId();
+            jobExecutionId = taskResult.getJobExecutionId() != null ? taskResult.getJobExecutionId() : -1L;
+            partitionId = taskResult.getPartitionId() != null ? taskResult.getPartitionId() : -1;
+            attempt = taskResult.getAttempt() != null ? taskResult.getAttempt() : 1;
+        }
+    }
+    
+    @Name(PREFIX + "PartitionPlanned")
+    @Label("Partition Planned")
+    @Description("Partition découpée par le FilePartitioner")
+    public static class PartitionPlanned extends TaskEvent {
+        
+        @Label("File Name")
+        public String fileName;
+        
+        @Label("Start Line")
+        public long startLine;
+        
+        @Label("End Line")
+        public long endLine;
+        
+        @Label("Priority")
+        public int priority;
+    }
+    
+    @Name(PREFIX + "PartitionSent")
+    @Label("Partition Sent")
+    @Description("Envoi d'une tâche vers Kafka, jusqu'à l'acquittement du broker")
+    public static class PartitionSent extends TaskEvent {
+        
+        @Label("Topic")
+        public String topic;
+        
+        @Label("Kafka Partition")
+        public int kafkaPartition;
+        
+        @Label("Success")
+        public boolean success;
+    }
+    
+    @Name(PREFIX + "PartitionReceived")
+    @Label("Partition Received")
+    @Description("Tâche reçue par un worker, avant sa mise en file dans sa voie de priorité")
+    public static class PartitionReceived extends TaskEvent {
+        
+        @Label("Topic")
+        public String topic;
+        
+        @Label("Kafka Partition")
+        public int kafkaPartition;
+        
+        @Label("Offset")
+        public long offset;
+    }
+    
+    @Name(PREFIX + "PartitionStarted")
+    @Label("Partition Started")
+    @Description("Début de la lecture d'une partition par un thread de traitement")
+    public static class PartitionStarted extends TaskEvent {
+        
+        @Label("First Line")
+        public long firstLine;
+        
+        @Label("End Line")
+        public long endLine;
+        
+        @Label("Resumed")
+        @Description("Reprise depuis un checkpoint ou reste d'une partition interrompue")
+        public boolean resumed;
+    }
+    
+    @Name(PREFIX + "ChunkProcessed")
+    @Label("Chunk Processed")
+    @Description("Bloc de lignes d'une partition lu, validé et agrégé")
+    public static class ChunkProcessed extends TaskEvent {
+        
+        @Label("First Line")
+        public long firstLine;
+        
+        @Label("Rows")
+        public long rows;
+        
+        @Label("Bytes")
+        @Description("Taille des lignes du bloc, estimée d'après les champs CSV")
+        @DataAmount
+        public long bytes;
+    }
+    
+    @Name(PREFIX + "ResultSent")
+    @Label("Result Sent")
+    @Description("Publication du résultat d'une tâche, jusqu'à sa confirmation")
+    public static class ResultSent extends TaskEvent {
+        
+        @Label("Status")
+        public String status;
+        
+        @Label("Lines Processed")
+        public long linesProcessed;
+        
+        @Label("Success")
+        public boolean success;
+    }
+    
+    @Name(PREFIX + "ResultAggregated")
+    @Label("Result Aggregated")
+    @Description("Résultat d'une tâche agrégé (ou écarté comme doublon) par le task master")
+    public static class ResultAggregated extends TaskEvent {
+        
+        @Label("Status")
+        public String status;
+        
+        @Label("Lines Processed")
+        public long linesProcessed;
+        
+        @Label("Duplicate")
+        public boolean duplicate;
+    }
+}
\ No newline at end of file
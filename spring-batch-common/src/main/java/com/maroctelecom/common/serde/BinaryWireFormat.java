@@ -0,0 +1,563 @@
+package com.maroctelecom.common.serde;
+
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.ErrorReportRefDTO;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Format binaire compact et versionné pour les tâches et résultats de partition
+ * En-tête: octet magique, version du schéma, type de message. Les champs suivent dans un ordre fixe;
+ * l'ordre des constantes des enums fait partie du schéma. Une nouvelle version n'ajoute des champs qu'en fin de message
+ */
+public final class BinaryWireFormat {
+    
+    /**
+     * Octet magique: ne peut pas débuter un document JSON, ce qui permet la détection automatique
+     */
+    public static final byte MAGIC = (byte) 0xB7;
+    public static final byte SCHEMA_VERSION = 5;
+    
+    private static final byte TYPE_PARTITION_TASK = 1;
+    private static final byte TYPE_TASK_RESULT = 2;
+    
+    private static final byte METRIC_NULL = 0;
+    private static final byte METRIC_LONG = 1;
+    private static final byte METRIC_DOUBLE = 2;
+    private static final byte METRIC_BOOLEAN = 3;
+    private static final byte METRIC_STRING = 4;
+    
+    private BinaryWireFormat() {
+    }
+    
+    /**
+     * Indique si le type peut être encodé en binaire
+     */
+    public static boolean supports(Object value) {
+        return value instanceof PartitionTaskDTO || value instanceof TaskResultDTO;
+    }
+    
+    /**
+     * Indique si le message a été produit par ce format
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 3 && data[0] == MAGIC;
+    }
+    
+    /**
+     * Encode une tâche ou un résultat de partition
+     */
+    public static byte[] encode(Object value) {
+        Writer out = new Writer();
+        out.raw(MAGIC);
+        out.raw(SCHEMA_VERSION);
+        
+        if (value instanceof PartitionTaskDTO task) {
+            out.raw(TYPE_PARTITION_TASK);
+            writePartitionTask(out, task);
+        } else if (value instanceof TaskResultDTO result) {
+            out.raw(TYPE_TASK_RESULT);
+            writeTaskResult(out, result);
+        } else {
+            throw new SerializationException("Type non supporté par le format binaire: "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Décode un message produit par {@link #encode(Object)}
+     */
+    public static Object decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Message non binaire: octet magique absent");
+        }
+        if (data[1] > SCHEMA_VERSION) {
+            throw new SerializationException("Version de schéma binaire non supportée: " + data[1]);
+        }
+        
+        Reader in = new Reader(ByteBuffer.wrap(data, 3, data.length - 3));
+        try {
+            return switch (data[2]) {
+                case TYPE_PARTITION_TASK -> readPartitionTask(in, data[1]);
+                case TYPE_TASK_RESULT -> readTaskResult(in, data[1]);
+                default -> throw new SerializationException("Type de message binaire inconnu: " + data[2]);
+            };
+        } catch (RuntimeException e) {
+            if (e instanceof SerializationException) {
+                throw e;
+            }
+            throw new SerializationException("Message binaire corrompu", e);
+        }
+    }
+    
+    private static void writePartitionTask(Writer out, PartitionTaskDTO task) {
+        out.string(task.getTaskId());
+        out.string(task.getFileName());
+        out.string(task.getFilePath());
+        out.longValue(task.getStartLine());
+        out.longValue(task.getEndLine());
+        out.intValue(task.getPartitionId());
+        out.string(task.getJobId());
+        out.longValue(task.getJobExecutionId());
+        out.intValue(task.getTotalPartitions());
+        out.dateTime(task.getCreatedAt());
+        out.longValue(task.getEstimatedLineCount());
+        out.intValue(task.getPriority());
+        out.string(task.getMetadata());
+        out.intValue(task.getTimeoutSeconds());
+        out.intValue(task.getAttempt());
+        out.string(task.getDataUrl());
+        out.longValue(task.getHeaderByteLength());
+        out.longValue(task.getByteRangeStart());
+        out.longValue(task.getByteRangeEnd());
+        out.longValue(task.getResumeLine());
+    }
+    
+    private static PartitionTaskDTO readPartitionTask(Reader in, byte version) {
+        PartitionTaskDTO task = new PartitionTaskDTO();
+        task.setTaskId(in.string());
+        task.setFileName(in.string());
+        task.setFilePath(in.string());
+        task.setStartLine(in.longValue());
+        task.setEndLine(in.longValue());
+        task.setPartitionId(in.intValue());
+        task.setJobId(in.string());
+        task.setJobExecutionId(in.longValue());
+        task.setTotalPartitions(in.intValue());
+        task.setCreatedAt(in.dateTime());
+        task.setEstimatedLineCount(in.longValue());
+        task.setPriority(in.intValue());
+        task.setMetadata(in.string());
+        task.setTimeoutSeconds(in.intValue());
+        task.setAttempt(in.intValue());
+        
+        if (version >= 3) {
+            task.setDataUrl(in.string());
+            task.setHeaderByteLength(in.longValue());
+            task.setByteRangeStart(in.longValue());
+            task.setByteRangeEnd(in.longValue());
+        }
+        
+        if (version >= 4) {
+            task.setResumeLine(in.longValue());
+        }
+        return task;
+    }
+    
+    private static void writeTaskResult(Writer out, TaskResultDTO result) {
+        out.string(result.getTaskId());
+        out.longValue(result.getJobExecutionId());
+        out.intValue(result.getTotalPartitions());
+        out.intValue(result.getPartitionId());
+        out.intValue(result.getAttempt());
+        out.string(result.getWorkerId());
+        out.enumValue(result.getStatus());
+        out.dateTime(result.getStartTime());
+        out.dateTime(result.getEndTime());
+        out.longValue(result.getProcessingTimeMs());
+        out.longValue(result.getTotalLinesProcessed());
+        out.longValue(result.getSuccessfulContracts());
+        out.longValue(result.getFailedContracts());
+        out.longValue(result.getSkippedContracts());
+        out.doubleValue(result.getTotalAmount());
+        out.longValue(result.getUniqueClientsCount());
+        
+        List<ErrorInfo> errors = result.getErrors();
+        out.size(errors == null ? -1 : errors.size());
+        if (errors != null) {
+            for (ErrorInfo error : errors) {
+                writeErrorInfo(out, error);
+            }
+        }
+        
+        Map<String, Object> customMetrics = result.getCustomMetrics();
+        out.size(customMetrics == null ? -1 : customMetrics.size());
+        if (customMetrics != null) {
+            for (Map.Entry<String, Object> entry : customMetrics.entrySet()) {
+                out.string(entry.getKey());
+                out.metric(entry.getValue());
+            }
+        }
+        
+        out.longValue(result.getMaxMemoryUsageMB());
+        out.doubleValue(result.getAvgCpuUsage());
+        out.string(result.getSummary());
+        
+        Map<String, TaskResultDTO.ContractTypeStats> stats = result.getContractTypeStats();
+        out.size(stats == null ? -1 : stats.size());
+        if (stats != null) {
+            for (Map.Entry<String, TaskResultDTO.ContractTypeStats> entry : stats.entrySet()) {
+                TaskResultDTO.ContractTypeStats stat = entry.getValue();
+                out.string(entry.getKey());
+                out.string(stat.getContractType());
+                out.longValue(stat.getCount());
+                out.doubleValue(stat.getTotalAmount());
+                out.doubleValue(stat.getAverageAmount());
+                out.longValue(stat.getUniqueClients());
+            }
+        }
+        
+        // Version 2: compteurs d'erreurs par type et référence du rapport détaillé
+        Map<String, Long> errorCounts = result.getErrorCountsByType();
+        out.size(errorCounts == null ? -1 : errorCounts.size());
+        if (errorCounts != null) {
+            for (Map.Entry<String, Long> entry : errorCounts.entrySet()) {
+                out.string(entry.getKey());
+                out.longValue(entry.getValue());
+            }
+        }
+        
+        ErrorReportRefDTO errorReport = result.getErrorReport();
+        out.raw((byte) (errorReport == null ? 0 : 1));
+        if (errorReport != null) {
+            out.string(errorReport.getTaskId());
+            out.intValue(errorReport.getAttempt());
+            out.string(errorReport.getTopic());
+            out.intValue(errorReport.getPartition());
+            out.longValue(errorReport.getFirstOffset());
+            out.intValue(errorReport.getBatchCount());
+            out.longValue(errorReport.getErrorCount());
+        }
+        
+        // Version 4: ligne atteinte par une partition interrompue
+        out.longValue(result.getLastProcessedLine());
+        
+        // Version 5: fichier de sortie de la partition
+        OutputFileRefDTO outputFile = result.getOutputFile();
+        out.raw((byte) (outputFile == null ? 0 : 1));
+        if (outputFile != null) {
+            out.string(outputFile.getPath());
+            out.string(outputFile.getFormat());
+            out.longValue(outputFile.getFirstLine());
+            out.longValue(outputFile.getRowCount());
+            out.longValue(outputFile.getSizeBytes());
+        }
+    }
+    
+    private static TaskResultDTO readTaskResult(Reader in, byte version) {
+        TaskResultDTO result = new TaskResultDTO();
+        result.setTaskId(in.string());
+        result.setJobExecutionId(in.longValue());
+        result.setTotalPartitions(in.intValue());
+        result.setPartitionId(in.intValue());
+        result.setAttempt(in.intValue());
+        result.setWorkerId(in.string());
+        result.setStatus(in.enumValue(TaskResultDTO.ProcessingStatus.values()));
+        result.setStartTime(in.dateTime());
+        result.setEndTime(in.dateTime());
+        result.setProcessingTimeMs(in.longValue());
+        result.setTotalLinesProcessed(in.longValue());
+        result.setSuccessfulContracts(in.longValue());
+        result.setFailedContracts(in.longValue());
+        result.setSkippedContracts(in.longValue());
+        result.setTotalAmount(in.doubleValue());
+        result.setUniqueClientsCount(in.longValue());
+        
+        int errorCount = in.size();
+        if (errorCount >= 0) {
+            List<ErrorInfo> errors = new ArrayList<>(errorCount);
+            for (int i = 0; i < errorCount; i++) {
+                errors.add(readErrorInfo(in));
+            }
+            result.setErrors(errors);
+        }
+        
+        int metricCount = in.size();
+        if (metricCount >= 0) {
+            Map<String, Object> customMetrics = new LinkedHashMap<>();
+            for (int i = 0; i < metricCount; i++) {
+                customMetrics.put(in.string(), in.metric());
+            }
+            result.setCustomMetrics(customMetrics);
+        }
+        
+        result.setMaxMemoryUsageMB(in.longValue());
+        result.setAvgCpuUsage(in.doubleValue());
+        result.setSummary(in.string());
+        
+        int statCount = in.size();
+        if (statCount >= 0) {
+            Map<String, TaskResultDTO.ContractTypeStats> stats = new LinkedHashMap<>();
+            for (int i = 0; i < statCount; i++) {
+                String key = in.string();
+                stats.put(key, TaskResultDTO.ContractTypeStats.builder()
+                    .contractType(in.string())
+                    .count(in.longValue())
+                    .totalAmount(in.doubleValue())
+                    .averageAmount(in.doubleValue())
+                    .uniqueClients(in.longValue())
+                    .build());
+            }
+            result.setContractTypeStats(stats);
+        }
+        
+        if (version >= 2) {
+            int errorTypeCount = in.size();
+            if (errorTypeCount >= 0) {
+                Map<String, Long> errorCounts = new LinkedHashMap<>();
+                for (int i = 0; i < errorTypeCount; i++) {
+                    errorCounts.put(in.string(), in.longValue());
+                }
+                result.setErrorCountsByType(errorCounts);
+            }
+            
+            if (in.presence()) {
+                result.setErrorReport(ErrorReportRefDTO.builder()
+                    .taskId(in.string())
+                    .attempt(in.intValue())
+                    .topic(in.string())
+                    .partition(in.intValue())
+                    .firstOffset(in.longValue())
+                    .batchCount(in.intValue())
+                    .errorCount(in.longValue())
+                    .build());
+            }
+        }
+        
+        if (version >= 4) {
+            result.setLastProcessedLine(in.longValue());
+        }
+        
+        if (version >= 5 && in.presence()) {
+            result.setOutputFile(OutputFileRefDTO.builder()
+                .path(in.string())
+                .format(in.string())
+                .firstLine(in.longValue())
+                .rowCount(in.longValue())
+                .sizeBytes(in.longValue())
+                .build());
+        }
+        return result;
+    }
+    
+    private static void writeErrorInfo(Writer out, ErrorInfo error) {
+        out.enumValue(error.getErrorType());
+        out.string(error.getErrorCode());
+        out.string(error.getMessage());
+        out.string(error.getDetailedMessage());
+        out.longValue(error.getLineNumber());
+        out.string(error.getLineData());
+        out.string(error.getFieldName());
+        out.string(error.getFieldValue());
+        out.string(error.getStackTrace());
+        out.dateTime(error.getTimestamp());
+        out.string(error.getThreadId());
+        out.string(error.getContext());
+        out.booleanValue(error.getRecoverable());
+        out.intValue(error.getRetryCount());
+        out.string(error.getRecommendedAction());
+    }
+    
+    private static ErrorInfo readErrorInfo(Reader in) {
+        ErrorInfo error = new ErrorInfo();
+        error.setErrorType(in.enumValue(ErrorInfo.ErrorType.values()));
+        error.setErrorCode(in.string());
+        error.setMessage(in.string());
+        error.setDetailedMessage(in.string());
+        error.setLineNumber(in.longValue());
+        error.setLineData(in.string());
+        error.setFieldName(in.string());
+        error.setFieldValue(in.string());
+        error.setStackTrace(in.string());
+        error.setTimestamp(in.dateTime());
+        error.setThreadId(in.string());
+        error.setContext(in.string());
+        error.setRecoverable(in.booleanValue());
+        error.setRetryCount(in.intValue());
+        error.setRecommendedAction(in.string());
+        return error;
+    }
+    
+    /**
+     * Écriture des primitives: varints zigzag, valeurs nullables préfixées d'un octet de présence
+     */
+    private static final class Writer {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        
+        void raw(byte value) {
+            buffer.write(value);
+        }
+        
+        void varLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer.write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            buffer.write((int) zigzag);
+        }
+        
+        void size(int size) {
+            varLong(size);
+        }
+        
+        void string(String value) {
+            if (value == null) {
+                size(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            size(bytes.length);
+            buffer.write(bytes, 0, bytes.length);
+        }
+        
+        void longValue(Long value) {
+            raw((byte) (value == null ? 0 : 1));
+            if (value != null) {
+                varLong(value);
+            }
+        }
+        
+        void intValue(Integer value) {
+            longValue(value == null ? null : value.longValue());
+        }
+        
+        void doubleValue(Double value) {
+            raw((byte) (value == null ? 0 : 1));
+            if (value != null) {
+                long bits = Double.doubleToRawLongBits(value);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    buffer.write((int) (bits >>> shift));
+                }
+            }
+        }
+        
+        void booleanValue(Boolean value) {
+            raw((byte) (value == null ? 0 : value ? 2 : 1));
+        }
+        
+        void enumValue(Enum<?> value) {
+            size(value == null ? -1 : value.ordinal());
+        }
+        
+        void dateTime(LocalDateTime value) {
+            raw((byte) (value == null ? 0 : 1));
+            if (value != null) {
+                varLong(value.toEpochSecond(ZoneOffset.UTC));
+                varLong(value.getNano());
+            }
+        }
+        
+        void metric(Object value) {
+            if (value == null) {
+                raw(METRIC_NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                raw(METRIC_LONG);
+                varLong(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                raw(METRIC_DOUBLE);
+                doubleValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                raw(METRIC_BOOLEAN);
+                booleanValue(bool);
+            } else {
+                raw(METRIC_STRING);
+                string(value.toString());
+            }
+        }
+        
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+    
+    /**
+     * Lecture symétrique de {@link Writer}
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        long varLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (shift > 63) {
+                    throw new SerializationException("Varint trop long");
+                }
+                current = buffer.get();
+                zigzag |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        
+        int size() {
+            return (int) varLong();
+        }
+        
+        boolean presence() {
+            return buffer.get() != 0;
+        }
+        
+        String string() {
+            int length = size();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        
+        Long longValue() {
+            return buffer.get() == 0 ? null : varLong();
+        }
+        
+        Integer intValue() {
+            Long value = longValue();
+            return value == null ? null : value.intValue();
+        }
+        
+        Double doubleValue() {
+            return buffer.get() == 0 ? null : buffer.getDouble();
+        }
+        
+        Boolean booleanValue() {
+            byte value = buffer.get();
+            return value == 0 ? null : value == 2;
+        }
+        
+        <E extends Enum<E>> E enumValue(E[] constants) {
+            int ordinal = size();
+            return ordinal < 0 ? null : constants[ordinal];
+        }
+        
+        LocalDateTime dateTime() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            long epochSecond = varLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, (int) varLong(), ZoneOffset.UTC);
+        }
+        
+        Object metric() {
+            byte tag = buffer.get();
+            return switch (tag) {
+                case METRIC_NULL -> null;
+                case METRIC_LONG -> varLong();
+                case METRIC_DOUBLE -> doubleValue();
+                case METRIC_BOOLEAN -> booleanValue();
+                case METRIC_STRING -> string();
+                default -> throw new SerializationException("Type de métrique inconnu: " + tag);
+            };
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.maroctelecom.common.serde;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.dto.ErrorInfo;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodage des lots d'erreurs détaillées publiés sur le topic dead-letter
+ * Chaque lot est un tableau JSON d'ErrorInfo compressé en gzip; les métadonnées voyagent dans les en-têtes
+ */
+public final class ErrorBatchCodec {
+    
+    public static final String HEADER_TASK_ID = "error-task-id";
+    public static final String HEADER_ATTEMPT = "error-attempt";
+    public static final String HEADER_BATCH_SEQUENCE = "error-batch-seq";
+    public static final String HEADER_ERROR_COUNT = "error-count";
+    
+    private static final TypeReference<List<ErrorInfo>> ERROR_LIST = new TypeReference<>() {};
+    
+    private ErrorBatchCodec() {
+    }
+    
+    /**
+     * Sérialise et compresse un lot d'erreurs
+     */
+    public static byte[] encode(ObjectMapper objectMapper, List<ErrorInfo> errors) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, errors);
+        } catch (IOException e) {
+            throw new SerializationException("Impossible d'encoder le lot d'erreurs", e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    /**
+     * Décompresse et désérialise un lot d'erreurs
+     */
+    public static List<ErrorInfo> decode(ObjectMapper objectMapper, byte[] payload) {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(gzip, ERROR_LIST);
+        } catch (IOException e) {
+            throw new SerializationException("Lot d'erreurs illisible", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.maroctelecom.common.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Désérialiseur acceptant les deux formats
+ * Le format binaire est reconnu à son octet magique, tout autre message est lu en JSON
+ */
+public class WireFormatDeserializer implements Deserializer<Object> {
+    
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+    
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (BinaryWireFormat.isBinary(data)) {
+            return BinaryWireFormat.decode(data);
+        }
+        return jsonDeserializer.deserialize(topic, data);
+    }
+    
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (BinaryWireFormat.isBinary(data)) {
+            return BinaryWireFormat.decode(data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+    
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.maroctelecom.common.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sérialiseur sélectionnant le format par topic
+ * Les topics listés dans {@link #BINARY_TOPICS} utilisent le format binaire compact, les autres restent en JSON
+ */
+public class WireFormatSerializer implements Serializer<Object> {
+    
+    /**
+     * Propriété du producer: liste des topics publiés au format binaire, séparés par des virgules
+     */
+    public static final String BINARY_TOPICS = "maroctelecom.wire-format.binary-topics";
+    
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private Set<String> binaryTopics = Set.of();
+    
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        
+        Object topics = configs.get(BINARY_TOPICS);
+        if (topics != null) {
+            binaryTopics = Arrays.stream(topics.toString().split(","))
+                .map(String::trim)
+                .filter(topic -> !topic.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        }
+    }
+    
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+    
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data != null && binaryTopics.contains(topic) && BinaryWireFormat.supports(data)) {
+            return BinaryWireFormat.encode(data);
+        }
+        return headers == null ? jsonSerializer.serialize(topic, data) : jsonSerializer.serialize(topic, headers, data);
+    }
+    
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.maroctelecom.common.transport;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport en mémoire pour le mode mono-JVM: task master et workers dans le même processus, sans broker
+ * Les tâches passent par des files bornées par voie de priorité, servies par un pool de workers embarqués
+ * selon les mêmes poids que les workers Kafka;
+ * les résultats sont remis au task master par un unique thread, dans l'ordre d'arrivée comme sur une partition Kafka
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.transport.mode", havingValue = "in-memory")
+public class InMemoryTransport implements PartitionTaskTransport, TaskResultTransport, DisposableBean {
+    
+    private final ObjectProvider<PartitionTaskReceiver> taskReceiverProvider;
+    private final ObjectProvider<TaskResultReceiver> resultReceiverProvider;
+    private final KafkaConfig kafkaConfig;
+    private final WeightedLaneExecutor workerPool;
+    private final ExecutorService resultDispatcher;
+    
+    public InMemoryTransport(ObjectProvider<PartitionTaskReceiver> taskReceiverProvider,
+                             ObjectProvider<TaskResultReceiver> resultReceiverProvider,
+                             KafkaConfig kafkaConfig,
+                             @Value("${app.transport.in-memory.worker-threads:0}") int workerThreads,
+                             @Value("${app.transport.in-memory.queue-capacity:10000}") int queueCapacity) {
+        this.taskReceiverProvider = taskReceiverProvider;
+        this.resultReceiverProvider = resultReceiverProvider;
+        this.kafkaConfig = kafkaConfig;
+        
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        Map<PriorityLane, Integer> weights = new EnumMap<>(PriorityLane.class);
+        for (PriorityLane lane : PriorityLane.values()) {
+            weights.put(lane, kafkaConfig.laneWeight(lane));
+        }
+        this.workerPool = new WeightedLaneExecutor("embedded-worker-", threads, queueCapacity, weights);
+        this.resultDispatcher = Executors.newSingleThreadExecutor(threadFactory("embedded-results-"));
+        
+        log.info("Transport en mémoire actif: {} workers embarqués, file de {} tâches", threads, queueCapacity);
+    }
+    
+    @Override
+    public CompletableFuture<Void> sendPartitionTask(PartitionTaskDTO partitionTask) {
+        PartitionTaskReceiver receiver = taskReceiverProvider.getIfAvailable();
+        if (receiver == null) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Aucun worker embarqué pour recevoir la tâche " + partitionTask.getTaskId()));
+        }
+        
+        PriorityLane lane = kafkaConfig.laneOf(partitionTask.getPriority());
+        return enqueue(workerPool.lane(lane), () -> receiver.receivePartitionTask(partitionTask), partitionTask.getTaskId());
+    }
+    
+    @Override
+    public CompletableFuture<Void> sendResult(TaskResultDTO taskResult) {
+        TaskResultReceiver receiver = resultReceiverProvider.getIfAvailable();
+        if (receiver == null) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Aucun task master embarqué pour recevoir le résultat " + taskResult.getTaskId()));
+        }
+        
+        return enqueue(resultDispatcher, () -> receiver.receiveResult(taskResult), taskResult.getTaskId());
+    }
+    
+    /**
+     * Tâches en attente d'un worker embarqué
+     */
+    public int getPendingTasks() {
+        return workerPool.getQueuedTasks();
+    }
+    
+    @Override
+    public void destroy() {
+        workerPool.shutdown();
+        resultDispatcher.shutdownNow();
+    }
+    
+    /**
+     * Dépose un message dans la file; la future est complétée dès la mise en file, comme un envoi Kafka acquitté
+     */
+    private CompletableFuture<Void> enqueue(Executor executor, Runnable delivery, String taskId) {
+        try {
+            executor.execute(() -> {
+                try {
+                    delivery.run();
+                } catch (Exception e) {
+                    log.error("Erreur lors de la livraison en mémoire pour la tâche {}: {}", taskId, e.getMessage(), e);
+                }
+            });
+            return CompletableFuture.completedFuture(null);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("File du transport en mémoire saturée pour la tâche " + taskId, e));
+        }
+    }
+    
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
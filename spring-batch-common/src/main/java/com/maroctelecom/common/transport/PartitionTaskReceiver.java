@@ -0,0 +1,15 @@
+package com.maroctelecom.common.transport;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+
+/**
+ * Côté worker: traitement d'une tâche livrée par un transport sans broker
+ * Le mode Kafka passe par le @KafkaListener du worker, qui gère lui-même l'acquittement
+ */
+public interface PartitionTaskReceiver {
+    
+    /**
+     * Traite une tâche et publie son résultat, sur le thread du transport
+     */
+    void receivePartitionTask(PartitionTaskDTO partitionTask);
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.maroctelecom.common.transport;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Acheminement des tâches de partition du task master vers les workers
+ * Implémentée par Kafka (mode distribué) ou par une file en mémoire (mode mono-JVM),
+ * selon la propriété app.transport.mode
+ */
+public interface PartitionTaskTransport {
+    
+    /**
+     * Envoie une tâche de partition
+     * 
+     * @param partitionTask La tâche à envoyer
+     * @return CompletableFuture complétée une fois la tâche prise en charge par le transport
+     */
+    CompletableFuture<?> sendPartitionTask(PartitionTaskDTO partitionTask);
+    
+    /**
+     * Envoie une tâche de partition de manière synchrone
+     * 
+     * @throws RuntimeException si l'envoi échoue
+     */
+    default void sendPartitionTaskSync(PartitionTaskDTO partitionTask) {
+        try {
+            sendPartitionTask(partitionTask).get();
+        } catch (Exception e) {
+            throw new RuntimeException("Échec de l'envoi de la tâche " + partitionTask.getTaskId(), e);
+        }
+    }
+}
\ No newline at end of file
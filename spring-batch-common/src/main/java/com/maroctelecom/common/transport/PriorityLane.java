@@ -0,0 +1,11 @@
+package com.maroctelecom.common.transport;
+
+/**
+ * Voies de priorité des tâches de partition, de la plus prioritaire à la moins prioritaire
+ * La bande d'une tâche est déduite de PartitionTaskDTO.priority par KafkaConfig.Lanes
+ */
+public enum PriorityLane {
+    URGENT,
+    NORMAL,
+    BULK
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.maroctelecom.common.transport;
+
+import com.maroctelecom.common.dto.TaskResultDTO;
+
+/**
+ * Côté task master: agrégation d'un résultat livré par un transport sans broker
+ */
+public interface TaskResultReceiver {
+    
+    /**
+     * Agrège un résultat, sur le thread du transport
+     */
+    void receiveResult(TaskResultDTO taskResult);
+}
\ No newline at end of file
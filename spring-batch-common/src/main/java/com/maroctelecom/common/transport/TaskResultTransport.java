@@ -0,0 +1,19 @@
+package com.maroctelecom.common.transport;
+
+import com.maroctelecom.common.dto.TaskResultDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Acheminement des résultats de traitement des workers vers le task master
+ */
+public interface TaskResultTransport {
+    
+    /**
+     * Envoie un résultat de traitement
+     * 
+     * @param taskResult Le résultat à envoyer
+     * @return CompletableFuture complétée une fois le résultat pris en charge par le transport
+     */
+    CompletableFuture<?> sendResult(TaskResultDTO taskResult);
+}
\ No newline at end of file
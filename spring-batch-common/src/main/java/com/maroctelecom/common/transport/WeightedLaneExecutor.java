@@ -0,0 +1,176 @@
+package com.maroctelecom.common.transport;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de threads à files par voie de priorité
+ * Chaque thread libre choisit sa prochaine tâche par tourniquet pondéré lissé parmi les voies non vides:
+ * à poids 8/3/1, sur 12 créneaux disputés la voie urgente en obtient 8, la normale 3 et celle de masse 1.
+ * Une voie seule dispose de tous les threads; aucune voie de poids non nul n'est affamée
+ */
+@Slf4j
+public class WeightedLaneExecutor {
+    
+    private static final PriorityLane[] LANES = PriorityLane.values();
+    
+    private final Map<PriorityLane, ArrayDeque<Runnable>> queues = new EnumMap<>(PriorityLane.class);
+    private final int[] weights = new int[LANES.length];
+    private final int[] currentWeights = new int[LANES.length];
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final List<Thread> threads = new ArrayList<>();
+    
+    private int queued;
+    private volatile boolean shutdown;
+    
+    /**
+     * @param name préfixe des threads
+     * @param threadCount nombre de threads
+     * @param capacity nombre maximal de tâches en attente, toutes voies confondues
+     * @param weights poids de chaque voie, au moins 1
+     */
+    public WeightedLaneExecutor(String name, int threadCount, int capacity, Map<PriorityLane, Integer> weights) {
+        this.capacity = capacity;
+        for (PriorityLane lane : LANES) {
+            int weight = weights.getOrDefault(lane, 1);
+            if (weight < 1) {
+                throw new IllegalArgumentException("Poids invalide pour la voie " + lane + ": " + weight);
+            }
+            this.weights[lane.ordinal()] = weight;
+            queues.put(lane, new ArrayDeque<>());
+        }
+        
+        for (int i = 1; i <= threadCount; i++) {
+            Thread thread = new Thread(this::runLoop, name + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+    
+    /**
+     * Vue Executor d'une voie, utilisable avec CompletableFuture
+     */
+    public Executor lane(PriorityLane lane) {
+        return command -> execute(lane, command);
+    }
+    
+    /**
+     * Met une tâche en attente dans sa voie
+     *
+     * @throws RejectedExecutionException si le pool est arrêté ou les files pleines
+     */
+    public void execute(PriorityLane lane, Runnable command) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Pool de voies arrêté");
+            }
+            if (queued >= capacity) {
+                throw new RejectedExecutionException("Files des voies pleines (" + capacity + " tâches en attente)");
+            }
+            queues.get(lane).addLast(command);
+            queued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Tâches en attente dans une voie
+     */
+    public int getQueuedTasks(PriorityLane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Tâches en attente, toutes voies confondues
+     */
+    public int getQueuedTasks() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Arrête les threads; les tâches en attente sont abandonnées
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            queues.values().forEach(ArrayDeque::clear);
+            queued = 0;
+        } finally {
+            lock.unlock();
+        }
+        threads.forEach(Thread::interrupt);
+    }
+    
+    private void runLoop() {
+        while (!shutdown) {
+            Runnable task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("Erreur non gérée dans le pool de voies: {}", t.getMessage(), t);
+            }
+        }
+    }
+    
+    private Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queued == 0) {
+                notEmpty.await();
+            }
+            
+            // Tourniquet pondéré lissé sur les seules voies non vides; à égalité la plus prioritaire l'emporte
+            int totalWeight = 0;
+            int selected = -1;
+            for (PriorityLane lane : LANES) {
+                if (queues.get(lane).isEmpty()) {
+                    continue;
+                }
+                int index = lane.ordinal();
+                currentWeights[index] += weights[index];
+                totalWeight += weights[index];
+                if (selected < 0 || currentWeights[index] > currentWeights[selected]) {
+                    selected = index;
+                }
+            }
+            currentWeights[selected] -= totalWeight;
+            
+            queued--;
+            return queues.get(LANES[selected]).pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
\ No newline at end of file
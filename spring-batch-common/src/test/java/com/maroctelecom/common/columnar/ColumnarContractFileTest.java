@@ -0,0 +1,175 @@
+package com.maroctelecom.common.columnar;
+
+import com.maroctelecom.common.model.Contract;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Écriture puis relecture d'un fichier colonne: plusieurs groupes de lignes, dictionnaires propres
+ * à chaque groupe, montants et dates nuls, numéros de ligne encodés en écarts
+ */
+class ColumnarContractFileTest {
+    
+    private static final int ROW_GROUP_ROWS = 1000;
+    private static final String[] REGIONS = {"Casablanca-Settat", "Rabat-Salé-Kénitra", "Souss-Massa"};
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void roundTripSpansSeveralRowGroups() throws IOException {
+        // Une ligne sur onze est rejetée: les numéros de ligne ont des trous
+        List<Long> lines = new ArrayList<>();
+        List<Contract> contracts = new ArrayList<>();
+        for (long line = 2; lines.size() < 2 * ROW_GROUP_ROWS + 345; line++) {
+            if (line % 11 != 0) {
+                lines.add(line);
+                contracts.add(contract(line));
+            }
+        }
+        Path path = directory.resolve("part-00000-2-2549.mtcol");
+        long size = write(path, lines, contracts);
+        assertEquals(Files.size(path), size, "Taille retournée par finish()");
+        
+        List<Long> readLines = new ArrayList<>();
+        List<Contract> readContracts = new ArrayList<>();
+        try (ColumnarContractReader reader = new ColumnarContractReader(path)) {
+            ColumnarFile.Footer footer = reader.footer();
+            assertEquals(3, footer.rowGroups().size());
+            assertEquals(contracts.size(), footer.rowCount());
+            assertEquals(List.of(ROW_GROUP_ROWS, ROW_GROUP_ROWS, 345),
+                    footer.rowGroups().stream().map(ColumnarFile.RowGroup::rows).toList());
+            assertEquals(List.of(lines.get(0), lines.get(ROW_GROUP_ROWS), lines.get(2 * ROW_GROUP_ROWS)),
+                    footer.rowGroups().stream().map(ColumnarFile.RowGroup::firstLine).toList());
+            assertEquals(List.of(ContractColumn.values()).stream().map(ContractColumn::getColumnName).toList(),
+                    footer.columns());
+            
+            // Écarts de 0 à 2 lignes: un octet par ligne avant compression
+            int lineColumn = ContractColumn.LINE_NUMBER.ordinal();
+            for (ColumnarFile.RowGroup rowGroup : footer.rowGroups()) {
+                assertEquals(rowGroup.rows(), rowGroup.rawLengths()[lineColumn]);
+            }
+            
+            reader.forEach((contract, line) -> {
+                readContracts.add(contract);
+                readLines.add(line);
+            });
+        }
+        
+        assertEquals(lines, readLines);
+        for (int row = 0; row < contracts.size(); row++) {
+            assertEquals(contracts.get(row), readContracts.get(row), "Ligne " + lines.get(row));
+        }
+    }
+    
+    @Test
+    void dictionariesAreLocalToEachRowGroup() throws IOException {
+        // Chaque groupe de 1000 lignes n'utilise qu'une région: son dictionnaire n'en contient qu'une
+        List<Long> lines = new ArrayList<>();
+        List<Contract> contracts = new ArrayList<>();
+        for (long line = 1; line <= 3 * ROW_GROUP_ROWS; line++) {
+            lines.add(line);
+            Contract contract = contract(line);
+            contract.setRegion(REGIONS[(int) ((line - 1) / ROW_GROUP_ROWS)]);
+            contracts.add(contract);
+        }
+        Path path = directory.resolve("regions.mtcol");
+        write(path, lines, contracts);
+        
+        List<Contract> readContracts = new ArrayList<>();
+        try (ColumnarContractReader reader = new ColumnarContractReader(path)) {
+            int regionColumn = ContractColumn.REGION.ordinal();
+            for (ColumnarFile.RowGroup rowGroup : reader.footer().rowGroups()) {
+                int region = (int) ((rowGroup.firstLine() - 1) / ROW_GROUP_ROWS);
+                // Dictionnaire (taille, longueur, texte) puis un code d'un octet par ligne
+                int dictionaryLength = 1 + 1 + REGIONS[region].getBytes(StandardCharsets.UTF_8).length;
+                assertEquals(dictionaryLength + rowGroup.rows(), rowGroup.rawLengths()[regionColumn]);
+            }
+            reader.forEach((contract, line) -> readContracts.add(contract));
+        }
+        
+        Set<String> regions = new HashSet<>();
+        readContracts.forEach(contract -> regions.add(contract.getRegion()));
+        assertEquals(Set.of(REGIONS), regions);
+        assertEquals(contracts, readContracts);
+    }
+    
+    @Test
+    void emptyFileHasNoRowGroup() throws IOException {
+        Path path = directory.resolve("empty.mtcol");
+        write(path, List.of(), List.of());
+        
+        try (ColumnarContractReader reader = new ColumnarContractReader(path)) {
+            assertEquals(0, reader.footer().rowCount());
+            reader.forEach((contract, line) -> {
+                throw new AssertionError("Aucune ligne attendue");
+            });
+        }
+    }
+    
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path path = directory.resolve("truncated.mtcol");
+        write(path, List.of(1L), List.of(contract(1)));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        
+        IOException error = assertThrows(IOException.class, () -> new ColumnarContractReader(path));
+        assertTrue(error.getMessage().contains("invalide"), error.getMessage());
+    }
+    
+    private static long write(Path path, List<Long> lines, List<Contract> contracts) throws IOException {
+        try (ColumnarContractWriter writer = new ColumnarContractWriter(
+                new BufferedOutputStream(Files.newOutputStream(path)), ROW_GROUP_ROWS, 6)) {
+            for (int row = 0; row < contracts.size(); row++) {
+                writer.write(contracts.get(row), lines.get(row));
+            }
+            assertEquals(contracts.size(), writer.getRowCount());
+            return writer.finish();
+        }
+    }
+    
+    /**
+     * Contrat dont les valeurs nulles et les dictionnaires varient avec la ligne
+     */
+    private static Contract contract(long line) {
+        Contract.ContractType[] types = Contract.ContractType.values();
+        Contract.SalesChannel[] channels = Contract.SalesChannel.values();
+        return Contract.builder()
+            .contractId("CTR" + line)
+            .clientId("CLI" + line / 3)
+            .clientName(line % 17 == 0 ? null : "Client é" + line)
+            .contractType(line % 13 == 0 ? null : types[(int) (line % types.length)])
+            .amount(line % 7 == 0 ? null : BigDecimal.valueOf(line * 37 - 500, 2))
+            .creationDate(line % 5 == 0 ? null : LocalDate.of(2020, 1, 1).plusDays(line % 1500))
+            .activationDate(line % 3 == 0 ? null : LocalDate.of(1969, 12, 25).plusDays(line % 20))
+            .expirationDate(line % 2 == 0 ? null : LocalDate.of(2030, 6, 30))
+            .status(Contract.ContractStatus.values()[(int) (line % Contract.ContractStatus.values().length)])
+            .region(line % 19 == 0 ? null : REGIONS[(int) (line % REGIONS.length)])
+            .city(line % 4 == 0 ? "Casablanca" : "Agadir")
+            .postalCode(String.format("%05d", line % 90_000))
+            .phoneNumber(line % 6 == 0 ? null : "+2126" + line)
+            .email("client" + line + "@example.ma")
+            .durationMonths(line % 8 == 0 ? null : (int) (line % 36))
+            .salesChannel(channels[(int) (line % channels.length)])
+            .salesAgentId(line % 9 == 0 ? null : "AG" + line % 50)
+            .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,267 @@
+package com.maroctelecom.common.serde;
+
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.ErrorReportRefDTO;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aller-retour du format binaire: tâches et résultats avec chaque champ nullable absent puis renseigné,
+ * métriques de types mélangés, lecture JSON d'un message sans octet magique et refus d'une version inconnue
+ */
+class BinaryWireFormatTest {
+    
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_456_789);
+    
+    @Test
+    void partitionTaskWithEveryFieldSetRoundTrips() {
+        PartitionTaskDTO task = PartitionTaskDTO.builder()
+            .taskId("task-1")
+            .fileName("contracts.csv")
+            .filePath("/data/contracts.csv")
+            .startLine(1L)
+            .endLine(500_000L)
+            .partitionId(3)
+            .jobId("job-é")
+            .jobExecutionId(42L)
+            .totalPartitions(8)
+            .createdAt(CREATED_AT)
+            .estimatedLineCount(499_999L)
+            .priority(1)
+            .metadata("{\"source\":\"test\"}")
+            .timeoutSeconds(600)
+            .attempt(2)
+            .dataUrl("http://master:8090/files/1")
+            .headerByteLength(120L)
+            .byteRangeStart(-1L)
+            .byteRangeEnd(Long.MAX_VALUE)
+            .resumeLine(250_001L)
+            .build();
+        assertNoNullField(task);
+        
+        assertEquals(task, roundTrip(task));
+    }
+    
+    @Test
+    void partitionTaskWithEveryFieldNullRoundTrips() {
+        PartitionTaskDTO task = withNullFields(new PartitionTaskDTO());
+        assertEquals(task, roundTrip(task));
+    }
+    
+    @Test
+    void taskResultWithEveryFieldSetRoundTrips() {
+        TaskResultDTO result = TaskResultDTO.builder()
+            .taskId("task-1")
+            .jobExecutionId(42L)
+            .totalPartitions(8)
+            .partitionId(3)
+            .attempt(2)
+            .workerId("worker-1")
+            .status(TaskResultDTO.ProcessingStatus.COMPLETED)
+            .startTime(CREATED_AT)
+            .endTime(CREATED_AT.plusSeconds(90))
+            .processingTimeMs(90_000L)
+            .totalLinesProcessed(1000L)
+            .successfulContracts(990L)
+            .failedContracts(8L)
+            .skippedContracts(2L)
+            .totalAmount(123_456.78)
+            .uniqueClientsCount(750L)
+            .errors(List.of(errorInfo()))
+            .errorCountsByType(new LinkedHashMap<>(Map.of("VALIDATION_ERROR", 8L)))
+            .errorReport(ErrorReportRefDTO.builder()
+                .taskId("task-1")
+                .attempt(2)
+                .topic("contract-errors")
+                .partition(4)
+                .firstOffset(1234L)
+                .batchCount(2)
+                .errorCount(8L)
+                .build())
+            .customMetrics(new LinkedHashMap<>(Map.of("linesPerSecond", 11.5)))
+            .maxMemoryUsageMB(512L)
+            .avgCpuUsage(0.75)
+            .summary("Partition 3 terminée")
+            .contractTypeStats(new LinkedHashMap<>(Map.of("MOBILE", TaskResultDTO.ContractTypeStats.builder()
+                .contractType("MOBILE")
+                .count(990L)
+                .totalAmount(123_456.78)
+                .averageAmount(124.7)
+                .uniqueClients(750L)
+                .build())))
+            .lastProcessedLine(1000L)
+            .outputFile(OutputFileRefDTO.builder()
+                .path("/out/part-00003-1-1000.mtcol")
+                .format("mtcol")
+                .firstLine(1L)
+                .rowCount(990L)
+                .sizeBytes(40_960L)
+                .build())
+            .build();
+        assertNoNullField(result);
+        assertNoNullField(result.getErrors().get(0));
+        assertNoNullField(result.getErrorReport());
+        assertNoNullField(result.getOutputFile());
+        
+        assertEquals(result, roundTrip(result));
+    }
+    
+    @Test
+    void taskResultWithEveryFieldNullRoundTrips() {
+        TaskResultDTO result = withNullFields(new TaskResultDTO());
+        assertEquals(result, roundTrip(result));
+        
+        // Éléments présents dont tous les champs sont absents
+        result.setErrors(List.of(withNullFields(new ErrorInfo())));
+        result.setErrorReport(withNullFields(new ErrorReportRefDTO()));
+        result.setOutputFile(withNullFields(new OutputFileRefDTO()));
+        result.setContractTypeStats(new LinkedHashMap<>(Map.of("FIXE", withNullFields(new TaskResultDTO.ContractTypeStats()))));
+        result.setErrorCountsByType(new LinkedHashMap<>());
+        result.setCustomMetrics(new LinkedHashMap<>());
+        assertEquals(result, roundTrip(result));
+    }
+    
+    @Test
+    void customMetricsKeepTheirType() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("long", Long.MIN_VALUE);
+        metrics.put("int", 7);
+        metrics.put("double", -0.5);
+        metrics.put("decimal", new BigDecimal("12.25"));
+        metrics.put("true", Boolean.TRUE);
+        metrics.put("false", Boolean.FALSE);
+        metrics.put("string", "débit");
+        metrics.put("null", null);
+        metrics.put("other", TaskResultDTO.ProcessingStatus.FAILED);
+        TaskResultDTO result = new TaskResultDTO();
+        result.setCustomMetrics(metrics);
+        
+        // Entiers lus en Long, autres nombres en Double, types inconnus en texte; l'ordre est conservé
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("long", Long.MIN_VALUE);
+        expected.put("int", 7L);
+        expected.put("double", -0.5);
+        expected.put("decimal", 12.25);
+        expected.put("true", Boolean.TRUE);
+        expected.put("false", Boolean.FALSE);
+        expected.put("string", "débit");
+        expected.put("null", null);
+        expected.put("other", "FAILED");
+        Map<String, Object> decoded = roundTrip(result).getCustomMetrics();
+        assertEquals(expected, decoded);
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(decoded.keySet()));
+    }
+    
+    @Test
+    void messageWithoutMagicByteIsReadAsJson() {
+        TaskResultDTO result = TaskResultDTO.builder()
+            .taskId("task-json")
+            .jobExecutionId(42L)
+            .status(TaskResultDTO.ProcessingStatus.FAILED)
+            // Le JSON date à la seconde près
+            .endTime(CREATED_AT.withNano(0))
+            .customMetrics(new LinkedHashMap<>(Map.of("retries", "3")))
+            .build();
+        
+        // Topic non listé dans binary-topics: le sérialiseur produit du JSON
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json;
+        try (WireFormatSerializer serializer = new WireFormatSerializer()) {
+            serializer.configure(Map.of(WireFormatSerializer.BINARY_TOPICS, "contract-partitions"), false);
+            json = serializer.serialize("contract-results", headers, result);
+        }
+        assertFalse(BinaryWireFormat.isBinary(json));
+        assertThrows(SerializationException.class, () -> BinaryWireFormat.decode(json));
+        
+        try (WireFormatDeserializer deserializer = new WireFormatDeserializer()) {
+            deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.maroctelecom.common.dto"), false);
+            assertEquals(result, deserializer.deserialize("contract-results", headers, json));
+            
+            // Un message binaire est reconnu à son octet magique, quel que soit le topic
+            byte[] binary = BinaryWireFormat.encode(result);
+            assertTrue(BinaryWireFormat.isBinary(binary));
+            assertEquals(result, deserializer.deserialize("contract-results", new RecordHeaders(), binary));
+        }
+    }
+    
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] data = BinaryWireFormat.encode(new PartitionTaskDTO());
+        data[1] = (byte) (BinaryWireFormat.SCHEMA_VERSION + 1);
+        
+        SerializationException error = assertThrows(SerializationException.class, () -> BinaryWireFormat.decode(data));
+        assertTrue(error.getMessage().contains("Version de schéma"), error.getMessage());
+    }
+    
+    @Test
+    void unknownMessageTypeIsRejected() {
+        byte[] data = BinaryWireFormat.encode(new TaskResultDTO());
+        data[2] = 99;
+        assertThrows(SerializationException.class, () -> BinaryWireFormat.decode(data));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T value) {
+        return (T) BinaryWireFormat.decode(BinaryWireFormat.encode(value));
+    }
+    
+    private static ErrorInfo errorInfo() {
+        return ErrorInfo.builder()
+            .errorType(ErrorInfo.ErrorType.VALIDATION_ERROR)
+            .errorCode("E001")
+            .message("Montant invalide")
+            .detailedMessage("Le montant doit être positif")
+            .lineNumber(17L)
+            .lineData("CTR17,CLI17,-1")
+            .fieldName("amount")
+            .fieldValue("-1")
+            .stackTrace("java.lang.IllegalArgumentException")
+            .timestamp(CREATED_AT)
+            .threadId("task-lane-1")
+            .context("partition 3")
+            .recoverable(true)
+            .retryCount(1)
+            .recommendedAction("Corriger le montant")
+            .build();
+    }
+    
+    /**
+     * Met à null tous les champs d'instance, valeurs par défaut comprises
+     */
+    private static <T> T withNullFields(T value) {
+        ReflectionUtils.doWithFields(value.getClass(), field -> {
+            ReflectionUtils.makeAccessible(field);
+            field.set(value, null);
+        }, field -> !Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive());
+        return value;
+    }
+    
+    /**
+     * Garde-fou: un champ ajouté au DTO doit être renseigné par le test
+     */
+    private static void assertNoNullField(Object value) {
+        ReflectionUtils.doWithFields(value.getClass(), field -> {
+            ReflectionUtils.makeAccessible(field);
+            assertNotNull(field.get(value), value.getClass().getSimpleName() + "." + field.getName() + " non renseigné");
+        }, field -> !Modifier.isStatic(field.getModifiers()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.maroctelecom.taskmaster.listener;
+
+import com.maroctelecom.common.dto.TaskProgressDTO;
+import com.maroctelecom.taskmaster.service.JobProgressTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener pour les rapports de progression publiés par les workers
+ * Alimente le suivi en temps réel des jobs
+ * Le topic de monitoring porte aussi les échantillons de charge du cluster, ignorés ici
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@KafkaListener(
+    topics = "#{@kafkaConfig.topics.monitoring}",
+    groupId = "#{@kafkaConfig.consumerGroups.monitoring}",
+    containerFactory = "kafkaListenerContainerFactory"
+)
+public class ProgressListener {
+    
+    private final JobProgressTracker progressTracker;
+    
+    /**
+     * Écoute les rapports de progression sur le topic de monitoring
+     */
+    @KafkaHandler
+    public void handleProgress(@Payload TaskProgressDTO progress, Acknowledgment acknowledgment) {
+        try {
+            progressTracker.onProgress(progress);
+            
+            log.debug("Progression de la tâche {}: {} lignes ({} lignes/sec)",
+                    progress.getTaskId(), progress.getLinesProcessed(),
+                    String.format("%.2f", progress.getThroughput()));
+        } catch (Exception e) {
+            log.warn("Erreur lors du traitement de la progression de la tâche {}: {}",
+                    progress.getTaskId(), e.getMessage());
+        } finally {
+            // La progression est informative: jamais de relivraison
+            acknowledgment.acknowledge();
+        }
+    }
+    
+    /**
+     * Autres messages du topic de monitoring (échantillons de charge): acquittés sans traitement
+     */
+    @KafkaHandler(isDefault = true)
+    public void handleOther(@Payload Object message, Acknowledgment acknowledgment) {
+        acknowledgment.acknowledge();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.maroctelecom.taskmaster.listener;
+
+import com.maroctelecom.common.dto.TaskResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Déduplication bornée des résultats de tâches
+ * Un bitset par job mémorise les partitions déjà agrégées, un petit LRU absorbe
+ * les rejeux exacts (jobExecutionId, taskId, attempt) y compris sans ID de partition
+ * Seuls les résultats définitifs marquent leur partition: après un résultat partiel, le reste replanifié
+ * est attendu pour la même partition. Les résultats partiels, peu nombreux, sont mémorisés par job
+ * (taskId:attempt) jusqu'à l'oubli du job: leur rejeu reste écarté après l'éviction du LRU,
+ * y compris une relivraison de la même tentative terminée cette fois entièrement
+ */
+@Slf4j
+@Component
+public class ResultDeduplicator {
+    
+    private final Map<Long, JobKeys> jobKeys = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> recentKeys;
+    
+    /**
+     * Verdict sur un résultat reçu
+     */
+    public enum Outcome {
+        ACCEPTED,         // Premier exemplaire: à agréger
+        DUPLICATE,        // Rejeu d'un résultat déjà reçu (même tâche, même tentative)
+        PARTITION_CLOSED; // Partition déjà close par un résultat définitif
+        
+        public boolean isDuplicate() {
+            return this != ACCEPTED;
+        }
+    }
+    
+    public ResultDeduplicator(@Value("${batch.results.dedupe.recent-keys:4096}") int maxRecentKeys) {
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxRecentKeys;
+            }
+        };
+    }
+    
+    /**
+     * Indique si le résultat doit être agrégé, et le marque comme vu le cas échéant
+     *
+     * @return ACCEPTED, ou le motif pour lequel le résultat est un doublon (relivraison ou rejeu)
+     */
+    public Outcome accept(Long jobExecutionId, TaskResultDTO taskResult) {
+        String taskKey = taskResult.getTaskId() + ":" + taskResult.getAttempt();
+        
+        synchronized (recentKeys) {
+            if (recentKeys.put(jobExecutionId + ":" + taskKey, Boolean.TRUE) != null) {
+                return Outcome.DUPLICATE;
+            }
+        }
+        
+        JobKeys keys = jobKeys.computeIfAbsent(jobExecutionId, id -> new JobKeys());
+        Integer partitionId = taskResult.getPartitionId();
+        boolean hasPartition = partitionId != null && partitionId >= 0;
+        synchronized (keys) {
+            // Une tentative déjà reçue partielle ne compte qu'une fois, même relivrée puis terminée
+            if (keys.partialResults.contains(taskKey)) {
+                return Outcome.DUPLICATE;
+            }
+            if (taskResult.isPartial()) {
+                keys.partialResults.add(taskKey);
+            } else if (hasPartition) {
+                if (keys.completedPartitions.get(partitionId)) {
+                    return Outcome.PARTITION_CLOSED;
+                }
+                keys.completedPartitions.set(partitionId);
+            }
+        }
+        return Outcome.ACCEPTED;
+    }
+    
+    /**
+     * Libère l'état de déduplication d'un job
+     */
+    public void forget(Long jobExecutionId) {
+        jobKeys.remove(jobExecutionId);
+    }
+    
+    /**
+     * État durable d'un job: partitions closes et résultats partiels reçus
+     */
+    private static final class JobKeys {
+        private final BitSet completedPartitions = new BitSet();
+        private final Set<String> partialResults = new HashSet<>();
+    }
+}
\ No newline at end of file
@@ -1,42 +1,65 @@
 package com.maroctelecom.taskmaster.listener;
 
 import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.ErrorReportRefDTO;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
 import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import com.maroctelecom.common.transport.TaskResultReceiver;
+import com.maroctelecom.taskmaster.service.JobProgressTracker;
+import com.maroctelecom.taskmaster.service.PartitionRescheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Listener pour l'écoute et l'agrégation des résultats des workers
- * Reçoit les résultats de traitement via Kafka et les agrège
+ * Reçoit les résultats de traitement via Kafka, ou du transport en mémoire en mode mono-JVM, et les agrège
+ * Un résultat partiel (timeout) est agrégé sans clore sa partition, dont le reste est replanifié
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class ResultListener {
+public class ResultListener implements TaskResultReceiver {
     
     private final KafkaConfig kafkaConfig;
+    private final JobProgressTracker progressTracker;
+    private final ResultDeduplicator resultDeduplicator;
+    private final PartitionRescheduler partitionRescheduler;
     
     // Cache des résultats par job d'exécution
     private final Map<Long, JobExecutionResults> jobResults = new ConcurrentHashMap<>();
     
+    @Value("${batch.results.completed-retention-minutes:60}")
+    private long completedRetentionMinutes;
+    
     /**
      * Écoute les résultats de traitement des workers
      */
     @KafkaListener(
+        id = "result-listener",
         topics = "#{@kafkaConfig.topics.contractResults}",
         groupId = "#{@kafkaConfig.consumerGroups.taskMaster}",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{'${app.transport.mode:kafka}' == 'kafka' && !${batch.results.listener.batch-mode:false}}"
     )
     public void handleTaskResult(
             @Payload TaskResultDTO taskResult,
@@ -49,11 +72,7 @@ public class ResultListener {
             log.info("Réception du résultat de la tâche {} du worker {} (partition {}, offset {})",
                     taskResult.getTaskId(), taskResult.getWorkerId(), partition, offset);
             
-            // Agrégation des résultats
-            aggregateResult(taskResult);
-            
-            // Log des métriques importantes
-            logTaskMetrics(taskResult);
+            receiveResult(taskResult);
             
             // Acknowledgment manuel du message
             acknowledgment.acknowledge();
@@ -70,24 +89,214 @@ public class ResultListener {
         }
     }
     
+    /**
+     * Agrège un résultat, qu'il vienne de Kafka ou du transport en mémoire
+     */
+    @Override
+    public void receiveResult(TaskResultDTO taskResult) {
+        // Agrégation idempotente des résultats
+        if (aggregateResult(taskResult)) {
+            // Remplacement de la progression intermédiaire par le résultat final
+            progressTracker.onTaskCompleted(taskResult);
+        }
+        
+        // Log des métriques importantes
+        logTaskMetrics(taskResult);
+    }
+    
+    /**
+     * Écoute les résultats par lots: regroupement par job, une seule mise à jour et détection de fin par job
+     * et un seul commit d'offsets par lot
+     */
+    @KafkaListener(
+        id = "result-batch-listener",
+        topics = "#{@kafkaConfig.topics.contractResults}",
+        groupId = "#{@kafkaConfig.consumerGroups.taskMaster}",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "#{'${app.transport.mode:kafka}' == 'kafka' && ${batch.results.listener.batch-mode:false}}"
+    )
+    public void handleTaskResults(List<ConsumerRecord<String, TaskResultDTO>> records, Acknowledgment acknowledgment) {
+        Map<JobExecutionResults, List<TaskResultDTO>> acceptedByJob = new LinkedHashMap<>();
+        int rejected = 0;
+        
+        for (ConsumerRecord<String, TaskResultDTO> record : records) {
+            TaskResultDTO taskResult = record.value();
+            if (taskResult == null) {
+                rejected++;
+                continue;
+            }
+            
+            try {
+                JobExecutionResults jobResult = acceptResult(taskResult);
+                if (jobResult != null) {
+                    acceptedByJob.computeIfAbsent(jobResult, job -> new ArrayList<>()).add(taskResult);
+                } else {
+                    rejected++;
+                }
+            } catch (Exception e) {
+                rejected++;
+                log.error("Erreur lors du traitement du résultat de la tâche {}: {}",
+                        taskResult.getTaskId(), e.getMessage(), e);
+            }
+        }
+        
+        acceptedByJob.forEach((jobResult, results) -> {
+            applyResults(jobResult, results);
+            results.forEach(progressTracker::onTaskCompleted);
+        });
+        
+        // Comme en mode unitaire, les résultats en erreur ne sont pas relivrés
+        acknowledgment.acknowledge();
+        
+        log.info("Lot de {} résultats traité: {} jobs mis à jour, {} résultats ignorés",
+                records.size(), acceptedByJob.size(), rejected);
+    }
+    
+    /**
+     * Enregistre un job avant l'envoi de ses partitions
+     * 
+     * @param jobExecutionId L'ID d'exécution du job
+     * @param expectedPartitions Le nombre de partitions envoyées
+     * @return Future complétée dès l'agrégation de la dernière partition
+     */
+    public CompletableFuture<JobExecutionResults> registerJob(Long jobExecutionId, int expectedPartitions) {
+        JobExecutionResults jobResult = jobResults.computeIfAbsent(jobExecutionId, 
+                id -> new JobExecutionResults(id, expectedPartitions));
+        
+        jobResult.expectPartitions(expectedPartitions);
+        completeIfDone(jobResult);
+        return jobResult.getCompletion();
+    }
+    
     /**
      * Agrège les résultats d'une tâche dans le résultat global du job
+     * 
+     * @return false si le résultat est un doublon déjà agrégé
      */
-    private void aggregateResult(TaskResultDTO taskResult) {
-        // Extraction de l'ID d'exécution du job depuis le taskId ou utilisation d'un mapping
-        Long jobExecutionId = extractJobExecutionId(taskResult);
+    private boolean aggregateResult(TaskResultDTO taskResult) {
+        JobExecutionResults jobResult = acceptResult(taskResult);
+        if (jobResult == null) {
+            return false;
+        }
+        
+        applyResults(jobResult, List.of(taskResult));
+        return true;
+    }
+    
+    /**
+     * Résout le job d'un résultat et écarte les doublons
+     * 
+     * @return le job à mettre à jour, ou null si le résultat ne doit pas être agrégé
+     */
+    private JobExecutionResults acceptResult(TaskResultDTO taskResult) {
+        // L'ID d'exécution du job est transporté de bout en bout par les DTOs
+        Long jobExecutionId = taskResult.getJobExecutionId();
+        if (jobExecutionId == null) {
+            log.warn("Résultat de la tâche {} sans ID d'exécution de job, ignoré pour l'agrégation",
+                    taskResult.getTaskId());
+            return null;
+        }
         
         JobExecutionResults jobResult = jobResults.computeIfAbsent(jobExecutionId, 
-                id -> new JobExecutionResults(id));
+                id -> new JobExecutionResults(id, taskResult.getTotalPartitions()));
+        
+        ResultDeduplicator.Outcome outcome = resultDeduplicator.accept(jobExecutionId, taskResult);
+        boolean duplicate = outcome.isDuplicate();
         
-        synchronized (jobResult) {
+        PartitionEvents.ResultAggregated aggregated = new PartitionEvents.ResultAggregated();
+        if (aggregated.isEnabled()) {
+            aggregated.task(taskResult);
+            aggregated.status = String.valueOf(taskResult.getStatus());
+            aggregated.linesProcessed = taskResult.getTotalLinesProcessed() != null ? taskResult.getTotalLinesProcessed() : 0L;
+            aggregated.duplicate = duplicate;
+            aggregated.commit();
+        }
+        
+        if (duplicate) {
+            jobResult.recordDuplicate();
+            log.warn("Résultat dupliqué ignoré pour la tâche {} (job {}, partition {}, tentative {}): {}",
+                    taskResult.getTaskId(), jobExecutionId, taskResult.getPartitionId(), taskResult.getAttempt(), outcome);
+            return null;
+        }
+        return jobResult;
+    }
+    
+    /**
+     * Applique des résultats acceptés d'un même job, sans verrou global sur le job
+     */
+    private void applyResults(JobExecutionResults jobResult, List<TaskResultDTO> results) {
+        for (TaskResultDTO taskResult : results) {
+            jobResult.expectPartitions(taskResult.getTotalPartitions());
+            if (taskResult.isPartial() && partitionRescheduler.isSuperseded(taskResult)) {
+                // Reste déjà replanifié pour cette tâche: ce résultat partiel est un rejeu
+                jobResult.recordDuplicate();
+                log.warn("Résultat partiel de la tâche {} ignoré: reste de la partition {} déjà replanifié",
+                        taskResult.getTaskId(), taskResult.getPartitionId());
+                continue;
+            }
+            if (taskResult.isPartial() && rescheduleRemainder(jobResult, taskResult)) {
+                continue;
+            }
+            // Un résultat partiel non replanifiable clôt sa partition en échec
             jobResult.addTaskResult(taskResult);
+        }
             
-            log.info("Agrégation mise à jour pour le job {}: {} tâches complétées, {} succès, {} échecs",
-                    jobExecutionId,
-                    jobResult.getCompletedTasks(),
-                    jobResult.getTotalSuccessfulContracts(),
-                    jobResult.getTotalFailedContracts());
+        StripedResultCounters.Snapshot totals = jobResult.snapshot();
+        log.info("Agrégation mise à jour pour le job {}: +{} tâches, {}/{} tâches complétées, {} succès, {} échecs",
+                jobResult.getJobExecutionId(),
+                results.size(),
+                totals.completedTasks(),
+                jobResult.getExpectedPartitions(),
+                totals.successfulContracts(),
+                totals.failedContracts());
+        
+        completeIfDone(jobResult);
+    }
+    
+    /**
+     * Agrège l'apport d'une partition interrompue et replanifie son reste
+     *
+     * @return false si le reste ne peut pas être replanifié
+     */
+    private boolean rescheduleRemainder(JobExecutionResults jobResult, TaskResultDTO partialResult) {
+        CompletableFuture<?> remainderSent = partitionRescheduler.reschedule(partialResult);
+        if (remainderSent == null) {
+            return false;
+        }
+        
+        jobResult.addPartialResult(partialResult);
+        remainderSent.whenComplete((sendResult, sendError) -> {
+            if (sendError != null) {
+                log.error("Reste de la partition {} du job {} non envoyé, partition en échec: {}",
+                        partialResult.getPartitionId(), jobResult.getJobExecutionId(), sendError.getMessage());
+                
+                // Les lignes déjà traitées sont comptées: seule la clôture de la partition est enregistrée
+                jobResult.addTaskResult(TaskResultDTO.builder()
+                    .taskId(partialResult.getTaskId())
+                    .jobExecutionId(partialResult.getJobExecutionId())
+                    .partitionId(partialResult.getPartitionId())
+                    .attempt(partialResult.getAttempt())
+                    .status(TaskResultDTO.ProcessingStatus.FAILED)
+                    .summary("Reste de la partition non replanifié: " + sendError.getMessage())
+                    .build());
+                completeIfDone(jobResult);
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Signale la fin du job dès que la dernière partition attendue est agrégée
+     */
+    private void completeIfDone(JobExecutionResults jobResult) {
+        // Le dernier contributeur voit toujours l'ensemble des cellules: la détection ne peut pas être manquée
+        if (jobResult.isComplete() && jobResult.markCompleted()) {
+            partitionRescheduler.forget(jobResult.getJobExecutionId());
+            StripedResultCounters.Snapshot totals = jobResult.snapshot();
+            log.info("Job {} terminé: {} partitions agrégées, taux de succès {}%",
+                    jobResult.getJobExecutionId(),
+                    totals.completedTasks(),
+                    String.format("%.2f", totals.getOverallSuccessRate()));
         }
     }
     
@@ -102,31 +311,31 @@ public class ResultListener {
                     taskResult.getProcessingTimeMs(),
                     taskResult.getSuccessRate(),
                     taskResult.getThroughput());
+        } else if (taskResult.isPartial()) {
+            log.warn("⏸ Tâche {} interrompue: statut={}, {} lignes traitées jusqu'à la ligne {}",
+                    taskResult.getTaskId(),
+                    taskResult.getStatus(),
+                    taskResult.getTotalLinesProcessed(),
+                    taskResult.getLastProcessedLine());
         } else {
             log.warn("✗ Tâche {} échouée: statut={}, erreurs={}",
                     taskResult.getTaskId(),
                     taskResult.getStatus(),
-                    taskResult.getErrors() != null ? taskResult.getErrors().size() : 0);
+                    taskResult.getErrorCountsByType() != null ? taskResult.getErrorCountsByType() : Map.of());
         }
         
         // Log des statistiques de performance
         if (taskResult.getMaxMemoryUsageMB() != null) {
-            log.debug("Utilisation mémoire max: {}MB, CPU moyen: {}%",
+            Map<String, Object> customMetrics = taskResult.getCustomMetrics() != null ? taskResult.getCustomMetrics() : Map.of();
+            log.debug("Utilisation mémoire max: {}MB, CPU moyen: {}%, {} octets alloués/ligne, {}µs CPU/ligne (partition {})",
                     taskResult.getMaxMemoryUsageMB(),
-                    taskResult.getAvgCpuUsage());
+                    taskResult.getAvgCpuUsage(),
+                    customMetrics.get("allocatedBytesPerRow"),
+                    customMetrics.get("cpuMicrosPerRow"),
+                    taskResult.getPartitionId());
         }
     }
     
-    /**
-     * Extrait l'ID d'exécution du job depuis le résultat de la tâche
-     * TODO: Implémenter un mapping plus robuste
-     */
-    private Long extractJobExecutionId(TaskResultDTO taskResult) {
-        // Pour l'instant, utilisation d'un hash du taskId
-        // Dans une implémentation réelle, ceci devrait être fourni explicitement
-        return (long) taskResult.getTaskId().hashCode();
-    }
-    
     /**
      * Retourne les résultats agrégés pour un job d'exécution
      */
@@ -138,62 +347,174 @@ public class ResultListener {
      * Nettoie les résultats anciens pour éviter les fuites mémoire
      */
     public void cleanupOldResults(LocalDateTime before) {
-        jobResults.entrySet().removeIf(entry -> 
-                entry.getValue().getStartTime().isBefore(before));
+        jobResults.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().getStartTime().isBefore(before);
+            if (expired) {
+                resultDeduplicator.forget(entry.getKey());
+                partitionRescheduler.forget(entry.getKey());
+            }
+            return expired;
+        });
+        progressTracker.cleanup(before);
         
         log.info("Nettoyage des anciens résultats effectué");
     }
     
+    /**
+     * Purge périodique des jobs terminés: la mémoire du master reste proportionnelle aux jobs actifs
+     */
+    @Scheduled(fixedDelayString = "${batch.results.purge-interval-ms:60000}")
+    public void purgeCompletedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(completedRetentionMinutes);
+        
+        jobResults.entrySet().removeIf(entry -> {
+            LocalDateTime completedAt = entry.getValue().getCompletedAt();
+            boolean expired = completedAt != null && completedAt.isBefore(threshold);
+            if (expired) {
+                resultDeduplicator.forget(entry.getKey());
+                progressTracker.forget(entry.getKey());
+            }
+            return expired;
+        });
+        progressTracker.cleanup(threshold, jobResults.keySet());
+    }
+    
     /**
      * Classe interne pour agréger les résultats d'un job
      */
     public static class JobExecutionResults {
         private final Long jobExecutionId;
         private final LocalDateTime startTime;
-        private final AtomicLong completedTasks = new AtomicLong(0);
-        private final AtomicLong totalSuccessfulContracts = new AtomicLong(0);
-        private final AtomicLong totalFailedContracts = new AtomicLong(0);
-        private final AtomicLong totalSkippedContracts = new AtomicLong(0);
-        private final AtomicLong totalProcessingTimeMs = new AtomicLong(0);
+        private final StripedResultCounters counters = new StripedResultCounters();
+        private final AtomicLong duplicateResults = new AtomicLong(0);
+        private final BitSet failedPartitions = new BitSet();
+        private final Map<String, Long> errorCountsByType = new ConcurrentHashMap<>();
+        // Références des rapports d'erreurs détaillés, relus à la demande par l'ErrorReportReader
+        private final Map<String, ErrorReportRefDTO> errorReports = new ConcurrentHashMap<>();
+        // Fichiers de sortie par chemin: une partition relivrée remplace son fichier, et sa référence
+        private final Map<String, OutputFileRefDTO> outputFiles = new ConcurrentHashMap<>();
+        private final CompletableFuture<JobExecutionResults> completion = new CompletableFuture<>();
+        private volatile Integer expectedPartitions;
         private volatile LocalDateTime lastUpdateTime;
+        private volatile LocalDateTime completedAt;
         
         public JobExecutionResults(Long jobExecutionId) {
+            this(jobExecutionId, null);
+        }
+        
+        public JobExecutionResults(Long jobExecutionId, Integer expectedPartitions) {
             this.jobExecutionId = jobExecutionId;
+            this.expectedPartitions = expectedPartitions;
             this.startTime = LocalDateTime.now();
             this.lastUpdateTime = LocalDateTime.now();
         }
         
-        public void addTaskResult(TaskResultDTO taskResult) {
-            completedTasks.incrementAndGet();
-            totalSuccessfulContracts.addAndGet(taskResult.getSuccessfulContracts());
-            totalFailedContracts.addAndGet(taskResult.getFailedContracts());
-            totalSkippedContracts.addAndGet(taskResult.getSkippedContracts());
+        public void expectPartitions(Integer partitions) {
+            if (expectedPartitions == null && partitions != null) {
+                expectedPartitions = partitions;
+            }
+        }
             
-            if (taskResult.getProcessingTimeMs() != null) {
-                totalProcessingTimeMs.addAndGet(taskResult.getProcessingTimeMs());
+        public void addTaskResult(TaskResultDTO taskResult) {
+            if ((taskResult.isFailed() || taskResult.isPartial()) && taskResult.getPartitionId() != null) {
+                synchronized (failedPartitions) {
+                    failedPartitions.set(taskResult.getPartitionId());
+                }
             }
+            addDetails(taskResult);
             
+            // Comptage en dernier: une tâche visible dans les compteurs a déjà ses détails enregistrés
+            counters.add(nullToZero(taskResult.getSuccessfulContracts()),
+                    nullToZero(taskResult.getFailedContracts()),
+                    nullToZero(taskResult.getSkippedContracts()),
+                    nullToZero(taskResult.getProcessingTimeMs()));
             lastUpdateTime = LocalDateTime.now();
         }
         
+        /**
+         * Ajoute l'apport d'une partition interrompue sans la compter comme terminée
+         */
+        public void addPartialResult(TaskResultDTO taskResult) {
+            addDetails(taskResult);
+            counters.addPartial(nullToZero(taskResult.getSuccessfulContracts()),
+                    nullToZero(taskResult.getFailedContracts()),
+                    nullToZero(taskResult.getSkippedContracts()),
+                    nullToZero(taskResult.getProcessingTimeMs()));
+            lastUpdateTime = LocalDateTime.now();
+        }
+        
+        private void addDetails(TaskResultDTO taskResult) {
+            if (taskResult.getErrorCountsByType() != null) {
+                taskResult.getErrorCountsByType().forEach((type, count) -> errorCountsByType.merge(type, count, Long::sum));
+            }
+            if (taskResult.getErrorReport() != null) {
+                errorReports.put(taskResult.getTaskId(), taskResult.getErrorReport());
+            }
+            if (taskResult.getOutputFile() != null) {
+                outputFiles.put(taskResult.getOutputFile().getPath(), taskResult.getOutputFile());
+            }
+        }
+        
+        public void recordDuplicate() {
+            duplicateResults.incrementAndGet();
+        }
+        
+        public boolean isComplete() {
+            Integer expected = expectedPartitions;
+            return expected != null && counters.snapshot().completedTasks() >= expected;
+        }
+        
+        /**
+         * Instantané cohérent des compteurs du job
+         */
+        public StripedResultCounters.Snapshot snapshot() {
+            return counters.snapshot();
+        }
+        
+        /**
+         * Complète la future de fin de job (une seule fois)
+         */
+        boolean markCompleted() {
+            if (completion.isDone()) {
+                return false;
+            }
+            completedAt = LocalDateTime.now();
+            return completion.complete(this);
+        }
+        
+        public boolean isPartitionFailed(int partitionId) {
+            synchronized (failedPartitions) {
+                return failedPartitions.get(partitionId);
+            }
+        }
+        
+        private static long nullToZero(Long value) {
+            return value != null ? value : 0L;
+        }
+        
         // Getters
         public Long getJobExecutionId() { return jobExecutionId; }
         public LocalDateTime getStartTime() { return startTime; }
-        public long getCompletedTasks() { return completedTasks.get(); }
-        public long getTotalSuccessfulContracts() { return totalSuccessfulContracts.get(); }
-        public long getTotalFailedContracts() { return totalFailedContracts.get(); }
-        public long getTotalSkippedContracts() { return totalSkippedContracts.get(); }
-        public long getTotalProcessingTimeMs() { return totalProcessingTimeMs.get(); }
+        public long getCompletedTasks() { return counters.snapshot().completedTasks(); }
+        public long getTotalSuccessfulContracts() { return counters.snapshot().successfulContracts(); }
+        public long getTotalFailedContracts() { return counters.snapshot().failedContracts(); }
+        public long getTotalSkippedContracts() { return counters.snapshot().skippedContracts(); }
+        public long getTotalProcessingTimeMs() { return counters.snapshot().processingTimeMs(); }
+        public long getDuplicateResults() { return duplicateResults.get(); }
+        public Integer getExpectedPartitions() { return expectedPartitions; }
+        public LocalDateTime getCompletedAt() { return completedAt; }
+        public CompletableFuture<JobExecutionResults> getCompletion() { return completion; }
+        public Map<String, Long> getErrorCountsByType() { return errorCountsByType; }
+        public Map<String, ErrorReportRefDTO> getErrorReports() { return errorReports; }
+        public Map<String, OutputFileRefDTO> getOutputFiles() { return outputFiles; }
         public LocalDateTime getLastUpdateTime() { return lastUpdateTime; }
         
         public double getOverallSuccessRate() {
-            long total = totalSuccessfulContracts.get() + totalFailedContracts.get() + totalSkippedContracts.get();
-            return total > 0 ? (totalSuccessfulContracts.get() * 100.0) / total : 0.0;
+            return counters.snapshot().getOverallSuccessRate();
         }
         
         public double getAverageProcessingTimePerTask() {
-            long tasks = completedTasks.get();
-            return tasks > 0 ? (double) totalProcessingTimeMs.get() / tasks : 0.0;
+            return counters.snapshot().getAverageProcessingTimePerTask();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.maroctelecom.taskmaster.listener;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Compteurs d'agrégation d'un job répartis en cellules, à la manière d'un LongAdder, sans verrou
+ * Un thread réserve une cellule par CAS sur son numéro de séquence: si un autre thread l'occupe, il passe
+ * à la suivante et la garde pour ses ajouts suivants, sans prendre de verrou. La séquence, impaire pendant
+ * une écriture, sert de seqlock aux lectures: une cellule est relue tant qu'elle a changé, si bien qu'un
+ * instantané contient toujours l'apport complet de chaque tâche
+ */
+public class StripedResultCounters {
+    
+    private static final int MAX_STRIPES = 64;
+    
+    // Cellule préférée du thread, déplacée à chaque collision (comme la sonde d'un LongAdder)
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[] {initialProbe()});
+    
+    private final Cell[] cells;
+    private final int mask;
+    
+    public StripedResultCounters() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    public StripedResultCounters(int parallelism) {
+        // Au moins deux cellules par cœur: un écrivain trouve une cellule libre sans attendre
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(parallelism, MAX_STRIPES / 2)) * 4 - 1);
+        this.cells = new Cell[stripes];
+        for (int i = 0; i < stripes; i++) {
+            cells[i] = new Cell();
+        }
+        this.mask = stripes - 1;
+    }
+    
+    /**
+     * Ajoute l'apport d'une tâche dans une cellule libre, de préférence celle du thread courant
+     */
+    public void add(long successful, long failed, long skipped, long processingTimeMs) {
+        add(1, successful, failed, skipped, processingTimeMs);
+    }
+    
+    /**
+     * Ajoute l'apport d'une partition interrompue, dont le reste est encore à traiter
+     */
+    public void addPartial(long successful, long failed, long skipped, long processingTimeMs) {
+        add(0, successful, failed, skipped, processingTimeMs);
+    }
+    
+    private void add(int tasks, long successful, long failed, long skipped, long processingTimeMs) {
+        int[] probe = PROBE.get();
+        for (int attempt = 1; ; attempt++) {
+            Cell cell = cells[probe[0] & mask];
+            long sequence = cell.sequence;
+            if ((sequence & 1) == 0 && Cell.SEQUENCE.compareAndSet(cell, sequence, sequence + 1)) {
+                cell.completedTasks += tasks;
+                cell.successfulContracts += successful;
+                cell.failedContracts += failed;
+                cell.skippedContracts += skipped;
+                cell.processingTimeMs += processingTimeMs;
+                // Écriture volatile: publie les compteurs et libère la cellule
+                cell.sequence = sequence + 2;
+                return;
+            }
+            // Cellule occupée: essai de la suivante; après un tour complet, les écrivains qui les occupent
+            // ont été suspendus en pleine écriture, le thread cède alors la main
+            probe[0]++;
+            if (attempt % cells.length == 0) {
+                Thread.yield();
+            }
+        }
+    }
+    
+    /**
+     * Instantané cohérent des totaux: aucune tâche n'y figure partiellement
+     */
+    public Snapshot snapshot() {
+        long completedTasks = 0;
+        long successful = 0;
+        long failed = 0;
+        long skipped = 0;
+        long processingTimeMs = 0;
+        
+        for (Cell cell : cells) {
+            long sequence;
+            long cellTasks;
+            long cellSuccessful;
+            long cellFailed;
+            long cellSkipped;
+            long cellTime;
+            for (int attempt = 1; ; attempt++) {
+                sequence = cell.sequence;
+                cellTasks = cell.completedTasks;
+                cellSuccessful = cell.successfulContracts;
+                cellFailed = cell.failedContracts;
+                cellSkipped = cell.skippedContracts;
+                cellTime = cell.processingTimeMs;
+                // Les lectures des compteurs précèdent la relecture de la séquence
+                VarHandle.acquireFence();
+                if ((sequence & 1) == 0 && cell.sequence == sequence) {
+                    break;
+                }
+                // Écriture en cours sur cette cellule: elle ne dure que quelques additions,
+                // sauf si l'écrivain a été suspendu
+                if (attempt % 64 == 0) {
+                    Thread.yield();
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+            
+            completedTasks += cellTasks;
+            successful += cellSuccessful;
+            failed += cellFailed;
+            skipped += cellSkipped;
+            processingTimeMs += cellTime;
+        }
+        return new Snapshot(completedTasks, successful, failed, skipped, processingTimeMs);
+    }
+    
+    private static int initialProbe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * Totaux d'un job à un instant donné
+     */
+    public record Snapshot(long completedTasks, long successfulContracts, long failedContracts,
+                           long skippedContracts, long processingTimeMs) {
+        
+        public double getOverallSuccessRate() {
+            long total = successfulContracts + failedContracts + skippedContracts;
+            return total > 0 ? (successfulContracts * 100.0) / total : 0.0;
+        }
+        
+        public double getAverageProcessingTimePerTask() {
+            return completedTasks > 0 ? (double) processingTimeMs / completedTasks : 0.0;
+        }
+    }
+    
+    /**
+     * Cellule de compteurs, espacée pour limiter le faux partage entre cœurs
+     */
+    @SuppressWarnings("unused")
+    private static final class Cell {
+        private static final VarHandle SEQUENCE;
+        
+        static {
+            try {
+                SEQUENCE = MethodHandles.lookup().findVarHandle(Cell.class, "sequence", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+        
+        private long p0, p1, p2, p3, p4, p5, p6;
+        // Paire au repos, impaire pendant une écriture
+        private volatile long sequence;
+        private long completedTasks;
+        private long successfulContracts;
+        private long failedContracts;
+        private long skippedContracts;
+        private long processingTimeMs;
+        private long q0, q1, q2, q3, q4, q5, q6;
+    }
+}
\ No newline at end of file
@@ -1,20 +1,33 @@
 package com.maroctelecom.taskmaster.partitioner;
 
 import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import com.maroctelecom.taskmaster.service.RangeFileServer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.UUID;
 
 /**
@@ -23,12 +36,37 @@ import java.util.UUID;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class FilePartitioner implements Partitioner {
     
     private static final String PARTITION_KEY = "partition";
     private static final long DEFAULT_LINES_PER_PARTITION = 10000L;
     private static final int MAX_PARTITIONS = 50;
     
+    static final String PRIORITY_PARAMETER = "priority";
+    static final int HIGHEST_PRIORITY = 1;
+    static final int LOWEST_PRIORITY = 10;
+    private static final int DEFAULT_PRIORITY = 5;
+    
+    private final ObjectProvider<RangeFileServer> rangeServerProvider;
+    
+    // Priorité des lancements hors job Spring Batch (lanceur local, harness)
+    @Value("${batch.input.priority:5}")
+    private String defaultPriority;
+    
+    /**
+     * Découpe le fichier pour une étape créée hors d'un job lancé par Spring Batch (lanceur local, harness):
+     * l'étape est rendue courante le temps du découpage, comme le fait PartitionStep
+     */
+    public Map<String, ExecutionContext> partition(StepExecution stepExecution, int gridSize) {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            return partition(gridSize);
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+    
     @Override
     public Map<String, ExecutionContext> partition(int gridSize) {
         Map<String, ExecutionContext> partitions = new HashMap<>();
@@ -38,6 +76,7 @@ public class FilePartitioner implements Partitioner {
         String fileName = getFileName(filePath);
         String jobId = getJobId();
         Long jobExecutionId = getJobExecutionId();
+        Integer priority = getPriority();
         
         try {
             long totalLines = countLines(filePath);
@@ -47,8 +86,15 @@ public class FilePartitioner implements Partitioner {
             int optimalPartitions = calculateOptimalPartitions(totalLines, gridSize);
             long linesPerPartition = totalLines / optimalPartitions;
             
-            log.info("Création de {} partitions avec ~{} lignes par partition", 
-                    optimalPartitions, linesPerPartition);
+            log.info("Création de {} partitions avec ~{} lignes par partition (priorité {})", 
+                    optimalPartitions, linesPerPartition, priority);
+            
+            // Mode data-shipping: les workers lisent leur plage d'octets auprès du task master
+            RangeFileServer rangeServer = rangeServerProvider.getIfAvailable();
+            String dataUrl = rangeServer != null ? rangeServer.register(filePath) : null;
+            Map<Long, Long> lineOffsets = rangeServer != null
+                ? computeLineOffsets(filePath, totalLines, optimalPartitions, linesPerPartition)
+                : Map.of();
             
             for (int i = 0; i < optimalPartitions; i++) {
                 ExecutionContext context = new ExecutionContext();
@@ -67,11 +113,27 @@ public class FilePartitioner implements Partitioner {
                     .partitionId(i)
                     .jobId(jobId)
                     .jobExecutionId(jobExecutionId)
+                    .totalPartitions(optimalPartitions)
                     .createdAt(LocalDateTime.now())
                     .estimatedLineCount(endLine - startLine + 1)
                     .timeoutSeconds(calculateTimeout(endLine - startLine + 1))
+                    .priority(priority)
+                    .dataUrl(dataUrl)
+                    .headerByteLength(lineOffsets.get(1L))
+                    .byteRangeStart(lineOffsets.get(startLine))
+                    .byteRangeEnd(lineOffsets.get(endLine + 1))
                     .build();
                 
+                PartitionEvents.PartitionPlanned planned = new PartitionEvents.PartitionPlanned();
+                if (planned.isEnabled()) {
+                    planned.task(task);
+                    planned.fileName = fileName;
+                    planned.startLine = startLine;
+                    planned.endLine = endLine;
+                    planned.priority = priority != null ? priority : 0;
+                    planned.commit();
+                }
+                
                 // Ajout des paramètres au contexte Spring Batch
                 context.putString("taskId", task.getTaskId());
                 context.putString("fileName", task.getFileName());
@@ -81,6 +143,7 @@ public class FilePartitioner implements Partitioner {
                 context.putInt("partitionId", task.getPartitionId());
                 context.putString("jobId", task.getJobId());
                 context.putLong("jobExecutionId", task.getJobExecutionId());
+                context.putInt("totalPartitions", task.getTotalPartitions());
                 
                 // Sérialisation de l'objet complet pour Kafka
                 context.put("partitionTask", task);
@@ -104,7 +167,7 @@ public class FilePartitioner implements Partitioner {
     /**
      * Compte le nombre de lignes dans un fichier
      */
-    private long countLines(String filePath) throws IOException {
+    long countLines(String filePath) throws IOException {
         Path path = Paths.get(filePath);
         
         if (!Files.exists(path)) {
@@ -121,6 +184,47 @@ public class FilePartitioner implements Partitioner {
         }
     }
     
+    /**
+     * Position en octets du début de chaque ligne de données bornant une partition
+     * La ligne n (1-based, hors en-tête) débute après le n-ième saut de ligne; la ligne suivant la dernière
+     * correspond à la fin du fichier
+     */
+    private Map<Long, Long> computeLineOffsets(String filePath, long totalLines, int partitionCount,
+                                               long linesPerPartition) throws IOException {
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (int i = 0; i < partitionCount; i++) {
+            boundaries.add(i * linesPerPartition + 1);
+        }
+        boundaries.add(totalLines + 1);
+        
+        Map<Long, Long> offsets = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            long position = 0;
+            long newlines = 0;
+            Long next = boundaries.pollFirst();
+            
+            while (next != null && channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining() && next != null) {
+                    position++;
+                    if (buffer.get() == '\n' && ++newlines == next) {
+                        offsets.put(next, position);
+                        next = boundaries.pollFirst();
+                    }
+                }
+                buffer.clear();
+            }
+            
+            // Dernière ligne sans saut de ligne final
+            while (next != null) {
+                offsets.put(next, channel.size());
+                next = boundaries.pollFirst();
+            }
+        }
+        return offsets;
+    }
+    
     /**
      * Calcule le nombre optimal de partitions
      */
@@ -160,6 +264,36 @@ public class FilePartitioner implements Partitioner {
         return System.getProperty("batch.input.file", "/tmp/contracts.csv");
     }
     
+    /**
+     * Récupère la priorité des tâches du job (1-10, 1 = haute priorité)
+     * Lue dans le paramètre de job "priority" de l'étape en cours, sinon dans batch.input.priority
+     *
+     * @throws IllegalArgumentException si la priorité n'est pas un entier de 1 à 10
+     */
+    Integer getPriority() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        JobParameter<?> parameter = stepContext != null
+            ? stepContext.getStepExecution().getJobParameters().getParameter(PRIORITY_PARAMETER)
+            : null;
+        String value = parameter != null ? String.valueOf(parameter.getValue()) : defaultPriority;
+        if (value == null || value.isBlank()) {
+            return DEFAULT_PRIORITY;
+        }
+        
+        int priority;
+        try {
+            priority = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Priorité de job invalide '%s': entier de %d (urgent) à %d attendu",
+                    value, HIGHEST_PRIORITY, LOWEST_PRIORITY), e);
+        }
+        if (priority < HIGHEST_PRIORITY || priority > LOWEST_PRIORITY) {
+            throw new IllegalArgumentException(String.format("Priorité de job hors limites: %d (de %d, urgent, à %d)",
+                    priority, HIGHEST_PRIORITY, LOWEST_PRIORITY));
+        }
+        return priority;
+    }
+    
     /**
      * Extrait le nom du fichier depuis le chemin complet
      */
@@ -177,10 +311,15 @@ public class FilePartitioner implements Partitioner {
     }
     
     /**
-     * Récupère l'ID d'exécution du job
-     * TODO: Implémenter la récupération depuis JobExecution
+     * Récupère l'ID d'exécution du job de l'étape en cours, clé de corrélation des résultats
+     *
+     * @throws IllegalStateException hors de l'exécution d'une étape
      */
-    private Long getJobExecutionId() {
-        return System.currentTimeMillis();
+    Long getJobExecutionId() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null || stepContext.getStepExecution().getJobExecutionId() == null) {
+            throw new IllegalStateException("Partitionnement hors de l'exécution d'une étape: aucun ID d'exécution de job");
+        }
+        return stepContext.getStepExecution().getJobExecutionId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.maroctelecom.taskmaster.partitioner;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.transport.PartitionTaskTransport;
+import com.maroctelecom.taskmaster.listener.ResultListener;
+import com.maroctelecom.taskmaster.listener.ResultListener.JobExecutionResults;
+import com.maroctelecom.taskmaster.service.DatasetManifestWriter;
+import com.maroctelecom.taskmaster.service.PartitionRescheduler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Gestionnaire de partitions distribuées via Kafka
+ * Envoie les partitions aux workers par le transport configuré (Kafka ou en mémoire)
+ * puis attend la fin du job signalée par le ResultListener,
+ * sans interrogation périodique du JobRepository
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KafkaPartitionHandler implements PartitionHandler {
+    
+    private final PartitionTaskTransport partitionTransport;
+    private final ResultListener resultListener;
+    private final PartitionRescheduler partitionRescheduler;
+    private final DatasetManifestWriter manifestWriter;
+    private final JobRepository jobRepository;
+    
+    @Value("${batch.job.contract-processing.grid-size:8}")
+    private int gridSize;
+    
+    @Value("${batch.job.contract-processing.completion-timeout-seconds:3600}")
+    private long completionTimeoutSeconds;
+    
+    @Override
+    public Set<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+        Long jobExecutionId = managerStepExecution.getJobExecutionId();
+        Set<StepExecution> partitionExecutions = stepSplitter.split(managerStepExecution, gridSize);
+        
+        if (partitionExecutions.isEmpty()) {
+            return partitionExecutions;
+        }
+        
+        // Enregistrement du job avant tout envoi pour ne manquer aucun résultat
+        CompletableFuture<JobExecutionResults> completion =
+            resultListener.registerJob(jobExecutionId, partitionExecutions.size());
+        
+        for (StepExecution partitionExecution : partitionExecutions) {
+            PartitionTaskDTO task = (PartitionTaskDTO) partitionExecution.getExecutionContext().get("partitionTask");
+            if (task == null) {
+                throw new IllegalStateException("Aucune tâche dans le contexte de la partition "
+                        + partitionExecution.getStepName());
+            }
+            
+            task.setTotalPartitions(partitionExecutions.size());
+            partitionRescheduler.track(task);
+            partitionTransport.sendPartitionTaskSync(task);
+        }
+        
+        log.info("{} partitions envoyées pour le job {}, attente des résultats (timeout {}s)",
+                partitionExecutions.size(), jobExecutionId, completionTimeoutSeconds);
+        
+        JobExecutionResults jobResult;
+        try {
+            jobResult = completion.get(completionTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.error("Job {} non terminé après {}s", jobExecutionId, completionTimeoutSeconds);
+            partitionRescheduler.forget(jobExecutionId);
+            throw new RuntimeException("Délai d'attente des partitions dépassé pour le job " + jobExecutionId, e);
+        }
+        
+        // Fichiers de sortie des partitions inscrits avant la fin de l'étape
+        manifestWriter.write(jobResult);
+        
+        for (StepExecution partitionExecution : partitionExecutions) {
+            updatePartitionExecution(partitionExecution, jobResult);
+        }
+        return partitionExecutions;
+    }
+    
+    /**
+     * Reporte l'issue d'une partition dans son StepExecution
+     */
+    private void updatePartitionExecution(StepExecution partitionExecution, JobExecutionResults jobResult) {
+        int partitionId = partitionExecution.getExecutionContext().getInt("partitionId");
+        boolean failed = jobResult.isPartitionFailed(partitionId);
+        
+        partitionExecution.setStatus(failed ? BatchStatus.FAILED : BatchStatus.COMPLETED);
+        partitionExecution.setExitStatus(failed ? ExitStatus.FAILED : ExitStatus.COMPLETED);
+        partitionExecution.setEndTime(LocalDateTime.now());
+        jobRepository.update(partitionExecution);
+        
+        log.debug("Partition {} du job {} marquée {}", partitionId, jobResult.getJobExecutionId(),
+                failed ? TaskResultDTO.ProcessingStatus.FAILED : TaskResultDTO.ProcessingStatus.COMPLETED);
+    }
+}
\ No newline at end of file
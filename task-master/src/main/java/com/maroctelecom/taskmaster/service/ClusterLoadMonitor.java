@@ -0,0 +1,254 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
+import com.maroctelecom.common.dto.ClusterLoadDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Surveillance de la charge du cluster: lag des groupes de consommateurs et débit de traitement
+ * Le lag est échantillonné par l'AdminClient, les débits sont calculés sur la fenêtre entre deux échantillons.
+ * Le lag des tâches est exposé par topic de voie, et cumulé sur toutes les voies dans l'échantillon publié.
+ * Chaque échantillon alimente des jauges Micrometer et est publié sur le topic de monitoring;
+ * les seuils de KafkaConfig.Monitoring déclenchent des alertes au franchissement
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.kafka.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class ClusterLoadMonitor implements DisposableBean {
+    
+    static final String ALERT_PARTITIONS_LAG = "PARTITIONS_LAG";
+    static final String ALERT_RESULTS_LAG = "RESULTS_LAG";
+    static final String ALERT_LOW_THROUGHPUT = "LOW_THROUGHPUT";
+    
+    private final KafkaConfig kafkaConfig;
+    private final KafkaTemplate<String, ClusterLoadDTO> kafkaTemplate;
+    private final JobProgressTracker progressTracker;
+    private final MeterRegistry meterRegistry;
+    private final AdminClient adminClient;
+    
+    // Valeurs exposées par les jauges (lag en messages par topic de voie, débits en millièmes par seconde)
+    private final Map<String, AtomicLong> partitionsLagByTopic = new LinkedHashMap<>();
+    private final AtomicLong resultsLag = new AtomicLong();
+    private final AtomicLong tasksPerSecondMillis = new AtomicLong();
+    private final AtomicLong contractsPerSecondMillis = new AtomicLong();
+    
+    private final Set<String> activeAlerts = new HashSet<>();
+    
+    @Value("${batch.monitoring.admin-timeout-ms:10000}")
+    private long adminTimeoutMs;
+    
+    private long lastSampleNanos;
+    private long lastCompletedTasks;
+    private long lastLinesProcessed;
+    
+    public ClusterLoadMonitor(KafkaConfig kafkaConfig,
+                              @Qualifier(ProducerProfilesConfiguration.CONTROL_TEMPLATE)
+                              KafkaTemplate<String, ClusterLoadDTO> kafkaTemplate,
+                              JobProgressTracker progressTracker,
+                              MeterRegistry meterRegistry) {
+        this.kafkaConfig = kafkaConfig;
+        this.kafkaTemplate = kafkaTemplate;
+        this.progressTracker = progressTracker;
+        this.meterRegistry = meterRegistry;
+        
+        Map<String, Object> adminProps = new HashMap<>();
+        adminProps.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, kafkaConfig.getBroker().getServers());
+        adminProps.put(CommonClientConfigs.SECURITY_PROTOCOL_CONFIG, kafkaConfig.getBroker().getSecurity().getProtocol());
+        this.adminClient = AdminClient.create(adminProps);
+        
+        for (String partitionsTopic : kafkaConfig.getPartitionsTopics()) {
+            AtomicLong lag = partitionsLagByTopic.computeIfAbsent(partitionsTopic, topic -> new AtomicLong());
+            Gauge.builder("batch.consumer.lag", lag, AtomicLong::get)
+                .description("Messages en attente de consommation")
+                .tags("topic", partitionsTopic, "group", kafkaConfig.getConsumerGroups().getWorker())
+                .register(meterRegistry);
+        }
+        String resultsTopic = kafkaConfig.getTopics().getContractResults();
+        Gauge.builder("batch.consumer.lag", resultsLag, AtomicLong::get)
+            .description("Messages en attente de consommation")
+            .tags("topic", resultsTopic, "group", kafkaConfig.getConsumerGroups().getTaskMaster())
+            .register(meterRegistry);
+        Gauge.builder("batch.throughput.tasks", tasksPerSecondMillis, value -> value.get() / 1000.0)
+            .description("Tâches terminées par seconde")
+            .register(meterRegistry);
+        Gauge.builder("batch.throughput.contracts", contractsPerSecondMillis, value -> value.get() / 1000.0)
+            .description("Contrats traités par seconde")
+            .register(meterRegistry);
+        
+        this.lastSampleNanos = System.nanoTime();
+        this.lastCompletedTasks = progressTracker.getTotalCompletedTasks();
+        this.lastLinesProcessed = progressTracker.getTotalLinesProcessed();
+    }
+    
+    /**
+     * Échantillonne la charge, met à jour les jauges, publie l'échantillon et évalue les seuils
+     */
+    @Scheduled(fixedDelayString = "#{@kafkaConfig.monitoring.metricsIntervalMs}",
+               initialDelayString = "#{@kafkaConfig.monitoring.metricsIntervalMs}")
+    public void sample() {
+        KafkaConfig.Monitoring monitoring = kafkaConfig.getMonitoring();
+        ClusterLoadDTO load = ClusterLoadDTO.builder().sampledAt(LocalDateTime.now()).build();
+        
+        if (monitoring.isEnableLagMonitoring()) {
+            try {
+                Map<String, Long> laneLags = new LinkedHashMap<>();
+                for (String topic : partitionsLagByTopic.keySet()) {
+                    laneLags.put(topic, consumerLag(kafkaConfig.getConsumerGroups().getWorker(), topic));
+                }
+                load.setPartitionsLag(laneLags.values().stream().mapToLong(Long::longValue).sum());
+                load.setResultsLag(consumerLag(kafkaConfig.getConsumerGroups().getTaskMaster(),
+                        kafkaConfig.getTopics().getContractResults()));
+                laneLags.forEach((topic, lag) -> partitionsLagByTopic.get(topic).set(lag));
+                resultsLag.set(load.getResultsLag());
+            } catch (Exception e) {
+                log.warn("Échantillonnage du lag impossible: {}", e.getMessage());
+            }
+        }
+        
+        if (monitoring.isEnableThroughputMonitoring()) {
+            sampleThroughput(load);
+        }
+        
+        evaluateAlerts(load, monitoring);
+        
+        kafkaTemplate.send(kafkaConfig.getTopics().getMonitoring(), "cluster-load", load)
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.warn("Échec de la publication de l'échantillon de charge: {}", throwable.getMessage());
+                }
+            });
+        
+        log.debug("Charge du cluster: lag partitions={}, lag résultats={}, {} tâches/sec, {} contrats/sec",
+                load.getPartitionsLag(), load.getResultsLag(), load.getTasksPerSecond(), load.getContractsPerSecond());
+    }
+    
+    @Override
+    public void destroy() {
+        adminClient.close();
+    }
+    
+    /**
+     * Lag d'un groupe sur un topic: somme sur les partitions de (fin du log - max(offset validé, début du log))
+     */
+    private long consumerLag(String groupId, String topic) throws Exception {
+        TopicDescription description = adminClient.describeTopics(List.of(topic))
+            .allTopicNames().get(adminTimeoutMs, TimeUnit.MILLISECONDS).get(topic);
+        List<TopicPartition> partitions = description.partitions().stream()
+            .map(info -> new TopicPartition(topic, info.partition()))
+            .toList();
+        
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+            .partitionsToOffsetAndMetadata().get(adminTimeoutMs, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, Long> latest = listOffsets(partitions, OffsetSpec.latest());
+        Map<TopicPartition, Long> earliest = listOffsets(partitions, OffsetSpec.earliest());
+        
+        long lag = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long consumed = Math.max(offset != null ? offset.offset() : 0L, earliest.getOrDefault(partition, 0L));
+            lag += Math.max(0L, latest.getOrDefault(partition, 0L) - consumed);
+        }
+        return lag;
+    }
+    
+    private Map<TopicPartition, Long> listOffsets(List<TopicPartition> partitions, OffsetSpec spec) throws Exception {
+        Map<TopicPartition, OffsetSpec> request = partitions.stream()
+            .collect(Collectors.toMap(Function.identity(), partition -> spec));
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> offsets = adminClient.listOffsets(request)
+            .all().get(adminTimeoutMs, TimeUnit.MILLISECONDS);
+        
+        Map<TopicPartition, Long> result = new HashMap<>();
+        offsets.forEach((partition, info) -> result.put(partition, info.offset()));
+        return result;
+    }
+    
+    /**
+     * Débits sur la fenêtre écoulée depuis l'échantillon précédent
+     */
+    private void sampleThroughput(ClusterLoadDTO load) {
+        long now = System.nanoTime();
+        long completedTasks = progressTracker.getTotalCompletedTasks();
+        long linesProcessed = progressTracker.getTotalLinesProcessed();
+        double elapsedSeconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        
+        double tasksPerSecond = elapsedSeconds > 0 ? (completedTasks - lastCompletedTasks) / elapsedSeconds : 0.0;
+        double contractsPerSecond = elapsedSeconds > 0 ? (linesProcessed - lastLinesProcessed) / elapsedSeconds : 0.0;
+        
+        lastSampleNanos = now;
+        lastCompletedTasks = completedTasks;
+        lastLinesProcessed = linesProcessed;
+        
+        load.setTasksPerSecond(tasksPerSecond);
+        load.setContractsPerSecond(contractsPerSecond);
+        tasksPerSecondMillis.set(Math.round(tasksPerSecond * 1000));
+        contractsPerSecondMillis.set(Math.round(contractsPerSecond * 1000));
+    }
+    
+    /**
+     * Alertes au franchissement des seuils: une alerte n'est signalée qu'à son apparition et à sa disparition
+     */
+    private void evaluateAlerts(ClusterLoadDTO load, KafkaConfig.Monitoring monitoring) {
+        List<String> raised = new ArrayList<>();
+        
+        if (load.getPartitionsLag() != null && load.getPartitionsLag() > monitoring.getAlertThresholdLag()) {
+            raised.add(ALERT_PARTITIONS_LAG);
+        }
+        if (load.getResultsLag() != null && load.getResultsLag() > monitoring.getAlertThresholdLag()) {
+            raised.add(ALERT_RESULTS_LAG);
+        }
+        // Un débit faible n'est anormal que s'il reste des tâches en attente
+        if (load.getContractsPerSecond() != null && load.getPartitionsLag() != null && load.getPartitionsLag() > 0
+                && load.getContractsPerSecond() < monitoring.getAlertThresholdThroughput()) {
+            raised.add(ALERT_LOW_THROUGHPUT);
+        }
+        
+        for (String alert : raised) {
+            if (activeAlerts.add(alert)) {
+                Counter.builder("batch.monitoring.alerts").tag("type", alert).register(meterRegistry).increment();
+                log.warn("Alerte {}: lag partitions={}, lag résultats={}, {} contrats/sec (seuils: lag {}, débit {})",
+                        alert, load.getPartitionsLag(), load.getResultsLag(), load.getContractsPerSecond(),
+                        monitoring.getAlertThresholdLag(), monitoring.getAlertThresholdThroughput());
+            }
+        }
+        activeAlerts.removeIf(alert -> {
+            if (raised.contains(alert)) {
+                return false;
+            }
+            log.info("Fin de l'alerte {}", alert);
+            return true;
+        });
+        
+        load.setAlerts(raised);
+    }
+}
\ No newline at end of file
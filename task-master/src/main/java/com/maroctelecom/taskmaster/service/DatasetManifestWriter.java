@@ -0,0 +1,116 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.columnar.ColumnarContractReader;
+import com.maroctelecom.common.columnar.ColumnarFile;
+import com.maroctelecom.common.columnar.ContractColumn;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.taskmaster.listener.ResultListener.JobExecutionResults;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Inscription des fichiers de sortie des workers dans le manifeste du jeu de données d'un job
+ * Le manifeste (job-{jobExecutionId}/_manifest.json) liste les fichiers colonnes retenus par le ResultListener,
+ * dans l'ordre des lignes, avec le schéma et les totaux: les consommateurs lisent le jeu de données à partir de lui
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DatasetManifestWriter {
+    
+    private static final String MANIFEST_FILE = "_manifest.json";
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${batch.output.manifest-directory:/tmp/batch/processed/columnar}")
+    private String manifestDirectory;
+    
+    @Value("${batch.output.verify-parts:false}")
+    private boolean verifyParts;
+    
+    /**
+     * Écrit le manifeste d'un job terminé
+     *
+     * @return Le chemin du manifeste, vide si aucune partition n'a produit de fichier
+     * @throws RuntimeException si un fichier est incohérent (verify-parts) ou si le manifeste ne peut être écrit
+     */
+    public Optional<Path> write(JobExecutionResults jobResult) {
+        List<OutputFileRefDTO> parts = jobResult.getOutputFiles().values().stream()
+            .sorted(Comparator.comparing(OutputFileRefDTO::getFirstLine))
+            .toList();
+        if (parts.isEmpty()) {
+            return Optional.empty();
+        }
+        if (verifyParts) {
+            parts.forEach(this::verify);
+        }
+        
+        long rows = parts.stream().mapToLong(OutputFileRefDTO::getRowCount).sum();
+        long bytes = parts.stream().mapToLong(OutputFileRefDTO::getSizeBytes).sum();
+        List<Column> schema = Arrays.stream(ContractColumn.values())
+            .map(column -> new Column(column.getColumnName(), column.getEncoding().name()))
+            .toList();
+        Manifest manifest = new Manifest(jobResult.getJobExecutionId(), ColumnarFile.FORMAT, LocalDateTime.now(),
+                rows, bytes, schema, parts);
+        
+        Path path = Paths.get(manifestDirectory, "job-" + jobResult.getJobExecutionId(), MANIFEST_FILE);
+        try {
+            Files.createDirectories(path.getParent());
+            
+            // Écriture atomique: fichier temporaire puis renommage
+            Path tmp = path.resolveSibling(MANIFEST_FILE + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), manifest);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible d'écrire le manifeste du job " + jobResult.getJobExecutionId(), e);
+        }
+        
+        log.info("Manifeste du job {}: {} fichiers, {} contrats, {} octets ({})",
+                jobResult.getJobExecutionId(), parts.size(), rows, bytes, path);
+        return Optional.of(path);
+    }
+    
+    /**
+     * Relit le pied d'un fichier (répertoire partagé avec les workers) et le compare à sa référence
+     */
+    private void verify(OutputFileRefDTO part) {
+        Path path = Paths.get(part.getPath());
+        try (ColumnarContractReader reader = new ColumnarContractReader(path)) {
+            long rowCount = reader.footer().rowCount();
+            long sizeBytes = Files.size(path);
+            if (rowCount != part.getRowCount() || sizeBytes != part.getSizeBytes()) {
+                throw new IllegalStateException(String.format("%d contrats et %d octets au lieu de %d et %d",
+                        rowCount, sizeBytes, part.getRowCount(), part.getSizeBytes()));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Fichier de sortie " + path + " invalide: " + e.getMessage(), e);
+        }
+    }
+    
+    record Manifest(Long jobExecutionId,
+                    String format,
+                    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") LocalDateTime createdAt,
+                    long rowCount,
+                    long sizeBytes,
+                    List<Column> schema,
+                    List<OutputFileRefDTO> parts) {
+    }
+    
+    record Column(String name, String encoding) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.ErrorReportRefDTO;
+import com.maroctelecom.common.serde.ErrorBatchCodec;
+import com.maroctelecom.taskmaster.listener.ResultListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lecture à la demande des rapports d'erreurs détaillés
+ * Reconstruit le rapport d'une tâche à partir de ses lots compressés sur le topic dead-letter
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ErrorReportReader {
+    
+    private final KafkaConfig kafkaConfig;
+    private final ObjectMapper objectMapper;
+    private final ResultListener resultListener;
+    
+    @Value("${batch.results.error-report.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+    
+    /**
+     * Relit les erreurs détaillées d'une tâche à partir de la référence portée par son résultat
+     *
+     * @param reference La référence du rapport d'erreurs
+     * @return Les erreurs dans l'ordre de publication
+     * @throws RuntimeException si le rapport est incomplet à l'expiration du délai
+     */
+    public List<ErrorInfo> readErrorReport(ErrorReportRefDTO reference) {
+        TopicPartition partition = new TopicPartition(reference.getTopic(), reference.getPartition());
+        String taskId = reference.getTaskId();
+        String expectedAttempt = String.valueOf(reference.getAttempt());
+        
+        Map<String, Object> props = kafkaConfig.buildConsumerProperties();
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        
+        List<ErrorInfo> errors = new ArrayList<>();
+        Set<String> batchesRead = new HashSet<>();
+        long deadline = System.currentTimeMillis() + readTimeoutMs;
+        
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(props)) {
+            consumer.assign(List.of(partition));
+            consumer.seek(partition, reference.getFirstOffset());
+            long endOffset = consumer.endOffsets(List.of(partition)).get(partition);
+            
+            while (batchesRead.size() < reference.getBatchCount()
+                    && consumer.position(partition) < endOffset
+                    && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (!taskId.equals(record.key())
+                            || !expectedAttempt.equals(header(record, ErrorBatchCodec.HEADER_ATTEMPT))) {
+                        continue;
+                    }
+                    // Un lot republié (retry du producer) n'est compté qu'une fois
+                    if (batchesRead.add(header(record, ErrorBatchCodec.HEADER_BATCH_SEQUENCE))) {
+                        errors.addAll(ErrorBatchCodec.decode(objectMapper, record.value()));
+                    }
+                }
+            }
+        }
+        
+        if (batchesRead.size() < reference.getBatchCount()) {
+            throw new RuntimeException(String.format("Rapport d'erreurs incomplet pour la tâche %s: %d/%d lots relus",
+                    taskId, batchesRead.size(), reference.getBatchCount()));
+        }
+        
+        log.info("Rapport d'erreurs de la tâche {} reconstruit: {} erreurs depuis {} lots",
+                taskId, errors.size(), batchesRead.size());
+        return errors;
+    }
+    
+    /**
+     * Relit les erreurs détaillées d'une tâche agrégée par le ResultListener
+     *
+     * @return Les erreurs, ou vide si la tâche est inconnue ou n'a pas de rapport déporté
+     */
+    public Optional<List<ErrorInfo>> readErrorReport(Long jobExecutionId, String taskId) {
+        ResultListener.JobExecutionResults jobResult = resultListener.getJobResults(jobExecutionId);
+        if (jobResult == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jobResult.getErrorReports().get(taskId))
+            .map(this::readErrorReport);
+    }
+    
+    private String header(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.maroctelecom.common.dto.TaskProgressDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suivi en temps réel de la progression des jobs
+ * Fusionne les rapports intermédiaires des workers et les résultats finaux sans double comptage
+ * Les tâches terminées sont comptées par partition: un résultat partiel apporte ses lignes sans terminer
+ * la partition, dont le reste replanifié (nouvel ID de tâche) ne compte pas comme une tâche de plus
+ */
+@Slf4j
+@Service
+public class JobProgressTracker {
+    
+    private final Map<Long, JobProgress> jobs = new ConcurrentHashMap<>();
+    
+    // Totaux cumulés tous jobs confondus, pour le calcul des débits par échantillonnage
+    private final LongAdder totalLinesProcessed = new LongAdder();
+    private final LongAdder totalCompletedTasks = new LongAdder();
+    
+    /**
+     * Intègre un rapport de progression intermédiaire
+     */
+    public void onProgress(TaskProgressDTO progress) {
+        if (progress.getJobExecutionId() == null || progress.getTaskId() == null) {
+            log.debug("Rapport de progression sans identifiant ignoré");
+            return;
+        }
+        
+        JobProgress job = jobs.computeIfAbsent(progress.getJobExecutionId(), JobProgress::new);
+        synchronized (job) {
+            totalLinesProcessed.add(job.applyProgress(progress));
+        }
+    }
+    
+    /**
+     * Intègre le résultat final d'une tâche et retire son instantané intermédiaire
+     */
+    public void onTaskCompleted(TaskResultDTO taskResult) {
+        if (taskResult.getJobExecutionId() == null || taskResult.getTaskId() == null) {
+            return;
+        }
+        
+        JobProgress job = jobs.computeIfAbsent(taskResult.getJobExecutionId(), JobProgress::new);
+        synchronized (job) {
+            long newLines = job.applyResult(taskResult);
+            if (newLines >= 0) {
+                totalLinesProcessed.add(newLines);
+                if (!taskResult.isPartial()) {
+                    totalCompletedTasks.increment();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Retourne un instantané de la progression d'un job
+     */
+    public JobProgressSnapshot getProgress(Long jobExecutionId) {
+        JobProgress job = jobs.get(jobExecutionId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            return job.snapshot();
+        }
+    }
+    
+    /**
+     * Lignes traitées depuis le démarrage, rapports intermédiaires compris
+     */
+    public long getTotalLinesProcessed() {
+        return totalLinesProcessed.sum();
+    }
+    
+    /**
+     * Tâches terminées depuis le démarrage
+     */
+    public long getTotalCompletedTasks() {
+        return totalCompletedTasks.sum();
+    }
+    
+    /**
+     * Nettoie la progression des jobs inactifs
+     */
+    public void cleanup(LocalDateTime before) {
+        jobs.entrySet().removeIf(entry -> entry.getValue().lastUpdateTime.isBefore(before));
+    }
+    
+    /**
+     * Nettoie la progression des jobs inactifs qui ne sont plus suivis (rapports tardifs d'un job purgé)
+     */
+    public void cleanup(LocalDateTime before, Set<Long> activeJobs) {
+        jobs.entrySet().removeIf(entry -> !activeJobs.contains(entry.getKey())
+                && entry.getValue().lastUpdateTime.isBefore(before));
+    }
+    
+    /**
+     * Oublie la progression d'un job purgé
+     */
+    public void forget(Long jobExecutionId) {
+        jobs.remove(jobExecutionId);
+    }
+    
+    /**
+     * Progression d'un job, protégée par son propre moniteur
+     */
+    private static class JobProgress {
+        private final Long jobExecutionId;
+        private final LocalDateTime firstSeen = LocalDateTime.now();
+        private LocalDateTime lastUpdateTime = firstSeen;
+        
+        // Instantané le plus récent de chaque tâche encore en cours
+        private final Map<String, TaskProgressDTO> inFlight = new HashMap<>();
+        // Partitions terminées: les rapports tardifs de leurs tâches sont ignorés
+        private final BitSet completedPartitions = new BitSet();
+        // Tâches interrompues des partitions dont le reste est en cours, oubliées à la fin de la partition
+        private final Map<Integer, Set<String>> interruptedTasks = new HashMap<>();
+        
+        private int completedTasks;
+        private long completedLines;
+        private long completedSuccessful;
+        private long completedFailed;
+        private long completedSkipped;
+        private double completedAmount;
+        
+        JobProgress(Long jobExecutionId) {
+            this.jobExecutionId = jobExecutionId;
+        }
+        
+        /**
+         * @return les lignes nouvellement traitées depuis le rapport précédent de la tâche
+         */
+        long applyProgress(TaskProgressDTO progress) {
+            if (isFinished(progress.getPartitionId(), progress.getTaskId())) {
+                return 0L;
+            }
+            
+            TaskProgressDTO previous = inFlight.get(progress.getTaskId());
+            if (previous != null && previous.getSequence() != null && progress.getSequence() != null
+                    && previous.getSequence() >= progress.getSequence()) {
+                return 0L;
+            }
+            
+            inFlight.put(progress.getTaskId(), progress);
+            lastUpdateTime = LocalDateTime.now();
+            return Math.max(0L, nullToZero(progress.getLinesProcessed())
+                    - (previous != null ? nullToZero(previous.getLinesProcessed()) : 0L));
+        }
+        
+        /**
+         * @return les lignes non encore comptées par les rapports intermédiaires, -1 pour un doublon
+         */
+        long applyResult(TaskResultDTO taskResult) {
+            Integer partitionId = taskResult.getPartitionId();
+            if (isFinished(partitionId, taskResult.getTaskId())) {
+                return -1L;
+            }
+            
+            if (isTracked(partitionId)) {
+                if (taskResult.isPartial()) {
+                    interruptedTasks.computeIfAbsent(partitionId, id -> new HashSet<>()).add(taskResult.getTaskId());
+                } else {
+                    completedPartitions.set(partitionId);
+                    interruptedTasks.remove(partitionId);
+                }
+            }
+            if (!taskResult.isPartial()) {
+                completedTasks++;
+            }
+            
+            TaskProgressDTO lastProgress = inFlight.remove(taskResult.getTaskId());
+            long alreadyCounted = lastProgress != null ? nullToZero(lastProgress.getLinesProcessed()) : 0L;
+            completedLines += nullToZero(taskResult.getTotalLinesProcessed());
+            completedSuccessful += nullToZero(taskResult.getSuccessfulContracts());
+            completedFailed += nullToZero(taskResult.getFailedContracts());
+            completedSkipped += nullToZero(taskResult.getSkippedContracts());
+            completedAmount += taskResult.getTotalAmount() != null ? taskResult.getTotalAmount() : 0.0;
+            lastUpdateTime = LocalDateTime.now();
+            return Math.max(0L, nullToZero(taskResult.getTotalLinesProcessed()) - alreadyCounted);
+        }
+        
+        JobProgressSnapshot snapshot() {
+            long lines = completedLines;
+            long successful = completedSuccessful;
+            long failed = completedFailed;
+            long skipped = completedSkipped;
+            double amount = completedAmount;
+            
+            for (TaskProgressDTO progress : inFlight.values()) {
+                lines += nullToZero(progress.getLinesProcessed());
+                successful += nullToZero(progress.getSuccessfulContracts());
+                failed += nullToZero(progress.getFailedContracts());
+                skipped += nullToZero(progress.getSkippedContracts());
+                amount += progress.getTotalAmount() != null ? progress.getTotalAmount() : 0.0;
+            }
+            
+            long elapsedMs = Duration.between(firstSeen, LocalDateTime.now()).toMillis();
+            double throughput = elapsedMs > 0 ? (lines * 1000.0) / elapsedMs : 0.0;
+            
+            return new JobProgressSnapshot(jobExecutionId, completedTasks, inFlight.size(),
+                    lines, successful, failed, skipped, amount, throughput, lastUpdateTime);
+        }
+        
+        /**
+         * Vrai si la partition est terminée ou si la tâche, interrompue, a déjà rendu son résultat
+         */
+        private boolean isFinished(Integer partitionId, String taskId) {
+            if (!isTracked(partitionId)) {
+                return false;
+            }
+            if (completedPartitions.get(partitionId)) {
+                return true;
+            }
+            Set<String> interrupted = interruptedTasks.get(partitionId);
+            return interrupted != null && interrupted.contains(taskId);
+        }
+        
+        private static boolean isTracked(Integer partitionId) {
+            return partitionId != null && partitionId >= 0;
+        }
+        
+        private static long nullToZero(Long value) {
+            return value != null ? value : 0L;
+        }
+    }
+    
+    /**
+     * Vue cohérente de la progression d'un job à un instant donné
+     */
+    public record JobProgressSnapshot(
+            Long jobExecutionId,
+            int completedTasks,
+            int inFlightTasks,
+            long linesProcessed,
+            long successfulContracts,
+            long failedContracts,
+            long skippedContracts,
+            double totalAmount,
+            double linesPerSecond,
+            LocalDateTime lastUpdateTime) {
+    }
+}
\ No newline at end of file
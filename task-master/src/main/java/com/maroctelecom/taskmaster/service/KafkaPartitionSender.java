@@ -1,9 +1,16 @@
 package com.maroctelecom.taskmaster.service;
 
 import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
 import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import com.maroctelecom.common.transport.PartitionTaskTransport;
+import com.maroctelecom.common.transport.PriorityLane;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
@@ -12,15 +19,19 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Service d'envoi des tâches de partition via Kafka
- * Gère l'envoi asynchrone des tâches vers les workers
+ * Gère l'envoi asynchrone des tâches vers les workers (transport par défaut)
+ * Chaque tâche part sur le topic de la voie correspondant à sa priorité
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class KafkaPartitionSender {
+@ConditionalOnProperty(name = "app.transport.mode", havingValue = "kafka", matchIfMissing = true)
+public class KafkaPartitionSender implements PartitionTaskTransport {
     
+    @Qualifier(ProducerProfilesConfiguration.CONTROL_TEMPLATE)
     private final KafkaTemplate<String, PartitionTaskDTO> kafkaTemplate;
     private final KafkaConfig kafkaConfig;
+    private final ObjectProvider<WorkerAffinityRegistry> affinityRegistryProvider;
     
     /**
      * Envoie une tâche de partition vers Kafka
@@ -28,18 +39,38 @@ public class KafkaPartitionSender {
      * @param partitionTask La tâche à envoyer
      * @return CompletableFuture pour le suivi asynchrone
      */
+    @Override
     public CompletableFuture<SendResult<String, PartitionTaskDTO>> sendPartitionTask(PartitionTaskDTO partitionTask) {
-        String topic = kafkaConfig.getTopics().getContractPartitions();
+        PriorityLane lane = kafkaConfig.laneOf(partitionTask.getPriority());
+        String topic = kafkaConfig.partitionsTopicFor(lane);
         String key = generatePartitionKey(partitionTask);
         
-        log.debug("Envoi de la tâche {} vers le topic {} avec la clé {}", 
-                partitionTask.getTaskId(), topic, key);
+        // Partition d'un worker détenant le fichier localement, sinon répartition par la clé
+        // Les annonces des workers portent sur la voie normale: les autres voies sont réparties par la clé
+        WorkerAffinityRegistry affinityRegistry = affinityRegistryProvider.getIfAvailable();
+        Integer partition = affinityRegistry != null && lane == PriorityLane.NORMAL
+            ? affinityRegistry.selectPartition(partitionTask) : null;
+        
+        log.debug("Envoi de la tâche {} vers le topic {} avec la clé {} (partition {})", 
+                partitionTask.getTaskId(), topic, key, partition != null ? partition : "pool partagé");
+        
+        PartitionEvents.PartitionSent sent = new PartitionEvents.PartitionSent();
+        sent.begin();
         
         CompletableFuture<SendResult<String, PartitionTaskDTO>> future = 
-            kafkaTemplate.send(topic, key, partitionTask);
+            kafkaTemplate.send(topic, partition, key, partitionTask);
             
         // Ajout de callbacks pour le logging
         future.whenComplete((result, throwable) -> {
+            sent.end();
+            if (sent.shouldCommit()) {
+                sent.task(partitionTask);
+                sent.topic = topic;
+                sent.kafkaPartition = result != null ? result.getRecordMetadata().partition() : -1;
+                sent.success = throwable == null;
+                sent.commit();
+            }
+            
             if (throwable != null) {
                 log.error("Échec de l'envoi de la tâche {} vers Kafka: {}", 
                         partitionTask.getTaskId(), throwable.getMessage());
@@ -60,6 +91,7 @@ public class KafkaPartitionSender {
      * @param partitionTask La tâche à envoyer
      * @throws RuntimeException si l'envoi échoue
      */
+    @Override
     public void sendPartitionTaskSync(PartitionTaskDTO partitionTask) {
         try {
             SendResult<String, PartitionTaskDTO> result = sendPartitionTask(partitionTask).get();
@@ -0,0 +1,116 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.transport.PartitionTaskTransport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replanification du reste des partitions interrompues par leur timeout
+ * Les tâches envoyées sont mémorisées par job; un résultat partiel donne lieu à une nouvelle tâche
+ * couvrant les lignes après lastProcessedLine, avec un numéro de tentative incrémenté
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionRescheduler {
+    
+    private final PartitionTaskTransport partitionTransport;
+    private final ObjectProvider<RangeFileServer> rangeServerProvider;
+    
+    // Dernière tâche envoyée par partition, par job d'exécution
+    private final Map<Long, Map<Integer, PartitionTaskDTO>> dispatchedTasks = new ConcurrentHashMap<>();
+    
+    @Value("${batch.timeouts.max-attempts:5}")
+    private int maxAttempts;
+    
+    /**
+     * Mémorise une tâche avant son envoi
+     */
+    public void track(PartitionTaskDTO partitionTask) {
+        dispatchedTasks.computeIfAbsent(partitionTask.getJobExecutionId(), id -> new ConcurrentHashMap<>())
+            .put(partitionTask.getPartitionId(), partitionTask);
+    }
+    
+    /**
+     * Indique si la tâche d'un résultat partiel a déjà été remplacée par le reste replanifié de sa partition
+     */
+    public boolean isSuperseded(TaskResultDTO partialResult) {
+        Map<Integer, PartitionTaskDTO> jobTasks = dispatchedTasks.get(partialResult.getJobExecutionId());
+        PartitionTaskDTO current = jobTasks != null && partialResult.getPartitionId() != null
+            ? jobTasks.get(partialResult.getPartitionId())
+            : null;
+        return current != null && partialResult.getAttempt() != null
+                && !current.getTaskId().equals(partialResult.getTaskId())
+                && current.getAttempt() > partialResult.getAttempt();
+    }
+    
+    /**
+     * Envoie le reste d'une partition interrompue
+     *
+     * @return la future de l'envoi, ou null si le reste ne peut pas être replanifié
+     *         (tâche inconnue, tentatives épuisées, ligne atteinte absente)
+     */
+    public CompletableFuture<?> reschedule(TaskResultDTO partialResult) {
+        Map<Integer, PartitionTaskDTO> jobTasks = dispatchedTasks.get(partialResult.getJobExecutionId());
+        PartitionTaskDTO previous = jobTasks != null ? jobTasks.get(partialResult.getPartitionId()) : null;
+        
+        if (previous == null || !previous.getTaskId().equals(partialResult.getTaskId())) {
+            log.warn("Résultat partiel de la tâche {} sans tâche envoyée correspondante: reste non replanifié",
+                    partialResult.getTaskId());
+            return null;
+        }
+        if (partialResult.getLastProcessedLine() == null || partialResult.getLastProcessedLine() >= previous.getEndLine()) {
+            log.warn("Résultat partiel de la tâche {} sans ligne de reprise exploitable ({})",
+                    partialResult.getTaskId(), partialResult.getLastProcessedLine());
+            return null;
+        }
+        if (previous.getAttempt() >= maxAttempts) {
+            log.error("Partition {} du job {} interrompue à la tentative {}: nombre maximal de tentatives atteint",
+                    previous.getPartitionId(), previous.getJobExecutionId(), previous.getAttempt());
+            return null;
+        }
+        
+        long resumeLine = partialResult.getLastProcessedLine() + 1;
+        PartitionTaskDTO remainder = previous.toBuilder()
+            .taskId(UUID.randomUUID().toString())
+            .attempt(previous.getAttempt() + 1)
+            .resumeLine(resumeLine)
+            .estimatedLineCount(previous.getEndLine() - resumeLine + 1)
+            .createdAt(LocalDateTime.now())
+            .build();
+        jobTasks.put(remainder.getPartitionId(), remainder);
+        
+        log.info("Partition {} du job {} interrompue ({}) à la ligne {}: reste {}-{} replanifié (tentative {})",
+                remainder.getPartitionId(), remainder.getJobExecutionId(), partialResult.getStatus(),
+                partialResult.getLastProcessedLine(), resumeLine, remainder.getEndLine(), remainder.getAttempt());
+        
+        return partitionTransport.sendPartitionTask(remainder);
+    }
+    
+    /**
+     * Libère les tâches mémorisées d'un job, ainsi que les fichiers servis à ses workers (mode data-shipping)
+     */
+    public void forget(Long jobExecutionId) {
+        Map<Integer, PartitionTaskDTO> jobTasks = dispatchedTasks.remove(jobExecutionId);
+        RangeFileServer rangeServer = rangeServerProvider.getIfAvailable();
+        if (jobTasks != null && rangeServer != null) {
+            jobTasks.values().stream()
+                .map(PartitionTaskDTO::getDataUrl)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(rangeServer::release);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,314 @@
+package com.maroctelecom.taskmaster.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serveur HTTP minimal de plages d'octets des fichiers d'entrée (mode data-shipping)
+ * Les workers lisent leur partition ici plutôt que sur le stockage partagé. Sans compression la plage
+ * est copiée du fichier vers la socket par FileChannel.transferTo, sans passer par la mémoire de la JVM;
+ * avec "Accept-Encoding: gzip" elle est compressée à la volée
+ * Seuls les fichiers enregistrés par le partitionneur sont servis, sous un jeton aléatoire libéré à la fin du job
+ * Les connexions au-delà des threads et de la file d'attente sont refusées (503): le worker lit alors
+ * le stockage partagé ou réessaie plus tard. L'en-tête de la requête doit arriver en entier dans le délai
+ * request-timeout-ms (408 sinon) et tenir en max-header-bytes (400 sinon): une connexion lente ou muette
+ * ne garde pas un thread du pool
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "batch.data-shipping.enabled", havingValue = "true")
+public class RangeFileServer implements InitializingBean, DisposableBean {
+    
+    private static final Pattern REQUEST_LINE = Pattern.compile("^GET /files/([0-9a-f-]{36}) HTTP/1\\.[01]$");
+    private static final Pattern FILE_ID = Pattern.compile("/files/([0-9a-f-]{36})$");
+    private static final Pattern RANGE = Pattern.compile("^bytes=(\\d+)-(\\d+)$");
+    
+    private final Map<String, Path> files = new ConcurrentHashMap<>();
+    
+    @Value("${batch.data-shipping.port:8090}")
+    private int port;
+    
+    @Value("${batch.data-shipping.bind-address:}")
+    private String bindAddress;
+    
+    @Value("${batch.data-shipping.advertised-host:}")
+    private String advertisedHost;
+    
+    // Une connexion longue par partition en cours de lecture: au plus grid-size partitions en vol
+    @Value("${batch.data-shipping.threads:${batch.job.contract-processing.grid-size:8}}")
+    private int threads;
+    
+    @Value("${batch.data-shipping.queue-capacity:16}")
+    private int queueCapacity;
+    
+    @Value("${batch.data-shipping.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+    
+    @Value("${batch.data-shipping.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+    
+    @Value("${batch.data-shipping.max-header-bytes:8192}")
+    private int maxHeaderBytes;
+    
+    @Value("${batch.data-shipping.compression-enabled:true}")
+    private boolean compressionEnabled;
+    
+    private ServerSocketChannel serverChannel;
+    private ThreadPoolExecutor connectionPool;
+    private Thread acceptor;
+    
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (advertisedHost == null || advertisedHost.isBlank()) {
+            advertisedHost = InetAddress.getLocalHost().getHostName();
+        }
+        
+        InetSocketAddress address = bindAddress == null || bindAddress.isBlank()
+            ? new InetSocketAddress(port)
+            : new InetSocketAddress(bindAddress, port);
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        
+        AtomicInteger counter = new AtomicInteger();
+        connectionPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                Thread thread = new Thread(runnable, "range-server-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        
+        acceptor = new Thread(this::acceptLoop, "range-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        
+        log.info("Serveur de plages démarré sur {} avec {} threads et {} connexions en attente (URL annoncée http://{}:{}/files/...)",
+                serverChannel.getLocalAddress(), threads, queueCapacity, advertisedHost, port);
+    }
+    
+    /**
+     * Enregistre un fichier à servir sous un jeton aléatoire, propre à cet enregistrement
+     *
+     * @return l'URL par laquelle les workers lisent le fichier
+     */
+    public String register(String filePath) {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        String fileId = UUID.randomUUID().toString();
+        files.put(fileId, path);
+        return String.format("http://%s:%d/files/%s", advertisedHost, port, fileId);
+    }
+    
+    /**
+     * Retire un fichier enregistré; les lectures suivantes reçoivent 404
+     *
+     * @param dataUrl L'URL retournée par {@link #register(String)}
+     */
+    public void release(String dataUrl) {
+        Matcher fileId = FILE_ID.matcher(dataUrl);
+        if (fileId.find() && files.remove(fileId.group(1)) != null) {
+            log.debug("Fichier {} retiré du serveur de plages", dataUrl);
+        }
+    }
+    
+    @Override
+    public void destroy() throws IOException {
+        serverChannel.close();
+        connectionPool.shutdownNow();
+    }
+    
+    private void acceptLoop() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel socket = serverChannel.accept();
+                try {
+                    connectionPool.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    reject(socket);
+                }
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) {
+                    log.warn("Erreur d'acceptation sur le serveur de plages: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Refus d'une connexion quand tous les threads sont occupés et la file pleine
+     * La réponse est écrite sans lire la requête: la socket n'occupe pas le thread d'acceptation
+     */
+    private void reject(SocketChannel socket) {
+        try (socket) {
+            writeHead(socket, "503 Service Unavailable", "Retry-After: " + retryAfterSeconds + "\r\nContent-Length: 0\r\n");
+            log.warn("Serveur de plages saturé ({} threads, {} connexions en attente): connexion refusée",
+                    threads, connectionPool.getQueue().size());
+        } catch (IOException e) {
+            log.debug("Refus d'une connexion au serveur de plages: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Traite une requête unique puis ferme la connexion
+     */
+    private void serve(SocketChannel socket) {
+        try (socket) {
+            String[] head;
+            try {
+                head = readHead(socket);
+            } catch (SocketTimeoutException e) {
+                writeHead(socket, "408 Request Timeout", "Content-Length: 0\r\n");
+                log.warn("En-tête de requête non reçu en {}ms: connexion fermée", requestTimeoutMs);
+                return;
+            }
+            if (head == null) {
+                writeHead(socket, "400 Bad Request", "Content-Length: 0\r\n");
+                log.warn("En-tête de requête incomplet ou au-delà de {} octets: connexion fermée", maxHeaderBytes);
+                return;
+            }
+            
+            Matcher request = REQUEST_LINE.matcher(head[0]);
+            String range = null;
+            boolean gzip = false;
+            for (int i = 1; i < head.length && !head[i].isEmpty(); i++) {
+                String header = head[i];
+                int colon = header.indexOf(':');
+                if (colon < 0) {
+                    continue;
+                }
+                String name = header.substring(0, colon).trim();
+                String value = header.substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Range")) {
+                    range = value;
+                } else if (name.equalsIgnoreCase("Accept-Encoding")) {
+                    gzip = compressionEnabled && value.contains("gzip");
+                }
+            }
+            
+            Path path = request.matches() ? files.get(request.group(1)) : null;
+            if (path == null) {
+                writeHead(socket, "404 Not Found", "Content-Length: 0\r\n");
+                return;
+            }
+            
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                Matcher bytes = range != null ? RANGE.matcher(range) : null;
+                long size = file.size();
+                long start = bytes != null && bytes.matches() ? Long.parseLong(bytes.group(1)) : 0L;
+                long end = bytes != null && bytes.matches() ? Math.min(Long.parseLong(bytes.group(2)), size - 1) : size - 1;
+                
+                if (start > end) {
+                    writeHead(socket, "416 Range Not Satisfiable", "Content-Range: bytes */" + size + "\r\n");
+                    return;
+                }
+                
+                long length = end - start + 1;
+                String contentRange = "Content-Range: bytes " + start + "-" + end + "/" + size + "\r\n";
+                if (gzip) {
+                    // Corps délimité par la fermeture de la connexion: la taille compressée n'est pas connue d'avance
+                    writeHead(socket, "206 Partial Content", contentRange + "Content-Encoding: gzip\r\n");
+                    OutputStream out = new GZIPOutputStream(Channels.newOutputStream(socket), 65536);
+                    transferFully(file, start, length, Channels.newChannel(out));
+                    out.close();
+                } else {
+                    writeHead(socket, "206 Partial Content", contentRange + "Content-Length: " + length + "\r\n");
+                    transferFully(file, start, length, socket);
+                }
+                
+                log.debug("Plage {}-{} de {} servie{}", start, end, path.getFileName(), gzip ? " (gzip)" : "");
+            }
+        } catch (IOException e) {
+            log.warn("Erreur lors de l'envoi d'une plage: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Lit l'en-tête de la requête (ligne de requête et champs), dans la limite de taille et de délai
+     * Le délai s'applique à l'en-tête entier, pas à chaque lecture: un client qui envoie octet par octet est coupé
+     *
+     * @return les lignes de l'en-tête, null s'il dépasse max-header-bytes ou si la connexion est fermée avant sa fin
+     * @throws SocketTimeoutException si l'en-tête n'est pas complet dans le délai
+     */
+    private String[] readHead(SocketChannel socket) throws IOException {
+        InputStream in = socket.socket().getInputStream();
+        byte[] buffer = new byte[maxHeaderBytes];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMs);
+        int length = 0;
+        while (length < buffer.length) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw new SocketTimeoutException("En-tête de requête incomplet");
+            }
+            socket.socket().setSoTimeout((int) remainingMs);
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                return null;
+            }
+            
+            // Fin de l'en-tête: ligne vide (CRLF ou LF seul)
+            int from = Math.max(0, length - 3);
+            length += read;
+            for (int i = from; i < length; i++) {
+                if (buffer[i] == '\n' && (i >= 1 && buffer[i - 1] == '\n'
+                        || i >= 2 && buffer[i - 1] == '\r' && buffer[i - 2] == '\n')) {
+                    return new String(buffer, 0, i, StandardCharsets.ISO_8859_1).stripTrailing().split("\r?\n", -1);
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * transferTo peut s'arrêter avant la fin (limite du noyau, socket pleine): on reprend jusqu'au bout
+     */
+    private void transferFully(FileChannel file, long start, long length, WritableByteChannel target) throws IOException {
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            long sent = file.transferTo(position, remaining, target);
+            if (sent <= 0 && position >= file.size()) {
+                throw new IOException("Fichier tronqué pendant l'envoi");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+    
+    private void writeHead(SocketChannel socket, String status, String headers) throws IOException {
+        String head = "HTTP/1.1 " + status + "\r\n" + headers + "Connection: close\r\n\r\n";
+        ByteBuffer buffer = ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1));
+        while (buffer.hasRemaining()) {
+            socket.write(buffer);
+        }
+    }
+}
\ No newline at end of file
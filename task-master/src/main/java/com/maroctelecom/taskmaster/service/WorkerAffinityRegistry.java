@@ -0,0 +1,112 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.WorkerAdvertisementDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registre des annonces des workers pour le routage des partitions par affinité de fichier
+ * Une tâche dont le fichier est détenu localement par un worker est envoyée sur l'une des partitions
+ * du topic des tâches assignées à ce worker; sinon elle part dans le pool partagé
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "batch.affinity.enabled", havingValue = "true")
+public class WorkerAffinityRegistry {
+    
+    // Vue matérialisée du topic compacté des annonces (clé = ID du worker)
+    private final Map<String, WorkerAdvertisementDTO> advertisements = new ConcurrentHashMap<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    
+    @Value("${batch.affinity.advertisement-ttl-ms:60000}")
+    private long advertisementTtlMs;
+    
+    /**
+     * Matérialise le topic compacté des annonces depuis le début
+     */
+    @KafkaListener(
+        id = "worker-affinity-registry",
+        groupId = "#{@kafkaConfig.consumerGroups.taskMaster}-affinity",
+        topicPartitions = @TopicPartition(
+            topic = "#{@kafkaConfig.topics.workerAdvertisements}",
+            partitions = "0-#{@kafkaConfig.topics.workerAdvertisementsConfig.partitions - 1}",
+            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")
+        ),
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void onAdvertisement(
+            @Payload(required = false) WorkerAdvertisementDTO advertisement,
+            @Header(KafkaHeaders.RECEIVED_KEY) String workerId) {
+        
+        if (advertisement == null) {
+            advertisements.remove(workerId);
+            log.info("Worker {} retiré du routage par affinité", workerId);
+            return;
+        }
+        
+        WorkerAdvertisementDTO previous = advertisements.put(workerId, advertisement);
+        if (previous == null || !previous.getTaskPartitions().equals(advertisement.getTaskPartitions())) {
+            log.info("Worker {} annoncé sur les partitions {} avec les chemins locaux {}",
+                    workerId, advertisement.getTaskPartitions(), advertisement.getLocalPaths());
+        }
+    }
+    
+    /**
+     * Choisit une partition du topic des tâches pour une tâche, parmi celles des workers détenant son fichier
+     *
+     * @return la partition cible, ou null pour laisser la clé répartir la tâche dans le pool partagé
+     */
+    public Integer selectPartition(PartitionTaskDTO partitionTask) {
+        if (partitionTask.getFilePath() == null || advertisements.isEmpty()) {
+            return null;
+        }
+        
+        Path file = Paths.get(partitionTask.getFilePath()).toAbsolutePath().normalize();
+        LocalDateTime freshAfter = LocalDateTime.now().minusNanos(advertisementTtlMs * 1_000_000L);
+        
+        List<Integer> candidates = advertisements.values().stream()
+            .filter(advertisement -> advertisement.getAdvertisedAt() != null
+                    && advertisement.getAdvertisedAt().isAfter(freshAfter))
+            .filter(advertisement -> holds(advertisement, file))
+            .flatMap(advertisement -> advertisement.getTaskPartitions().stream())
+            .distinct()
+            .sorted()
+            .toList();
+        
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        
+        // Répartition des partitions d'un même fichier entre les workers qui le détiennent
+        return candidates.get(Math.floorMod(roundRobin.getAndIncrement(), candidates.size()));
+    }
+    
+    /**
+     * Nombre de workers ayant une annonce en cours
+     */
+    public int getAdvertisedWorkers() {
+        return advertisements.size();
+    }
+    
+    private boolean holds(WorkerAdvertisementDTO advertisement, Path file) {
+        return advertisement.getLocalPaths().stream()
+            .anyMatch(localPath -> file.startsWith(Paths.get(localPath)));
+    }
+}
\ No newline at end of file
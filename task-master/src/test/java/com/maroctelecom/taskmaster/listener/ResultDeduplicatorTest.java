@@ -0,0 +1,172 @@
+package com.maroctelecom.taskmaster.listener;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.dto.TaskResultDTO.ProcessingStatus;
+import com.maroctelecom.taskmaster.listener.ResultDeduplicator.Outcome;
+import com.maroctelecom.taskmaster.listener.ResultListener.JobExecutionResults;
+import com.maroctelecom.taskmaster.service.JobProgressTracker;
+import com.maroctelecom.taskmaster.service.PartitionRescheduler;
+import com.maroctelecom.taskmaster.service.RangeFileServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rejeu d'un résultat partiel après l'éviction de sa clé du LRU: il doit rester écarté
+ * sans clore sa partition en échec ni replanifier une seconde fois son reste
+ */
+class ResultDeduplicatorTest {
+    
+    private static final Long JOB_EXECUTION_ID = 42L;
+    
+    private final List<PartitionTaskDTO> sentTasks = new CopyOnWriteArrayList<>();
+    private ResultDeduplicator deduplicator;
+    private PartitionRescheduler rescheduler;
+    private ResultListener resultListener;
+    
+    @BeforeEach
+    void setUp() {
+        // Un seul emplacement dans le LRU: tout nouveau résultat évince le précédent
+        deduplicator = new ResultDeduplicator(1);
+        rescheduler = new PartitionRescheduler(task -> {
+            sentTasks.add(task);
+            return CompletableFuture.completedFuture(null);
+        }, new StaticListableBeanFactory().getBeanProvider(RangeFileServer.class));
+        ReflectionTestUtils.setField(rescheduler, "maxAttempts", 5);
+        resultListener = new ResultListener(new KafkaConfig(), new JobProgressTracker(), deduplicator, rescheduler);
+    }
+    
+    @Test
+    void partialResultReplayIsDuplicateAfterEviction() {
+        TaskResultDTO partial = partialResult("task-0", 1);
+        
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, partial));
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, completedResult("task-1", 1, 100L)));
+        assertEquals(Outcome.DUPLICATE, deduplicator.accept(JOB_EXECUTION_ID, partial));
+        
+        // Après l'oubli du job, plus rien n'est retenu
+        deduplicator.forget(JOB_EXECUTION_ID);
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, completedResult("task-2", 1, 100L)));
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, partial));
+    }
+    
+    @Test
+    void replayedPartialResultDoesNotChangeJobTotals() {
+        CompletableFuture<JobExecutionResults> completion = resultListener.registerJob(JOB_EXECUTION_ID, 2);
+        rescheduler.track(task("task-0", 0));
+        rescheduler.track(task("task-1", 1));
+        
+        TaskResultDTO partial = partialResult("task-0", 0);
+        resultListener.receiveResult(partial);
+        assertEquals(1, sentTasks.size(), "Reste de la partition 0 replanifié");
+        
+        // Le résultat de la partition 1 évince la clé du résultat partiel
+        resultListener.receiveResult(completedResult("task-1", 1, 100L));
+        
+        JobExecutionResults jobResult = resultListener.getJobResults(JOB_EXECUTION_ID);
+        StripedResultCounters.Snapshot before = jobResult.snapshot();
+        resultListener.receiveResult(partialResult("task-0", 0));
+        StripedResultCounters.Snapshot after = jobResult.snapshot();
+        
+        assertEquals(1, jobResult.getDuplicateResults());
+        assertEquals(1, sentTasks.size(), "Reste replanifié une seule fois");
+        assertFalse(jobResult.isPartitionFailed(0));
+        assertEquals(before.completedTasks(), after.completedTasks());
+        assertEquals(before.successfulContracts(), after.successfulContracts());
+        assertFalse(completion.isDone());
+        
+        // Le reste replanifié clôt la partition 0 et termine le job
+        PartitionTaskDTO remainder = sentTasks.get(0);
+        TaskResultDTO remainderResult = completedResult(remainder.getTaskId(), 0, 60L);
+        remainderResult.setAttempt(remainder.getAttempt());
+        resultListener.receiveResult(remainderResult);
+        
+        assertTrue(completion.isDone());
+        assertFalse(jobResult.isPartitionFailed(0));
+        assertEquals(200L, jobResult.snapshot().successfulContracts());
+    }
+    
+    @Test
+    void completedReplayOfPartialAttemptIsDuplicateAfterEviction() {
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, partialResult("task-0", 0)));
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, completedResult("task-1", 1, 100L)));
+        
+        // La même tentative relivrée et terminée entièrement ne clôt pas la partition
+        assertEquals(Outcome.DUPLICATE, deduplicator.accept(JOB_EXECUTION_ID, completedResult("task-0", 0, 100L)));
+        TaskResultDTO remainder = completedResult("task-0", 0, 60L);
+        remainder.setAttempt(2);
+        assertEquals(Outcome.ACCEPTED, deduplicator.accept(JOB_EXECUTION_ID, remainder));
+    }
+    
+    @Test
+    void completedReplayOfPartialAttemptDoesNotCloseThePartition() {
+        CompletableFuture<JobExecutionResults> completion = resultListener.registerJob(JOB_EXECUTION_ID, 2);
+        rescheduler.track(task("task-0", 0));
+        rescheduler.track(task("task-1", 1));
+        
+        resultListener.receiveResult(partialResult("task-0", 0));
+        resultListener.receiveResult(completedResult("task-1", 1, 100L));
+        
+        // Relivraison de la tentative partielle, cette fois terminée: 40 + 100 lignes seraient comptées
+        JobExecutionResults jobResult = resultListener.getJobResults(JOB_EXECUTION_ID);
+        resultListener.receiveResult(completedResult("task-0", 0, 100L));
+        assertEquals(1, jobResult.getDuplicateResults());
+        assertFalse(completion.isDone());
+        
+        PartitionTaskDTO remainder = sentTasks.get(0);
+        TaskResultDTO remainderResult = completedResult(remainder.getTaskId(), 0, 60L);
+        remainderResult.setAttempt(remainder.getAttempt());
+        resultListener.receiveResult(remainderResult);
+        
+        assertTrue(completion.isDone());
+        assertEquals(1, jobResult.getDuplicateResults());
+        assertEquals(200L, jobResult.snapshot().successfulContracts());
+    }
+    
+    private static PartitionTaskDTO task(String taskId, int partitionId) {
+        return PartitionTaskDTO.builder()
+            .taskId(taskId)
+            .jobExecutionId(JOB_EXECUTION_ID)
+            .partitionId(partitionId)
+            .totalPartitions(2)
+            .startLine(partitionId * 100L + 1)
+            .endLine(partitionId * 100L + 100)
+            .build();
+    }
+    
+    private static TaskResultDTO partialResult(String taskId, int partitionId) {
+        return TaskResultDTO.builder()
+            .taskId(taskId)
+            .jobExecutionId(JOB_EXECUTION_ID)
+            .partitionId(partitionId)
+            .totalPartitions(2)
+            .status(ProcessingStatus.TIMEOUT)
+            .lastProcessedLine(partitionId * 100L + 40)
+            .totalLinesProcessed(40L)
+            .successfulContracts(40L)
+            .build();
+    }
+    
+    private static TaskResultDTO completedResult(String taskId, int partitionId, long contracts) {
+        return TaskResultDTO.builder()
+            .taskId(taskId)
+            .jobExecutionId(JOB_EXECUTION_ID)
+            .partitionId(partitionId)
+            .totalPartitions(2)
+            .status(ProcessingStatus.COMPLETED)
+            .totalLinesProcessed(contracts)
+            .successfulContracts(contracts)
+            .build();
+    }
+}
\ No newline at end of file
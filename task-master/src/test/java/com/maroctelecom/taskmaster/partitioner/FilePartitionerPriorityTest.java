@@ -0,0 +1,179 @@
+package com.maroctelecom.taskmaster.partitioner;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.transport.PriorityLane;
+import com.maroctelecom.common.transport.WeightedLaneExecutor;
+import com.maroctelecom.taskmaster.service.RangeFileServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Priorité des tâches lue dans les paramètres du job, et passage d'une tâche urgente
+ * devant un arriéré de tâches de masse
+ */
+class FilePartitionerPriorityTest {
+    
+    private static final int WORKER_THREADS = 2;
+    private static final int BULK_BACKLOG = 200;
+    private static final long BULK_TASK_MILLIS = 20;
+    
+    @TempDir
+    Path directory;
+    
+    private final KafkaConfig kafkaConfig = new KafkaConfig();
+    private FilePartitioner partitioner;
+    private WeightedLaneExecutor executor;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        Path input = directory.resolve("contracts.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("contractId,clientId");
+        for (int i = 1; i <= 100; i++) {
+            lines.add("CTR" + i + ",CLI" + i);
+        }
+        Files.write(input, lines);
+        System.setProperty("batch.input.file", input.toString());
+        
+        partitioner = new FilePartitioner(new StaticListableBeanFactory().getBeanProvider(RangeFileServer.class));
+        
+        Map<PriorityLane, Integer> weights = new EnumMap<>(PriorityLane.class);
+        for (PriorityLane lane : PriorityLane.values()) {
+            weights.put(lane, kafkaConfig.laneWeight(lane));
+        }
+        executor = new WeightedLaneExecutor("lane-test-", WORKER_THREADS, 10_000, weights);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        System.clearProperty("batch.input.file");
+    }
+    
+    @Test
+    void urgentTaskOvertakesBulkBacklog() throws Exception {
+        PartitionTaskDTO bulkTask = partitionWith(new JobParametersBuilder().addLong("priority", 9L).toJobParameters());
+        PartitionTaskDTO urgentTask = partitionWith(new JobParametersBuilder().addLong("priority", 1L).toJobParameters());
+        assertEquals(9, bulkTask.getPriority());
+        assertEquals(1, urgentTask.getPriority());
+        
+        PriorityLane bulkLane = kafkaConfig.laneOf(bulkTask.getPriority());
+        PriorityLane urgentLane = kafkaConfig.laneOf(urgentTask.getPriority());
+        assertEquals(PriorityLane.BULK, bulkLane);
+        assertEquals(PriorityLane.URGENT, urgentLane);
+        
+        AtomicInteger bulkStarted = new AtomicInteger();
+        for (int i = 0; i < BULK_BACKLOG; i++) {
+            executor.execute(bulkLane, () -> {
+                bulkStarted.incrementAndGet();
+                sleep(BULK_TASK_MILLIS);
+            });
+        }
+        
+        // Les threads sont occupés par la voie de masse avant l'arrivée de la tâche urgente
+        while (bulkStarted.get() < WORKER_THREADS) {
+            Thread.sleep(1);
+        }
+        
+        CountDownLatch urgentStarted = new CountDownLatch(1);
+        AtomicLong dispatchNanos = new AtomicLong();
+        AtomicInteger bulkBeforeUrgent = new AtomicInteger();
+        long submittedAt = System.nanoTime();
+        executor.execute(urgentLane, () -> {
+            dispatchNanos.set(System.nanoTime() - submittedAt);
+            bulkBeforeUrgent.set(bulkStarted.get());
+            urgentStarted.countDown();
+        });
+        
+        assertTrue(urgentStarted.await(10, TimeUnit.SECONDS), "Tâche urgente jamais exécutée");
+        long dispatchMillis = TimeUnit.NANOSECONDS.toMillis(dispatchNanos.get());
+        long backlogMillis = BULK_BACKLOG * BULK_TASK_MILLIS / WORKER_THREADS;
+        
+        // En file unique la tâche urgente attendrait tout l'arriéré (~2s); ici le prochain thread libre la prend
+        assertTrue(dispatchMillis < backlogMillis / 8,
+                "Tâche urgente démarrée après " + dispatchMillis + "ms (arriéré de " + backlogMillis + "ms)");
+        assertTrue(bulkBeforeUrgent.get() <= 2 * WORKER_THREADS,
+                bulkBeforeUrgent.get() + " tâches de masse démarrées avant la tâche urgente");
+    }
+    
+    @Test
+    void priorityFallsBackToConfiguredDefault() {
+        ReflectionTestUtils.setField(partitioner, "defaultPriority", "8");
+        assertEquals(8, partitioner.getPriority());
+        
+        ReflectionTestUtils.setField(partitioner, "defaultPriority", null);
+        assertEquals(5, partitioner.getPriority());
+    }
+    
+    @Test
+    void invalidPriorityIsRejected() {
+        IllegalArgumentException outOfRange = assertThrows(IllegalArgumentException.class,
+                () -> partitionWith(new JobParametersBuilder().addLong("priority", 0L).toJobParameters()));
+        assertTrue(outOfRange.getMessage().contains("hors limites"), outOfRange.getMessage());
+        
+        IllegalArgumentException notANumber = assertThrows(IllegalArgumentException.class,
+                () -> partitionWith(new JobParametersBuilder().addString("priority", "urgent").toJobParameters()));
+        assertTrue(notANumber.getMessage().contains("'urgent'"), notANumber.getMessage());
+        
+        ReflectionTestUtils.setField(partitioner, "defaultPriority", "11");
+        assertThrows(IllegalArgumentException.class, () -> partitioner.getPriority());
+    }
+    
+    @Test
+    void jobExecutionIdComesFromTheStep() {
+        StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(
+                MetaDataInstanceFactory.createJobExecution(987L), "partitionStep", 1L);
+        Map<String, ExecutionContext> partitions = partitioner.partition(stepExecution, 1);
+        
+        ExecutionContext context = partitions.values().iterator().next();
+        assertEquals(987L, ((PartitionTaskDTO) context.get("partitionTask")).getJobExecutionId());
+        assertEquals(987L, context.getLong("jobExecutionId"));
+        
+        // Hors d'une étape aucun ID ne peut être inventé
+        assertThrows(IllegalStateException.class, () -> partitioner.partition(1));
+    }
+    
+    /**
+     * Découpe le fichier dans le contexte d'une étape du job, comme le fait PartitionStep
+     */
+    private PartitionTaskDTO partitionWith(JobParameters jobParameters) {
+        Map<String, ExecutionContext> partitions =
+                partitioner.partition(MetaDataInstanceFactory.createStepExecution(jobParameters), 1);
+        assertEquals(1, partitions.size());
+        return (PartitionTaskDTO) partitions.values().iterator().next().get("partitionTask");
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.columnar.ColumnarContractWriter;
+import com.maroctelecom.common.columnar.ColumnarFile;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.model.Contract;
+import com.maroctelecom.taskmaster.listener.ResultListener.JobExecutionResults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Manifeste du jeu de données avec verify-parts: les fichiers retenus sont relus et comparés à leur référence,
+ * un fichier incohérent empêche l'écriture du manifeste
+ */
+class DatasetManifestWriterTest {
+    
+    private static final long JOB_EXECUTION_ID = 21L;
+    
+    @TempDir
+    Path directory;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private DatasetManifestWriter manifestWriter;
+    private JobExecutionResults jobResult;
+    
+    @BeforeEach
+    void setUp() {
+        manifestWriter = new DatasetManifestWriter(objectMapper);
+        ReflectionTestUtils.setField(manifestWriter, "manifestDirectory", directory.resolve("manifests").toString());
+        ReflectionTestUtils.setField(manifestWriter, "verifyParts", true);
+        jobResult = new JobExecutionResults(JOB_EXECUTION_ID, 2);
+    }
+    
+    @Test
+    void verifiedPartsAreListedInLineOrder() throws IOException {
+        OutputFileRefDTO second = part(1, 101, 200);
+        OutputFileRefDTO first = part(0, 1, 100);
+        jobResult.getOutputFiles().put(second.getPath(), second);
+        jobResult.getOutputFiles().put(first.getPath(), first);
+        
+        Optional<Path> path = manifestWriter.write(jobResult);
+        assertTrue(path.isPresent());
+        assertEquals(directory.resolve("manifests").resolve("job-" + JOB_EXECUTION_ID).resolve("_manifest.json"), path.get());
+        
+        JsonNode manifest = objectMapper.readTree(path.get().toFile());
+        assertEquals(JOB_EXECUTION_ID, manifest.get("jobExecutionId").asLong());
+        assertEquals(ColumnarFile.FORMAT, manifest.get("format").asText());
+        assertEquals(first.getRowCount() + second.getRowCount(), manifest.get("rowCount").asLong());
+        assertEquals(first.getSizeBytes() + second.getSizeBytes(), manifest.get("sizeBytes").asLong());
+        assertEquals(first.getPath(), manifest.get("parts").get(0).get("path").asText());
+        assertEquals(second.getPath(), manifest.get("parts").get(1).get("path").asText());
+        assertEquals("line_number", manifest.get("schema").get(0).get("name").asText());
+        assertFalse(Files.exists(path.get().resolveSibling("_manifest.json.tmp")));
+    }
+    
+    @Test
+    void partWithWrongRowCountIsRejected() throws IOException {
+        OutputFileRefDTO part = part(0, 1, 100);
+        part.setRowCount(part.getRowCount() + 1);
+        jobResult.getOutputFiles().put(part.getPath(), part);
+        
+        RuntimeException error = assertThrows(RuntimeException.class, () -> manifestWriter.write(jobResult));
+        assertTrue(error.getMessage().contains(part.getPath()), error.getMessage());
+        assertFalse(Files.exists(directory.resolve("manifests").resolve("job-" + JOB_EXECUTION_ID)));
+    }
+    
+    @Test
+    void truncatedPartIsRejected() throws IOException {
+        OutputFileRefDTO part = part(0, 1, 100);
+        Path file = Path.of(part.getPath());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+        jobResult.getOutputFiles().put(part.getPath(), part);
+        
+        assertThrows(RuntimeException.class, () -> manifestWriter.write(jobResult));
+        assertFalse(Files.exists(directory.resolve("manifests").resolve("job-" + JOB_EXECUTION_ID)));
+    }
+    
+    @Test
+    void jobWithoutOutputFileHasNoManifest() {
+        assertTrue(manifestWriter.write(jobResult).isEmpty());
+    }
+    
+    /**
+     * Écrit le fichier colonne d'une partition, nommé comme par le ColumnarContractSink
+     */
+    private OutputFileRefDTO part(int partitionId, long firstLine, long lastLine) throws IOException {
+        Path path = directory.resolve(String.format("part-%05d-%d-%d%s", partitionId, firstLine, lastLine,
+                ColumnarFile.EXTENSION));
+        long rows;
+        long sizeBytes;
+        try (ColumnarContractWriter writer = new ColumnarContractWriter(
+                new BufferedOutputStream(Files.newOutputStream(path)), 64, 6)) {
+            for (long line = firstLine; line <= lastLine; line++) {
+                writer.write(Contract.builder()
+                    .contractId("CTR" + line)
+                    .clientId("CLI" + line)
+                    .amount(BigDecimal.valueOf(line, 2))
+                    .build(), line);
+            }
+            rows = writer.getRowCount();
+            sizeBytes = writer.finish();
+        }
+        return OutputFileRefDTO.builder()
+            .path(path.toString())
+            .format(ColumnarFile.FORMAT)
+            .firstLine(firstLine)
+            .rowCount(rows)
+            .sizeBytes(sizeBytes)
+            .build();
+    }
+}
\ No newline at end of file
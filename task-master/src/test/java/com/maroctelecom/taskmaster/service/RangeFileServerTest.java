@@ -0,0 +1,112 @@
+package com.maroctelecom.taskmaster.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * En-tête de requête du serveur de plages: une connexion lente ou un en-tête démesuré
+ * reçoit une erreur au lieu de garder un thread du pool
+ */
+class RangeFileServerTest {
+    
+    private static final int REQUEST_TIMEOUT_MS = 300;
+    
+    @TempDir
+    Path directory;
+    
+    private RangeFileServer server;
+    private String filePath;
+    private int port;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        Path input = directory.resolve("contracts.csv");
+        Files.writeString(input, "contractId,clientId\nCTR1,CLI1\nCTR2,CLI2\n");
+        
+        server = new RangeFileServer();
+        ReflectionTestUtils.setField(server, "port", 0);
+        ReflectionTestUtils.setField(server, "bindAddress", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "advertisedHost", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "threads", 1);
+        ReflectionTestUtils.setField(server, "queueCapacity", 1);
+        ReflectionTestUtils.setField(server, "retryAfterSeconds", 5);
+        ReflectionTestUtils.setField(server, "requestTimeoutMs", REQUEST_TIMEOUT_MS);
+        ReflectionTestUtils.setField(server, "maxHeaderBytes", 1024);
+        server.afterPropertiesSet();
+        
+        ServerSocketChannel channel = (ServerSocketChannel) ReflectionTestUtils.getField(server, "serverChannel");
+        port = ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        filePath = URI.create(server.register(input.toString())).getPath();
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        server.destroy();
+    }
+    
+    @Test
+    void servesRequestedRange() throws IOException {
+        String response = exchange("GET " + filePath + " HTTP/1.1\r\nRange: bytes=20-27\r\n\r\n");
+        assertTrue(response.startsWith("HTTP/1.1 206"), response);
+        assertTrue(response.endsWith("CTR1,CLI"), response);
+    }
+    
+    @Test
+    void silentClientGetsRequestTimeoutAndFreesTheThread() throws IOException {
+        try (Socket silent = connect()) {
+            silent.getOutputStream().write(("GET " + filePath + " HTTP/1.1\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            long start = System.nanoTime();
+            String response = readAll(silent.getInputStream());
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            
+            assertTrue(response.startsWith("HTTP/1.1 408"), response);
+            assertTrue(elapsedMs < REQUEST_TIMEOUT_MS * 10L, "Connexion fermée après " + elapsedMs + "ms");
+        }
+        
+        // L'unique thread du pool est de nouveau disponible
+        assertTrue(exchange("GET " + filePath + " HTTP/1.1\r\n\r\n").startsWith("HTTP/1.1 206"));
+    }
+    
+    @Test
+    void oversizedHeaderIsRejected() throws IOException {
+        // Exactement max-header-bytes sans fin d'en-tête: tout est lu, la fermeture reste propre
+        String start = "GET " + filePath + " HTTP/1.1\r\nX-Padding: ";
+        String response = exchange(start + "a".repeat(1024 - start.length()));
+        assertTrue(response.startsWith("HTTP/1.1 400"), response);
+    }
+    
+    private String exchange(String request) throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            return readAll(socket.getInputStream());
+        }
+    }
+    
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", port);
+        socket.setSoTimeout(REQUEST_TIMEOUT_MS * 20);
+        return socket;
+    }
+    
+    private static String readAll(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+    }
+}
\ No newline at end of file
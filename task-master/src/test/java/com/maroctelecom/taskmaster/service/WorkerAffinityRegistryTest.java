@@ -0,0 +1,114 @@
+package com.maroctelecom.taskmaster.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.WireFormatConfiguration;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.WorkerAdvertisementDTO;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Routage par affinité: une annonce publiée sur une partition quelconque du topic des annonces
+ * doit être matérialisée par le registre et router les tâches du fichier vers le worker annonceur
+ */
+@SpringBootTest(
+    classes = WorkerAffinityRegistryTest.AffinityTestConfiguration.class,
+    properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "app.kafka.topics.worker-advertisements-config.partitions=2",
+        "batch.affinity.enabled=true"
+    }
+)
+@EmbeddedKafka(partitions = 2, topics = "worker-advertisements")
+class WorkerAffinityRegistryTest {
+    
+    private static final String LOCAL_PATH = "/data/worker-1";
+    
+    @Autowired
+    private WorkerAffinityRegistry registry;
+    
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+    
+    @Test
+    void routesTaskToAdvertisingWorker() throws Exception {
+        PartitionTaskDTO task = PartitionTaskDTO.builder()
+            .taskId("task-1")
+            .jobExecutionId(1L)
+            .partitionId(0)
+            .filePath(LOCAL_PATH + "/contracts.csv")
+            .build();
+        assertNull(registry.selectPartition(task));
+        
+        WorkerAdvertisementDTO advertisement = WorkerAdvertisementDTO.builder()
+            .workerId("worker-1")
+            .taskPartitions(List.of(3))
+            .localPaths(List.of(LOCAL_PATH))
+            .advertisedAt(LocalDateTime.now())
+            .build();
+        
+        // Partition 1: hors de la seule partition 0 lue avant la correction
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        try {
+            new KafkaTemplate<>(producerFactory)
+                .send("worker-advertisements", 1, advertisement.getWorkerId(), advertisement)
+                .get(10, TimeUnit.SECONDS);
+        } finally {
+            producerFactory.destroy();
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (registry.getAdvertisedWorkers() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        
+        assertEquals(1, registry.getAdvertisedWorkers());
+        assertEquals(3, registry.selectPartition(task));
+        
+        // Un fichier détenu par aucun worker reste dans le pool partagé
+        task.setFilePath("/data/other/contracts.csv");
+        assertNull(registry.selectPartition(task));
+    }
+    
+    @Configuration
+    @EnableKafka
+    @EnableConfigurationProperties
+    @ImportAutoConfiguration({KafkaAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @Import({WireFormatConfiguration.class, WorkerAffinityRegistry.class})
+    static class AffinityTestConfiguration {
+        
+        // Nom attendu par les expressions des listeners (@kafkaConfig)
+        @Bean
+        KafkaConfig kafkaConfig() {
+            return new KafkaConfig();
+        }
+    }
+}
\ No newline at end of file
@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application principale du Worker Node
@@ -17,6 +18,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 })
 @EnableKafka
 @EnableAsync
+@EnableScheduling
 @EnableConfigurationProperties(KafkaConfig.class)
 public class WorkerNodeApplication {
 
@@ -0,0 +1,27 @@
+package com.maroctelecom.worker.checkpoint;
+
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+
+import java.util.Optional;
+
+/**
+ * Stockage des points de reprise des partitions
+ * Implémenté par un topic Kafka compacté ou par un stockage local de substitution
+ */
+public interface CheckpointStore {
+    
+    /**
+     * Retourne le dernier checkpoint connu pour une tâche
+     */
+    Optional<PartitionCheckpointDTO> load(String taskId);
+    
+    /**
+     * Enregistre (ou remplace) le checkpoint d'une tâche
+     */
+    void save(PartitionCheckpointDTO checkpoint);
+    
+    /**
+     * Supprime le checkpoint d'une tâche terminée
+     */
+    void clear(String taskId);
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.maroctelecom.worker.checkpoint;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stockage des checkpoints dans un topic Kafka compacté (clé = ID de tâche)
+ * Chaque worker matérialise le topic complet en mémoire pour retrouver les checkpoints
+ * des tâches relivrées, quel que soit le worker qui les a écrits
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "processing.checkpoint.store", havingValue = "kafka", matchIfMissing = true)
+public class KafkaCheckpointStore implements CheckpointStore {
+    
+    @Qualifier(ProducerProfilesConfiguration.CONTROL_TEMPLATE)
+    private final KafkaTemplate<String, PartitionCheckpointDTO> kafkaTemplate;
+    private final KafkaConfig kafkaConfig;
+    
+    // Vue matérialisée du topic compacté
+    private final Map<String, PartitionCheckpointDTO> checkpoints = new ConcurrentHashMap<>();
+    
+    @Override
+    public Optional<PartitionCheckpointDTO> load(String taskId) {
+        return Optional.ofNullable(checkpoints.get(taskId));
+    }
+    
+    @Override
+    public void save(PartitionCheckpointDTO checkpoint) {
+        checkpoints.put(checkpoint.getTaskId(), checkpoint);
+        
+        kafkaTemplate.send(kafkaConfig.getTopics().getCheckpoints(), checkpoint.getTaskId(), checkpoint)
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.warn("Échec de l'écriture du checkpoint de la tâche {} (ligne {}): {}",
+                            checkpoint.getTaskId(), checkpoint.getLastProcessedLine(), throwable.getMessage());
+                }
+            });
+    }
+    
+    @Override
+    public void clear(String taskId) {
+        checkpoints.remove(taskId);
+        
+        // Tombstone: la compaction supprimera définitivement le checkpoint
+        kafkaTemplate.send(kafkaConfig.getTopics().getCheckpoints(), taskId, null)
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.warn("Échec de la suppression du checkpoint de la tâche {}: {}",
+                            taskId, throwable.getMessage());
+                }
+            });
+    }
+    
+    /**
+     * Matérialise le topic compacté depuis le début, sur toutes ses partitions
+     * L'assignation manuelle évite tout rebalancing du groupe de traitement
+     */
+    @KafkaListener(
+        id = "checkpoint-store",
+        groupId = "#{@kafkaConfig.consumerGroups.worker}-checkpoints",
+        topicPartitions = @TopicPartition(
+            topic = "#{@kafkaConfig.topics.checkpoints}",
+            partitions = "0-#{@kafkaConfig.topics.checkpointsConfig.partitions - 1}",
+            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")
+        ),
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void onCheckpoint(
+            @Payload(required = false) PartitionCheckpointDTO checkpoint,
+            @Header(KafkaHeaders.RECEIVED_KEY) String taskId) {
+        
+        if (checkpoint == null) {
+            checkpoints.remove(taskId);
+            return;
+        }
+        
+        checkpoints.merge(taskId, checkpoint, (current, incoming) ->
+            incoming.getLastProcessedLine() >= current.getLastProcessedLine() ? incoming : current);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.maroctelecom.worker.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Stockage local des checkpoints (un fichier JSON par tâche dans le répertoire temporaire)
+ * Substitut au topic compacté lorsque les relivraisons reviennent sur le même worker
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "processing.checkpoint.store", havingValue = "local")
+public class LocalCheckpointStore implements CheckpointStore {
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${files.temp-directory:/tmp/worker}")
+    private String tempDirectory;
+    
+    @Override
+    public Optional<PartitionCheckpointDTO> load(String taskId) {
+        Path path = checkpointPath(taskId);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), PartitionCheckpointDTO.class));
+        } catch (IOException e) {
+            log.warn("Checkpoint illisible pour la tâche {}: {}", taskId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    @Override
+    public void save(PartitionCheckpointDTO checkpoint) {
+        Path path = checkpointPath(checkpoint.getTaskId());
+        
+        try {
+            Files.createDirectories(path.getParent());
+            
+            // Écriture atomique: fichier temporaire puis renommage
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), checkpoint);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Échec de l'écriture du checkpoint de la tâche {}: {}",
+                    checkpoint.getTaskId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void clear(String taskId) {
+        try {
+            Files.deleteIfExists(checkpointPath(taskId));
+        } catch (IOException e) {
+            log.warn("Échec de la suppression du checkpoint de la tâche {}: {}", taskId, e.getMessage());
+        }
+    }
+    
+    private Path checkpointPath(String taskId) {
+        return Paths.get(tempDirectory, "checkpoints", taskId + ".json");
+    }
+}
\ No newline at end of file
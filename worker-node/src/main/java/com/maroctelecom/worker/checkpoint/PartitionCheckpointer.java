@@ -0,0 +1,119 @@
+package com.maroctelecom.worker.checkpoint;
+
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.worker.processor.PartitionAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gestion des points de reprise des partitions
+ * Écrit périodiquement un checkpoint pendant le traitement et le restitue lors d'une relivraison
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionCheckpointer {
+    
+    private final CheckpointStore checkpointStore;
+    
+    @Value("${processing.checkpoint.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${processing.checkpoint.every-rows:10000}")
+    private long everyRows;
+    
+    @Value("${processing.checkpoint.interval-ms:30000}")
+    private long intervalMs;
+    
+    /**
+     * Recherche un checkpoint exploitable pour une tâche relivrée
+     */
+    public Optional<PartitionCheckpointDTO> findResumePoint(PartitionTaskDTO partitionTask) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        
+        return checkpointStore.load(partitionTask.getTaskId())
+            .filter(checkpoint -> checkpoint.getLastProcessedLine() != null
+                    && checkpoint.getLastProcessedLine() >= partitionTask.getStartLine()
+                    && checkpoint.getLastProcessedLine() <= partitionTask.getEndLine());
+    }
+    
+    /**
+     * Démarre l'écriture périodique des checkpoints d'une partition
+     */
+    public Session start(PartitionTaskDTO partitionTask, String workerId) {
+        return new Session(partitionTask, workerId);
+    }
+    
+    /**
+     * Supprime le checkpoint d'une tâche dont le résultat a été publié
+     */
+    public void clear(String taskId) {
+        if (enabled) {
+            checkpointStore.clear(taskId);
+        }
+    }
+    
+    /**
+     * Session de checkpointing d'une partition, utilisée uniquement par le thread de traitement
+     */
+    public class Session {
+        private final PartitionTaskDTO partitionTask;
+        private final String workerId;
+        private final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        private long lastCheckpointNanos = System.nanoTime();
+        private long rowsSinceCheckpoint;
+        
+        private Session(PartitionTaskDTO partitionTask, String workerId) {
+            this.partitionTask = partitionTask;
+            this.workerId = workerId;
+        }
+        
+        /**
+         * Appelé après chaque ligne, écrit un checkpoint si un seuil est atteint
+         */
+        public void onLineProcessed(PartitionAggregates aggregates, long currentLine) {
+            if (!enabled) {
+                return;
+            }
+            
+            rowsSinceCheckpoint++;
+            long now = System.nanoTime();
+            if (rowsSinceCheckpoint >= everyRows || now - lastCheckpointNanos >= intervalNanos) {
+                rowsSinceCheckpoint = 0;
+                lastCheckpointNanos = now;
+                checkpointStore.save(toCheckpoint(aggregates, currentLine));
+                
+                log.debug("Checkpoint de la tâche {} écrit à la ligne {}", partitionTask.getTaskId(), currentLine);
+            }
+        }
+        
+        private PartitionCheckpointDTO toCheckpoint(PartitionAggregates aggregates, long currentLine) {
+            return PartitionCheckpointDTO.builder()
+                .taskId(partitionTask.getTaskId())
+                .jobExecutionId(partitionTask.getJobExecutionId())
+                .partitionId(partitionTask.getPartitionId())
+                .workerId(workerId)
+                .lastProcessedLine(currentLine)
+                .totalLinesProcessed(aggregates.getTotalLinesProcessed())
+                .successfulContracts(aggregates.getSuccessfulContracts())
+                .failedContracts(aggregates.getFailedContracts())
+                .skippedContracts(aggregates.getSkippedContracts())
+                .totalAmount(aggregates.getTotalAmount())
+                .uniqueClientsCount(aggregates.getUniqueClientsCount())
+                .contractTypeStats(aggregates.snapshotContractTypeStats())
+                .errorCountsByType(new HashMap<>(aggregates.getErrorCountsByType()))
+                .checkpointedAt(LocalDateTime.now())
+                .build();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.maroctelecom.worker.config;
+
+import com.maroctelecom.worker.service.InFlightTaskRegistry;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Configuration de la consommation des tâches de partition
+ */
+@Configuration
+public class PartitionListenerConfiguration {
+    
+    /**
+     * Fabrique de conteneurs des tâches: acquittement manuel, validé par le registre des tâches en cours
+     * dans l'ordre des offsets, et libération des offsets en attente lors d'un rééquilibrage
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> partitionTaskContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            InFlightTaskRegistry inFlightTaskRegistry) {
+        
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(inFlightTaskRegistry);
+        return factory;
+    }
+}
\ No newline at end of file
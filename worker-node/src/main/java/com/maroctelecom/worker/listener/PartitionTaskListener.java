@@ -3,12 +3,24 @@ package com.maroctelecom.worker.listener;
 import com.maroctelecom.common.config.KafkaConfig;
 import com.maroctelecom.common.dto.PartitionTaskDTO;
 import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import com.maroctelecom.common.transport.PartitionTaskReceiver;
+import com.maroctelecom.common.transport.TaskResultTransport;
+import com.maroctelecom.worker.checkpoint.PartitionCheckpointer;
 import com.maroctelecom.worker.processor.ContractProcessor;
-import com.maroctelecom.worker.service.ResultSender;
+import com.maroctelecom.worker.service.InFlightTaskRegistry;
+import com.maroctelecom.worker.service.LaneTaskExecutor;
+import com.maroctelecom.worker.service.StageMetrics;
+import com.maroctelecom.worker.service.TransactionalResultPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -16,20 +28,30 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Listener pour l'écoute des tâches de partition depuis Kafka
- * Traite les tâches de manière asynchrone et envoie les résultats
+ * Traite les tâches de manière asynchrone et envoie les résultats par le transport configuré;
+ * en mode mono-JVM les tâches arrivent directement du transport en mémoire
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class PartitionTaskListener {
+public class PartitionTaskListener implements PartitionTaskReceiver, ConsumerSeekAware {
+    
+    public static final String LISTENER_ID = "partition-task-listener";
     
     private final ContractProcessor contractProcessor;
-    private final ResultSender resultSender;
+    private final TaskResultTransport resultTransport;
+    private final PartitionCheckpointer partitionCheckpointer;
     private final KafkaConfig kafkaConfig;
+    private final ObjectProvider<TransactionalResultPublisher> transactionalPublisherProvider;
+    private final ObjectProvider<LaneTaskExecutor> laneTaskExecutorProvider;
+    private final InFlightTaskRegistry inFlightTaskRegistry;
+    private final StageMetrics stageMetrics;
     
     @Value("${spring.application.name:worker-node}")
     private String workerId;
@@ -38,53 +60,167 @@ public class PartitionTaskListener {
     private String workerPort;
     
     /**
-     * Écoute les tâches de partition depuis Kafka
+     * Transmet au registre le rappel de repositionnement des partitions assignées,
+     * utilisé pour relire les tâches abandonnées
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        inFlightTaskRegistry.registerSeekCallback(assignments.keySet(), callback);
+    }
+    
+    /**
+     * Écoute les tâches de partition depuis Kafka, sur les topics de toutes les voies de priorité
+     * Le thread du consumer ne fait qu'enregistrer et soumettre la tâche: il continue de poller
+     * pendant le traitement, et les offsets sont validés dans l'ordre à mesure que les tâches se terminent
      */
     @KafkaListener(
-        topics = "#{@kafkaConfig.topics.contractPartitions}",
+        id = LISTENER_ID,
+        topics = "#{@kafkaConfig.partitionsTopics}",
         groupId = "#{@kafkaConfig.consumerGroups.worker}",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "partitionTaskContainerFactory",
+        autoStartup = "#{'${app.transport.mode:kafka}' == 'kafka'}"
     )
     public void handlePartitionTask(
             @Payload PartitionTaskDTO partitionTask,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment) {
+            Acknowledgment acknowledgment,
+            Consumer<?, ?> consumer) {
         
         String fullWorkerId = generateWorkerId();
         LocalDateTime startTime = LocalDateTime.now();
+        TransactionalResultPublisher transactionalPublisher = transactionalPublisherProvider.getIfAvailable();
+        
+        // Les métadonnées du groupe sont lues sur le thread du consumer (non thread-safe)
+        ConsumerGroupMetadata groupMetadata = transactionalPublisher != null ? consumer.groupMetadata() : null;
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
         
         log.info("Réception de la tâche {} sur worker {} (topic: {}, partition: {}, offset: {})",
                 partitionTask.getTaskId(), fullWorkerId, topic, partition, offset);
+        recordReceived(partitionTask, topic, partition, offset);
+        
+        InFlightTaskRegistry.InFlightTask inFlightTask =
+                inFlightTaskRegistry.register(topicPartition, offset, acknowledgment);
         
-        // Traitement asynchrone de la tâche
-        CompletableFuture.supplyAsync(() -> processTask(partitionTask, fullWorkerId, startTime))
-            .whenComplete((result, throwable) -> {
-                try {
-                    if (throwable != null) {
-                        log.error("Erreur lors du traitement de la tâche {}: {}", 
-                                partitionTask.getTaskId(), throwable.getMessage(), throwable);
-                        
-                        // Création d'un résultat d'erreur
-                        TaskResultDTO errorResult = createErrorResult(partitionTask, fullWorkerId, startTime, throwable);
-                        sendResult(errorResult);
-                    } else {
-                        log.info("Tâche {} traitée avec succès par {}: {} contrats traités",
-                                partitionTask.getTaskId(), fullWorkerId, result.getTotalLinesProcessed());
-                        sendResult(result);
-                    }
-                    
-                    // Acknowledgment du message Kafka
-                    acknowledgment.acknowledge();
-                    
-                } catch (Exception e) {
-                    log.error("Erreur lors de l'envoi du résultat pour la tâche {}: {}", 
-                            partitionTask.getTaskId(), e.getMessage(), e);
-                    // On acknowledge quand même pour éviter la relivraison
-                    acknowledgment.acknowledge();
+        // Traitement asynchrone de la tâche, dans la voie de son topic
+        CompletableFuture<TaskResultDTO> processing;
+        try {
+            processing = CompletableFuture.supplyAsync(() -> processTask(partitionTask, fullWorkerId, startTime),
+                    laneTaskExecutorProvider.getObject().forTopic(topic));
+        } catch (RejectedExecutionException e) {
+            log.error("Tâche {} refusée par le pool de traitement: {}", partitionTask.getTaskId(), e.getMessage());
+            inFlightTask.abandon();
+            return;
+        }
+        
+        processing.whenComplete((result, throwable) -> {
+            TaskResultDTO taskResult;
+            if (throwable != null) {
+                log.error("Erreur lors du traitement de la tâche {}: {}",
+                        partitionTask.getTaskId(), throwable.getMessage(), throwable);
+                
+                // Création d'un résultat d'erreur
+                taskResult = createErrorResult(partitionTask, fullWorkerId, startTime, throwable);
+            } else {
+                log.info("Tâche {} traitée avec succès par {}: {} contrats traités",
+                        partitionTask.getTaskId(), fullWorkerId, result.getTotalLinesProcessed());
+                taskResult = result;
+            }
+            
+            if (transactionalPublisher != null) {
+                publishTransactionally(taskResult, transactionalPublisher, topicPartition, inFlightTask, groupMetadata);
+            } else {
+                publishAndAcknowledge(taskResult, inFlightTask::completeAndAcknowledge, inFlightTask::abandon);
+            }
+        });
+    }
+    
+    /**
+     * Traite une tâche livrée par le transport en mémoire, sur un thread du pool de workers embarqués
+     */
+    @Override
+    public void receivePartitionTask(PartitionTaskDTO partitionTask) {
+        String fullWorkerId = generateWorkerId();
+        LocalDateTime startTime = LocalDateTime.now();
+        recordReceived(partitionTask, null, -1, -1L);
+        
+        TaskResultDTO taskResult;
+        try {
+            taskResult = processTask(partitionTask, fullWorkerId, startTime);
+            log.info("Tâche {} traitée avec succès par {}: {} contrats traités",
+                    partitionTask.getTaskId(), fullWorkerId, taskResult.getTotalLinesProcessed());
+        } catch (Exception e) {
+            log.error("Erreur lors du traitement de la tâche {}: {}", partitionTask.getTaskId(), e.getMessage(), e);
+            taskResult = createErrorResult(partitionTask, fullWorkerId, startTime, e);
+        }
+        
+        // Aucun message à acquitter: la file en mémoire n'est pas rejouée
+        publishAndAcknowledge(taskResult, () -> { }, () -> { });
+    }
+    
+    /**
+     * Événement JFR de réception d'une tâche (topic null pour le transport en mémoire)
+     */
+    private void recordReceived(PartitionTaskDTO partitionTask, String topic, int partition, long offset) {
+        PartitionEvents.PartitionReceived received = new PartitionEvents.PartitionReceived();
+        if (received.isEnabled()) {
+            received.task(partitionTask);
+            received.topic = topic;
+            received.kafkaPartition = partition;
+            received.offset = offset;
+            received.commit();
+        }
+    }
+    
+    /**
+     * Mode transactionnel: résultat et offset validés ensemble, sans acknowledgment séparé
+     * L'offset n'est joint à la transaction que s'il fait progresser la partition sans trou, et la tâche
+     * n'est marquée terminée qu'après la validation; une transaction annulée abandonne la tâche, relivrée
+     */
+    private void publishTransactionally(TaskResultDTO taskResult, TransactionalResultPublisher publisher,
+                                        TopicPartition topicPartition, InFlightTaskRegistry.InFlightTask inFlightTask,
+                                        ConsumerGroupMetadata groupMetadata) {
+        long sendStart = System.nanoTime();
+        try {
+            inFlightTask.completeTransactionally(commitOffset ->
+                    publisher.publish(taskResult, topicPartition, commitOffset, groupMetadata));
+        } catch (Exception e) {
+            log.error("Transaction annulée pour la tâche {} sur {}: {}",
+                    taskResult.getTaskId(), topicPartition, e.getMessage(), e);
+            stageMetrics.recordSend(taskResult, sendStart, false);
+            inFlightTask.abandon();
+            return;
+        }
+        stageMetrics.recordSend(taskResult, sendStart, true);
+        partitionCheckpointer.clear(taskResult.getTaskId());
+    }
+    
+    /**
+     * Mode standard: l'acknowledgment n'intervient qu'une fois l'envoi du résultat confirmé
+     */
+    private void publishAndAcknowledge(TaskResultDTO taskResult, Runnable acknowledgment, Runnable abandon) {
+        long sendStart = System.nanoTime();
+        try {
+            resultTransport.sendResult(taskResult).whenComplete((sendResult, sendError) -> {
+                stageMetrics.recordSend(taskResult, sendStart, sendError == null);
+                if (sendError != null) {
+                    // Pas d'acknowledgment: la tâche sera relivrée plutôt que de perdre le résultat
+                    log.error("Résultat de la tâche {} non envoyé, message non acquitté: {}",
+                            taskResult.getTaskId(), sendError.getMessage());
+                    abandon.run();
+                    return;
                 }
+                
+                // Le résultat est publié: le point de reprise n'a plus lieu d'être
+                partitionCheckpointer.clear(taskResult.getTaskId());
+                acknowledgment.run();
             });
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi du résultat pour la tâche {}: {}", 
+                    taskResult.getTaskId(), e.getMessage(), e);
+            abandon.run();
+        }
     }
     
     /**
@@ -158,7 +294,10 @@ public class PartitionTaskListener {
                                           LocalDateTime startTime, Throwable throwable) {
         return TaskResultDTO.builder()
             .taskId(partitionTask.getTaskId())
+            .jobExecutionId(partitionTask.getJobExecutionId())
+            .totalPartitions(partitionTask.getTotalPartitions())
             .partitionId(partitionTask.getPartitionId())
+            .attempt(partitionTask.getAttempt())
             .workerId(workerId)
             .status(TaskResultDTO.ProcessingStatus.FAILED)
             .startTime(startTime)
@@ -171,24 +310,10 @@ public class PartitionTaskListener {
             .build();
     }
     
-    /**
-     * Envoie le résultat via Kafka
-     */
-    private void sendResult(TaskResultDTO result) {
-        try {
-            resultSender.sendResult(result);
-            log.debug("Résultat de la tâche {} envoyé avec succès", result.getTaskId());
-        } catch (Exception e) {
-            log.error("Erreur lors de l'envoi du résultat pour la tâche {}: {}", 
-                    result.getTaskId(), e.getMessage(), e);
-            throw e;
-        }
-    }
-    
     /**
      * Génère un ID unique pour ce worker
      */
-    private String generateWorkerId() {
+    public String generateWorkerId() {
         String hostname = System.getenv("HOSTNAME");
         if (hostname == null || hostname.trim().isEmpty()) {
             hostname = "localhost";
@@ -1,16 +1,27 @@
 package com.maroctelecom.worker.processor;
 
 import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
 import com.maroctelecom.common.dto.PartitionTaskDTO;
 import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
 import com.maroctelecom.common.model.Contract;
+import com.maroctelecom.worker.checkpoint.PartitionCheckpointer;
+import com.maroctelecom.worker.service.ErrorReportPublisher;
+import com.maroctelecom.worker.service.ProgressReporter;
+import com.maroctelecom.worker.service.RejectedRowWriter;
+import com.maroctelecom.worker.service.ResourceSampler;
+import com.maroctelecom.worker.service.StageMetrics;
+import com.maroctelecom.worker.sink.ContractSink;
+import com.maroctelecom.worker.sink.ContractSinks;
 import com.maroctelecom.worker.validator.ContractValidator;
 import com.opencsv.CSVReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,7 +29,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Processeur principal pour le traitement des contrats Maroc Telecom
@@ -30,6 +40,21 @@ import java.util.concurrent.atomic.AtomicLong;
 public class ContractProcessor {
     
     private final ContractValidator contractValidator;
+    private final ProgressReporter progressReporter;
+    private final PartitionCheckpointer partitionCheckpointer;
+    private final ErrorReportPublisher errorReportPublisher;
+    private final PartitionInputSource partitionInputSource;
+    private final ResourceSampler resourceSampler;
+    private final StageMetrics stageMetrics;
+    private final ContractSinks contractSinks;
+    private final RejectedRowWriter rejectedRowWriter;
+    
+    // Vérification du délai et de l'annulation toutes les 256 lignes
+    private static final long DEADLINE_CHECK_MASK = 0xFF;
+    
+    // Lignes par événement JFR ChunkProcessed
+    @Value("${processing.jfr.chunk-rows:5000}")
+    private long chunkRows;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final String[] EXPECTED_HEADERS = {
@@ -41,28 +66,59 @@ public class ContractProcessor {
     
     /**
      * Traite une partition de contrats
+     * Le timeout de la tâche est vérifié dans la boucle de lecture: à échéance, ou si le thread est interrompu,
+     * le traitement s'arrête et le résultat partiel indique la dernière ligne traitée
      */
     public TaskResultDTO processPartition(PartitionTaskDTO partitionTask, String workerId) {
         LocalDateTime startTime = LocalDateTime.now();
+        ResourceSampler.Session resources = resourceSampler.start();
         
         TaskResultDTO.TaskResultDTOBuilder resultBuilder = TaskResultDTO.builder()
             .taskId(partitionTask.getTaskId())
+            .jobExecutionId(partitionTask.getJobExecutionId())
+            .totalPartitions(partitionTask.getTotalPartitions())
             .partitionId(partitionTask.getPartitionId())
+            .attempt(partitionTask.getAttempt())
             .workerId(workerId)
             .startTime(startTime)
             .status(TaskResultDTO.ProcessingStatus.PROCESSING);
         
-        List<ErrorInfo> errors = new ArrayList<>();
-        Map<String, TaskResultDTO.ContractTypeStats> contractTypeStats = new HashMap<>();
-        Set<String> uniqueClients = new HashSet<>();
+        ErrorReportPublisher.Session errorReport = errorReportPublisher.start(partitionTask);
+        PartitionAggregates aggregates = new PartitionAggregates(errorReport::add);
+        ProgressReporter.Tracker progress = progressReporter.start(partitionTask, workerId);
+        PartitionCheckpointer.Session checkpoints = partitionCheckpointer.start(partitionTask, workerId);
+        StageMetrics.Session stages = stageMetrics.start(partitionTask, workerId);
         
-        AtomicLong successfulContracts = new AtomicLong(0);
-        AtomicLong failedContracts = new AtomicLong(0);
-        AtomicLong skippedContracts = new AtomicLong(0);
-        AtomicLong totalLinesProcessed = new AtomicLong(0);
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Reste d'une partition interrompue: les lignes précédentes ont déjà été comptées
+        long firstLine = partitionTask.getResumeLine() != null ? partitionTask.getResumeLine() : partitionTask.getStartLine();
         
-        try (CSVReader csvReader = new CSVReader(new FileReader(partitionTask.getFilePath()))) {
+        // Reprise depuis le dernier checkpoint si la tâche a été relivrée
+        // Les sorties et les rejets étant validés par partition, une tâche relivrée qui les écrit repart du début
+        Optional<PartitionCheckpointDTO> resumePoint = contractSinks.isEnabled() || rejectedRowWriter.isEnabled()
+            ? Optional.empty()
+            : partitionCheckpointer.findResumePoint(partitionTask);
+        if (resumePoint.isPresent()) {
+            aggregates.restore(resumePoint.get());
+            firstLine = resumePoint.get().getLastProcessedLine() + 1;
+            
+            log.info("Reprise de la tâche {} depuis le checkpoint: ligne {} ({} lignes déjà traitées)",
+                    partitionTask.getTaskId(), firstLine, aggregates.getTotalLinesProcessed());
+        }
+        
+        PartitionEvents.PartitionStarted started = new PartitionEvents.PartitionStarted();
+        if (started.isEnabled()) {
+            started.task(partitionTask);
+            started.firstLine = firstLine;
+            started.endLine = partitionTask.getEndLine();
+            started.resumed = firstLine != partitionTask.getStartLine();
+            started.commit();
+        }
+        
+        long openStart = System.nanoTime();
+        try (PartitionInputSource.PartitionInput input = partitionInputSource.open(partitionTask);
+             CSVReader csvReader = new CSVReader(input.reader());
+             ContractSink.Session sink = contractSinks.open(partitionTask, firstLine);
+             RejectedRowWriter.Session rejects = rejectedRowWriter.start(partitionTask, firstLine)) {
             
             // Lecture et validation des en-têtes
             String[] headers;
@@ -75,41 +131,75 @@ public class ContractProcessor {
             if (headers == null || !validateHeaders(headers)) {
                 throw new IllegalArgumentException("En-têtes CSV invalides ou manquants");
             }
+            long seekStart = stages.record(StageMetrics.Stage.OPEN, openStart);
             
             // Positionnement à la ligne de début
-            skipToStartLine(csvReader, partitionTask.getStartLine() - 1); // -1 car on a déjà lu les headers
+            // Le flux reprend à input.firstLine() après les headers: fichier complet ou plage servie par le task master
+            skipToStartLine(csvReader, firstLine - input.firstLine());
+            stages.record(StageMetrics.Stage.SEEK, seekStart);
+            
+            // Délai décompté après le positionnement: chaque tentative progresse d'au moins une ligne
+            long deadlineNanos = partitionTask.getTimeoutSeconds() != null
+                ? System.nanoTime() + partitionTask.getTimeoutSeconds() * 1_000_000_000L
+                : Long.MAX_VALUE;
             
             String[] line;
-            long currentLine = partitionTask.getStartLine();
+            long currentLine = firstLine;
+            TaskResultDTO.ProcessingStatus interruption = null;
+            
+            // Blocs de lignes enregistrés par JFR; la taille n'est estimée que si l'événement est actif
+            PartitionEvents.ChunkProcessed chunk = startChunk(partitionTask, currentLine);
+            boolean chunkBytes = chunk.isEnabled();
             
             try {
-                while ((line = csvReader.readNext()) != null && currentLine <= partitionTask.getEndLine()) {
-                totalLinesProcessed.incrementAndGet();
+                while (currentLine <= partitionTask.getEndLine()) {
+                // Une ligne sur sample-every-rows est chronométrée étape par étape
+                boolean sampled = stages.sampleRow();
+                long stageStart = sampled ? System.nanoTime() : 0L;
+                
+                // Lecture de la ligne, découpage CSV compris
+                if ((line = csvReader.readNext()) == null) {
+                    break;
+                }
+                if (sampled) {
+                    stageStart = stages.record(StageMetrics.Stage.READ, stageStart);
+                }
+                aggregates.lineRead();
+                if (chunkBytes) {
+                    chunk.bytes += estimateLineBytes(line);
+                }
                 
                 try {
                     // Parsing du contrat
                     Contract contract = parseContract(line, headers, currentLine);
+                    if (sampled) {
+                        stageStart = stages.record(StageMetrics.Stage.PARSE, stageStart);
+                    }
                     
                     // Validation métier
-                    List<ErrorInfo> validationErrors = contractValidator.validate(contract, currentLine);
+                    List<ErrorInfo> validationErrors = contractValidator.validate(contract, currentLine, sampled ? stages : null);
+                    if (sampled) {
+                        stageStart = stages.record(StageMetrics.Stage.VALIDATE, stageStart);
+                    }
                     
                     if (validationErrors.isEmpty()) {
                         // Traitement métier
-                        processContract(contract, contractTypeStats, uniqueClients);
-                        
-                        totalAmount = totalAmount.add(contract.getAmount());
-                        successfulContracts.incrementAndGet();
+                        processContract(contract, aggregates);
+                        sink.accept(contract, currentLine);
                         
                         log.debug("Contrat {} traité avec succès", contract.getContractId());
                         
                     } else {
                         // Contrat invalide
-                        errors.addAll(validationErrors);
-                        skippedContracts.incrementAndGet();
+                        aggregates.contractSkipped(validationErrors);
+                        rejects.reject(headers, line, currentLine, validationErrors);
                         
                         log.debug("Contrat ligne {} ignoré: {} erreurs de validation", 
                                 currentLine, validationErrors.size());
                     }
+                    if (sampled) {
+                        stages.record(StageMetrics.Stage.AGGREGATE, stageStart);
+                    }
                     
                 } catch (Exception e) {
                     // Erreur de parsing ou de traitement
@@ -118,56 +208,135 @@ public class ContractProcessor {
                     error.setLineNumber(currentLine);
                     error.setLineData(String.join(",", line));
                     
-                    errors.add(error);
-                    failedContracts.incrementAndGet();
+                    aggregates.contractFailed(error);
+                    rejects.reject(headers, line, currentLine, List.of(error));
                     
                     log.debug("Erreur ligne {}: {}", currentLine, e.getMessage());
                 }
                 
+                // Publication périodique de la progression
+                progress.onLineProcessed(aggregates, currentLine);
+                checkpoints.onLineProcessed(aggregates, currentLine);
+                resources.onLineProcessed();
+                
                 currentLine++;
+                
+                if (++chunk.rows >= chunkRows) {
+                    commitChunk(chunk);
+                    chunk = startChunk(partitionTask, currentLine);
+                }
+                
+                // Arrêt coopératif, uniquement s'il reste des lignes: le reste sera replanifié par le task master
+                if ((currentLine & DEADLINE_CHECK_MASK) == 0 && currentLine <= partitionTask.getEndLine()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        interruption = TaskResultDTO.ProcessingStatus.CANCELLED;
+                        break;
+                    }
+                    if (System.nanoTime() - deadlineNanos >= 0) {
+                        interruption = TaskResultDTO.ProcessingStatus.TIMEOUT;
+                        break;
+                    }
+                }
             }
             } catch (com.opencsv.exceptions.CsvValidationException e) {
                 throw new RuntimeException("Erreur de validation CSV ligne " + currentLine, e);
             }
+            if (chunk.rows > 0) {
+                commitChunk(chunk);
+            }
+            
+            // Contrats écrits et lignes rejetées validés avant le résultat qui les compte (lignes traitées d'une partition interrompue comprises)
+            OutputFileRefDTO outputFile = sink.commit(currentLine - 1);
+            rejects.finish(currentLine - 1);
+            
+            // Publication des derniers lots d'erreurs avant le résultat qui les référence
+            ErrorReportPublisher.Report report = errorReport.finish();
+            resources.applyTo(resultBuilder, aggregates.getTotalLinesProcessed());
             
             // Construction du résultat
             TaskResultDTO result = resultBuilder
-                .status(TaskResultDTO.ProcessingStatus.COMPLETED)
+                .status(interruption != null ? interruption : TaskResultDTO.ProcessingStatus.COMPLETED)
                 .endTime(LocalDateTime.now())
-                .totalLinesProcessed(totalLinesProcessed.get())
-                .successfulContracts(successfulContracts.get())
-                .failedContracts(failedContracts.get())
-                .skippedContracts(skippedContracts.get())
-                .totalAmount(totalAmount.doubleValue())
-                .uniqueClientsCount((long) uniqueClients.size())
-                .errors(errors.isEmpty() ? null : errors)
-                .contractTypeStats(contractTypeStats)
-                .summary(generateSummary(totalLinesProcessed.get(), successfulContracts.get(), 
-                       failedContracts.get(), skippedContracts.get()))
+                .totalLinesProcessed(aggregates.getTotalLinesProcessed())
+                .successfulContracts(aggregates.getSuccessfulContracts())
+                .failedContracts(aggregates.getFailedContracts())
+                .skippedContracts(aggregates.getSkippedContracts())
+                .totalAmount(aggregates.getTotalAmount().doubleValue())
+                .uniqueClientsCount(aggregates.getUniqueClientsCount())
+                .errors(report.inlineErrors())
+                .errorCountsByType(aggregates.getErrorCountsByType())
+                .errorReport(report.reference())
+                .contractTypeStats(aggregates.getContractTypeStats())
+                .summary(generateSummary(aggregates.getTotalLinesProcessed(), aggregates.getSuccessfulContracts(),
+                       aggregates.getFailedContracts(), aggregates.getSkippedContracts()))
+                .lastProcessedLine(interruption != null ? currentLine - 1 : null)
+                .outputFile(outputFile)
                 .build();
+            stages.finish(result);
+            
+            if (interruption != null) {
+                log.warn("Partition {} interrompue ({}) après la ligne {} sur {}: {} lignes traitées, reste à replanifier",
+                        partitionTask.getPartitionId(), interruption, currentLine - 1, partitionTask.getEndLine(),
+                        aggregates.getTotalLinesProcessed());
+                return result;
+            }
             
             log.info("Partition {} traitée: {} lignes, {} succès, {} échecs, {} ignorés",
-                    partitionTask.getPartitionId(), totalLinesProcessed.get(), 
-                    successfulContracts.get(), failedContracts.get(), skippedContracts.get());
+                    partitionTask.getPartitionId(), aggregates.getTotalLinesProcessed(),
+                    aggregates.getSuccessfulContracts(), aggregates.getFailedContracts(),
+                    aggregates.getSkippedContracts());
             
             return result;
             
         } catch (Exception e) {
             log.error("Erreur lors du traitement de la partition {}: {}", 
                     partitionTask.getPartitionId(), e.getMessage(), e);
+            resources.applyTo(resultBuilder, aggregates.getTotalLinesProcessed());
             
-            return resultBuilder
+            TaskResultDTO failed = resultBuilder
                 .status(TaskResultDTO.ProcessingStatus.FAILED)
                 .endTime(LocalDateTime.now())
-                .totalLinesProcessed(totalLinesProcessed.get())
-                .successfulContracts(successfulContracts.get())
-                .failedContracts(failedContracts.get())
-                .skippedContracts(skippedContracts.get())
+                .totalLinesProcessed(aggregates.getTotalLinesProcessed())
+                .successfulContracts(aggregates.getSuccessfulContracts())
+                .failedContracts(aggregates.getFailedContracts())
+                .skippedContracts(aggregates.getSkippedContracts())
+                .errorCountsByType(aggregates.getErrorCountsByType())
                 .summary("Échec du traitement: " + e.getMessage())
                 .build();
+            stages.finish(failed);
+            return failed;
+        }
+    }
+    
+    /**
+     * Démarre un bloc de lignes JFR
+     */
+    private PartitionEvents.ChunkProcessed startChunk(PartitionTaskDTO partitionTask, long firstLine) {
+        PartitionEvents.ChunkProcessed chunk = new PartitionEvents.ChunkProcessed();
+        chunk.begin();
+        chunk.task(partitionTask);
+        chunk.firstLine = firstLine;
+        return chunk;
+    }
+    
+    private void commitChunk(PartitionEvents.ChunkProcessed chunk) {
+        chunk.end();
+        if (chunk.shouldCommit()) {
+            chunk.commit();
         }
     }
     
+    /**
+     * Taille d'une ligne CSV d'après ses champs: séparateurs et fin de ligne compris, guillemets exclus
+     */
+    private static long estimateLineBytes(String[] line) {
+        long bytes = line.length;
+        for (String field : line) {
+            bytes += field.length();
+        }
+        return bytes;
+    }
+    
     /**
      * Valide les en-têtes du fichier CSV
      */
@@ -205,7 +374,7 @@ public class ContractProcessor {
     /**
      * Parse une ligne CSV en objet Contract
      */
-    private Contract parseContract(String[] line, String[] headers, long lineNumber) {
+    Contract parseContract(String[] line, String[] headers, long lineNumber) {
         if (line.length < EXPECTED_HEADERS.length) {
             throw new IllegalArgumentException("Ligne incomplète: " + line.length + " colonnes, " + 
                                              EXPECTED_HEADERS.length + " attendues");
@@ -241,28 +410,10 @@ public class ContractProcessor {
     /**
      * Traite un contrat valide (logique métier)
      */
-    private void processContract(Contract contract, 
-                               Map<String, TaskResultDTO.ContractTypeStats> contractTypeStats,
-                               Set<String> uniqueClients) {
-        
-        // Ajout du client unique
-        uniqueClients.add(contract.getClientId());
-        
-        // Mise à jour des statistiques par type de contrat
-        String typeKey = contract.getContractType().name();
-        TaskResultDTO.ContractTypeStats stats = contractTypeStats.computeIfAbsent(typeKey, 
-            k -> TaskResultDTO.ContractTypeStats.builder()
-                .contractType(typeKey)
-                .count(0L)
-                .totalAmount(0.0)
-                .uniqueClients(0L)
-                .build());
-        
-        stats.setCount(stats.getCount() + 1);
-        stats.setTotalAmount(stats.getTotalAmount() + contract.getAmount().doubleValue());
+    void processContract(Contract contract, PartitionAggregates aggregates) {
         
-        // Calcul de la moyenne
-        stats.setAverageAmount(stats.getTotalAmount() / stats.getCount());
+        // Mise à jour des compteurs, du montant, des clients uniques et des statistiques par type
+        aggregates.contractAccepted(contract);
         
         // TODO: Ajouter d'autres traitements métier spécifiques à Maroc Telecom
         // - Calculs de commissions
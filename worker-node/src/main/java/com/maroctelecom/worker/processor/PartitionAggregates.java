@@ -0,0 +1,134 @@
+package com.maroctelecom.worker.processor;
+
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.model.Contract;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Agrégats accumulés pendant le traitement d'une partition
+ * Confinés au thread de traitement, ils alimentent le résultat final et les rapports de progression
+ */
+public class PartitionAggregates {
+    
+    private long totalLinesProcessed;
+    private long successfulContracts;
+    private long failedContracts;
+    private long skippedContracts;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private final Map<String, TaskResultDTO.ContractTypeStats> contractTypeStats = new HashMap<>();
+    private final Set<String> uniqueClients = new HashSet<>();
+    private final Map<String, Long> errorCountsByType = new HashMap<>();
+    // Le détail des erreurs est transmis au fil de l'eau, seuls les compteurs restent en mémoire
+    private final Consumer<ErrorInfo> errorSink;
+    // Clients uniques déjà comptés avant une reprise (les identifiants ne sont pas checkpointés)
+    private long restoredUniqueClients;
+    
+    public PartitionAggregates(Consumer<ErrorInfo> errorSink) {
+        this.errorSink = errorSink;
+    }
+    
+    /**
+     * Réinjecte les agrégats partiels d'un checkpoint lors d'une reprise
+     * Les erreurs détaillées antérieures au checkpoint ne sont pas restituées, seuls leurs compteurs le sont
+     */
+    public void restore(PartitionCheckpointDTO checkpoint) {
+        totalLinesProcessed = checkpoint.getTotalLinesProcessed();
+        successfulContracts = checkpoint.getSuccessfulContracts();
+        failedContracts = checkpoint.getFailedContracts();
+        skippedContracts = checkpoint.getSkippedContracts();
+        totalAmount = checkpoint.getTotalAmount() != null ? checkpoint.getTotalAmount() : BigDecimal.ZERO;
+        restoredUniqueClients = checkpoint.getUniqueClientsCount();
+        
+        if (checkpoint.getContractTypeStats() != null) {
+            contractTypeStats.putAll(checkpoint.getContractTypeStats());
+        }
+        if (checkpoint.getErrorCountsByType() != null) {
+            errorCountsByType.putAll(checkpoint.getErrorCountsByType());
+        }
+    }
+    
+    /**
+     * Comptabilise une ligne lue
+     */
+    public void lineRead() {
+        totalLinesProcessed++;
+    }
+    
+    /**
+     * Comptabilise un contrat valide et met à jour les statistiques par type
+     */
+    public void contractAccepted(Contract contract) {
+        successfulContracts++;
+        totalAmount = totalAmount.add(contract.getAmount());
+        uniqueClients.add(contract.getClientId());
+        
+        String typeKey = contract.getContractType().name();
+        TaskResultDTO.ContractTypeStats stats = contractTypeStats.computeIfAbsent(typeKey,
+            k -> TaskResultDTO.ContractTypeStats.builder()
+                .contractType(typeKey)
+                .count(0L)
+                .totalAmount(0.0)
+                .uniqueClients(0L)
+                .build());
+        
+        stats.setCount(stats.getCount() + 1);
+        stats.setTotalAmount(stats.getTotalAmount() + contract.getAmount().doubleValue());
+        stats.setAverageAmount(stats.getTotalAmount() / stats.getCount());
+    }
+    
+    /**
+     * Comptabilise un contrat ignoré suite à des erreurs de validation
+     */
+    public void contractSkipped(List<ErrorInfo> validationErrors) {
+        skippedContracts++;
+        validationErrors.forEach(this::recordError);
+    }
+    
+    /**
+     * Comptabilise un contrat en échec (parsing ou erreur technique)
+     */
+    public void contractFailed(ErrorInfo error) {
+        failedContracts++;
+        recordError(error);
+    }
+    
+    private void recordError(ErrorInfo error) {
+        String type = error.getErrorType() != null ? error.getErrorType().name() : ErrorInfo.ErrorType.UNKNOWN_ERROR.name();
+        errorCountsByType.merge(type, 1L, Long::sum);
+        errorSink.accept(error);
+    }
+    
+    /**
+     * Copie défensive des statistiques par type (pour publication hors du thread de traitement)
+     */
+    public Map<String, TaskResultDTO.ContractTypeStats> snapshotContractTypeStats() {
+        Map<String, TaskResultDTO.ContractTypeStats> copy = new HashMap<>();
+        contractTypeStats.forEach((type, stats) -> copy.put(type, TaskResultDTO.ContractTypeStats.builder()
+            .contractType(stats.getContractType())
+            .count(stats.getCount())
+            .totalAmount(stats.getTotalAmount())
+            .averageAmount(stats.getAverageAmount())
+            .uniqueClients(stats.getUniqueClients())
+            .build()));
+        return copy;
+    }
+    
+    // Getters
+    public long getTotalLinesProcessed() { return totalLinesProcessed; }
+    public long getSuccessfulContracts() { return successfulContracts; }
+    public long getFailedContracts() { return failedContracts; }
+    public long getSkippedContracts() { return skippedContracts; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public long getUniqueClientsCount() { return restoredUniqueClients + uniqueClients.size(); }
+    public Map<String, TaskResultDTO.ContractTypeStats> getContractTypeStats() { return contractTypeStats; }
+    public Map<String, Long> getErrorCountsByType() { return errorCountsByType; }
+}
\ No newline at end of file
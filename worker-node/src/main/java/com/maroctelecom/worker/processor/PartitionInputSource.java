@@ -0,0 +1,182 @@
+package com.maroctelecom.worker.processor;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Ouverture des données d'une partition
+ * En mode data-shipping la ligne d'en-têtes puis la plage de la partition sont lues en flux auprès du
+ * serveur de plages du task master; sinon le fichier est ouvert sur le stockage partagé
+ * Un serveur saturé (503) renvoie au stockage partagé s'il est lisible, sinon la lecture est réessayée
+ * après le délai demandé par le serveur
+ */
+@Slf4j
+@Component
+public class PartitionInputSource {
+    
+    private final HttpClient httpClient;
+    
+    @Value("${processing.data-shipping.compression:false}")
+    private boolean compression;
+    
+    @Value("${processing.data-shipping.read-timeout-seconds:300}")
+    private long readTimeoutSeconds;
+    
+    @Value("${processing.data-shipping.busy-retries:3}")
+    private int busyRetries;
+    
+    public PartitionInputSource(@Value("${processing.data-shipping.connect-timeout-ms:5000}") long connectTimeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build();
+    }
+    
+    /**
+     * Données d'une partition: le lecteur débute par la ligne d'en-têtes, suivie de la ligne de données firstLine
+     */
+    public record PartitionInput(Reader reader, long firstLine) implements Closeable {
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Ouvre les données d'une partition
+     *
+     * @throws IOException si le fichier ou la plage n'est pas accessible
+     */
+    public PartitionInput open(PartitionTaskDTO partitionTask) throws IOException {
+        if (!partitionTask.isDataShipped()) {
+            return openShared(partitionTask);
+        }
+        
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return openShipped(partitionTask);
+            } catch (ServerBusyException e) {
+                if (Files.isReadable(Paths.get(partitionTask.getFilePath()))) {
+                    log.info("Serveur de plages saturé pour la tâche {}: lecture sur le stockage partagé",
+                            partitionTask.getTaskId());
+                    return openShared(partitionTask);
+                }
+                if (attempt >= busyRetries) {
+                    throw e;
+                }
+                log.info("Serveur de plages saturé pour la tâche {}: nouvel essai dans {}s ({}/{})",
+                        partitionTask.getTaskId(), e.retryAfterSeconds, attempt + 1, busyRetries);
+                sleep(partitionTask, e.retryAfterSeconds);
+            }
+        }
+    }
+    
+    private PartitionInput openShared(PartitionTaskDTO partitionTask) throws IOException {
+        return new PartitionInput(new FileReader(partitionTask.getFilePath()), 1L);
+    }
+    
+    private PartitionInput openShipped(PartitionTaskDTO partitionTask) throws IOException {
+        InputStream header = fetchRange(partitionTask, 0L, partitionTask.getHeaderByteLength());
+        InputStream range;
+        try {
+            range = fetchRange(partitionTask, partitionTask.getByteRangeStart(), partitionTask.getByteRangeEnd());
+        } catch (IOException e) {
+            header.close();
+            throw e;
+        }
+        
+        log.debug("Partition {} lue depuis {} (octets {}-{}, compression {})",
+                partitionTask.getPartitionId(), partitionTask.getDataUrl(),
+                partitionTask.getByteRangeStart(), partitionTask.getByteRangeEnd(), compression);
+        
+        return new PartitionInput(
+            new InputStreamReader(new SequenceInputStream(header, range), StandardCharsets.UTF_8),
+            partitionTask.getStartLine());
+    }
+    
+    /**
+     * Lit la plage [start, end) du fichier servi par le task master
+     */
+    private InputStream fetchRange(PartitionTaskDTO partitionTask, long start, long end) throws IOException {
+        if (end <= start) {
+            return InputStream.nullInputStream();
+        }
+        
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(partitionTask.getDataUrl()))
+            .timeout(Duration.ofSeconds(readTimeoutSeconds))
+            .header("Range", "bytes=" + start + "-" + (end - 1))
+            .GET();
+        if (compression) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lecture de la plage interrompue pour la tâche " + partitionTask.getTaskId(), e);
+        }
+        
+        if (response.statusCode() == 503) {
+            response.body().close();
+            long retryAfter = response.headers().firstValue("Retry-After")
+                .filter(value -> value.matches("\\d+"))
+                .map(Long::parseLong)
+                .orElse(1L);
+            throw new ServerBusyException(partitionTask.getDataUrl(), retryAfter);
+        }
+        if (response.statusCode() != 206) {
+            response.body().close();
+            throw new IOException(String.format("Plage %d-%d refusée par %s: statut HTTP %d",
+                    start, end, partitionTask.getDataUrl(), response.statusCode()));
+        }
+        
+        InputStream body = new BufferedInputStream(response.body(), 65536);
+        boolean gzip = response.headers().firstValue("Content-Encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+        return gzip ? new GZIPInputStream(body, 65536) : body;
+    }
+    
+    private void sleep(PartitionTaskDTO partitionTask, long seconds) throws IOException {
+        try {
+            Thread.sleep(Duration.ofSeconds(Math.max(1L, seconds)).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lecture de la plage interrompue pour la tâche " + partitionTask.getTaskId(), e);
+        }
+    }
+    
+    /**
+     * Refus du serveur de plages saturé, avec le délai avant un nouvel essai
+     */
+    private static final class ServerBusyException extends IOException {
+        
+        private final long retryAfterSeconds;
+        
+        ServerBusyException(String dataUrl, long retryAfterSeconds) {
+            super("Serveur de plages saturé: " + dataUrl);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
\ No newline at end of file
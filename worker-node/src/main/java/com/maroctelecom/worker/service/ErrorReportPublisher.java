@@ -0,0 +1,162 @@
+package com.maroctelecom.worker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.ErrorReportRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.serde.ErrorBatchCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publication des erreurs détaillées sur le topic dead-letter
+ * Les erreurs d'une partition sont envoyées par lots compressés, clés par tâche, au fil du traitement;
+ * le résultat ne transporte plus que les compteurs et une référence vers ces lots
+ */
+@Slf4j
+@Service
+public class ErrorReportPublisher implements DisposableBean {
+    
+    private final KafkaConfig kafkaConfig;
+    private final ObjectMapper objectMapper;
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @Value("${processing.errors.offload.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${processing.errors.offload.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${processing.errors.offload.publish-timeout-ms:30000}")
+    private long publishTimeoutMs;
+    
+    public ErrorReportPublisher(KafkaConfig kafkaConfig, ObjectMapper objectMapper) {
+        this.kafkaConfig = kafkaConfig;
+        this.objectMapper = objectMapper;
+        
+        // Les lots sont déjà compressés en gzip: pas de seconde compression côté producer
+        Map<String, Object> props = kafkaConfig.buildProducerProperties(KafkaConfig.TrafficClass.BULK);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+        this.producerFactory = new DefaultKafkaProducerFactory<>(props);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+    
+    /**
+     * Démarre la collecte des erreurs d'une partition
+     */
+    public Session start(PartitionTaskDTO partitionTask) {
+        return new Session(partitionTask);
+    }
+    
+    @Override
+    public void destroy() {
+        producerFactory.destroy();
+    }
+    
+    /**
+     * Issue de la collecte: erreurs en ligne (publication désactivée) ou référence vers le topic dead-letter
+     */
+    public record Report(List<ErrorInfo> inlineErrors, ErrorReportRefDTO reference) {
+    }
+    
+    /**
+     * Collecte des erreurs d'une partition, utilisée uniquement par le thread de traitement
+     */
+    public class Session {
+        private final PartitionTaskDTO partitionTask;
+        private final List<ErrorInfo> buffer = new ArrayList<>();
+        private final List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>();
+        private long errorCount;
+        
+        private Session(PartitionTaskDTO partitionTask) {
+            this.partitionTask = partitionTask;
+        }
+        
+        /**
+         * Ajoute une erreur, le lot courant est publié dès qu'il est plein
+         */
+        public void add(ErrorInfo error) {
+            buffer.add(error);
+            errorCount++;
+            if (enabled && buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        /**
+         * Publie le dernier lot et attend l'acquittement de tous les lots de la partition
+         *
+         * @throws RuntimeException si un lot n'a pas pu être publié
+         */
+        public Report finish() {
+            if (!enabled) {
+                return new Report(buffer.isEmpty() ? null : List.copyOf(buffer), null);
+            }
+            if (!buffer.isEmpty()) {
+                flush();
+            }
+            if (sends.isEmpty()) {
+                return new Report(null, null);
+            }
+            
+            try {
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+                RecordMetadata first = sends.get(0).get().getRecordMetadata();
+                
+                log.info("Rapport d'erreurs de la tâche {} publié: {} erreurs en {} lots (partition {}, offset {})",
+                        partitionTask.getTaskId(), errorCount, sends.size(), first.partition(), first.offset());
+                
+                return new Report(null, ErrorReportRefDTO.builder()
+                    .taskId(partitionTask.getTaskId())
+                    .attempt(partitionTask.getAttempt())
+                    .topic(first.topic())
+                    .partition(first.partition())
+                    .firstOffset(first.offset())
+                    .batchCount(sends.size())
+                    .errorCount(errorCount)
+                    .build());
+            
+            } catch (Exception e) {
+                throw new RuntimeException("Échec de la publication du rapport d'erreurs de la tâche "
+                        + partitionTask.getTaskId(), e);
+            }
+        }
+        
+        private void flush() {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(kafkaConfig.getTopics().getDeadLetter(),
+                    partitionTask.getTaskId(), ErrorBatchCodec.encode(objectMapper, buffer));
+            record.headers()
+                .add(ErrorBatchCodec.HEADER_TASK_ID, bytes(partitionTask.getTaskId()))
+                .add(ErrorBatchCodec.HEADER_ATTEMPT, bytes(String.valueOf(partitionTask.getAttempt())))
+                .add(ErrorBatchCodec.HEADER_BATCH_SEQUENCE, bytes(String.valueOf(sends.size())))
+                .add(ErrorBatchCodec.HEADER_ERROR_COUNT, bytes(String.valueOf(buffer.size())));
+            
+            sends.add(kafkaTemplate.send(record));
+            buffer.clear();
+        }
+        
+        private byte[] bytes(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
\ No newline at end of file
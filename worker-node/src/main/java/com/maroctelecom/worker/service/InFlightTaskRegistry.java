@@ -0,0 +1,317 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.transport.PriorityLane;
+import com.maroctelecom.worker.listener.PartitionTaskListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registre des tâches en cours, reçues de Kafka et traitées hors du thread du consumer
+ * Les offsets sont suivis par partition et validés dans l'ordre: seul le plus haut offset terminé
+ * sans trou est acquitté. Au-delà de max-tasks tâches en cours les partitions des voies paused-lanes sont
+ * mises en pause: le consumer continue de poller la voie urgente et reste membre du groupe,
+ * quelle que soit la durée des partitions. Une tâche abandonnée est relue depuis son offset
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InFlightTaskRegistry implements ConsumerAwareRebalanceListener {
+    
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaConfig kafkaConfig;
+    
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, ConsumerSeekAware.ConsumerSeekCallback> seekCallbacks = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    // Partitions mises en pause par le registre (accès sous le verrou de updatePause)
+    private final Set<TopicPartition> pausedPartitions = new HashSet<>();
+    private boolean paused;
+    
+    @Value("${processing.in-flight.max-tasks:64}")
+    private int maxTasks;
+    
+    @Value("${processing.in-flight.resume-tasks:32}")
+    private int resumeTasks;
+    
+    @Value("${processing.in-flight.paused-lanes:NORMAL,BULK}")
+    private Set<PriorityLane> pausedLanes;
+    
+    /**
+     * Enregistre une tâche reçue, avant sa soumission (thread du consumer)
+     */
+    public InFlightTask register(TopicPartition topicPartition, long offset, Acknowledgment acknowledgment) {
+        PartitionOffsets offsets = partitions.computeIfAbsent(topicPartition, PartitionOffsets::new);
+        offsets.add(offset, acknowledgment);
+        
+        inFlight.incrementAndGet();
+        updatePause();
+        return new InFlightTask(offsets, offset);
+    }
+    
+    /**
+     * Tâches reçues et non terminées, toutes partitions confondues
+     */
+    public int getInFlightTasks() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Mémorise le rappel de repositionnement des partitions assignées (fourni par le listener)
+     */
+    public void registerSeekCallback(Collection<TopicPartition> assigned, ConsumerSeekAware.ConsumerSeekCallback callback) {
+        assigned.forEach(topicPartition -> seekCallbacks.put(topicPartition, callback));
+    }
+    
+    /**
+     * Partitions assignées pendant une pause: celles des voies en pause le sont aussi
+     */
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> assigned) {
+        synchronized (this) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(PartitionTaskListener.LISTENER_ID);
+            if (paused && container != null) {
+                pausePartitions(container, assigned);
+            }
+        }
+    }
+    
+    /**
+     * Partitions retirées: leurs offsets en attente ne seront plus validés par ce worker
+     * Les tâches encore en cours se terminent et publient leur résultat, que le task master dédoublonne
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        synchronized (this) {
+            pausedPartitions.removeAll(revoked);
+        }
+        for (TopicPartition topicPartition : revoked) {
+            seekCallbacks.remove(topicPartition);
+            PartitionOffsets offsets = partitions.remove(topicPartition);
+            if (offsets != null) {
+                int pending = offsets.revoke();
+                if (pending > 0) {
+                    log.warn("Partition {} retirée avec {} tâches non validées: elles seront relivrées",
+                            topicPartition, pending);
+                }
+            }
+        }
+    }
+    
+    private void release() {
+        inFlight.decrementAndGet();
+        updatePause();
+    }
+    
+    /**
+     * Met en pause ou reprend les partitions des voies paused-lanes selon le nombre de tâches en cours
+     * Sérialisé pour que la dernière décision reflète toujours le compteur courant; les pauses
+     * sont appliquées par le conteneur sur le thread du consumer, au prochain poll
+     */
+    private synchronized void updatePause() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(PartitionTaskListener.LISTENER_ID);
+        if (container == null) {
+            return;
+        }
+        
+        int tasks = inFlight.get();
+        if (tasks >= maxTasks && !paused) {
+            paused = true;
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            pausePartitions(container, assigned != null ? assigned : Set.of());
+            log.info("Tâches en cours: {} >= {}, voies {} en pause ({} partitions), les autres voies restent consommées",
+                    tasks, maxTasks, pausedLanes, pausedPartitions.size());
+        } else if (tasks <= resumeTasks && paused) {
+            paused = false;
+            log.info("Tâches en cours: {} <= {}, reprise de la consommation des voies {}", tasks, resumeTasks, pausedLanes);
+            pausedPartitions.forEach(container::resumePartition);
+            pausedPartitions.clear();
+        }
+    }
+    
+    private void pausePartitions(MessageListenerContainer container, Collection<TopicPartition> candidates) {
+        for (TopicPartition topicPartition : candidates) {
+            if (pausedLanes.contains(kafkaConfig.laneOfTopic(topicPartition.topic())) && pausedPartitions.add(topicPartition)) {
+                container.pausePartition(topicPartition);
+            }
+        }
+    }
+    
+    /**
+     * Tâche en cours: à terminer une seule fois, par complete() ou abandon()
+     */
+    public final class InFlightTask {
+        
+        private final PartitionOffsets offsets;
+        private final long offset;
+        
+        private InFlightTask(PartitionOffsets offsets, long offset) {
+            this.offsets = offsets;
+            this.offset = offset;
+        }
+        
+        /**
+         * Valide la tâche par une transaction: l'offset à y joindre est calculé sans marquer la tâche,
+         * qui n'est marquée terminée qu'une fois la transaction validée. Les validations d'une même
+         * partition sont sérialisées, pour que les offsets validés ne reculent jamais
+         *
+         * @param transaction Reçoit l'offset suivant le dernier offset terminé sans trou en comptant
+         *                    cette tâche (null s'il ne progresse pas); lève une exception si elle est annulée
+         * @throws RuntimeException l'exception de la transaction: la tâche reste en cours, à abandonner
+         */
+        public void completeTransactionally(java.util.function.Consumer<Long> transaction) {
+            offsets.commitLock.lock();
+            try {
+                transaction.accept(offsets.commitOffsetWith(offset));
+                offsets.complete(offset, false);
+            } finally {
+                offsets.commitLock.unlock();
+            }
+            release();
+        }
+        
+        /**
+         * Marque la tâche terminée et acquitte le message (thread du consumer au prochain poll)
+         * si l'offset validé de sa partition progresse
+         */
+        public void completeAndAcknowledge() {
+            try {
+                offsets.complete(offset, true);
+            } finally {
+                release();
+            }
+        }
+        
+        /**
+         * Libère la place de la tâche sans valider son offset: le consumer est repositionné sur cet offset
+         * au prochain poll et la tâche est relivrée, ainsi que les messages suivants de la partition
+         * (déjà traités ou non, le task master dédoublonne leurs résultats). Une partition retirée entre-temps
+         * est relue par son nouveau propriétaire depuis son dernier offset validé
+         */
+        public void abandon() {
+            try {
+                TopicPartition topicPartition = offsets.topicPartition;
+                ConsumerSeekAware.ConsumerSeekCallback seekCallback = seekCallbacks.get(topicPartition);
+                Long seekOffset = seekCallback != null ? offsets.rewind(offset) : null;
+                if (seekOffset != null) {
+                    seekCallback.seek(topicPartition.topic(), topicPartition.partition(), seekOffset);
+                    log.warn("Offset {} de {} abandonné: relecture depuis l'offset {}", offset, topicPartition, seekOffset);
+                } else {
+                    log.warn("Offset {} de {} abandonné: partition retirée, relivrée à son nouveau propriétaire",
+                            offset, topicPartition);
+                }
+            } finally {
+                release();
+            }
+        }
+    }
+    
+    /**
+     * Offsets non validés d'une partition, triés: true si la tâche est terminée
+     */
+    private static final class PartitionOffsets {
+        
+        private final TopicPartition topicPartition;
+        private final TreeMap<Long, Boolean> done = new TreeMap<>();
+        private final Map<Long, Acknowledgment> acknowledgments = new HashMap<>();
+        // Sérialise les validations transactionnelles, sans bloquer le thread du consumer dans add()
+        private final ReentrantLock commitLock = new ReentrantLock();
+        private boolean revoked;
+        // Plus petit offset à relire non encore relivré: une relecture demandée ensuite ne le saute pas
+        private Long rewindOffset;
+        
+        private PartitionOffsets(TopicPartition topicPartition) {
+            this.topicPartition = topicPartition;
+        }
+        
+        private synchronized void add(long offset, Acknowledgment acknowledgment) {
+            if (rewindOffset != null && offset <= rewindOffset) {
+                rewindOffset = null;
+            }
+            done.put(offset, Boolean.FALSE);
+            if (acknowledgment != null) {
+                acknowledgments.put(offset, acknowledgment);
+            }
+        }
+        
+        private synchronized Long complete(long offset, boolean acknowledge) {
+            if (revoked || !done.containsKey(offset)) {
+                return null;
+            }
+            done.put(offset, Boolean.TRUE);
+            
+            // Retire le préfixe terminé: son dernier offset est le nouveau point de validation
+            Long committed = null;
+            Acknowledgment acknowledgment = null;
+            while (!done.isEmpty() && done.firstEntry().getValue()) {
+                committed = done.pollFirstEntry().getKey();
+                acknowledgment = acknowledgments.remove(committed);
+            }
+            
+            // Acquitter le dernier message du préfixe valide aussi tous ceux qui le précèdent
+            if (acknowledge && acknowledgment != null) {
+                acknowledgment.acknowledge();
+            }
+            return committed != null ? committed + 1 : null;
+        }
+        
+        /**
+         * Offset à valider si la tâche était terminée, sans la marquer
+         */
+        private synchronized Long commitOffsetWith(long offset) {
+            if (revoked || !done.containsKey(offset)) {
+                return null;
+            }
+            Long committed = null;
+            for (Map.Entry<Long, Boolean> entry : done.entrySet()) {
+                if (!entry.getValue() && entry.getKey() != offset) {
+                    break;
+                }
+                committed = entry.getKey();
+            }
+            return committed != null ? committed + 1 : null;
+        }
+        
+        /**
+         * Demande la relecture d'un offset abandonné, qui reste non terminé et bloque la validation
+         * jusqu'à sa relivraison
+         *
+         * @return l'offset depuis lequel relire, null si la partition a été retirée
+         */
+        private synchronized Long rewind(long offset) {
+            if (revoked) {
+                return null;
+            }
+            rewindOffset = rewindOffset != null ? Math.min(rewindOffset, offset) : offset;
+            return rewindOffset;
+        }
+        
+        private synchronized int revoke() {
+            revoked = true;
+            int pending = done.size();
+            done.clear();
+            acknowledgments.clear();
+            return pending;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.transport.PriorityLane;
+import com.maroctelecom.common.transport.WeightedLaneExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Exécution des tâches reçues de Kafka selon leur voie de priorité
+ * Le consumer continue de lire les trois topics; les tâches reçues attendent ici un thread libre,
+ * attribué par tirage pondéré entre les voies non vides. En mode mono-JVM ce rôle revient au transport en mémoire
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.transport.mode", havingValue = "kafka", matchIfMissing = true)
+public class LaneTaskExecutor implements DisposableBean {
+    
+    private final KafkaConfig kafkaConfig;
+    private final WeightedLaneExecutor executor;
+    
+    public LaneTaskExecutor(KafkaConfig kafkaConfig,
+                            @Value("${processing.lanes.worker-threads:0}") int workerThreads,
+                            @Value("${processing.lanes.queue-capacity:10000}") int queueCapacity) {
+        this.kafkaConfig = kafkaConfig;
+        
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        Map<PriorityLane, Integer> weights = new EnumMap<>(PriorityLane.class);
+        for (PriorityLane lane : PriorityLane.values()) {
+            weights.put(lane, kafkaConfig.laneWeight(lane));
+        }
+        this.executor = new WeightedLaneExecutor("task-lane-", threads, queueCapacity, weights);
+        
+        log.info("Exécution par voies de priorité: {} threads, poids {}", threads, weights);
+    }
+    
+    /**
+     * Executor de la voie du topic par lequel la tâche a été reçue
+     */
+    public Executor forTopic(String topic) {
+        return executor.lane(kafkaConfig.laneOfTopic(topic));
+    }
+    
+    /**
+     * Tâches reçues en attente d'un thread, par voie
+     */
+    public int getQueuedTasks(PriorityLane lane) {
+        return executor.getQueuedTasks(lane);
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
+import com.maroctelecom.common.dto.WorkerAdvertisementDTO;
+import com.maroctelecom.worker.listener.PartitionTaskListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Annonce périodique des données détenues localement par ce worker
+ * Le task master route vers les partitions du topic des tâches assignées à ce worker
+ * les fichiers situés sous ces chemins, pour éviter leur lecture sur le stockage partagé
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "processing.affinity.enabled", havingValue = "true")
+public class LocalDataAdvertiser implements DisposableBean {
+    
+    @Qualifier(ProducerProfilesConfiguration.CONTROL_TEMPLATE)
+    private final KafkaTemplate<String, WorkerAdvertisementDTO> kafkaTemplate;
+    private final KafkaConfig kafkaConfig;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final PartitionTaskListener partitionTaskListener;
+    
+    @Value("${processing.affinity.local-paths:${files.temp-directory:/tmp/worker}}")
+    private List<String> localPaths;
+    
+    /**
+     * Publie l'annonce courante; l'intervalle doit rester inférieur à la durée de validité côté task master
+     */
+    @Scheduled(fixedDelayString = "${processing.affinity.advertise-interval-ms:15000}")
+    public void advertise() {
+        List<Integer> taskPartitions = assignedTaskPartitions();
+        List<String> availablePaths = availableLocalPaths();
+        
+        // Sans partition assignée ni donnée locale, aucun routage possible vers ce worker
+        if (taskPartitions.isEmpty() || availablePaths.isEmpty()) {
+            log.debug("Pas d'annonce: partitions {}, chemins locaux {}", taskPartitions, availablePaths);
+            return;
+        }
+        
+        WorkerAdvertisementDTO advertisement = WorkerAdvertisementDTO.builder()
+            .workerId(partitionTaskListener.generateWorkerId())
+            .taskPartitions(taskPartitions)
+            .localPaths(availablePaths)
+            .advertisedAt(LocalDateTime.now())
+            .build();
+        
+        kafkaTemplate.send(kafkaConfig.getTopics().getWorkerAdvertisements(), advertisement.getWorkerId(), advertisement)
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    log.warn("Échec de l'annonce du worker {}: {}", advertisement.getWorkerId(), throwable.getMessage());
+                } else {
+                    log.debug("Worker {} annoncé: partitions {}, chemins {}",
+                            advertisement.getWorkerId(), taskPartitions, availablePaths);
+                }
+            });
+    }
+    
+    /**
+     * Tombstone à l'arrêt: le task master cesse aussitôt de router vers ce worker
+     */
+    @Override
+    public void destroy() {
+        try {
+            kafkaTemplate.send(kafkaConfig.getTopics().getWorkerAdvertisements(),
+                    partitionTaskListener.generateWorkerId(), null).get();
+        } catch (Exception e) {
+            log.warn("Impossible de retirer l'annonce du worker: {}", e.getMessage());
+        }
+    }
+    
+    private List<Integer> assignedTaskPartitions() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(PartitionTaskListener.LISTENER_ID);
+        Collection<TopicPartition> assigned = container != null ? container.getAssignedPartitions() : null;
+        if (assigned == null) {
+            return List.of();
+        }
+        
+        String topic = kafkaConfig.getTopics().getContractPartitions();
+        return assigned.stream()
+            .filter(topicPartition -> topic.equals(topicPartition.topic()))
+            .map(TopicPartition::partition)
+            .sorted()
+            .toList();
+    }
+    
+    private List<String> availableLocalPaths() {
+        return localPaths.stream()
+            .filter(path -> !path.isBlank())
+            .map(path -> Paths.get(path.trim()).toAbsolutePath().normalize())
+            .filter(Files::exists)
+            .map(Path::toString)
+            .toList();
+    }
+}
\ No newline at end of file
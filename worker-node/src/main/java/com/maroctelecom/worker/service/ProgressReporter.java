@@ -0,0 +1,129 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskProgressDTO;
+import com.maroctelecom.worker.processor.PartitionAggregates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service de publication de la progression des partitions en cours
+ * Émet un rapport toutes les N lignes ou toutes les T millisecondes sur le topic de monitoring
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProgressReporter {
+    
+    @Qualifier(ProducerProfilesConfiguration.CONTROL_TEMPLATE)
+    private final KafkaTemplate<String, TaskProgressDTO> kafkaTemplate;
+    private final KafkaConfig kafkaConfig;
+    
+    @Value("${processing.progress.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${processing.progress.every-rows:5000}")
+    private long everyRows;
+    
+    @Value("${processing.progress.interval-ms:10000}")
+    private long intervalMs;
+    
+    /**
+     * Démarre le suivi de progression d'une partition
+     */
+    public Tracker start(PartitionTaskDTO partitionTask, String workerId) {
+        return new Tracker(partitionTask, workerId);
+    }
+    
+    /**
+     * Publie un rapport de progression vers Kafka (best effort, sans bloquer le traitement)
+     */
+    private void publish(TaskProgressDTO progress) {
+        String topic = kafkaConfig.getTopics().getMonitoring();
+        
+        try {
+            kafkaTemplate.send(topic, progress.getTaskId(), progress)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.warn("Échec de l'envoi de la progression de la tâche {}: {}",
+                                progress.getTaskId(), throwable.getMessage());
+                    }
+                });
+            
+            log.debug("Progression de la tâche {} publiée: {} lignes ({}%)",
+                    progress.getTaskId(), progress.getLinesProcessed(),
+                    String.format("%.1f", progress.getCompletionPercentage()));
+        } catch (Exception e) {
+            log.warn("Impossible de publier la progression de la tâche {}: {}",
+                    progress.getTaskId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Suivi de progression d'une partition, utilisé uniquement par le thread de traitement
+     */
+    public class Tracker {
+        private final PartitionTaskDTO partitionTask;
+        private final String workerId;
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        private long lastReportNanos = startNanos;
+        private long rowsSinceReport;
+        private long sequence;
+        
+        private Tracker(PartitionTaskDTO partitionTask, String workerId) {
+            this.partitionTask = partitionTask;
+            this.workerId = workerId;
+        }
+        
+        /**
+         * Appelé après chaque ligne, publie un rapport si un seuil est atteint
+         */
+        public void onLineProcessed(PartitionAggregates aggregates, long currentLine) {
+            if (!enabled) {
+                return;
+            }
+            
+            rowsSinceReport++;
+            long now = System.nanoTime();
+            if (rowsSinceReport >= everyRows || now - lastReportNanos >= intervalNanos) {
+                report(aggregates, currentLine, now);
+            }
+        }
+        
+        private void report(PartitionAggregates aggregates, long currentLine, long now) {
+            rowsSinceReport = 0;
+            lastReportNanos = now;
+            
+            publish(TaskProgressDTO.builder()
+                .taskId(partitionTask.getTaskId())
+                .jobExecutionId(partitionTask.getJobExecutionId())
+                .partitionId(partitionTask.getPartitionId())
+                .workerId(workerId)
+                .sequence(++sequence)
+                .expectedLines(partitionTask.getPartitionSize())
+                .lastProcessedLine(currentLine)
+                .linesProcessed(aggregates.getTotalLinesProcessed())
+                .successfulContracts(aggregates.getSuccessfulContracts())
+                .failedContracts(aggregates.getFailedContracts())
+                .skippedContracts(aggregates.getSkippedContracts())
+                .totalAmount(aggregates.getTotalAmount().doubleValue())
+                .uniqueClientsCount(aggregates.getUniqueClientsCount())
+                .contractTypeStats(aggregates.snapshotContractTypeStats())
+                .startTime(startTime)
+                .reportedAt(LocalDateTime.now())
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(now - startNanos))
+                .build());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,365 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Écriture des lignes rejetées dans le répertoire d'erreurs, en fichiers gzip par partition
+ * Chaque fichier reprend l'en-tête du fichier d'entrée suivi des lignes rejetées: il peut être corrigé puis
+ * resoumis tel quel. Les motifs sont écrits dans un fichier compagnon (.reasons.csv.gz), une ligne par erreur.
+ * Le thread de traitement remplit un tampon transmis aux threads d'écriture dès qu'il est plein; au plus
+ * queue-buffers tampons attendent par partition, la mémoire reste donc bornée quelle que soit la proportion de rejets
+ */
+@Slf4j
+@Service
+public class RejectedRowWriter implements DisposableBean {
+    
+    private static final String ROWS_SUFFIX = ".csv.gz";
+    private static final String REASONS_SUFFIX = ".reasons.csv.gz";
+    private static final String[] REASON_HEADERS = {"lineNumber", "errorType", "errorCode", "fieldName", "message"};
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxRowsPerFile;
+    private final int bufferChars;
+    private final int queueBuffers;
+    private final long finishTimeoutMs;
+    private final ExecutorService writers;
+    
+    public RejectedRowWriter(@Value("${processing.rejects.enabled:false}") boolean enabled,
+                             @Value("${processing.rejects.directory:${batch.files.error-directory:/tmp/batch/error}}") String directory,
+                             @Value("${processing.rejects.max-rows-per-file:100000}") long maxRowsPerFile,
+                             @Value("${processing.rejects.buffer-chars:65536}") int bufferChars,
+                             @Value("${processing.rejects.queue-buffers:4}") int queueBuffers,
+                             @Value("${processing.rejects.writer-threads:2}") int writerThreads,
+                             @Value("${processing.rejects.finish-timeout-ms:60000}") long finishTimeoutMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxRowsPerFile = Math.max(1, maxRowsPerFile);
+        this.bufferChars = Math.max(1024, bufferChars);
+        this.queueBuffers = Math.max(1, queueBuffers);
+        this.finishTimeoutMs = finishTimeoutMs;
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = enabled ? Executors.newFixedThreadPool(Math.max(1, writerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "reject-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        
+        if (enabled) {
+            log.info("Lignes rejetées écrites dans {}: {} lignes par fichier", directory, this.maxRowsPerFile);
+        }
+    }
+    
+    /**
+     * Vrai si les rejets sont écrits: comme les sorties, ils sont validés par partition
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Ouvre la collecte des rejets d'une partition, dont le traitement commence à firstLine
+     * Aucun fichier n'est créé tant qu'aucune ligne n'est rejetée
+     */
+    public Session start(PartitionTaskDTO partitionTask, long firstLine) {
+        return new Session(partitionTask, firstLine);
+    }
+    
+    @Override
+    public void destroy() {
+        if (writers != null) {
+            writers.shutdown();
+        }
+    }
+    
+    /**
+     * Ajoute une ligne au format CSV, les champs contenant un séparateur, un guillemet ou un saut de ligne étant protégés
+     */
+    static void appendCsv(StringBuilder out, String... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            String field = fields[i];
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                out.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(field);
+            }
+        }
+        out.append('\n');
+    }
+    
+    /**
+     * Rejets d'une partition, alimentés uniquement par le thread de traitement
+     * Les écritures sont chaînées et exécutées dans l'ordre par les threads d'écriture; les fichiers sont écrits
+     * sous un nom temporaire puis renommés par finish() d'après la plage de lignes traitée
+     * (rejects-part-{partition}-{première ligne}-{dernière ligne}-{n}), close() supprimant ceux d'une partition abandonnée
+     */
+    public class Session implements AutoCloseable {
+        private final PartitionTaskDTO partitionTask;
+        private final long firstLine;
+        private final String temporaryPrefix;
+        private final String temporarySuffix;
+        private final Semaphore pendingBuffers = new Semaphore(queueBuffers);
+        private final long startNanos = System.nanoTime();
+        
+        private StringBuilder rows = new StringBuilder();
+        private StringBuilder reasons = new StringBuilder();
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private long fileRows;
+        private long rejectedRows;
+        private int segments;
+        private boolean closed;
+        
+        // État des threads d'écriture, visible d'une étape chaînée à la suivante (noms sans le préfixe de plage)
+        private final List<String> segmentFiles = new ArrayList<>();
+        private Writer rowsOut;
+        private Writer reasonsOut;
+        
+        private Session(PartitionTaskDTO partitionTask, long firstLine) {
+            this.partitionTask = partitionTask;
+            this.firstLine = firstLine;
+            this.temporaryPrefix = String.format("rejects-part-%05d-%d-", partitionTask.getPartitionId(), firstLine);
+            this.temporarySuffix = "." + partitionTask.getAttempt() + "-" + Thread.currentThread().getId() + ".tmp";
+        }
+        
+        /**
+         * Ajoute une ligne rejetée et ses motifs; les erreurs d'écriture sont remontées par finish()
+         *
+         * @param headers En-tête du fichier d'entrée, repris en tête de chaque fichier de rejets
+         */
+        public void reject(String[] headers, String[] fields, long lineNumber, List<ErrorInfo> errors) {
+            if (!enabled) {
+                return;
+            }
+            if (fileRows == 0) {
+                // Nouveau fichier: le tampon courant appartient au fichier précédent
+                if (segments > 0) {
+                    submit();
+                    tail = tail.thenRunAsync(this::closeSegment, writers);
+                }
+                int segment = segments++;
+                String[] header = headers.clone();
+                tail = tail.thenRunAsync(() -> openSegment(segment, header), writers);
+            }
+            
+            appendCsv(rows, fields);
+            String line = String.valueOf(lineNumber);
+            for (ErrorInfo error : errors) {
+                appendCsv(reasons, line,
+                        error.getErrorType() != null ? error.getErrorType().name() : ErrorInfo.ErrorType.UNKNOWN_ERROR.name(),
+                        error.getErrorCode(), error.getFieldName(), error.getMessage());
+            }
+            
+            rejectedRows++;
+            if (++fileRows >= maxRowsPerFile) {
+                fileRows = 0;
+            }
+            if (rows.length() + reasons.length() >= bufferChars) {
+                submit();
+            }
+        }
+        
+        /**
+         * Écrit les derniers rejets, ferme et renomme les fichiers de la partition
+         * Les fichiers d'une livraison précédente de la même plage sont remplacés; ceux d'une autre plage
+         * (tentative partielle, reste replanifié) sont conservés
+         *
+         * @param lastLine Dernière ligne traitée
+         * @throws RuntimeException si une écriture a échoué
+         */
+        public void finish(long lastLine) {
+            if (!enabled || closed) {
+                return;
+            }
+            if (segments > 0) {
+                submit();
+                tail = tail.thenRunAsync(this::closeSegment, writers);
+            }
+            
+            try {
+                String prefix = String.format("rejects-part-%05d-%d-%d-", partitionTask.getPartitionId(), firstLine, lastLine);
+                tail.thenRunAsync(() -> publish(prefix), writers).get(finishTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException("Échec de l'écriture des lignes rejetées de la tâche " + partitionTask.getTaskId(), e);
+            }
+            closed = true;
+            
+            if (rejectedRows > 0) {
+                log.info("Tâche {}: {} lignes rejetées écrites en {} fichiers dans {} en {}ms", partitionTask.getTaskId(),
+                        rejectedRows, segments, jobDirectory(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+        
+        public long getRejectedRows() {
+            return rejectedRows;
+        }
+        
+        /**
+         * Abandon sans validation: attend les écritures en cours puis supprime les fichiers temporaires
+         */
+        @Override
+        public void close() {
+            if (!enabled || closed) {
+                return;
+            }
+            closed = true;
+            
+            try {
+                tail.handle((result, error) -> null).get(finishTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("Abandon des lignes rejetées de la tâche {} incomplet: {}", partitionTask.getTaskId(), e.getMessage());
+                return;
+            }
+            closeQuietly(rowsOut);
+            closeQuietly(reasonsOut);
+            for (String file : segmentFiles) {
+                try {
+                    Files.deleteIfExists(temporary(file));
+                } catch (IOException e) {
+                    log.debug("Suppression de {} impossible: {}", file, e.getMessage());
+                }
+            }
+        }
+        
+        /**
+         * Transmet le tampon courant aux threads d'écriture, en attendant si trop de tampons sont en attente
+         */
+        private void submit() {
+            if (rows.isEmpty() && reasons.isEmpty()) {
+                return;
+            }
+            String rowsChunk = rows.toString();
+            String reasonsChunk = reasons.toString();
+            rows = new StringBuilder(bufferChars);
+            reasons = new StringBuilder();
+            
+            pendingBuffers.acquireUninterruptibly();
+            tail = tail.thenRunAsync(() -> write(rowsChunk, reasonsChunk), writers)
+                .whenComplete((result, error) -> pendingBuffers.release());
+        }
+        
+        private Path jobDirectory() {
+            return directory.resolve("job-" + partitionTask.getJobExecutionId());
+        }
+        
+        private Path temporary(String file) {
+            return jobDirectory().resolve(temporaryPrefix + file + temporarySuffix);
+        }
+        
+        private void openSegment(int segment, String[] headers) {
+            String name = String.format("%03d", segment);
+            String rowsFile = name + ROWS_SUFFIX;
+            String reasonsFile = name + REASONS_SUFFIX;
+            try {
+                Files.createDirectories(jobDirectory());
+                segmentFiles.add(rowsFile);
+                rowsOut = gzipWriter(temporary(rowsFile));
+                segmentFiles.add(reasonsFile);
+                reasonsOut = gzipWriter(temporary(reasonsFile));
+                
+                StringBuilder header = new StringBuilder();
+                appendCsv(header, headers);
+                rowsOut.write(header.toString());
+                header.setLength(0);
+                appendCsv(header, REASON_HEADERS);
+                reasonsOut.write(header.toString());
+            } catch (IOException e) {
+                throw new RuntimeException("Impossible de créer le fichier de rejets " + temporary(rowsFile), e);
+            }
+        }
+        
+        private void write(String rowsChunk, String reasonsChunk) {
+            try {
+                rowsOut.write(rowsChunk);
+                reasonsOut.write(reasonsChunk);
+            } catch (IOException e) {
+                throw new RuntimeException("Échec de l'écriture des lignes rejetées", e);
+            }
+        }
+        
+        private void closeSegment() {
+            try {
+                rowsOut.close();
+                reasonsOut.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Échec de la fermeture du fichier de rejets", e);
+            }
+        }
+        
+        /**
+         * Renomme les fichiers écrits et supprime ceux d'une livraison précédente de la même plage qui ne sont pas remplacés
+         */
+        private void publish(String prefix) {
+            Set<Path> published = new HashSet<>();
+            segmentFiles.forEach(file -> published.add(jobDirectory().resolve(prefix + file)));
+            try {
+                if (Files.isDirectory(jobDirectory())) {
+                    try (DirectoryStream<Path> previous = Files.newDirectoryStream(jobDirectory(), prefix + "*.gz")) {
+                        for (Path file : previous) {
+                            if (!published.contains(file)) {
+                                Files.deleteIfExists(file);
+                            }
+                        }
+                    }
+                }
+                for (String file : segmentFiles) {
+                    Files.move(temporary(file), jobDirectory().resolve(prefix + file),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Échec de la publication des fichiers de rejets", e);
+            }
+        }
+        
+        private Writer gzipWriter(Path file) throws IOException {
+            return new OutputStreamWriter(new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), STREAM_BUFFER_SIZE), STREAM_BUFFER_SIZE),
+                StandardCharsets.UTF_8);
+        }
+        
+        private void closeQuietly(Writer writer) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.debug("Fermeture du fichier de rejets: {}", e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
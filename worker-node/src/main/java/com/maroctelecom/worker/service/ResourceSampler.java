@@ -0,0 +1,135 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.dto.TaskResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mesure des ressources consommées par une partition
+ * Temps CPU et octets alloués du thread de traitement (com.sun.management.ThreadMXBean),
+ * pic de heap échantillonné pendant la lecture. Le heap est celui de la JVM, partagé avec les
+ * tâches concurrentes: c'est un ordre de grandeur, le CPU et les allocations sont propres à la tâche
+ */
+@Slf4j
+@Service
+public class ResourceSampler {
+    
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+    
+    @Value("${processing.resources.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${processing.resources.heap-sample-rows:1000}")
+    private long heapSampleRows;
+    
+    public ResourceSampler() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threadBean = bean instanceof com.sun.management.ThreadMXBean sunBean ? sunBean : null;
+        
+        boolean cpu = threadBean != null && threadBean.isCurrentThreadCpuTimeSupported();
+        if (cpu && !threadBean.isThreadCpuTimeEnabled()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        boolean allocation = threadBean != null && threadBean.isThreadAllocatedMemorySupported();
+        if (allocation && !threadBean.isThreadAllocatedMemoryEnabled()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        this.cpuTimeSupported = cpu;
+        this.allocationSupported = allocation;
+        
+        if (!cpu || !allocation) {
+            log.warn("Mesure par thread partielle sur cette JVM: CPU {}, allocations {}",
+                    cpu ? "disponible" : "indisponible", allocation ? "disponibles" : "indisponibles");
+        }
+    }
+    
+    /**
+     * Démarre la mesure sur le thread courant, qui doit être celui du traitement
+     */
+    public Session start() {
+        return new Session();
+    }
+    
+    /**
+     * Mesure d'une partition, utilisée uniquement par le thread de traitement
+     */
+    public class Session {
+        private final long startNanos = System.nanoTime();
+        private final long startCpuNanos = cpuTime();
+        private final long startAllocatedBytes = allocatedBytes();
+        private long maxHeapUsedBytes = heapUsed();
+        private long rowsSinceSample;
+        
+        private Session() {
+        }
+        
+        /**
+         * Échantillonne le heap toutes les heap-sample-rows lignes
+         */
+        public void onLineProcessed() {
+            if (enabled && ++rowsSinceSample >= heapSampleRows) {
+                rowsSinceSample = 0;
+                maxHeapUsedBytes = Math.max(maxHeapUsedBytes, heapUsed());
+            }
+        }
+        
+        /**
+         * Reporte les mesures dans le résultat: maxMemoryUsageMB, avgCpuUsage (en % d'un cœur)
+         * et les métriques dérivées par ligne dans customMetrics
+         */
+        public void applyTo(TaskResultDTO.TaskResultDTOBuilder resultBuilder, long linesProcessed) {
+            if (!enabled) {
+                return;
+            }
+            
+            maxHeapUsedBytes = Math.max(maxHeapUsedBytes, heapUsed());
+            long wallNanos = Math.max(1, System.nanoTime() - startNanos);
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            
+            resultBuilder.maxMemoryUsageMB(maxHeapUsedBytes / BYTES_PER_MB);
+            metrics.put("wallTimeMs", wallNanos / 1_000_000);
+            
+            if (cpuTimeSupported && startCpuNanos >= 0) {
+                long cpuNanos = cpuTime() - startCpuNanos;
+                resultBuilder.avgCpuUsage(Math.round(cpuNanos * 10000.0 / wallNanos) / 100.0);
+                metrics.put("cpuTimeMs", cpuNanos / 1_000_000);
+                if (linesProcessed > 0) {
+                    metrics.put("cpuMicrosPerRow", Math.round(cpuNanos / 10.0 / linesProcessed) / 100.0);
+                }
+            }
+            
+            if (allocationSupported && startAllocatedBytes >= 0) {
+                long allocated = allocatedBytes() - startAllocatedBytes;
+                metrics.put("allocatedBytes", allocated);
+                if (linesProcessed > 0) {
+                    metrics.put("allocatedBytesPerRow", allocated / linesProcessed);
+                }
+            }
+            
+            resultBuilder.customMetrics(metrics);
+        }
+        
+        private long cpuTime() {
+            return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : -1;
+        }
+        
+        private long allocatedBytes() {
+            return allocationSupported ? threadBean.getCurrentThreadAllocatedBytes() : -1;
+        }
+    }
+    
+    private long heapUsed() {
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+}
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.maroctelecom.worker.service;
 
 import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.config.ProducerProfilesConfiguration;
 import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import com.maroctelecom.common.transport.TaskResultTransport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
@@ -12,13 +17,15 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Service d'envoi des résultats de traitement vers Kafka
- * Gère l'envoi asynchrone des résultats vers le task master
+ * Gère l'envoi asynchrone des résultats vers le task master (transport par défaut)
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ResultSender {
+@ConditionalOnProperty(name = "app.transport.mode", havingValue = "kafka", matchIfMissing = true)
+public class ResultSender implements TaskResultTransport {
     
+    @Qualifier(ProducerProfilesConfiguration.BULK_TEMPLATE)
     private final KafkaTemplate<String, TaskResultDTO> kafkaTemplate;
     private final KafkaConfig kafkaConfig;
     
@@ -28,6 +35,7 @@ public class ResultSender {
      * @param taskResult Le résultat à envoyer
      * @return CompletableFuture pour le suivi asynchrone
      */
+    @Override
     public CompletableFuture<SendResult<String, TaskResultDTO>> sendResult(TaskResultDTO taskResult) {
         String topic = kafkaConfig.getTopics().getContractResults();
         String key = generateResultKey(taskResult);
@@ -35,11 +43,23 @@ public class ResultSender {
         log.debug("Envoi du résultat de la tâche {} vers le topic {} avec la clé {}", 
                 taskResult.getTaskId(), topic, key);
         
+        PartitionEvents.ResultSent sent = new PartitionEvents.ResultSent();
+        sent.begin();
+        
         CompletableFuture<SendResult<String, TaskResultDTO>> future = 
             kafkaTemplate.send(topic, key, taskResult);
             
         // Ajout de callbacks pour le logging
         future.whenComplete((result, throwable) -> {
+            sent.end();
+            if (sent.shouldCommit()) {
+                sent.task(taskResult);
+                sent.status = String.valueOf(taskResult.getStatus());
+                sent.linesProcessed = taskResult.getTotalLinesProcessed() != null ? taskResult.getTotalLinesProcessed() : 0L;
+                sent.success = throwable == null;
+                sent.commit();
+            }
+            
             if (throwable != null) {
                 log.error("Échec de l'envoi du résultat de la tâche {} vers Kafka: {}", 
                         taskResult.getTaskId(), throwable.getMessage());
@@ -0,0 +1,222 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.worker.validator.ContractValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers et compteurs des étapes du traitement d'une partition, exposés via Prometheus
+ * Les étapes par tâche (ouverture, positionnement) et l'envoi du résultat (batch.worker.result.send) sont toujours mesurés;
+ * les étapes par ligne (lecture, parsing, validation par groupe de règles, agrégation) ne le sont
+ * qu'une ligne sur sample-every-rows. Les métriques sont étiquetées par job et par worker;
+ * seuls les max-tagged-jobs derniers jobs restent dans le registre
+ */
+@Slf4j
+@Service
+public class StageMetrics {
+    
+    /**
+     * Étapes mesurées du chemin critique du worker
+     */
+    public enum Stage {
+        OPEN, SEEK, READ, PARSE, VALIDATE, AGGREGATE;
+        
+        private final String tag = name().toLowerCase();
+    }
+    
+    private final MeterRegistry meterRegistry;
+    
+    // Meters enregistrés par job, du moins au plus récemment utilisé
+    private final LinkedHashMap<Long, List<Meter>> metersByJob = new LinkedHashMap<>(16, 0.75f, true);
+    
+    @Value("${metrics.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${metrics.custom.sample-every-rows:64}")
+    private int sampleEveryRows;
+    
+    @Value("${metrics.custom.histograms:true}")
+    private boolean histograms;
+    
+    @Value("${metrics.custom.max-tagged-jobs:20}")
+    private int maxTaggedJobs;
+    
+    @Value("${metrics.custom.track-throughput:true}")
+    private boolean trackThroughput;
+    
+    @Value("${metrics.custom.track-memory:true}")
+    private boolean trackMemory;
+    
+    @Value("${metrics.custom.track-errors-by-type:true}")
+    private boolean trackErrorsByType;
+    
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Démarre la mesure d'une partition, sur le thread de traitement
+     */
+    public Session start(PartitionTaskDTO partitionTask, String workerId) {
+        return new Session(partitionTask.getJobExecutionId(), workerId);
+    }
+    
+    /**
+     * Mesure l'envoi d'un résultat, de la soumission à la confirmation, étiqueté par issue
+     */
+    public void recordSend(TaskResultDTO taskResult, long startNanos, boolean success) {
+        if (!enabled) {
+            return;
+        }
+        Tags tags = jobTags(taskResult.getJobExecutionId(), taskResult.getWorkerId())
+            .and("outcome", success ? "success" : "failure");
+        timer("batch.worker.result.send", tags, taskResult.getJobExecutionId())
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Tags jobTags(Long jobExecutionId, String workerId) {
+        return Tags.of("job", String.valueOf(jobExecutionId), "worker", String.valueOf(workerId));
+    }
+    
+    private Timer timer(String name, Tags tags, Long jobExecutionId) {
+        Timer.Builder builder = Timer.builder(name).tags(tags);
+        if (histograms) {
+            builder.publishPercentileHistogram();
+        }
+        return track(jobExecutionId, builder.register(meterRegistry));
+    }
+    
+    private Counter counter(String name, Tags tags, Long jobExecutionId) {
+        return track(jobExecutionId, Counter.builder(name).tags(tags).register(meterRegistry));
+    }
+    
+    private DistributionSummary summary(String name, Tags tags, Long jobExecutionId) {
+        return track(jobExecutionId, DistributionSummary.builder(name).baseUnit("bytes").tags(tags)
+            .register(meterRegistry));
+    }
+    
+    /**
+     * Retient le meter sous son job; au-delà de max-tagged-jobs les meters du job le plus ancien sont retirés
+     */
+    private synchronized <M extends Meter> M track(Long jobExecutionId, M meter) {
+        List<Meter> meters = metersByJob.computeIfAbsent(jobExecutionId, id -> new ArrayList<>());
+        if (!meters.contains(meter)) {
+            meters.add(meter);
+        }
+        
+        Iterator<Map.Entry<Long, List<Meter>>> eldest = metersByJob.entrySet().iterator();
+        while (metersByJob.size() > maxTaggedJobs && eldest.hasNext()) {
+            Map.Entry<Long, List<Meter>> entry = eldest.next();
+            entry.getValue().forEach(meterRegistry::remove);
+            eldest.remove();
+            log.debug("Métriques du job {} retirées du registre", entry.getKey());
+        }
+        return meter;
+    }
+    
+    /**
+     * Mesure d'une partition, utilisée uniquement par le thread de traitement
+     * Les timers sont résolus une fois au démarrage: une mesure échantillonnée ne coûte
+     * que deux lectures d'horloge et un enregistrement
+     */
+    public class Session implements ContractValidator.RuleTimer {
+        private final Long jobExecutionId;
+        private final Tags tags;
+        private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+        private final Map<String, Timer> ruleTimers = new HashMap<>();
+        private int rowsUntilSample;
+        
+        private Session(Long jobExecutionId, String workerId) {
+            this.jobExecutionId = jobExecutionId;
+            this.tags = jobTags(jobExecutionId, workerId);
+            if (enabled) {
+                for (Stage stage : Stage.values()) {
+                    stageTimers.put(stage, timer("batch.worker.stage", tags.and("stage", stage.tag), jobExecutionId));
+                }
+            }
+        }
+        
+        /**
+         * Indique si la ligne suivante doit être mesurée
+         */
+        public boolean sampleRow() {
+            if (!enabled) {
+                return false;
+            }
+            if (--rowsUntilSample > 0) {
+                return false;
+            }
+            rowsUntilSample = sampleEveryRows;
+            return true;
+        }
+        
+        /**
+         * Enregistre une étape commencée à startNanos et retourne l'instant de fin,
+         * début de l'étape suivante
+         */
+        public long record(Stage stage, long startNanos) {
+            long now = System.nanoTime();
+            Timer stageTimer = stageTimers.get(stage);
+            if (stageTimer != null) {
+                stageTimer.record(now - startNanos, TimeUnit.NANOSECONDS);
+            }
+            return now;
+        }
+        
+        /**
+         * Durée d'un groupe de règles de validation, sur une ligne échantillonnée
+         */
+        @Override
+        public void record(String rule, long nanos) {
+            ruleTimers.computeIfAbsent(rule, name ->
+                    timer("batch.worker.validation.rule", tags.and("rule", name), jobExecutionId))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        }
+        
+        /**
+         * Compteurs de la partition terminée: lignes par issue, erreurs par type, octets alloués
+         */
+        public void finish(TaskResultDTO result) {
+            if (!enabled) {
+                return;
+            }
+            
+            if (trackThroughput) {
+                counter("batch.worker.rows", tags.and("outcome", "success"), jobExecutionId)
+                    .increment(result.getSuccessfulContracts());
+                counter("batch.worker.rows", tags.and("outcome", "failed"), jobExecutionId)
+                    .increment(result.getFailedContracts());
+                counter("batch.worker.rows", tags.and("outcome", "skipped"), jobExecutionId)
+                    .increment(result.getSkippedContracts());
+            }
+            
+            if (trackErrorsByType && result.getErrorCountsByType() != null) {
+                result.getErrorCountsByType().forEach((type, count) ->
+                    counter("batch.worker.errors", tags.and("type", type), jobExecutionId).increment(count));
+            }
+            
+            if (trackMemory && result.getCustomMetrics() != null
+                    && result.getCustomMetrics().get("allocatedBytes") instanceof Number allocated) {
+                summary("batch.worker.task.allocated", tags, jobExecutionId).record(allocated.doubleValue());
+            }
+        }
+    }
+}
\ No newline at end of file
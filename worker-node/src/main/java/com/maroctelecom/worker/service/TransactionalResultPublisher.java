@@ -0,0 +1,95 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.jfr.PartitionEvents;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Publication exactly-once des résultats
+ * Le résultat et l'offset de la tâche consommée sont validés dans une même transaction Kafka,
+ * lue par le task master en isolation read_committed
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.kafka.producer.transactional", havingValue = "true")
+public class TransactionalResultPublisher implements DisposableBean {
+    
+    private final KafkaConfig kafkaConfig;
+    private final DefaultKafkaProducerFactory<String, TaskResultDTO> producerFactory;
+    private final KafkaTemplate<String, TaskResultDTO> kafkaTemplate;
+    
+    public TransactionalResultPublisher(KafkaConfig kafkaConfig,
+                                        @Value("${HOSTNAME:localhost}") String hostname,
+                                        @Value("${server.port:8081}") String port) {
+        this.kafkaConfig = kafkaConfig;
+        
+        // Le préfixe doit être unique par instance pour éviter le fencing entre workers
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+                kafkaConfig.buildProducerProperties(KafkaConfig.TrafficClass.BULK));
+        this.producerFactory.setTransactionIdPrefix(
+                String.format("%s%s-%s-", kafkaConfig.getProducer().getTransactionalIdPrefix(), hostname, port));
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        
+        log.info("Publication transactionnelle des résultats activée (préfixe {})",
+                producerFactory.getTransactionIdPrefix());
+    }
+    
+    /**
+     * Publie le résultat et valide l'offset de la tâche consommée de manière atomique
+     *
+     * @param taskResult Le résultat à publier
+     * @param partition La partition Kafka d'où provient la tâche
+     * @param commitOffset L'offset à valider pour la partition, ou null si la validation
+     *                     attend des tâches reçues avant celle-ci
+     * @param groupMetadata Les métadonnées du groupe de consommateurs
+     * @throws RuntimeException si la transaction échoue (elle est alors annulée)
+     */
+    public void publish(TaskResultDTO taskResult, TopicPartition partition, Long commitOffset,
+                        ConsumerGroupMetadata groupMetadata) {
+        String topic = kafkaConfig.getTopics().getContractResults();
+        String key = String.format("result-%s", taskResult.getTaskId());
+        
+        PartitionEvents.ResultSent sent = new PartitionEvents.ResultSent();
+        sent.begin();
+        
+        try {
+            kafkaTemplate.executeInTransaction(operations -> {
+                operations.send(topic, key, taskResult);
+                if (commitOffset != null) {
+                    operations.sendOffsetsToTransaction(
+                            Map.of(partition, new OffsetAndMetadata(commitOffset)), groupMetadata);
+                }
+                return null;
+            });
+            sent.success = true;
+        } finally {
+            sent.end();
+            if (sent.shouldCommit()) {
+                sent.task(taskResult);
+                sent.status = String.valueOf(taskResult.getStatus());
+                sent.linesProcessed = taskResult.getTotalLinesProcessed() != null ? taskResult.getTotalLinesProcessed() : 0L;
+                sent.commit();
+            }
+        }
+        
+        log.info("Résultat de la tâche {} publié, offset validé de {}: {}",
+                taskResult.getTaskId(), partition, commitOffset != null ? commitOffset : "inchangé");
+    }
+    
+    @Override
+    public void destroy() {
+        producerFactory.destroy();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.maroctelecom.worker.sink;
+
+import com.maroctelecom.common.columnar.ColumnarContractWriter;
+import com.maroctelecom.common.columnar.ColumnarFile;
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.model.Contract;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture des contrats acceptés en fichiers colonnes compressés, un fichier par partition
+ * Le fichier est écrit en flux (un groupe de lignes en mémoire) sous un nom temporaire, puis renommé à la validation
+ * d'après les lignes traitées: job-{jobExecutionId}/part-{partition}-{première ligne}-{dernière ligne}.mtcol.
+ * Seule une relivraison de la même plage remplace un fichier (contenu identique); une partition interrompue, son reste
+ * ou une relivraison complète produisent des fichiers distincts, le manifeste ne retenant que ceux des résultats acceptés
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "processing.sink.columnar.enabled", havingValue = "true")
+public class ColumnarContractSink implements ContractSink {
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    private final Path directory;
+    private final int rowGroupRows;
+    private final int compressionLevel;
+    
+    public ColumnarContractSink(@Value("${processing.sink.columnar.directory:/tmp/batch/processed/columnar}") String directory,
+                                @Value("${processing.sink.columnar.row-group-rows:16384}") int rowGroupRows,
+                                @Value("${processing.sink.columnar.compression-level:6}") int compressionLevel) {
+        this.directory = Paths.get(directory);
+        this.rowGroupRows = rowGroupRows;
+        this.compressionLevel = compressionLevel;
+        log.info("Sortie colonne vers {}: {} lignes par groupe, compression {}", directory, rowGroupRows, compressionLevel);
+    }
+    
+    @Override
+    public Session open(PartitionTaskDTO partitionTask, long firstLine) {
+        Path jobDirectory = directory.resolve("job-" + partitionTask.getJobExecutionId());
+        // Nom temporaire propre à la tentative: deux livraisons concurrentes n'écrivent pas le même fichier
+        Path temporary = jobDirectory.resolve(String.format("part-%05d-%d%s.%d-%d.tmp", partitionTask.getPartitionId(),
+                firstLine, ColumnarFile.EXTENSION, partitionTask.getAttempt(), Thread.currentThread().getId()));
+        
+        try {
+            Files.createDirectories(jobDirectory);
+            ColumnarContractWriter writer = new ColumnarContractWriter(
+                new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), rowGroupRows, compressionLevel);
+            return new ColumnarSession(partitionTask, firstLine, temporary, writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible de créer le fichier " + temporary, e);
+        }
+    }
+    
+    private static final class ColumnarSession implements Session {
+        private final PartitionTaskDTO partitionTask;
+        private final long firstLine;
+        private final Path temporary;
+        private final ColumnarContractWriter writer;
+        private final long startNanos = System.nanoTime();
+        
+        private IOException failure;
+        private boolean closed;
+        
+        private ColumnarSession(PartitionTaskDTO partitionTask, long firstLine, Path temporary,
+                                ColumnarContractWriter writer) {
+            this.partitionTask = partitionTask;
+            this.firstLine = firstLine;
+            this.temporary = temporary;
+            this.writer = writer;
+        }
+        
+        @Override
+        public void accept(Contract contract, long lineNumber) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                writer.write(contract, lineNumber);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        
+        @Override
+        public OutputFileRefDTO commit(long lastLine) {
+            Path target = temporary.resolveSibling(String.format("part-%05d-%d-%d%s",
+                    partitionTask.getPartitionId(), firstLine, lastLine, ColumnarFile.EXTENSION));
+            long sizeBytes;
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                sizeBytes = writer.finish();
+                writer.close();
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new RuntimeException("Échec de l'écriture du fichier colonne de la tâche " + partitionTask.getTaskId(), e);
+            }
+            
+            closed = true;
+            log.info("Tâche {}: {} contrats écrits dans {} ({} octets) en {}ms", partitionTask.getTaskId(),
+                    writer.getRowCount(), target, sizeBytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return OutputFileRefDTO.builder()
+                .path(target.toAbsolutePath().toString())
+                .format(ColumnarFile.FORMAT)
+                .firstLine(firstLine)
+                .rowCount(writer.getRowCount())
+                .sizeBytes(sizeBytes)
+                .build();
+        }
+        
+        /**
+         * Abandon sans validation: le fichier temporaire est supprimé
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            
+            try {
+                writer.close();
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                log.warn("Suppression du fichier colonne abandonné {} impossible: {}", temporary, e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
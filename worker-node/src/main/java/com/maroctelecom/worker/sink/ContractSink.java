@@ -0,0 +1,42 @@
+package com.maroctelecom.worker.sink;
+
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.model.Contract;
+
+/**
+ * Sortie des contrats acceptés par les workers
+ * Chaque partition ouvre une session qui reçoit les contrats valides dans l'ordre des lignes;
+ * la session est validée avant la publication du résultat, ou abandonnée si le traitement échoue
+ */
+public interface ContractSink {
+    
+    /**
+     * Ouvre la session d'une partition, dont le traitement commence à firstLine
+     */
+    Session open(PartitionTaskDTO partitionTask, long firstLine);
+    
+    /**
+     * Session d'une partition, utilisée uniquement par le thread de traitement
+     * close() abandonne la session si elle n'a pas été validée
+     */
+    interface Session extends AutoCloseable {
+        
+        /**
+         * Ajoute un contrat accepté; les erreurs d'écriture sont remontées par commit()
+         */
+        void accept(Contract contract, long lineNumber);
+        
+        /**
+         * Rend durables les contrats de la partition
+         *
+         * @param lastLine Dernière ligne traitée par la session (fin de la partition, ou ligne d'interruption)
+         * @return Le fichier produit pour la partition, null si la sortie n'écrit pas de fichier
+         * @throws RuntimeException si l'écriture ou la validation a échoué
+         */
+        OutputFileRefDTO commit(long lastLine);
+        
+        @Override
+        void close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.maroctelecom.worker.sink;
+
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.model.Contract;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorties activées par la configuration (processing.sink.*), aucune par défaut
+ * Les sessions des différentes sorties d'une partition sont ouvertes, validées et fermées ensemble
+ */
+@Slf4j
+@Service
+public class ContractSinks {
+    
+    private static final ContractSink.Session NONE = new ContractSink.Session() {
+        @Override
+        public void accept(Contract contract, long lineNumber) {
+        }
+        
+        @Override
+        public OutputFileRefDTO commit(long lastLine) {
+            return null;
+        }
+        
+        @Override
+        public void close() {
+        }
+    };
+    
+    private final List<ContractSink> sinks;
+    
+    public ContractSinks(ObjectProvider<ContractSink> sinkProvider) {
+        this.sinks = sinkProvider.orderedStream().toList();
+        if (!sinks.isEmpty()) {
+            log.info("Sorties des contrats acceptés: {}", sinks.stream().map(sink -> sink.getClass().getSimpleName()).toList());
+        }
+    }
+    
+    /**
+     * Vrai si au moins une sortie est active: les sorties sont validées par partition,
+     * un checkpoint ne garantit donc pas que les lignes précédentes ont été écrites
+     */
+    public boolean isEnabled() {
+        return !sinks.isEmpty();
+    }
+    
+    public ContractSink.Session open(PartitionTaskDTO partitionTask, long firstLine) {
+        if (sinks.isEmpty()) {
+            return NONE;
+        }
+        if (sinks.size() == 1) {
+            return sinks.get(0).open(partitionTask, firstLine);
+        }
+        
+        List<ContractSink.Session> sessions = new ArrayList<>(sinks.size());
+        try {
+            for (ContractSink sink : sinks) {
+                sessions.add(sink.open(partitionTask, firstLine));
+            }
+        } catch (RuntimeException e) {
+            sessions.forEach(ContractSink.Session::close);
+            throw e;
+        }
+        return new CompositeSession(sessions);
+    }
+    
+    private record CompositeSession(List<ContractSink.Session> sessions) implements ContractSink.Session {
+        
+        @Override
+        public void accept(Contract contract, long lineNumber) {
+            for (ContractSink.Session session : sessions) {
+                session.accept(contract, lineNumber);
+            }
+        }
+        
+        @Override
+        public OutputFileRefDTO commit(long lastLine) {
+            // Au plus une sortie fichier: la première référence est retenue
+            OutputFileRefDTO outputFile = null;
+            for (ContractSink.Session session : sessions) {
+                OutputFileRefDTO committed = session.commit(lastLine);
+                if (outputFile == null) {
+                    outputFile = committed;
+                }
+            }
+            return outputFile;
+        }
+        
+        @Override
+        public void close() {
+            for (ContractSink.Session session : sessions) {
+                session.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,378 @@
+package com.maroctelecom.worker.sink;
+
+import com.maroctelecom.common.dto.OutputFileRefDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.model.Contract;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Écriture des contrats acceptés dans une base relationnelle
+ * Les contrats sont regroupés en lots insérés par des threads d'écriture dédiés, en INSERT multi-lignes
+ * exécutés en batch JDBC. Chaque partition écrit dans sa propre transaction, sur une connexion réservée
+ * de son ouverture à sa validation: ses lignes sont d'abord supprimées, une partition relivrée ou replanifiée
+ * remplace donc ses lignes au lieu de les dupliquer. Au plus queue-batches lots attendent par partition:
+ * au-delà, le thread de traitement attend la base. Ce temps d'attente est journalisé à la validation:
+ * nul tant que la base suit le débit de lecture, il mesure sinon le ralentissement dû à la sortie
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "processing.sink.jdbc.enabled", havingValue = "true")
+public class JdbcContractSink implements ContractSink, DisposableBean {
+    
+    private static final String[] COLUMNS = {
+        "job_execution_id", "partition_id", "line_number", "contract_id", "client_id", "client_name",
+        "contract_type", "amount", "creation_date", "activation_date", "expiration_date", "status",
+        "region", "city", "postal_code", "phone_number", "email", "duration_months",
+        "sales_channel", "sales_agent_id"
+    };
+    
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String table;
+    private final int rowsPerStatement;
+    private final int batchRows;
+    private final int queueBatches;
+    private final long commitTimeoutMs;
+    
+    private final String insertSql;
+    private final Semaphore connectionPermits;
+    private final ConcurrentLinkedQueue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+    private final ExecutorService writers;
+    
+    public JdbcContractSink(@Value("${processing.sink.jdbc.url:jdbc:h2:mem:contracts;DB_CLOSE_DELAY=-1}") String url,
+                            @Value("${processing.sink.jdbc.username:sa}") String username,
+                            @Value("${processing.sink.jdbc.password:}") String password,
+                            @Value("${processing.sink.jdbc.table:contracts}") String table,
+                            @Value("${processing.sink.jdbc.initialize-schema:true}") boolean initializeSchema,
+                            @Value("${processing.sink.jdbc.rows-per-statement:100}") int rowsPerStatement,
+                            @Value("${processing.sink.jdbc.batch-rows:1000}") int batchRows,
+                            @Value("${processing.sink.jdbc.queue-batches:4}") int queueBatches,
+                            @Value("${processing.sink.jdbc.max-connections:0}") int maxConnections,
+                            @Value("${processing.sink.jdbc.commit-timeout-ms:120000}") long commitTimeoutMs,
+                            @Value("${processing.lanes.worker-threads:0}") int workerThreads) {
+        if (!table.matches("[A-Za-z_][A-Za-z0-9_.]*")) {
+            throw new IllegalArgumentException("Nom de table invalide: " + table);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+        this.rowsPerStatement = Math.max(1, rowsPerStatement);
+        this.batchRows = Math.max(this.rowsPerStatement, batchRows);
+        this.queueBatches = Math.max(1, queueBatches);
+        this.commitTimeoutMs = commitTimeoutMs;
+        this.insertSql = insertSql(this.rowsPerStatement);
+        
+        // Une connexion par partition en cours: autant que de threads de traitement par défaut
+        int connections = maxConnections > 0 ? maxConnections
+            : workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        this.connectionPermits = new Semaphore(connections);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(connections, runnable -> {
+            Thread thread = new Thread(runnable, "contract-sink-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (initializeSchema) {
+            createTable();
+        }
+        log.info("Sortie JDBC vers {} (table {}): {} connexions, {} contrats par lot, {} lignes par INSERT",
+                url, table, connections, this.batchRows, this.rowsPerStatement);
+    }
+    
+    @Override
+    public Session open(PartitionTaskDTO partitionTask, long firstLine) {
+        return new JdbcSession(partitionTask, firstLine, acquireConnection());
+    }
+    
+    @Override
+    public void destroy() {
+        writers.shutdown();
+        Connection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+    
+    private void createTable() {
+        String ddl = "CREATE TABLE IF NOT EXISTS " + table + " ("
+            + "job_execution_id BIGINT NOT NULL, "
+            + "partition_id INTEGER NOT NULL, "
+            + "line_number BIGINT NOT NULL, "
+            + "contract_id VARCHAR(32), "
+            + "client_id VARCHAR(32), "
+            + "client_name VARCHAR(255), "
+            + "contract_type VARCHAR(16), "
+            + "amount DECIMAL(15, 2), "
+            + "creation_date DATE, "
+            + "activation_date DATE, "
+            + "expiration_date DATE, "
+            + "status VARCHAR(16), "
+            + "region VARCHAR(64), "
+            + "city VARCHAR(64), "
+            + "postal_code VARCHAR(16), "
+            + "phone_number VARCHAR(32), "
+            + "email VARCHAR(255), "
+            + "duration_months INTEGER, "
+            + "sales_channel VARCHAR(16), "
+            + "sales_agent_id VARCHAR(32), "
+            + "PRIMARY KEY (job_execution_id, line_number))";
+        
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute(ddl);
+        } catch (SQLException e) {
+            throw new RuntimeException("Impossible de créer la table " + table, e);
+        }
+    }
+    
+    private String insertSql(int rows) {
+        String values = "(" + String.join(", ", Collections.nCopies(COLUMNS.length, "?")) + ")";
+        return "INSERT INTO " + table + " (" + String.join(", ", COLUMNS) + ") VALUES "
+            + String.join(", ", Collections.nCopies(rows, values));
+    }
+    
+    /**
+     * Réserve une connexion, en attendant la fin d'une autre partition si toutes sont prises
+     */
+    private Connection acquireConnection() {
+        connectionPermits.acquireUninterruptibly();
+        try {
+            Connection connection = idleConnections.poll();
+            if (connection == null || !connection.isValid(1)) {
+                if (connection != null) {
+                    closeQuietly(connection);
+                }
+                connection = DriverManager.getConnection(url, username, password);
+            }
+            connection.setAutoCommit(false);
+            return connection;
+        } catch (SQLException e) {
+            connectionPermits.release();
+            throw new RuntimeException("Connexion impossible à " + url, e);
+        }
+    }
+    
+    private void releaseConnection(Connection connection, boolean reusable) {
+        if (reusable) {
+            idleConnections.offer(connection);
+        } else {
+            closeQuietly(connection);
+        }
+        connectionPermits.release();
+    }
+    
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+    
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.debug("Fermeture JDBC: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Transaction d'une partition: les lots sont chaînés et exécutés dans l'ordre, un à la fois,
+     * par les threads d'écriture
+     */
+    private class JdbcSession implements Session {
+        private final PartitionTaskDTO partitionTask;
+        private final Connection connection;
+        private final Semaphore pendingBatches = new Semaphore(queueBatches);
+        private final long startNanos = System.nanoTime();
+        
+        private List<Contract> contracts = new ArrayList<>(batchRows);
+        private long[] lineNumbers = new long[batchRows];
+        private CompletableFuture<Void> tail;
+        private PreparedStatement insert;
+        private long written;
+        // Temps passé par le thread de traitement à attendre une place dans la file d'écriture
+        private long waitNanos;
+        private boolean closed;
+        
+        private JdbcSession(PartitionTaskDTO partitionTask, long firstLine, Connection connection) {
+            this.partitionTask = partitionTask;
+            this.connection = connection;
+            this.tail = CompletableFuture.runAsync(() -> deleteRange(firstLine), writers);
+        }
+        
+        @Override
+        public void accept(Contract contract, long lineNumber) {
+            lineNumbers[contracts.size()] = lineNumber;
+            contracts.add(contract);
+            if (contracts.size() >= batchRows) {
+                submit();
+            }
+        }
+        
+        @Override
+        public OutputFileRefDTO commit(long lastLine) {
+            if (!contracts.isEmpty()) {
+                submit();
+            }
+            try {
+                tail.thenRunAsync(this::commitTransaction, writers).get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException("Échec de l'écriture des contrats de la tâche " + partitionTask.getTaskId(), e);
+            }
+            
+            closed = true;
+            releaseConnection(connection, true);
+            log.info("Tâche {}: {} contrats écrits dans {} en {}ms (traitement en attente de la base: {}ms)",
+                    partitionTask.getTaskId(), written, table, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            return null;
+        }
+        
+        /**
+         * Abandon sans validation: attend les écritures en cours puis annule la transaction
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            
+            boolean reusable = true;
+            try {
+                tail.handle((result, error) -> null).get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+                closeStatement();
+                connection.rollback();
+            } catch (Exception e) {
+                log.warn("Annulation de l'écriture des contrats de la tâche {} incomplète: {}",
+                        partitionTask.getTaskId(), e.getMessage());
+                reusable = false;
+            }
+            releaseConnection(connection, reusable);
+        }
+        
+        /**
+         * Transmet le lot courant aux threads d'écriture, en attendant si trop de lots sont en attente
+         */
+        private void submit() {
+            List<Contract> batch = contracts;
+            long[] lines = lineNumbers;
+            contracts = new ArrayList<>(batchRows);
+            lineNumbers = new long[batchRows];
+            
+            if (!pendingBatches.tryAcquire()) {
+                long waitStart = System.nanoTime();
+                pendingBatches.acquireUninterruptibly();
+                waitNanos += System.nanoTime() - waitStart;
+            }
+            tail = tail.thenRunAsync(() -> insert(batch, lines), writers)
+                .whenComplete((result, error) -> pendingBatches.release());
+        }
+        
+        private void deleteRange(long firstLine) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE job_execution_id = ? AND line_number BETWEEN ? AND ?")) {
+                delete.setLong(1, partitionTask.getJobExecutionId());
+                delete.setLong(2, firstLine);
+                delete.setLong(3, partitionTask.getEndLine());
+                delete.executeUpdate();
+            } catch (SQLException e) {
+                throw new RuntimeException("Échec de la suppression des lignes précédentes", e);
+            }
+        }
+        
+        private void insert(List<Contract> batch, long[] lines) {
+            try {
+                int full = batch.size() / rowsPerStatement;
+                if (full > 0) {
+                    if (insert == null) {
+                        insert = connection.prepareStatement(insertSql);
+                    }
+                    for (int statement = 0; statement < full; statement++) {
+                        bindRows(insert, batch, lines, statement * rowsPerStatement, rowsPerStatement);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                
+                int remaining = batch.size() - full * rowsPerStatement;
+                if (remaining > 0) {
+                    try (PreparedStatement last = connection.prepareStatement(insertSql(remaining))) {
+                        bindRows(last, batch, lines, full * rowsPerStatement, remaining);
+                        last.executeUpdate();
+                    }
+                }
+                written += batch.size();
+            } catch (SQLException e) {
+                throw new RuntimeException("Échec de l'insertion de " + batch.size() + " contrats", e);
+            }
+        }
+        
+        private void bindRows(PreparedStatement statement, List<Contract> batch, long[] lines,
+                              int from, int count) throws SQLException {
+            int index = 1;
+            for (int row = from; row < from + count; row++) {
+                Contract contract = batch.get(row);
+                statement.setLong(index++, partitionTask.getJobExecutionId());
+                statement.setInt(index++, partitionTask.getPartitionId());
+                statement.setLong(index++, lines[row]);
+                statement.setString(index++, contract.getContractId());
+                statement.setString(index++, contract.getClientId());
+                statement.setString(index++, contract.getClientName());
+                statement.setString(index++, name(contract.getContractType()));
+                statement.setBigDecimal(index++, contract.getAmount());
+                statement.setObject(index++, contract.getCreationDate(), Types.DATE);
+                statement.setObject(index++, contract.getActivationDate(), Types.DATE);
+                statement.setObject(index++, contract.getExpirationDate(), Types.DATE);
+                statement.setString(index++, name(contract.getStatus()));
+                statement.setString(index++, contract.getRegion());
+                statement.setString(index++, contract.getCity());
+                statement.setString(index++, contract.getPostalCode());
+                statement.setString(index++, contract.getPhoneNumber());
+                statement.setString(index++, contract.getEmail());
+                statement.setObject(index++, contract.getDurationMonths(), Types.INTEGER);
+                statement.setString(index++, name(contract.getSalesChannel()));
+                statement.setString(index++, contract.getSalesAgentId());
+            }
+        }
+        
+        private void commitTransaction() {
+            try {
+                closeStatement();
+                connection.commit();
+            } catch (SQLException e) {
+                throw new RuntimeException("Échec de la validation de la transaction", e);
+            }
+        }
+        
+        private void closeStatement() throws SQLException {
+            if (insert != null) {
+                insert.close();
+                insert = null;
+            }
+        }
+    }
+}
\ No newline at end of file
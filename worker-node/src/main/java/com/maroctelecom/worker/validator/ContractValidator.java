@@ -46,6 +46,15 @@ public class ContractValidator {
      * Valide un contrat et retourne la liste des erreurs
      */
     public List<ErrorInfo> validate(Contract contract, Long lineNumber) {
+        return validate(contract, lineNumber, null);
+    }
+    
+    /**
+     * Valide un contrat en mesurant chaque groupe de règles
+     *
+     * @param ruleTimer reçoit la durée de chaque groupe de règles, null pour ne rien mesurer
+     */
+    public List<ErrorInfo> validate(Contract contract, Long lineNumber, RuleTimer ruleTimer) {
         List<ErrorInfo> errors = new ArrayList<>();
         
         if (contract == null) {
@@ -54,17 +63,23 @@ public class ContractValidator {
             return errors;
         }
         
+        long start = ruleTimer != null ? System.nanoTime() : 0L;
+        
         // Validation des champs obligatoires
         validateMandatoryFields(contract, errors, lineNumber);
+        start = record(ruleTimer, "mandatory-fields", start);
         
         // Validation du format des champs
         validateFieldFormats(contract, errors, lineNumber);
+        start = record(ruleTimer, "field-formats", start);
         
         // Validation de la logique métier
         validateBusinessRules(contract, errors, lineNumber);
+        start = record(ruleTimer, "business-rules", start);
         
         // Validation des contraintes de données
         validateDataConstraints(contract, errors, lineNumber);
+        record(ruleTimer, "data-constraints", start);
         
         if (!errors.isEmpty()) {
             log.debug("Validation échouée pour le contrat {}: {} erreurs", 
@@ -74,6 +89,18 @@ public class ContractValidator {
         return errors;
     }
     
+    /**
+     * Enregistre la durée d'un groupe de règles et retourne le début du suivant
+     */
+    private static long record(RuleTimer ruleTimer, String rule, long start) {
+        if (ruleTimer == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        ruleTimer.record(rule, now - start);
+        return now;
+    }
+    
     /**
      * Valide les champs obligatoires
      */
@@ -291,4 +318,12 @@ public class ContractValidator {
     private boolean isCriticalField(String fieldName) {
         return List.of("contractId", "clientId", "amount", "contractType", "status").contains(fieldName);
     }
+    
+    /**
+     * Réception de la durée de chaque groupe de règles
+     */
+    @FunctionalInterface
+    public interface RuleTimer {
+        void record(String rule, long nanos);
+    }
 }
\ No newline at end of file
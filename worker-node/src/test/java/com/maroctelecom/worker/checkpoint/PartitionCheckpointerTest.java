@@ -0,0 +1,161 @@
+package com.maroctelecom.worker.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maroctelecom.common.dto.ErrorInfo;
+import com.maroctelecom.common.dto.PartitionCheckpointDTO;
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.dto.TaskResultDTO;
+import com.maroctelecom.common.model.Contract;
+import com.maroctelecom.worker.processor.PartitionAggregates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reprise d'une tâche relivrée depuis son checkpoint local: les agrégats restaurés puis complétés
+ * sont ceux d'un traitement sans interruption, montant total exact compris
+ */
+class PartitionCheckpointerTest {
+    
+    private static final long START_LINE = 1;
+    private static final long END_LINE = 150_000;
+    private static final long EVERY_ROWS = 50_000;
+    private static final long CRASH_LINE = 125_000;
+    
+    @TempDir
+    Path directory;
+    
+    private PartitionCheckpointer checkpointer;
+    private PartitionTaskDTO task;
+    
+    @BeforeEach
+    void setUp() {
+        LocalCheckpointStore store = new LocalCheckpointStore(new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(store, "tempDirectory", directory.toString());
+        
+        checkpointer = new PartitionCheckpointer(store);
+        ReflectionTestUtils.setField(checkpointer, "enabled", true);
+        ReflectionTestUtils.setField(checkpointer, "everyRows", EVERY_ROWS);
+        ReflectionTestUtils.setField(checkpointer, "intervalMs", 3_600_000L);
+        
+        task = PartitionTaskDTO.builder()
+            .taskId("task-resume")
+            .jobExecutionId(5L)
+            .partitionId(0)
+            .startLine(START_LINE)
+            .endLine(END_LINE)
+            .build();
+    }
+    
+    @Test
+    void redeliveredTaskResumesWithTheCheckpointedAggregates() {
+        // Premier essai interrompu après la ligne 125000: dernier checkpoint à la ligne 100000
+        assertTrue(checkpointer.findResumePoint(task).isEmpty());
+        process(new PartitionAggregates(error -> { }), checkpointer.start(task, "worker-1"), START_LINE, CRASH_LINE);
+        
+        // Relivraison: reprise depuis le checkpoint
+        Optional<PartitionCheckpointDTO> resumePoint = checkpointer.findResumePoint(task);
+        assertTrue(resumePoint.isPresent());
+        PartitionCheckpointDTO checkpoint = resumePoint.get();
+        assertEquals(2 * EVERY_ROWS, checkpoint.getLastProcessedLine());
+        assertEquals("worker-1", checkpoint.getWorkerId());
+        
+        // Un total de 17 chiffres significatifs ne survit pas à un passage par un double
+        BigDecimal checkpointedTotal = expectedTotal(checkpoint.getLastProcessedLine());
+        assertEquals(checkpointedTotal, checkpoint.getTotalAmount());
+        assertNotEquals(checkpointedTotal, BigDecimal.valueOf(checkpointedTotal.doubleValue()));
+        
+        PartitionAggregates resumed = new PartitionAggregates(error -> { });
+        resumed.restore(checkpoint);
+        assertEquals(checkpointedTotal, resumed.getTotalAmount());
+        assertEquals(checkpoint.getLastProcessedLine(), resumed.getTotalLinesProcessed());
+        process(resumed, checkpointer.start(task, "worker-2"), checkpoint.getLastProcessedLine() + 1, END_LINE);
+        
+        PartitionAggregates uninterrupted = new PartitionAggregates(error -> { });
+        process(uninterrupted, null, START_LINE, END_LINE);
+        
+        assertEquals(expectedTotal(END_LINE), resumed.getTotalAmount());
+        assertEquals(uninterrupted.getTotalAmount(), resumed.getTotalAmount());
+        assertEquals(uninterrupted.getTotalLinesProcessed(), resumed.getTotalLinesProcessed());
+        assertEquals(uninterrupted.getSuccessfulContracts(), resumed.getSuccessfulContracts());
+        assertEquals(uninterrupted.getSkippedContracts(), resumed.getSkippedContracts());
+        assertEquals(uninterrupted.getFailedContracts(), resumed.getFailedContracts());
+        assertEquals(uninterrupted.getUniqueClientsCount(), resumed.getUniqueClientsCount());
+        assertEquals(uninterrupted.getErrorCountsByType(), resumed.getErrorCountsByType());
+        assertEquals(counts(uninterrupted.getContractTypeStats()), counts(resumed.getContractTypeStats()));
+        
+        // Résultat publié: le checkpoint est supprimé
+        checkpointer.clear(task.getTaskId());
+        assertTrue(checkpointer.findResumePoint(task).isEmpty());
+    }
+    
+    @Test
+    void checkpointOutsideTheTaskRangeIsIgnored() {
+        process(new PartitionAggregates(error -> { }), checkpointer.start(task, "worker-1"), START_LINE, CRASH_LINE);
+        
+        // Checkpoint à la ligne 100000
+        assertTrue(checkpointer.findResumePoint(task.toBuilder().startLine(90_000L).build()).isPresent());
+        assertTrue(checkpointer.findResumePoint(task.toBuilder().startLine(100_001L).build()).isEmpty());
+        assertTrue(checkpointer.findResumePoint(task.toBuilder().endLine(99_999L).build()).isEmpty());
+    }
+    
+    /**
+     * Boucle de traitement de ContractProcessor: une ligne sur dix est ignorée, les autres acceptées
+     */
+    private static void process(PartitionAggregates aggregates, PartitionCheckpointer.Session checkpoints,
+                                long firstLine, long lastLine) {
+        for (long line = firstLine; line <= lastLine; line++) {
+            aggregates.lineRead();
+            if (line % 10 == 0) {
+                aggregates.contractSkipped(List.of(ErrorInfo.builder()
+                    .errorType(ErrorInfo.ErrorType.VALIDATION_ERROR)
+                    .lineNumber(line)
+                    .build()));
+            } else {
+                aggregates.contractAccepted(Contract.builder()
+                    .contractId("CTR" + line)
+                    .clientId("CLI" + line)
+                    .contractType(line % 3 == 0 ? Contract.ContractType.FIBRE : Contract.ContractType.MOBILE)
+                    .amount(amount(line))
+                    .build());
+            }
+            if (checkpoints != null) {
+                checkpoints.onLineProcessed(aggregates, line);
+            }
+        }
+    }
+    
+    /**
+     * Montants proches du maximum autorisé: le total dépasse la précision d'un double
+     */
+    private static BigDecimal amount(long line) {
+        return new BigDecimal("9999999999.99").subtract(BigDecimal.valueOf(line % 97, 2));
+    }
+    
+    private static BigDecimal expectedTotal(long lastLine) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (long line = START_LINE; line <= lastLine; line++) {
+            if (line % 10 != 0) {
+                total = total.add(amount(line));
+            }
+        }
+        return total;
+    }
+    
+    private static Map<String, Long> counts(Map<String, TaskResultDTO.ContractTypeStats> stats) {
+        return Map.of(
+            "MOBILE", stats.get("MOBILE").getCount(),
+            "FIBRE", stats.get("FIBRE").getCount());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+package com.maroctelecom.worker.service;
+
+import com.maroctelecom.common.config.KafkaConfig;
+import com.maroctelecom.common.transport.PriorityLane;
+import com.maroctelecom.worker.listener.PartitionTaskListener;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registre des tâches en cours: validation du préfixe sans trou, relecture des offsets abandonnés,
+ * pause des voies NORMAL et BULK au-delà de max-tasks et oubli des offsets d'une partition retirée
+ */
+class InFlightTaskRegistryTest {
+    
+    private final KafkaConfig kafkaConfig = new KafkaConfig();
+    private final TopicPartition normal = new TopicPartition(kafkaConfig.getTopics().getContractPartitions(), 0);
+    private final TopicPartition urgent = new TopicPartition(kafkaConfig.getTopics().getContractPartitionsUrgent(), 0);
+    private final TopicPartition bulk = new TopicPartition(kafkaConfig.getTopics().getContractPartitionsBulk(), 0);
+    
+    private MessageListenerContainer container;
+    private InFlightTaskRegistry registry;
+    private RecordingSeekCallback seekCallback;
+    private List<Long> acknowledged;
+    
+    @BeforeEach
+    void setUp() {
+        container = mock(MessageListenerContainer.class);
+        when(container.getAssignedPartitions()).thenReturn(List.of(urgent, normal, bulk));
+        KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+        when(listenerRegistry.getListenerContainer(PartitionTaskListener.LISTENER_ID)).thenReturn(container);
+        
+        registry = new InFlightTaskRegistry(listenerRegistry, kafkaConfig);
+        ReflectionTestUtils.setField(registry, "maxTasks", 3);
+        ReflectionTestUtils.setField(registry, "resumeTasks", 1);
+        ReflectionTestUtils.setField(registry, "pausedLanes", EnumSet.of(PriorityLane.NORMAL, PriorityLane.BULK));
+        
+        seekCallback = new RecordingSeekCallback();
+        registry.registerSeekCallback(List.of(urgent, normal, bulk), seekCallback);
+        acknowledged = new ArrayList<>();
+    }
+    
+    @Test
+    void outOfOrderCompletionAcknowledgesOnlyTheGapFreePrefix() {
+        InFlightTaskRegistry.InFlightTask first = register(normal, 10);
+        InFlightTaskRegistry.InFlightTask second = register(normal, 11);
+        InFlightTaskRegistry.InFlightTask third = register(normal, 12);
+        
+        third.completeAndAcknowledge();
+        second.completeAndAcknowledge();
+        assertEquals(List.of(), acknowledged, "Aucun acquittement tant que l'offset 10 est en cours");
+        
+        // Acquitter le dernier offset du préfixe valide les précédents
+        first.completeAndAcknowledge();
+        assertEquals(List.of(12L), acknowledged);
+        assertEquals(0, registry.getInFlightTasks());
+    }
+    
+    @Test
+    void transactionReceivesTheGapFreeCommitOffset() {
+        InFlightTaskRegistry.InFlightTask first = register(urgent, 20);
+        InFlightTaskRegistry.InFlightTask second = register(urgent, 21);
+        InFlightTaskRegistry.InFlightTask third = register(urgent, 22);
+        List<Long> commitOffsets = new ArrayList<>();
+        
+        second.completeTransactionally(commitOffsets::add);
+        
+        // Transaction annulée: la tâche reste en cours et ne compte pas dans l'offset suivant
+        assertThrows(IllegalStateException.class, () -> third.completeTransactionally(offset -> {
+            throw new IllegalStateException("transaction annulée");
+        }));
+        assertEquals(2, registry.getInFlightTasks());
+        
+        first.completeTransactionally(commitOffsets::add);
+        third.completeTransactionally(commitOffsets::add);
+        
+        List<Long> expected = new ArrayList<>();
+        expected.add(null);
+        expected.add(22L);
+        expected.add(23L);
+        assertEquals(expected, commitOffsets, "Offset joint à chaque transaction");
+        assertEquals(List.of(), acknowledged, "Les validations transactionnelles n'acquittent pas");
+    }
+    
+    @Test
+    void rewindKeepsTheLowestOffsetUntilRedelivery() {
+        InFlightTaskRegistry.InFlightTask first = register(normal, 5);
+        InFlightTaskRegistry.InFlightTask second = register(normal, 6);
+        InFlightTaskRegistry.InFlightTask third = register(normal, 7);
+        
+        third.abandon();
+        first.abandon();
+        // Une relecture demandée après celle de l'offset 5 ne le saute pas
+        second.abandon();
+        assertEquals(List.of(7L, 5L, 5L), seekCallback.seeks);
+        
+        // Relivraison de l'offset 5: la relecture suivante repart de l'offset abandonné
+        InFlightTaskRegistry.InFlightTask redelivered = register(normal, 5);
+        register(normal, 6).abandon();
+        assertEquals(List.of(7L, 5L, 5L, 6L), seekCallback.seeks);
+        
+        // L'offset 6 abandonné bloque la validation des offsets suivants
+        redelivered.completeAndAcknowledge();
+        assertEquals(List.of(5L), acknowledged);
+    }
+    
+    @Test
+    void pausesNormalAndBulkLanesAtMaxTasksAndResumesAtResumeTasks() {
+        InFlightTaskRegistry.InFlightTask first = register(normal, 1);
+        InFlightTaskRegistry.InFlightTask second = register(bulk, 1);
+        verify(container, never()).pausePartition(any());
+        
+        InFlightTaskRegistry.InFlightTask third = register(urgent, 1);
+        verify(container).pausePartition(normal);
+        verify(container).pausePartition(bulk);
+        verify(container, never()).pausePartition(urgent);
+        
+        // Partition assignée pendant la pause: mise en pause si sa voie l'est
+        TopicPartition newBulk = new TopicPartition(bulk.topic(), 1);
+        TopicPartition newUrgent = new TopicPartition(urgent.topic(), 1);
+        registry.onPartitionsAssigned(null, List.of(newBulk, newUrgent));
+        verify(container).pausePartition(newBulk);
+        verify(container, never()).pausePartition(newUrgent);
+        
+        register(urgent, 2).completeAndAcknowledge();
+        third.completeAndAcknowledge();
+        verify(container, never()).resumePartition(any());
+        
+        first.completeAndAcknowledge();
+        verify(container).resumePartition(normal);
+        verify(container).resumePartition(bulk);
+        verify(container).resumePartition(newBulk);
+        verify(container, never()).resumePartition(urgent);
+        
+        // Pas de nouvelle pause avant max-tasks
+        second.completeAndAcknowledge();
+        register(normal, 2);
+        verify(container, times(1)).pausePartition(normal);
+    }
+    
+    @Test
+    void revocationDropsPendingOffsets() {
+        InFlightTaskRegistry.InFlightTask first = register(normal, 30);
+        InFlightTaskRegistry.InFlightTask second = register(normal, 31);
+        InFlightTaskRegistry.InFlightTask third = register(normal, 32);
+        
+        registry.onPartitionsRevokedBeforeCommit(null, List.of(normal));
+        
+        first.completeAndAcknowledge();
+        List<Long> commitOffsets = new ArrayList<>();
+        second.completeTransactionally(commitOffsets::add);
+        third.abandon();
+        
+        assertEquals(List.of(), acknowledged, "Une partition retirée n'est plus acquittée");
+        assertEquals(1, commitOffsets.size());
+        assertNull(commitOffsets.get(0), "Aucun offset joint pour une partition retirée");
+        assertEquals(List.of(), seekCallback.seeks, "Le nouveau propriétaire relit la partition");
+        assertEquals(0, registry.getInFlightTasks());
+        
+        // Partition réassignée: ses offsets repartent de zéro
+        register(normal, 31).completeAndAcknowledge();
+        assertTrue(acknowledged.contains(31L));
+    }
+    
+    private InFlightTaskRegistry.InFlightTask register(TopicPartition topicPartition, long offset) {
+        Acknowledgment acknowledgment = () -> acknowledged.add(offset);
+        return registry.register(topicPartition, offset, acknowledgment);
+    }
+    
+    /**
+     * Rappel de repositionnement qui mémorise les offsets demandés
+     */
+    private static final class RecordingSeekCallback implements ConsumerSeekAware.ConsumerSeekCallback {
+        
+        private final List<Long> seeks = new ArrayList<>();
+        
+        @Override
+        public void seek(String topic, int partition, long offset) {
+            seeks.add(offset);
+        }
+        
+        @Override
+        public void seekToBeginning(String topic, int partition) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void seekToEnd(String topic, int partition) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void seekRelative(String topic, int partition, long offset, boolean toCurrent) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void seekToTimestamp(String topic, int partition, long timestamp) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void seekToTimestamp(Collection<TopicPartition> topicPartitions, long timestamp) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
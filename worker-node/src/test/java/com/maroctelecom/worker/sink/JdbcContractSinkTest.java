@@ -0,0 +1,198 @@
+package com.maroctelecom.worker.sink;
+
+import com.maroctelecom.common.dto.PartitionTaskDTO;
+import com.maroctelecom.common.model.Contract;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sortie JDBC sur une base H2 en mémoire: lots insérés, annulation d'une partition abandonnée,
+ * remplacement de la plage d'une partition relivrée et file d'écriture découplant le thread de traitement
+ */
+class JdbcContractSinkTest {
+    
+    private static final long JOB_EXECUTION_ID = 7L;
+    private static final int ROWS_PER_STATEMENT = 10;
+    private static final int BATCH_ROWS = 50;
+    private static final int QUEUE_BATCHES = 4;
+    
+    private String url;
+    private JdbcContractSink sink;
+    
+    @BeforeEach
+    void setUp() {
+        url = "jdbc:h2:mem:sink-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        sink = newSink(BATCH_ROWS);
+    }
+    
+    @AfterEach
+    void tearDown() throws SQLException {
+        sink.destroy();
+        execute("SHUTDOWN");
+    }
+    
+    @Test
+    void batchedInsertWritesEveryAcceptedContract() throws SQLException {
+        PartitionTaskDTO task = task(0, 1, 1000);
+        long accepted = 0;
+        try (ContractSink.Session session = sink.open(task, 1)) {
+            for (long line = 1; line <= 1000; line++) {
+                // Une ligne sur sept est rejetée: le dernier INSERT est incomplet
+                if (line % 7 != 0) {
+                    session.accept(contract(line), line);
+                    accepted++;
+                }
+            }
+            assertNull(session.commit(1000));
+        }
+        
+        assertEquals(accepted, count("1 = 1"));
+        assertEquals(0, count("MOD(line_number, 7) = 0"));
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery("SELECT * FROM contracts WHERE line_number = 123")) {
+            assertTrue(row.next());
+            assertEquals("CTR123", row.getString("contract_id"));
+            assertEquals(0, new BigDecimal("123.45").compareTo(row.getBigDecimal("amount")));
+            assertEquals(LocalDate.of(2024, 1, 1), row.getObject("creation_date", LocalDate.class));
+            assertEquals(0, row.getInt("partition_id"));
+        }
+    }
+    
+    @Test
+    void abortedSessionRollsBack() throws SQLException {
+        PartitionTaskDTO task = task(0, 1, 100);
+        writePartition(task, 1, 100, 1);
+        
+        // Une relivraison abandonnée ne supprime ni ne remplace les lignes validées
+        try (ContractSink.Session session = sink.open(task, 1)) {
+            for (long line = 1; line <= 3 * BATCH_ROWS; line++) {
+                session.accept(contract(line), line);
+            }
+        }
+        
+        assertEquals(100, count("1 = 1"));
+        assertEquals(0, count("line_number > 100"));
+    }
+    
+    @Test
+    void redeliveryReplacesItsLineRange() throws SQLException {
+        PartitionTaskDTO first = task(0, 1, 100);
+        PartitionTaskDTO second = task(1, 101, 200);
+        writePartition(first, 1, 100, 1);
+        writePartition(second, 101, 200, 1);
+        
+        // Relivraison de la partition 0 où seules les lignes paires sont acceptées
+        writePartition(first, 1, 100, 2);
+        assertEquals(50, count("partition_id = 0"));
+        assertEquals(0, count("partition_id = 0 AND MOD(line_number, 2) = 1"));
+        
+        // Reste replanifié à partir de la ligne 41: les lignes précédentes sont conservées
+        writePartition(first, 41, 100, 1);
+        assertEquals(20 + 60, count("partition_id = 0"));
+        
+        assertEquals(100, count("partition_id = 1"));
+    }
+    
+    @Test
+    void writerQueueKeepsProcessingThreadRunning() throws SQLException {
+        sink.destroy();
+        sink = newSink(ROWS_PER_STATEMENT);
+        
+        // Base lente: 10ms par ligne insérée, soit 100ms par lot
+        execute("CREATE ALIAS PAUSE FOR 'java.lang.Thread.sleep(long)'");
+        execute("ALTER TABLE contracts ADD CONSTRAINT slow_insert CHECK (PAUSE(10) IS NULL)");
+        
+        PartitionTaskDTO task = task(0, 1, 1000);
+        int rows = QUEUE_BATCHES * ROWS_PER_STATEMENT;
+        try (ContractSink.Session session = sink.open(task, 1)) {
+            long start = System.nanoTime();
+            for (long line = 1; line <= rows; line++) {
+                session.accept(contract(line), line);
+            }
+            long acceptMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            session.commit(rows);
+            long commitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            // Les lots en file sont écrits pendant que le thread de traitement continue
+            assertTrue(acceptMillis < 200, "Thread de traitement bloqué " + acceptMillis + "ms");
+            assertTrue(commitMillis >= QUEUE_BATCHES * 100L - 50, "Base trop rapide: " + commitMillis + "ms");
+        }
+        assertEquals(rows, count("1 = 1"));
+    }
+    
+    private JdbcContractSink newSink(int batchRows) {
+        return new JdbcContractSink(url, "sa", "", "contracts", true, ROWS_PER_STATEMENT, batchRows,
+                QUEUE_BATCHES, 2, 30_000, 0);
+    }
+    
+    /**
+     * Écrit et valide les lignes firstLine..lastLine multiples de step
+     */
+    private void writePartition(PartitionTaskDTO task, long firstLine, long lastLine, int step) {
+        try (ContractSink.Session session = sink.open(task, firstLine)) {
+            for (long line = firstLine; line <= lastLine; line++) {
+                if (line % step == 0) {
+                    session.accept(contract(line), line);
+                }
+            }
+            session.commit(lastLine);
+        }
+    }
+    
+    private static PartitionTaskDTO task(int partitionId, long startLine, long endLine) {
+        return PartitionTaskDTO.builder()
+            .taskId("task-" + partitionId)
+            .jobExecutionId(JOB_EXECUTION_ID)
+            .partitionId(partitionId)
+            .startLine(startLine)
+            .endLine(endLine)
+            .build();
+    }
+    
+    private static Contract contract(long line) {
+        return Contract.builder()
+            .contractId("CTR" + line)
+            .clientId("CLI" + line)
+            .clientName("Client " + line)
+            .contractType(Contract.ContractType.values()[(int) (line % Contract.ContractType.values().length)])
+            .amount(new BigDecimal(line + ".45"))
+            .creationDate(LocalDate.of(2024, 1, 1))
+            .status(Contract.ContractStatus.ACTIVE)
+            .durationMonths(12)
+            .build();
+    }
+    
+    private long count(String condition) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM contracts WHERE " + condition)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+    
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+    
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, "sa", "");
+    }
+}
\ No newline at end of file